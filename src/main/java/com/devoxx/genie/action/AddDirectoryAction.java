@@ -63,11 +63,8 @@ public class AddDirectoryAction extends DumbAwareAction {
 
             ModelProvider selectedProvider = ModelProvider.fromString(settings.getSelectedProvider(project.getLocationHash()));
             String selectedModel = settings.getSelectedLanguageModel(project.getLocationHash());
-            Optional<Integer> contextWindow = LLMModelRegistryService.getInstance().getModels()
-                    .stream()
-                    .filter(model -> model.getProvider().getName().equals(selectedProvider.getName()) &&
-                            model.getModelName().equals(selectedModel))
-                    .findFirst()
+            Optional<Integer> contextWindow = Optional.ofNullable(selectedModel)
+                    .flatMap(modelName -> LLMModelRegistryService.getInstance().findModel(selectedProvider, modelName))
                     .map(LanguageModel::getInputMaxTokens);
 
             ProjectContentService.getInstance()
@@ -0,0 +1,151 @@
+package com.devoxx.genie.chatmodel;
+
+import com.devoxx.genie.model.ChatModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import com.devoxx.genie.ui.listener.LLMSettingsChangeListener;
+import com.devoxx.genie.ui.topic.AppTopics;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import dev.langchain4j.http.client.jdk.JdkHttpClient;
+import dev.langchain4j.http.client.jdk.JdkHttpClientBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.http.HttpClient;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Application wide cache of the chat model clients.
+ * <p>
+ * Every client owns its HTTP client and connection pool, building one per prompt throws away the
+ * connections and TLS sessions of the previous prompt. Clients are reused for prompts with the same
+ * provider, endpoint, model and parameters, and are all dropped when the LLM settings change, e.g. a
+ * new API key.
+ * <p>
+ * The OpenAI compatible clients of an endpoint share one HTTP client, see
+ * {@link #getHttpClientBuilder(String, HttpClient.Version)}, so clients with other parameters reuse the same
+ * connections. The HTTP clients are kept when the settings change.
+ */
+@Slf4j
+public final class ChatModelClientCache implements LLMSettingsChangeListener, Disposable {
+
+    // Enough for switching between a few models and providers, the least recently used client is dropped
+    static final int MAX_CLIENTS = 16;
+
+    /**
+     * Everything which is used to build a client, besides the provider settings.
+     */
+    public record ClientKey(@NotNull ModelProvider provider,
+                            boolean streaming,
+                            @Nullable String baseUrl,
+                            @Nullable String modelName,
+                            double temperature,
+                            double topP,
+                            int maxTokens,
+                            int maxRetries,
+                            int timeout,
+                            boolean listeners) {
+
+        public static @NotNull ClientKey of(@NotNull ModelProvider provider,
+                                            boolean streaming,
+                                            @NotNull ChatModel chatModel,
+                                            boolean listeners) {
+            return new ClientKey(provider,
+                    streaming,
+                    chatModel.getBaseUrl(),
+                    chatModel.getModelName(),
+                    chatModel.getTemperature(),
+                    chatModel.getTopP(),
+                    chatModel.getMaxTokens(),
+                    chatModel.getMaxRetries(),
+                    chatModel.getTimeout(),
+                    listeners);
+        }
+    }
+
+    private final Map<ClientKey, Object> clients = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ClientKey, Object> eldest) {
+            return size() > MAX_CLIENTS;
+        }
+    };
+
+    private final Map<String, SharedHttpClientBuilder> httpClients = new ConcurrentHashMap<>();
+
+    public static ChatModelClientCache getInstance() {
+        return ApplicationManager.getApplication().getService(ChatModelClientCache.class);
+    }
+
+    public ChatModelClientCache() {
+        this(true);
+    }
+
+    ChatModelClientCache(boolean subscribe) {
+        if (subscribe) {
+            ApplicationManager.getApplication().getMessageBus()
+                    .connect(this)
+                    .subscribe(AppTopics.LLM_SETTINGS_CHANGED_TOPIC, this);
+        }
+    }
+
+    /**
+     * @param key     the client key
+     * @param factory creates the client when it is not cached, may return null
+     * @return the cached or created client, null when the factory returns null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T getClient(@NotNull ClientKey key, @NotNull Supplier<T> factory) {
+        synchronized (clients) {
+            Object client = clients.get(key);
+            if (client == null) {
+                client = factory.get();
+                if (client != null) {
+                    log.debug("Created {} client for {}", key.provider(), key.modelName());
+                    clients.put(key, client);
+                }
+            }
+            return (T) client;
+        }
+    }
+
+    /**
+     * A new builder for every chat model, langchain4j sets the timeouts of the chat model on it, backed by
+     * the HTTP client shared by the endpoint.
+     *
+     * @param baseUrl the endpoint
+     * @param version the HTTP version, some local providers only support HTTP/1.1
+     * @return the HTTP client builder to pass to the chat model builder
+     */
+    public @NotNull JdkHttpClientBuilder getHttpClientBuilder(@NotNull String baseUrl, @NotNull HttpClient.Version version) {
+        SharedHttpClientBuilder shared = httpClients.computeIfAbsent(version + " " + baseUrl,
+                key -> new SharedHttpClientBuilder(HttpClient.newBuilder().version(version)));
+        return JdkHttpClient.builder().httpClientBuilder(shared);
+    }
+
+    public void invalidate() {
+        synchronized (clients) {
+            clients.clear();
+        }
+    }
+
+    int size() {
+        synchronized (clients) {
+            return clients.size();
+        }
+    }
+
+    @Override
+    public void llmSettingsChanged() {
+        log.debug("LLM settings changed, dropping cached chat model clients");
+        invalidate();
+    }
+
+    @Override
+    public void dispose() {
+        invalidate();
+    }
+}
@@ -7,10 +7,12 @@ import com.devoxx.genie.service.LLMModelRegistryService;
 import com.devoxx.genie.service.LLMProviderService;
 import com.devoxx.genie.service.mcp.MCPListenerService;
 import com.devoxx.genie.service.mcp.MCPService;
+import dev.langchain4j.http.client.jdk.JdkHttpClientBuilder;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.chat.listener.ChatModelListener;
 
+import java.net.http.HttpClient;
 import java.util.List;
 
 public interface ChatModelFactory {
@@ -41,10 +43,7 @@ public interface ChatModelFactory {
      * @return the list of models
      */
     default List<LanguageModel> getModels(ModelProvider provider) {
-        return LLMModelRegistryService.getInstance().getModels()
-            .stream()
-            .filter(model -> model.getProvider().equals(provider))
-            .toList();
+        return LLMModelRegistryService.getInstance().getModels(provider);
     }
 
     /**
@@ -63,6 +62,14 @@ public interface ChatModelFactory {
      */
     default void resetModels() {}
 
+    /**
+     * @param baseUrl the endpoint of the chat model
+     * @return a builder of the HTTP client shared by all chat models of the endpoint
+     */
+    default JdkHttpClientBuilder getHttpClientBuilder(String baseUrl) {
+        return ChatModelClientCache.getInstance().getHttpClientBuilder(baseUrl, HttpClient.Version.HTTP_2);
+    }
+
     default List<ChatModelListener> getListener() {
         if (MCPService.isMCPEnabled()) {
             return List.of(new MCPListenerService());
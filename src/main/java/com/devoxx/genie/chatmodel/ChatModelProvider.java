@@ -6,6 +6,7 @@ import com.devoxx.genie.model.LanguageModel;
 import com.devoxx.genie.model.enumarations.ModelProvider;
 import com.devoxx.genie.model.request.ChatMessageContext;
 import com.devoxx.genie.service.DevoxxGenieSettingsService;
+import com.devoxx.genie.service.mcp.MCPService;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
@@ -23,19 +24,29 @@ public class ChatModelProvider {
 
     public ChatLanguageModel getChatLanguageModel(@NotNull ChatMessageContext chatMessageContext) {
         ChatModel chatModel = initChatModel(chatMessageContext);
-        return getFactory(chatMessageContext).createChatModel(chatModel);
+        ModelProvider provider = getProvider(chatMessageContext);
+        ChatModelFactory factory = getFactory(provider);
+        return ChatModelClientCache.getInstance().getClient(
+            ChatModelClientCache.ClientKey.of(provider, false, chatModel, MCPService.isMCPEnabled()),
+            () -> factory.createChatModel(chatModel));
     }
 
     public StreamingChatLanguageModel getStreamingChatLanguageModel(@NotNull ChatMessageContext chatMessageContext) {
         ChatModel chatModel = initChatModel(chatMessageContext);
-        return getFactory(chatMessageContext).createStreamingChatModel(chatModel);
+        ModelProvider provider = getProvider(chatMessageContext);
+        ChatModelFactory factory = getFactory(provider);
+        return ChatModelClientCache.getInstance().getClient(
+            ChatModelClientCache.ClientKey.of(provider, true, chatModel, MCPService.isMCPEnabled()),
+            () -> factory.createStreamingChatModel(chatModel));
     }
 
-    private @NotNull ChatModelFactory getFactory(@NotNull ChatMessageContext chatMessageContext) {
-        ModelProvider provider = Optional.ofNullable(chatMessageContext.getLanguageModel())
+    private static @NotNull ModelProvider getProvider(@NotNull ChatMessageContext chatMessageContext) {
+        return Optional.ofNullable(chatMessageContext.getLanguageModel())
             .map(LanguageModel::getProvider)
             .orElse(DEFAULT_PROVIDER);
+    }
 
+    private static @NotNull ChatModelFactory getFactory(@NotNull ModelProvider provider) {
         return ChatModelFactoryProvider.getFactoryByProvider(provider.name())
             .orElseThrow(() -> new IllegalArgumentException("No factory for provider: " + provider));
     }
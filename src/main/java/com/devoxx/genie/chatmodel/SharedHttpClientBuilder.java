@@ -0,0 +1,98 @@
+package com.devoxx.genie.chatmodel;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link HttpClient.Builder} which builds its client once and then keeps returning it.
+ * <p>
+ * langchain4j builds a new {@link HttpClient}, with its own connection pool, for every chat model.
+ * Handing the chat models of an endpoint this builder lets them share one client and its connections.
+ * The settings are those of the first build, later changes, e.g. another connect timeout, are ignored.
+ * The read timeout is set per request and still applies per chat model.
+ */
+final class SharedHttpClientBuilder implements HttpClient.Builder {
+
+    private final HttpClient.Builder delegate;
+    private HttpClient client;
+
+    SharedHttpClientBuilder(@NotNull HttpClient.Builder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder cookieHandler(CookieHandler cookieHandler) {
+        delegate.cookieHandler(cookieHandler);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder connectTimeout(Duration duration) {
+        delegate.connectTimeout(duration);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder sslContext(SSLContext sslContext) {
+        delegate.sslContext(sslContext);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder sslParameters(SSLParameters sslParameters) {
+        delegate.sslParameters(sslParameters);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder executor(Executor executor) {
+        delegate.executor(executor);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder followRedirects(HttpClient.Redirect policy) {
+        delegate.followRedirects(policy);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder version(HttpClient.Version version) {
+        delegate.version(version);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder priority(int priority) {
+        delegate.priority(priority);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder proxy(ProxySelector proxySelector) {
+        delegate.proxy(proxySelector);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient.Builder authenticator(Authenticator authenticator) {
+        delegate.authenticator(authenticator);
+        return this;
+    }
+
+    @Override
+    public synchronized HttpClient build() {
+        if (client == null) {
+            client = delegate.build();
+        }
+        return client;
+    }
+}
@@ -31,6 +31,7 @@ public class AnthropicChatModelFactory implements ChatModelFactory {
             .topP(chatModel.getTopP())
             .maxTokens(chatModel.getMaxTokens())
             .maxRetries(chatModel.getMaxRetries())
+            .cacheSystemMessages(true)
             .listeners(getListener())
             .build();
     }
@@ -43,6 +44,7 @@ public class AnthropicChatModelFactory implements ChatModelFactory {
             .temperature(chatModel.getTemperature())
             .topP(chatModel.getTopP())
             .maxTokens(chatModel.getMaxTokens())
+            .cacheSystemMessages(true)
             .listeners(getListener())
             .build();
     }
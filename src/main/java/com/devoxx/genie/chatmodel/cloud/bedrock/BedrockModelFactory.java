@@ -15,8 +15,10 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.bedrock.model.ModelModality;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * This factory supports creating models from different providers available on AWS Bedrock.
@@ -164,6 +166,33 @@ public class BedrockModelFactory implements ChatModelFactory {
         return getModels(ModelProvider.Bedrock);
     }
 
+    /**
+     * Fetch the on-demand text models of the configured region which this factory can create.
+     * Bedrock doesn't report prices or context windows, the models use the default window context.
+     *
+     * @return the available models
+     */
+    public @NotNull List<LanguageModel> fetchAvailableModels() {
+        int contextWindow = DevoxxGenieStateService.getInstance().getDefaultWindowContext();
+        return BedrockService.getInstance().getModels().stream()
+                .filter(summary -> summary.outputModalities().contains(ModelModality.TEXT))
+                .filter(summary -> isSupportedModel(summary.modelId()))
+                .map(summary -> LanguageModel.builder()
+                        .provider(ModelProvider.Bedrock)
+                        .modelName(summary.modelId())
+                        .displayName(summary.providerName() + " - " + summary.modelName())
+                        .inputMaxTokens(contextWindow)
+                        .build())
+                .toList();
+    }
+
+    private static boolean isSupportedModel(@NotNull String modelId) {
+        String modelName = modelId.toLowerCase();
+        return Stream.of(MODEL_PREFIX_ANTHROPIC, MODEL_PREFIX_MISTRAL, MODEL_PREFIX_COHERE,
+                        MODEL_PREFIX_META, MODEL_PREFIX_AI21, MODEL_PREFIX_STABILITY)
+                .anyMatch(modelName::contains);
+    }
+
     /**
      * Creates an {@link AwsCredentialsProvider} using the configured AWS access key and secret key
      * from the {@link DevoxxGenieStateService}.
@@ -15,12 +15,14 @@ import java.util.List;
 
 public class DeepInfraChatModelFactory implements ChatModelFactory {
 
+    private static final String BASE_URL = "https://api.deepinfra.com/v1/openai";
     private final ModelProvider MODEL_PROVIDER = ModelProvider.DeepInfra;;
 
     @Override
     public ChatLanguageModel createChatModel(@NotNull ChatModel chatModel) {
         return OpenAiChatModel.builder()
-            .baseUrl("https://api.deepinfra.com/v1/openai")
+            .baseUrl(BASE_URL)
+            .httpClientBuilder(getHttpClientBuilder(BASE_URL))
             .apiKey(getApiKey(MODEL_PROVIDER))
             .modelName(chatModel.getModelName())
             .maxRetries(chatModel.getMaxRetries())
@@ -35,7 +37,8 @@ public class DeepInfraChatModelFactory implements ChatModelFactory {
     @Override
     public StreamingChatLanguageModel createStreamingChatModel(@NotNull ChatModel chatModel) {
         return OpenAiStreamingChatModel.builder()
-            .baseUrl("https://api.deepinfra.com/v1/openai")
+            .baseUrl(BASE_URL)
+            .httpClientBuilder(getHttpClientBuilder(BASE_URL))
             .apiKey(getApiKey(MODEL_PROVIDER))
             .modelName(chatModel.getModelName())
             .temperature(chatModel.getTemperature())
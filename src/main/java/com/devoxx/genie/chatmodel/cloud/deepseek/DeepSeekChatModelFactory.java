@@ -15,12 +15,14 @@ import java.util.List;
 
 public class DeepSeekChatModelFactory implements ChatModelFactory {
 
+    private static final String BASE_URL = "https://api.deepseek.com/";
     private final ModelProvider MODEL_PROVIDER = ModelProvider.DeepSeek;;
 
     @Override
     public ChatLanguageModel createChatModel(@NotNull ChatModel chatModel) {
         return OpenAiChatModel.builder()
-            .baseUrl("https://api.deepseek.com/")
+            .baseUrl(BASE_URL)
+            .httpClientBuilder(getHttpClientBuilder(BASE_URL))
             .apiKey(getApiKey(MODEL_PROVIDER))
             .modelName(chatModel.getModelName())
             .maxRetries(chatModel.getMaxRetries())
@@ -35,7 +37,8 @@ public class DeepSeekChatModelFactory implements ChatModelFactory {
     @Override
     public StreamingChatLanguageModel createStreamingChatModel(@NotNull ChatModel chatModel) {
         return OpenAiStreamingChatModel.builder()
-            .baseUrl("https://api.deepseek.com/")
+            .baseUrl(BASE_URL)
+            .httpClientBuilder(getHttpClientBuilder(BASE_URL))
             .apiKey(getApiKey(MODEL_PROVIDER))
             .modelName(chatModel.getModelName())
             .maxTokens(4_000)
@@ -14,12 +14,14 @@ import java.util.List;
 
 public class GroqChatModelFactory implements ChatModelFactory {
 
+    private static final String BASE_URL = "https://api.groq.com/openai/v1";
     private final ModelProvider MODEL_PROVIDER = ModelProvider.Groq;
 
     @Override
     public ChatLanguageModel createChatModel(@NotNull ChatModel chatModel) {
         return OpenAiChatModel.builder()
-            .baseUrl("https://api.groq.com/openai/v1")
+            .baseUrl(BASE_URL)
+            .httpClientBuilder(getHttpClientBuilder(BASE_URL))
             .apiKey(getApiKey(MODEL_PROVIDER))
             .modelName(chatModel.getModelName())
             .maxRetries(chatModel.getMaxRetries())
@@ -17,10 +17,13 @@ import java.util.List;
 public class OpenAIChatModelFactory implements ChatModelFactory {
 
     private static final ModelProvider MODEL_PROVIDER = ModelProvider.OpenAI;
+    private static final String BASE_URL = "https://api.openai.com/v1";
 
     @Override
     public ChatLanguageModel createChatModel(@NotNull ChatModel chatModel) {
         return OpenAiChatModel.builder()
+                .baseUrl(BASE_URL)
+                .httpClientBuilder(getHttpClientBuilder(BASE_URL))
                 .apiKey(getApiKey(MODEL_PROVIDER))
                 .modelName(chatModel.getModelName())
                 .defaultRequestParameters(createChatContextParameters(chatModel))
@@ -33,6 +36,8 @@ public class OpenAIChatModelFactory implements ChatModelFactory {
     @Override
     public StreamingChatLanguageModel createStreamingChatModel(@NotNull ChatModel chatModel) {
         return OpenAiStreamingChatModel.builder()
+                .baseUrl(BASE_URL)
+                .httpClientBuilder(getHttpClientBuilder(BASE_URL))
                 .apiKey(getApiKey(MODEL_PROVIDER))
                 .defaultRequestParameters(createChatContextParameters(chatModel))
                 .modelName(chatModel.getModelName())
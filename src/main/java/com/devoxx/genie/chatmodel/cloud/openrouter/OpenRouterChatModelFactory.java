@@ -7,7 +7,6 @@ import com.devoxx.genie.model.enumarations.ModelProvider;
 import com.devoxx.genie.model.openrouter.Data;
 import com.devoxx.genie.ui.util.NotificationUtil;
 import com.intellij.openapi.project.ProjectManager;
-import com.intellij.util.concurrency.AppExecutorUtil;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
@@ -18,12 +17,11 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 public class OpenRouterChatModelFactory implements ChatModelFactory {
 
+    private static final String BASE_URL = "https://openrouter.ai/api/v1/";
     private final ModelProvider MODEL_PROVIDER = ModelProvider.OpenRouter;
 
     private List<LanguageModel> cachedModels = null;
@@ -32,7 +30,8 @@ public class OpenRouterChatModelFactory implements ChatModelFactory {
     @Override
     public ChatLanguageModel createChatModel(@NotNull ChatModel chatModel) {
         return OpenAiChatModel.builder()
-            .baseUrl("https://openrouter.ai/api/v1/")
+            .baseUrl(BASE_URL)
+            .httpClientBuilder(getHttpClientBuilder(BASE_URL))
             .apiKey(getApiKey(MODEL_PROVIDER))
             .modelName(chatModel.getModelName())
             .maxRetries(chatModel.getMaxRetries())
@@ -47,7 +46,8 @@ public class OpenRouterChatModelFactory implements ChatModelFactory {
     @Override
     public StreamingChatLanguageModel createStreamingChatModel(@NotNull ChatModel chatModel) {
         return OpenAiStreamingChatModel.builder()
-            .baseUrl("https://openrouter.ai/api/v1/")
+            .baseUrl(BASE_URL)
+            .httpClientBuilder(getHttpClientBuilder(BASE_URL))
             .apiKey(getApiKey(MODEL_PROVIDER))
             .modelName(chatModel.getModelName())
             .maxTokens(4_000)
@@ -59,7 +59,7 @@ public class OpenRouterChatModelFactory implements ChatModelFactory {
     }
 
     /**
-     * Get the model names from the Jan service.
+     * Get the model names from the OpenRouter service.
      *
      * @return List of model names
      */
@@ -69,35 +69,8 @@ public class OpenRouterChatModelFactory implements ChatModelFactory {
             return cachedModels;
         }
 
-        List<LanguageModel> modelNames = new ArrayList<>();
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
-
         try {
-            List<Data> models = OpenRouterService.getInstance().getModels();
-            for (Data model : models) {
-                CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-                    // Convert scientific notation prices to regular decimals and scale to per million tokens
-                    double inputCost = convertAndScalePrice(model.getPricing().getPrompt());
-                    double outputCost = convertAndScalePrice(model.getPricing().getCompletion());
-
-                    LanguageModel languageModel = LanguageModel.builder()
-                        .provider(MODEL_PROVIDER)
-                        .modelName(model.getId())
-                        .displayName(model.getName())
-                        .inputCost(inputCost)
-                        .outputCost(outputCost)
-                        .inputMaxTokens(model.getContextLength() == null ? model.getTopProvider().getContextLength() : model.getContextLength())
-                        .apiKeyUsed(true)
-                        .build();
-                    synchronized (modelNames) {
-                        modelNames.add(languageModel);
-                    }
-                }, AppExecutorUtil.getAppExecutorService());
-                futures.add(future);
-            }
-
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-            cachedModels = modelNames;
+            cachedModels = fetchModels();
         } catch (IOException e) {
             handleModelFetchError(e);
             cachedModels = List.of();
@@ -105,6 +78,34 @@ public class OpenRouterChatModelFactory implements ChatModelFactory {
         return cachedModels;
     }
 
+    /**
+     * Fetch the models from the OpenRouter service, without caching them.
+     *
+     * @return the models
+     * @throws IOException if OpenRouter can't be reached
+     */
+    public @NotNull List<LanguageModel> fetchModels() throws IOException {
+        return OpenRouterService.getInstance().getModels().stream()
+            .map(this::toLanguageModel)
+            .toList();
+    }
+
+    private @NotNull LanguageModel toLanguageModel(@NotNull Data model) {
+        // Convert scientific notation prices to regular decimals and scale to per million tokens
+        double inputCost = convertAndScalePrice(model.getPricing().getPrompt());
+        double outputCost = convertAndScalePrice(model.getPricing().getCompletion());
+
+        return LanguageModel.builder()
+            .provider(MODEL_PROVIDER)
+            .modelName(model.getId())
+            .displayName(model.getName())
+            .inputCost(inputCost)
+            .outputCost(outputCost)
+            .inputMaxTokens(model.getContextLength() == null ? model.getTopProvider().getContextLength() : model.getContextLength())
+            .apiKeyUsed(true)
+            .build();
+    }
+
     protected void handleModelFetchError(IOException e) {
         NotificationUtil.sendNotification(ProjectManager.getInstance().getDefaultProject(),
                 "Unable to reach OpenRouter, please try again later.");
@@ -1,42 +1,45 @@
 package com.devoxx.genie.chatmodel.local;
 
+import com.devoxx.genie.chatmodel.ChatModelClientCache;
 import com.devoxx.genie.chatmodel.ChatModelFactory;
 import com.devoxx.genie.model.ChatModel;
 import com.devoxx.genie.model.LanguageModel;
 import com.devoxx.genie.model.enumarations.ModelProvider;
+import com.devoxx.genie.service.prompt.threading.StructuredTasks;
+import com.devoxx.genie.service.prompt.threading.ThreadPoolManager;
 import com.devoxx.genie.ui.util.NotificationUtil;
 import com.intellij.openapi.project.ProjectManager;
-import com.intellij.util.concurrency.AppExecutorUtil;
 
-import dev.langchain4j.http.client.jdk.JdkHttpClient;
 import dev.langchain4j.http.client.jdk.JdkHttpClientBuilder;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.http.HttpClient;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 
+@Slf4j
 public abstract class LocalChatModelFactory implements ChatModelFactory {
 
+    private static final long MODEL_DETAILS_TIMEOUT_SECONDS = 30;
+
     protected final ModelProvider modelProvider;
-    public List<LanguageModel> cachedModels = null;
+    public volatile List<LanguageModel> cachedModels = null;
 
     protected static boolean warningShown = false;
-    public boolean providerRunning = false;
-    public boolean providerChecked = false;
+    public volatile boolean providerRunning = false;
+    public volatile boolean providerChecked = false;
 
-    // LMStudio does not support HTTP_2, see https://github.com/langchain4j/langchain4j/issues/2758
-    private final HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
-            .version(HttpClient.Version.HTTP_1_1) ;
-    private final JdkHttpClientBuilder jdkHttpClientBuilder = JdkHttpClient.builder()
-            .httpClientBuilder(httpClientBuilder);
+    // The models by digest, a refresh only fetches the details of new or changed models
+    private final Map<String, LanguageModel> modelsByDigest = new ConcurrentHashMap<>();
 
     protected LocalChatModelFactory(ModelProvider modelProvider) {
         this.modelProvider = modelProvider;
@@ -50,10 +53,16 @@ public abstract class LocalChatModelFactory implements ChatModelFactory {
 
     protected abstract String getModelUrl();
 
+    @Override
+    public JdkHttpClientBuilder getHttpClientBuilder(String baseUrl) {
+        // LMStudio does not support HTTP_2, see https://github.com/langchain4j/langchain4j/issues/2758
+        return ChatModelClientCache.getInstance().getHttpClientBuilder(baseUrl, HttpClient.Version.HTTP_1_1);
+    }
+
     protected ChatLanguageModel createOpenAiChatModel(@NotNull ChatModel chatModel) {
         return OpenAiChatModel.builder()
                 .baseUrl(getModelUrl())
-                .httpClientBuilder(jdkHttpClientBuilder)
+                .httpClientBuilder(getHttpClientBuilder(getModelUrl()))
                 .apiKey("na")
                 .modelName(chatModel.getModelName())
                 .maxRetries(chatModel.getMaxRetries())
@@ -68,7 +77,7 @@ public abstract class LocalChatModelFactory implements ChatModelFactory {
     protected StreamingChatLanguageModel createOpenAiStreamingChatModel(@NotNull ChatModel chatModel) {
         return OpenAiStreamingChatModel.builder()
                 .baseUrl(getModelUrl())
-                .httpClientBuilder(jdkHttpClientBuilder)
+                .httpClientBuilder(getHttpClientBuilder(getModelUrl()))
                 .apiKey("na")
                 .modelName(chatModel.getModelName())
                 .temperature(chatModel.getTemperature())
@@ -91,40 +100,121 @@ public abstract class LocalChatModelFactory implements ChatModelFactory {
         return cachedModels;
     }
 
-    private void checkAndFetchModels() {
-        List<LanguageModel> modelNames = new ArrayList<>();
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
+    private synchronized void checkAndFetchModels() {
+        if (providerChecked) {
+            return;
+        }
         try {
-            Object[] models = fetchModels();
-            for (Object model : models) {
-                CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-                    try {
-                        LanguageModel languageModel = buildLanguageModel(model);
-                        synchronized (modelNames) {
-                            modelNames.add(languageModel);
-                        }
-                    } catch (IOException e) {
-                        handleModelFetchError(e);
-                    }
-                }, AppExecutorUtil.getAppExecutorService());
-                futures.add(future);
-            }
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-            cachedModels = modelNames;
+            cachedModels = fetchLanguageModels(this::handleModelFetchError);
             providerRunning = true;
         } catch (IOException e) {
             handleGeneralFetchError(e);
             cachedModels = List.of();
             providerRunning = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cachedModels = List.of();
+            providerRunning = false;
+        } finally {
+            providerChecked = true;
+        }
+    }
+
+    /**
+     * Check the provider and cache its models without notifying the user, to discover the provider in the background.
+     *
+     * @return true if the provider is running
+     */
+    public synchronized boolean discoverModels() {
+        try {
+            cachedModels = fetchLanguageModels(e ->
+                    log.warn("Failed to fetch the {} model details: {}", modelProvider.getName(), e.getMessage()));
+            providerRunning = true;
+        } catch (IOException e) {
+            log.debug("{} is not running: {}", modelProvider.getName(), e.getMessage());
+            cachedModels = List.of();
+            providerRunning = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cachedModels = List.of();
+            providerRunning = false;
         } finally {
             providerChecked = true;
         }
+        return providerRunning;
+    }
+
+    /**
+     * Fetch the models of the provider, the models whose details can't be fetched are left out.
+     * Synchronized, concurrent fetches would forget each other's models by digest.
+     *
+     * @param modelErrorHandler reports a model whose details can't be fetched
+     * @return the models
+     * @throws IOException          if the provider isn't running
+     * @throws InterruptedException if the caller was interrupted
+     */
+    private synchronized @NotNull List<LanguageModel> fetchLanguageModels(@NotNull Consumer<IOException> modelErrorHandler)
+            throws IOException, InterruptedException {
+        Object[] models = fetchModels();
+
+        LanguageModel[] languageModels = new LanguageModel[models.length];
+        String[] digests = new String[models.length];
+        List<Integer> unknown = new ArrayList<>();
+        for (int i = 0; i < models.length; i++) {
+            digests[i] = getModelDigest(models[i]);
+            languageModels[i] = digests[i] == null ? null : modelsByDigest.get(digests[i]);
+            if (languageModels[i] == null) {
+                unknown.add(i);
+            }
+        }
+        // Forget the models which were removed or changed
+        modelsByDigest.keySet().retainAll(new HashSet<>(Arrays.asList(digests)));
+
+        if (!unknown.isEmpty()) {
+            // Fetch the details of the new models at once, the fetches still running at the deadline are cancelled
+            List<Callable<LanguageModel>> fetches = new ArrayList<>();
+            for (int index : unknown) {
+                Object model = models[index];
+                fetches.add(() -> buildLanguageModel(model));
+            }
+            List<Future<LanguageModel>> results = StructuredTasks.invokeAll(
+                    ThreadPoolManager.getInstance().getIoExecutor(), fetches, MODEL_DETAILS_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            for (int i = 0; i < results.size(); i++) {
+                int index = unknown.get(i);
+                try {
+                    languageModels[index] = results.get(i).get();
+                    if (digests[index] != null && languageModels[index] != null) {
+                        modelsByDigest.put(digests[index], languageModels[index]);
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException ioException) {
+                        modelErrorHandler.accept(ioException);
+                    } else {
+                        log.warn("Failed to fetch the model details", e.getCause());
+                    }
+                } catch (CancellationException e) {
+                    log.warn("Fetching the model details took longer than {} seconds", MODEL_DETAILS_TIMEOUT_SECONDS);
+                }
+            }
+        }
+        return Arrays.stream(languageModels).filter(Objects::nonNull).toList();
     }
 
     protected abstract Object[] fetchModels() throws IOException;
 
     protected abstract LanguageModel buildLanguageModel(Object model) throws IOException;
 
+    /**
+     * The digest of a model changes when the model is replaced, the details of a known digest aren't fetched again.
+     *
+     * @param model the model as returned by {@link #fetchModels()}
+     * @return the digest, null if the provider doesn't report one and the details are always built
+     */
+    protected @Nullable String getModelDigest(Object model) {
+        return null;
+    }
+
     protected void handleModelFetchError(@NotNull IOException e) {
         NotificationUtil.sendNotification(ProjectManager.getInstance().getDefaultProject(), "Error fetching model details: " + e.getMessage());
     }
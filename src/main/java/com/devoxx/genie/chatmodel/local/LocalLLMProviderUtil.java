@@ -32,7 +32,7 @@ public class LocalLLMProviderUtil {
                 .url(baseUrl + endpoint)
                 .build();
 
-        try (Response response = HttpClientProvider.getClient().newCall(request).execute()) {
+        try (Response response = HttpClientProvider.getDiscoveryClient().newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 throw new UnsuccessfulRequestException("Unexpected code " + response);
             }
@@ -0,0 +1,86 @@
+package com.devoxx.genie.chatmodel.local;
+
+import com.devoxx.genie.chatmodel.ChatModelFactory;
+import com.devoxx.genie.chatmodel.ChatModelFactoryProvider;
+import com.devoxx.genie.model.LanguageModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import com.devoxx.genie.service.LLMModelRegistryService;
+import com.intellij.openapi.application.ApplicationManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Discovers the models of the local providers in the background, so selecting a provider never waits on it.
+ * <p>
+ * A discovery first lists the models of the provider, which fails within a second when the provider isn't
+ * running, and then only fetches the details of the models which are new or changed since the last discovery.
+ * The models are fetched by the {@link LLMModelRegistryService}, which keeps them in the model catalogue between
+ * sessions and joins a fetch of the provider which is already running instead of fetching it again.
+ */
+public final class LocalModelDiscoveryService {
+
+    private final Function<ModelProvider, Optional<ChatModelFactory>> factories;
+    private final Function<ModelProvider, CompletableFuture<List<LanguageModel>>> fetcher;
+
+    @NotNull
+    public static LocalModelDiscoveryService getInstance() {
+        return ApplicationManager.getApplication().getService(LocalModelDiscoveryService.class);
+    }
+
+    public LocalModelDiscoveryService() {
+        this(provider -> ChatModelFactoryProvider.getFactoryByProvider(provider.getName()),
+                provider -> LLMModelRegistryService.getInstance().refreshModels(provider));
+    }
+
+    /**
+     * @param factories the factory of a provider
+     * @param fetcher   fetches the models of a provider in the background
+     */
+    LocalModelDiscoveryService(@NotNull Function<ModelProvider, Optional<ChatModelFactory>> factories,
+                               @NotNull Function<ModelProvider, CompletableFuture<List<LanguageModel>>> fetcher) {
+        this.factories = factories;
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * @param provider the provider
+     * @return true if the models of the provider are known, getting them from its factory doesn't block
+     */
+    public boolean isDiscovered(@NotNull ModelProvider provider) {
+        return factories.apply(provider)
+                .map(factory -> !(factory instanceof LocalChatModelFactory localFactory) || localFactory.providerChecked)
+                .orElse(true);
+    }
+
+    /**
+     * Discover the models of a provider in the background.
+     *
+     * @param provider the provider
+     * @return the models, empty if the provider isn't running
+     */
+    public @NotNull CompletableFuture<List<LanguageModel>> discover(@NotNull ModelProvider provider) {
+        ChatModelFactory factory = factories.apply(provider).orElse(null);
+        if (!(factory instanceof LocalChatModelFactory)) {
+            // llama.cpp and custom OpenAI don't list their models, their factories answer right away
+            return CompletableFuture.completedFuture(factory == null ? List.of() : factory.getModels());
+        }
+        return fetcher.apply(provider);
+    }
+
+    /**
+     * Discover the models of several providers at once, in the background.
+     *
+     * @param providers the providers
+     * @return completes when all providers are discovered
+     */
+    public @NotNull CompletableFuture<Void> discoverAll(@NotNull Collection<ModelProvider> providers) {
+        return CompletableFuture.allOf(providers.stream()
+                .map(this::discover)
+                .toArray(CompletableFuture[]::new));
+    }
+}
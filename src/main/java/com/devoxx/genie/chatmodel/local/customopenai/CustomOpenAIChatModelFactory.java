@@ -1,5 +1,6 @@
 package com.devoxx.genie.chatmodel.local.customopenai;
 
+import com.devoxx.genie.chatmodel.ChatModelClientCache;
 import com.devoxx.genie.chatmodel.ChatModelFactory;
 import com.devoxx.genie.model.ChatModel;
 import com.devoxx.genie.model.LanguageModel;
@@ -8,7 +9,6 @@ import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
-import dev.langchain4j.http.client.jdk.JdkHttpClient;
 import dev.langchain4j.http.client.jdk.JdkHttpClientBuilder;
 import org.jetbrains.annotations.NotNull;
 
@@ -33,7 +33,7 @@ public class CustomOpenAIChatModelFactory implements ChatModelFactory {
                 .timeout(Duration.ofSeconds(chatModel.getTimeout()))
                 .topP(chatModel.getTopP())
                 .listeners(getListener())
-                .httpClientBuilder(getHttpClientBuilder())
+                .httpClientBuilder(getHttpClientBuilder(stateInstance.getCustomOpenAIUrl()))
                 .build();
     }
 
@@ -49,16 +49,15 @@ public class CustomOpenAIChatModelFactory implements ChatModelFactory {
                 .topP(chatModel.getTopP())
                 .timeout(Duration.ofSeconds(chatModel.getTimeout()))
                 .listeners(getListener())
-                .httpClientBuilder(getHttpClientBuilder())
+                .httpClientBuilder(getHttpClientBuilder(stateInstance.getCustomOpenAIUrl()))
                 .build();
     }
 
-    private JdkHttpClientBuilder getHttpClientBuilder() {
+    @Override
+    public JdkHttpClientBuilder getHttpClientBuilder(String baseUrl) {
         boolean forceHttp11 = DevoxxGenieStateService.getInstance().isCustomOpenAIForceHttp11();
-        return forceHttp11
-                ? JdkHttpClient.builder()
-                        .httpClientBuilder(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1))
-                : JdkHttpClient.builder();
+        return ChatModelClientCache.getInstance().getHttpClientBuilder(baseUrl,
+                forceHttp11 ? HttpClient.Version.HTTP_1_1 : HttpClient.Version.HTTP_2);
     }
 
     /**
@@ -19,6 +19,7 @@ public class LlamaChatModelFactory implements ChatModelFactory {
     public ChatLanguageModel createChatModel(@NotNull ChatModel chatModel) {
         return OpenAiChatModel.builder()
             .baseUrl(DevoxxGenieStateService.getInstance().getLlamaCPPUrl())
+            .httpClientBuilder(getHttpClientBuilder(DevoxxGenieStateService.getInstance().getLlamaCPPUrl()))
             .apiKey("na")
             .modelName(chatModel.getModelName())
             .temperature(chatModel.getTemperature())
@@ -38,7 +38,7 @@ public class OllamaApiService {
             .post(body)
             .build();
 
-        try (Response response = HttpClientProvider.getClient().newCall(request).execute()) {
+        try (Response response = HttpClientProvider.getDiscoveryClient().newCall(request).execute()) {
             if (!response.isSuccessful()) throw new IOException("Unexpected code " + response);
 
             JsonObject jsonObject = gson.fromJson(response.body().string(), JsonObject.class);
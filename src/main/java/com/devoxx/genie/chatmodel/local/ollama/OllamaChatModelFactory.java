@@ -56,6 +56,11 @@ public class OllamaChatModelFactory extends LocalChatModelFactory {
         return OllamaModelService.getInstance().getModels();
     }
 
+    @Override
+    protected String getModelDigest(Object model) {
+        return ((OllamaModelEntryDTO) model).getDigest();
+    }
+
     @Override
     protected LanguageModel buildLanguageModel(Object model) throws IOException {
         OllamaModelEntryDTO ollamaModel = (OllamaModelEntryDTO) model;
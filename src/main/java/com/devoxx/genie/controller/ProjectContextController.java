@@ -3,16 +3,20 @@ package com.devoxx.genie.controller;
 import com.devoxx.genie.model.LanguageModel;
 import com.devoxx.genie.model.enumarations.ModelProvider;
 import com.devoxx.genie.service.ProjectContentService;
+import com.devoxx.genie.service.prompt.context.ProjectContextManager;
 import com.devoxx.genie.ui.panel.ActionButtonsPanel;
 import com.devoxx.genie.ui.util.NotificationUtil;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.ComboBox;
-import com.knuddels.jtokkit.Encodings;
-import com.knuddels.jtokkit.api.EncodingType;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.Objects;
+
 import static com.devoxx.genie.model.enumarations.ModelProvider.*;
 
 public class ProjectContextController {
@@ -40,6 +44,7 @@ public class ProjectContextController {
         isProjectContextAdded = false;
         projectContext = null;
         tokenCount = 0;
+        ProjectContextManager.getInstance(project).clear();
         actionButtonsPanel.updateAddProjectButton(isProjectContextAdded);
         actionButtonsPanel.resetTokenUsageBar();
         NotificationUtil.sendNotification(project, "Project context removed successfully");
@@ -68,10 +73,15 @@ public class ProjectContextController {
                 .thenAccept(projectContent -> {
                     projectContext = "Project Context:\n" + projectContent.getContent();
                     isProjectContextAdded = true;
+                    // Tracks the scanned files, so the next prompts only send the files which changed
+                    List<VirtualFile> files = projectContent.getFiles().stream()
+                            .map(LocalFileSystem.getInstance()::findFileByNioFile)
+                            .filter(Objects::nonNull)
+                            .toList();
+                    ProjectContextManager.getInstance(project).setProjectContext(projectContext, files);
                     ApplicationManager.getApplication().invokeLater(() -> {
-                        tokenCount = Encodings.newDefaultEncodingRegistry()
-                                              .getEncoding(EncodingType.CL100K_BASE)
-                                              .countTokensOrdinary(projectContent.getContent());
+                        // Counted once by the project scanner, no need to encode the content again on the EDT
+                        tokenCount = projectContent.getTokenCount();
                         actionButtonsPanel.updateAddProjectButton(isProjectContextAdded, tokenCount);
                         actionButtonsPanel.setAddProjectButtonEnabled(true);
                         actionButtonsPanel.updateTokenUsageBar(tokenCount, tokenLimit);
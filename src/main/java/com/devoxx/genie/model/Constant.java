@@ -55,6 +55,8 @@ public class Constant {
     public static final Integer MAX_RETRIES = 1;
     public static final Integer TIMEOUT = 500;
     public static final Integer MAX_MEMORY = 50;
+    public static final Integer CHAT_MEMORY_TOKEN_BUDGET = 32_000;
+    public static final Integer MAX_CONCURRENT_PROMPTS_PER_PROVIDER = 2;
 
     // Hide Search Button
     public static final Boolean ENABLE_WEB_SEARCH = false;
@@ -62,6 +64,7 @@ public class Constant {
 
     // Stream mode settings
     public static final Boolean STREAM_MODE = false;
+    public static final Integer STREAMING_FLUSH_INTERVAL_MS = 30;
 
     // Button labels
     public static final String ADD_PROJECT_TO_CONTEXT = "Add project";
@@ -18,6 +18,8 @@ import java.util.Map;
 public class ScanContentResult {
     private String content;
     private int tokenCount;
+    // Single tokenization of the content, reused instead of counting the tokens again
+    private TokenizationResult tokenization;
     private int fileCount;
     private int skippedFileCount;
     private int skippedDirectoryCount;
@@ -0,0 +1,20 @@
+package com.devoxx.genie.model;
+
+import com.knuddels.jtokkit.api.IntArrayList;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The outcome of tokenizing scanned content once, shared by everything that needs the token count
+ * or the truncation point so the content never has to be encoded again.
+ *
+ * @param tokens           the encoded tokens when the content was encoded as a whole,
+ *                         null when the count was summed from per-file token counts
+ * @param tokenCount       the token count of the content after truncation
+ * @param truncationOffset the character offset where the content was cut to fit the token budget, -1 when it fits
+ */
+public record TokenizationResult(@Nullable IntArrayList tokens, int tokenCount, int truncationOffset) {
+
+    public boolean isTruncated() {
+        return truncationOffset >= 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.devoxx.genie.model.conversation;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A conversation matching a history search.
+ *
+ * @param conversation the matching conversation, without its messages
+ * @param snippet      the best matching part of the title or of a message, the matching terms are
+ *                     enclosed in {@link #HIGHLIGHT_START} and {@link #HIGHLIGHT_END}
+ * @param score        the relevance of the match, lower is better
+ */
+public record ConversationSearchResult(@NotNull Conversation conversation, @NotNull String snippet, double score) {
+
+    public static final String HIGHLIGHT_START = "\u0002";
+    public static final String HIGHLIGHT_END = "\u0003";
+}
@@ -8,4 +8,5 @@ import lombok.Setter;
 public class OllamaModelEntryDTO {
     private String name;
     private String modified_at;
+    private String digest;
 }
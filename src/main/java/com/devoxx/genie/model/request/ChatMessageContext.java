@@ -4,8 +4,10 @@ import com.devoxx.genie.model.LanguageModel;
 import com.intellij.openapi.project.Project;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.anthropic.AnthropicTokenUsage;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiTokenUsage;
 import dev.langchain4j.model.output.TokenUsage;
 import lombok.*;
 
@@ -28,6 +30,7 @@ public class ChatMessageContext {
     private UserMessage userMessage;    // The user message
     private AiMessage aiMessage;        // The LLM response message
     private String filesContext;             // The context of the prompt
+    private boolean projectContextShared;   // The project context is in the system message, filesContext only holds the changed files
     private EditorInfo editorInfo;      // The editor info
     private LanguageModel languageModel;
     private ChatLanguageModel chatLanguageModel;
@@ -36,6 +39,8 @@ public class ChatMessageContext {
     private TokenUsage tokenUsage;
     private String commandName;     // Custom command name for the prompt, for example /test, /review etc.
     private double cost;
+    private int cachedInputTokens;  // Input tokens the provider read from its prompt cache
+    private int savedPromptTokens;  // Prompt tokens the token budget memory no longer sends
     private boolean mcpActivated;
     private boolean ragActivated;
     private boolean gitDiffActivated;
@@ -58,5 +63,22 @@ public class ChatMessageContext {
             this.cost = (tokenUsage.inputTokenCount() * languageModel.getInputCost() +
                 tokenUsage.outputTokenCount() * languageModel.getOutputCost()) / 1_000_000.0;
         }
+        this.cachedInputTokens = getCachedInputTokens(tokenUsage);
+    }
+
+    /**
+     * Only the OpenAI (compatible) and Anthropic clients report the prompt cache hits.
+     */
+    private static int getCachedInputTokens(TokenUsage tokenUsage) {
+        if (tokenUsage instanceof OpenAiTokenUsage openAiTokenUsage &&
+                openAiTokenUsage.inputTokensDetails() != null &&
+                openAiTokenUsage.inputTokensDetails().cachedTokens() != null) {
+            return openAiTokenUsage.inputTokensDetails().cachedTokens();
+        }
+        if (tokenUsage instanceof AnthropicTokenUsage anthropicTokenUsage &&
+                anthropicTokenUsage.cacheReadInputTokens() != null) {
+            return anthropicTokenUsage.cacheReadInputTokens();
+        }
+        return 0;
     }
 }
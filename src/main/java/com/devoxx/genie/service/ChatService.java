@@ -49,6 +49,7 @@ public class ChatService implements ConversationEventListener {
         conversation.getMessages().add(new ChatMessage(true, chatMessageContext.getUserPrompt(), LocalDateTime.now().toString()));
         conversation.getMessages().add(new ChatMessage(false, chatMessageContext.getAiMessage().text(), LocalDateTime.now().toString()));
 
+        // Queued to the database writer, failures are logged by the storage service
         storageService.addConversation(project, conversation);
     }
 
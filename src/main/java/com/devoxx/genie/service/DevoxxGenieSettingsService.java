@@ -71,8 +71,20 @@ public interface DevoxxGenieSettingsService {
 
     Integer getMaxRetries();
 
+    Integer getMaxConcurrentPromptsPerProvider();
+
+    Boolean getUseVirtualThreads();
+
+    String getLocalModelTokenizerPath();
+
+    Integer getStreamingFlushIntervalMs();
+
     Integer getChatMemorySize();
 
+    Boolean getUseTokenBudgetMemory();
+
+    Integer getChatMemoryTokenBudget();
+
     Integer getMaxOutputTokens();
 
     String getSystemPrompt();
@@ -156,8 +168,20 @@ public interface DevoxxGenieSettingsService {
 
     void setMaxRetries(Integer retries);
 
+    void setMaxConcurrentPromptsPerProvider(Integer maxConcurrentPrompts);
+
+    void setUseVirtualThreads(Boolean useVirtualThreads);
+
+    void setLocalModelTokenizerPath(String localModelTokenizerPath);
+
+    void setStreamingFlushIntervalMs(Integer streamingFlushIntervalMs);
+
     void setChatMemorySize(Integer size);
 
+    void setUseTokenBudgetMemory(Boolean useTokenBudgetMemory);
+
+    void setChatMemoryTokenBudget(Integer chatMemoryTokenBudget);
+
     void setMaxOutputTokens(Integer tokens);
 
     void setSystemPrompt(String prompt);
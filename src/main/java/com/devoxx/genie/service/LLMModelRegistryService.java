@@ -1,33 +1,96 @@
 package com.devoxx.genie.service;
 
+import com.devoxx.genie.chatmodel.ChatModelFactoryProvider;
+import com.devoxx.genie.chatmodel.cloud.bedrock.BedrockModelFactory;
 import com.devoxx.genie.chatmodel.cloud.openai.OpenAIChatModelName;
 import com.devoxx.genie.chatmodel.cloud.openrouter.OpenRouterChatModelFactory;
+import com.devoxx.genie.chatmodel.local.LocalChatModelFactory;
 import com.devoxx.genie.model.LanguageModel;
 import com.devoxx.genie.model.enumarations.ModelProvider;
+import com.devoxx.genie.service.models.ModelCatalogue;
+import com.devoxx.genie.service.models.ModelCatalogueStore;
+import com.devoxx.genie.service.models.ModelCatalogueStore.StoredModels;
+import com.devoxx.genie.service.models.RemoteModelSource;
+import com.devoxx.genie.service.prompt.threading.ThreadPoolManager;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.Service;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
 
 import static dev.langchain4j.model.anthropic.AnthropicChatModelName.*;
 import static dev.langchain4j.model.mistralai.MistralAiChatModelName.*;
 import static dev.langchain4j.model.openai.OpenAiChatModelName.*;
 
+/**
+ * The catalogue of the language models of all providers.
+ * <p>
+ * The models of the cloud providers are built in. The models of providers with a model list API are fetched in
+ * the background once their time-to-live expired, in the meantime the previous models are used. The fetched
+ * models are stored in the IDE system directory, so the catalogue is complete right after a restart and offline.
+ * <p>
+ * The models of the local providers are fetched here as well, the local model discovery asks the registry
+ * instead of fetching them itself, so a provider is never fetched twice at once.
+ */
+@Slf4j
 @Service
 public final class LLMModelRegistryService {
 
+    private static final Duration OPEN_ROUTER_TTL = Duration.ofHours(6);
+    private static final Duration BEDROCK_TTL = Duration.ofHours(24);
+    private static final Duration LOCAL_TTL = Duration.ofMinutes(5);
+    // A failed fetch is retried after this delay, the previous models are kept until then
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private Map<String, LanguageModel> models = new HashMap<>();
 
+    private final Map<ModelProvider, RemoteModelSource> sources = new EnumMap<>(ModelProvider.class);
+    private final ModelCatalogueStore store;
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    private final Object lock = new Object();
+    private volatile ModelCatalogue catalogue;
+    // Guarded by lock
+    private final Map<ModelProvider, StoredModels> fetchedModels = new EnumMap<>(ModelProvider.class);
+    private final Map<ModelProvider, Long> nextRefreshAt = new EnumMap<>(ModelProvider.class);
+    // The running fetches, completed with the fetched models or the previous ones when the fetch failed
+    private final Map<ModelProvider, CompletableFuture<List<LanguageModel>>> refreshing = new EnumMap<>(ModelProvider.class);
+
     @NotNull
     public static LLMModelRegistryService getInstance() {
         return ApplicationManager.getApplication().getService(LLMModelRegistryService.class);
     }
 
     public LLMModelRegistryService() {
+        this(defaultSources(),
+                new ModelCatalogueStore(Path.of(PathManager.getSystemPath(), "DevoxxGenie", "model-catalogue.json")),
+                ThreadPoolManager.getInstance().getIoExecutor(),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * @param sources  the providers whose models are fetched
+     * @param store    keeps the fetched models between sessions
+     * @param executor runs the fetches
+     * @param clock    the current time in milliseconds
+     */
+    LLMModelRegistryService(@NotNull List<RemoteModelSource> sources,
+                            @NotNull ModelCatalogueStore store,
+                            @NotNull Executor executor,
+                            @NotNull LongSupplier clock) {
         addOpenAiModels();
         addAnthropicModels();
         addDeepInfraModels();
@@ -36,6 +99,49 @@ public final class LLMModelRegistryService {
         addMistralModels();
         addDeepSeekModels();
         addBedrockModels();
+
+        sources.forEach(source -> this.sources.put(source.provider(), source));
+        this.store = store;
+        this.executor = executor;
+        this.clock = clock;
+
+        synchronized (lock) {
+            store.load().forEach((provider, stored) -> {
+                RemoteModelSource source = this.sources.get(provider);
+                if (source != null) {
+                    fetchedModels.put(provider, stored);
+                    nextRefreshAt.put(provider, stored.refreshedAt() + source.ttl().toMillis());
+                }
+            });
+            rebuildCatalogue();
+        }
+    }
+
+    private static @NotNull List<RemoteModelSource> defaultSources() {
+        DevoxxGenieStateService settings = DevoxxGenieStateService.getInstance();
+        return List.of(
+                new RemoteModelSource(ModelProvider.OpenRouter, OPEN_ROUTER_TTL,
+                        () -> !LLMProviderService.getInstance().getApiKey(ModelProvider.OpenRouter).isBlank(),
+                        () -> new OpenRouterChatModelFactory().fetchModels()),
+                new RemoteModelSource(ModelProvider.Bedrock, BEDROCK_TTL,
+                        settings::isAWSEnabled,
+                        () -> new BedrockModelFactory().fetchAvailableModels()),
+                localSource(ModelProvider.Ollama, settings::isOllamaEnabled),
+                localSource(ModelProvider.LMStudio, settings::isLmStudioEnabled),
+                localSource(ModelProvider.Jan, settings::isJanEnabled),
+                localSource(ModelProvider.GPT4All, settings::isGpt4AllEnabled));
+    }
+
+    /**
+     * The factory keeps the details of the models it already knows, a refresh only fetches the new ones.
+     * A provider which isn't running has no models.
+     */
+    private static @NotNull RemoteModelSource localSource(@NotNull ModelProvider provider, @NotNull BooleanSupplier enabled) {
+        return new RemoteModelSource(provider, LOCAL_TTL, enabled, () -> {
+            LocalChatModelFactory factory = (LocalChatModelFactory) ChatModelFactoryProvider
+                    .getFactoryByProvider(provider.getName()).orElseThrow();
+            return factory.discoverModels() ? factory.cachedModels : List.of();
+        });
     }
 
     private void addAnthropicModels() {
@@ -975,28 +1081,185 @@ public final class LLMModelRegistryService {
                         .build());
     }
 
+    /**
+     * Get all models without blocking, the models of providers whose time-to-live expired are fetched in the background.
+     *
+     * @return the models of all providers
+     */
     @NotNull
     public List<LanguageModel> getModels() {
+        refreshStaleSources();
+        return catalogue.getModels();
+    }
 
-        // Create a copy of the current models
-        Map<String, LanguageModel> modelsCopy = new HashMap<>(models);
-
-        getOpenRouterModels(modelsCopy);
+    /**
+     * Get the models of a provider. Only the first fetch of a provider without built-in or stored models blocks,
+     * afterward expired models are fetched in the background.
+     *
+     * @param provider the provider
+     * @return the models of the provider
+     */
+    @NotNull
+    public List<LanguageModel> getModels(@NotNull ModelProvider provider) {
+        RemoteModelSource source = sources.get(provider);
+        if (source != null && !catalogue.hasModels(provider) && isNeverFetched(provider) && source.enabled().getAsBoolean()) {
+            refresh(source);
+        } else {
+            refreshStaleSources();
+        }
+        return catalogue.getModels(provider);
+    }
 
-        return new ArrayList<>(modelsCopy.values());
+    /**
+     * @return the enabled providers whose models are fetched, listed even before their first fetch completed
+     */
+    @NotNull
+    public List<ModelProvider> getEnabledRemoteProviders() {
+        return sources.values().stream()
+                .filter(source -> source.enabled().getAsBoolean())
+                .map(RemoteModelSource::provider)
+                .toList();
     }
 
-    private static void getOpenRouterModels(Map<String, LanguageModel> modelsCopy) {
-        // Add OpenRouter models if API key exists
-        OpenRouterChatModelFactory openRouterChatModelFactory = new OpenRouterChatModelFactory();
-        String apiKey = openRouterChatModelFactory.getApiKey(ModelProvider.OpenRouter);
-        if (apiKey != null && !apiKey.isEmpty()) {
-            openRouterChatModelFactory.getModels().forEach(model ->
-                modelsCopy.put(ModelProvider.OpenRouter.getName() + ":" + model.getModelName(), model));
+    /**
+     * Fetch the models of a provider in the background, whether or not its time-to-live expired.
+     * A fetch which is already running is joined instead of starting another one.
+     *
+     * @param provider the provider
+     * @return the fetched models, the previous models if the fetch failed
+     */
+    @NotNull
+    public CompletableFuture<List<LanguageModel>> refreshModels(@NotNull ModelProvider provider) {
+        RemoteModelSource source = sources.get(provider);
+        if (source == null) {
+            return CompletableFuture.completedFuture(catalogue.getModels(provider));
+        }
+        CompletableFuture<List<LanguageModel>> result = new CompletableFuture<>();
+        synchronized (lock) {
+            CompletableFuture<List<LanguageModel>> running = refreshing.putIfAbsent(provider, result);
+            if (running != null) {
+                return running;
+            }
+        }
+        try {
+            executor.execute(() -> fetch(source, result));
+        } catch (RejectedExecutionException e) {
+            synchronized (lock) {
+                refreshing.remove(provider);
+            }
+            result.completeExceptionally(e);
         }
+        return result;
+    }
+
+    /**
+     * Look up a model without blocking.
+     *
+     * @param provider  the provider
+     * @param modelName the name of the model
+     * @return the model, empty if the catalogue doesn't know it
+     */
+    @NotNull
+    public Optional<LanguageModel> findModel(@NotNull ModelProvider provider, @NotNull String modelName) {
+        refreshStaleSources();
+        return catalogue.findModel(provider, modelName);
     }
 
     public void setModels(Map<String, LanguageModel> models) {
-        this.models = new HashMap<>(models);
+        synchronized (lock) {
+            this.models = new HashMap<>(models);
+            rebuildCatalogue();
+        }
+    }
+
+    private boolean isNeverFetched(@NotNull ModelProvider provider) {
+        synchronized (lock) {
+            return !nextRefreshAt.containsKey(provider);
+        }
+    }
+
+    private void refreshStaleSources() {
+        long now = clock.getAsLong();
+        for (RemoteModelSource source : sources.values()) {
+            if (!source.enabled().getAsBoolean()) {
+                continue;
+            }
+            CompletableFuture<List<LanguageModel>> result = new CompletableFuture<>();
+            synchronized (lock) {
+                if (refreshing.containsKey(source.provider())
+                        || nextRefreshAt.getOrDefault(source.provider(), Long.MIN_VALUE) > now) {
+                    continue;
+                }
+                refreshing.put(source.provider(), result);
+            }
+            try {
+                executor.execute(() -> fetch(source, result));
+            } catch (RejectedExecutionException e) {
+                synchronized (lock) {
+                    refreshing.remove(source.provider());
+                }
+            }
+        }
+    }
+
+    private void refresh(@NotNull RemoteModelSource source) {
+        CompletableFuture<List<LanguageModel>> result = new CompletableFuture<>();
+        synchronized (lock) {
+            if (refreshing.putIfAbsent(source.provider(), result) != null) {
+                // Another thread is fetching, its result is used next time
+                return;
+            }
+        }
+        fetch(source, result);
+    }
+
+    private void fetch(@NotNull RemoteModelSource source, @NotNull CompletableFuture<List<LanguageModel>> result) {
+        ModelProvider provider = source.provider();
+        List<LanguageModel> fetched = null;
+        try {
+            fetched = List.copyOf(source.fetcher().call());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to fetch the {} models: {}", provider.getName(), e.getMessage());
+        }
+
+        long now = clock.getAsLong();
+        Map<ModelProvider, StoredModels> snapshot = null;
+        List<LanguageModel> current;
+        synchronized (lock) {
+            refreshing.remove(provider);
+            if (fetched == null) {
+                nextRefreshAt.put(provider, now + RETRY_DELAY_MILLIS);
+                StoredModels previous = fetchedModels.get(provider);
+                current = previous == null ? List.of() : previous.models();
+            } else {
+                current = fetched;
+                nextRefreshAt.put(provider, now + source.ttl().toMillis());
+                fetchedModels.put(provider, new StoredModels(now, fetched));
+                rebuildCatalogue();
+                snapshot = new EnumMap<>(fetchedModels);
+            }
+        }
+
+        if (snapshot != null) {
+            try {
+                store.save(snapshot);
+            } catch (IOException e) {
+                log.warn("Failed to store the model catalogue", e);
+            }
+        }
+        result.complete(current);
+    }
+
+    /**
+     * The built-in models come first, a fetched model doesn't replace the built-in model with the same name
+     * because only the built-in models have prices.
+     */
+    private void rebuildCatalogue() {
+        List<LanguageModel> all = new ArrayList<>();
+        fetchedModels.values().forEach(stored -> all.addAll(stored.models()));
+        all.addAll(models.values());
+        catalogue = ModelCatalogue.of(all);
     }
 }
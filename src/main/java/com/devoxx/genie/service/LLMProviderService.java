@@ -11,6 +11,7 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static com.devoxx.genie.model.enumarations.ModelProvider.*;
 
@@ -56,10 +57,13 @@ public class LLMProviderService {
      * @return List of LLM providers
      */
     private List<ModelProvider> getModelProvidersWithApiKeyConfigured() {
-        return LLMModelRegistryService.getInstance().getModels()
-            .stream()
-            .filter(LanguageModel::isApiKeyUsed)
-            .map(LanguageModel::getProvider)
+        LLMModelRegistryService registry = LLMModelRegistryService.getInstance();
+        // The models of OpenRouter are fetched when it is selected, it has none right after its key is entered
+        return Stream.concat(
+                registry.getModels().stream()
+                    .filter(LanguageModel::isApiKeyUsed)
+                    .map(LanguageModel::getProvider),
+                registry.getEnabledRemoteProviders().stream())
             .distinct()
             .filter(provider -> Optional.ofNullable(providerKeyMap.get(provider))
                 .map(Supplier::get)
@@ -81,6 +81,9 @@ public class MessageCreationService {
         String context = chatMessageContext.getFilesContext();
         if (context != null && !context.isEmpty()) {
             constructUserMessageWithFullContext(chatMessageContext, context);
+        } else if (chatMessageContext.isProjectContextShared()) {
+            // The project context is already in the system message and no file changed
+            constructUserMessageWithFullContext(chatMessageContext, "");
         } else {
             constructUserMessageWithCombinedContext(chatMessageContext);
         }
@@ -1,9 +1,13 @@
 package com.devoxx.genie.service;
 
+import com.devoxx.genie.service.mcp.MCPExecutionService;
 import com.devoxx.genie.service.prompt.memory.ChatMemoryManager;
 import com.devoxx.genie.service.prompt.threading.ThreadPoolManager;
 import com.devoxx.genie.service.prompt.threading.ThreadPoolShutdownManager;
+import com.devoxx.genie.service.rag.IncrementalIndexerService;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.ui.util.ThemeChangeListener;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.startup.ProjectActivity;
 import kotlin.Unit;
@@ -42,6 +46,23 @@ public class PostStartupActivity implements ProjectActivity {
             log.error("threadPoolManager is null");
         }
 
+        // Load the tokenizers off the EDT, so the first token count doesn't pay for it
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            TokenizerService tokenizerService = TokenizerService.getInstance();
+            tokenizerService.warmUp();
+            tokenizerService.useLocalModelTokenizer(DevoxxGenieStateService.getInstance().getLocalModelTokenizerPath());
+        });
+
+        // Start listening for file changes to keep the RAG index up to date
+        if (!project.isDefault()) {
+            IncrementalIndexerService.getInstance(project);
+        }
+
+        // Start the MCP servers in the background, so the first prompt doesn't wait for them
+        if (!project.isDefault()) {
+            MCPExecutionService.getInstance().startServers();
+        }
+
         // Register theme change listener
         if (project.isDefault()) {
             // Only register the listener once during application startup
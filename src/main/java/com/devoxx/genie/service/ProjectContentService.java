@@ -6,9 +6,7 @@ import com.devoxx.genie.service.projectscanner.ProjectScannerService;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.knuddels.jtokkit.Encodings;
 import com.knuddels.jtokkit.api.Encoding;
-import com.knuddels.jtokkit.api.EncodingType;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
@@ -82,16 +80,7 @@ public class ProjectContentService {
      * @return Encoding object representing the encoding to use for the specified provider
      */
     public static Encoding getEncodingForProvider(@NotNull ModelProvider provider) {
-        return switch (provider) {
-            case OpenAI, Anthropic, Google, AzureOpenAI ->
-                Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
-            case Mistral, DeepInfra, Groq, DeepSeek, OpenRouter ->
-                // These often use the Llama tokenizer or similar
-                Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.R50K_BASE);
-            default ->
-                // Default to cl100k_base for unknown providers
-                Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
-        };
+        return TokenizerService.getInstance().getEncodingForProvider(provider);
     }
 
     /**
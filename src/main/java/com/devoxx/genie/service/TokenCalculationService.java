@@ -155,11 +155,8 @@ public class TokenCalculationService {
                                           @NotNull LanguageModel languageModel,
                                           @NotNull CompletableFuture<ScanContentResult> contentFuture,
                                           TokenCalculationListener listener) {
-        Optional<Double> inputCost = LLMModelRegistryService.getInstance().getModels()
-            .stream()
-            .filter(model -> model.getProvider().getName().equals(selectedProvider.getName()) &&
-                                           model.getModelName().equals(languageModel.getModelName()))
-            .findFirst()
+        Optional<Double> inputCost = LLMModelRegistryService.getInstance()
+            .findModel(selectedProvider, languageModel.getModelName())
             .map(LanguageModel::getInputCost);
 
         inputCost.ifPresentOrElse(aDouble -> contentFuture.thenAccept(scanResult -> {
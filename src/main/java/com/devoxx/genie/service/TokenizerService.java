@@ -0,0 +1,180 @@
+package com.devoxx.genie.service;
+
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import com.intellij.openapi.application.ApplicationManager;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.knuddels.jtokkit.api.GptBytePairEncodingParams;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Application wide access to the jtokkit tokenizers.
+ * <p>
+ * Building an encoding loads its BPE ranks, which is expensive. This service creates every
+ * encoding once and shares it, jtokkit encodings are immutable and safe to use from multiple
+ * threads concurrently. The encodings used most are warmed up in the background at startup.
+ * <p>
+ * By default, providers are mapped to the closest built-in encoding. A provider specific tokenizer,
+ * for example a Llama 3 vocabulary in tiktoken format, can be plugged in with
+ * {@link #registerProviderEncoding(ModelProvider, Encoding)} and {@link #loadTiktokenEncoding(String, Path)}.
+ * The vocabulary configured in the LLM settings is used for all the local providers.
+ */
+@Slf4j
+public final class TokenizerService {
+
+    // The pre-tokenization pattern of cl100k_base, also used by Llama 3 style tiktoken vocabularies
+    private static final Pattern TIKTOKEN_PATTERN = Pattern.compile(
+            "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+",
+            Pattern.UNICODE_CASE);
+
+    private final EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+    private final Map<EncodingType, Encoding> encodings = new ConcurrentHashMap<>();
+    private final Map<ModelProvider, Encoding> providerEncodings = new ConcurrentHashMap<>();
+    private final AtomicBoolean warmedUp = new AtomicBoolean(false);
+    // Vocabularies already loaded by file, the registry doesn't allow registering a name twice
+    private final Map<Path, Encoding> vocabularies = new HashMap<>();
+
+    public static TokenizerService getInstance() {
+        return ApplicationManager.getApplication().getService(TokenizerService.class);
+    }
+
+    /**
+     * @param type the encoding type
+     * @return the shared encoding for the type, created on first use
+     */
+    public @NotNull Encoding getEncoding(@NotNull EncodingType type) {
+        return encodings.computeIfAbsent(type, registry::getEncoding);
+    }
+
+    /**
+     * @param provider the model provider
+     * @return the encoding registered for the provider, or the closest built-in encoding
+     */
+    public @NotNull Encoding getEncodingForProvider(@NotNull ModelProvider provider) {
+        Encoding providerEncoding = providerEncodings.get(provider);
+        if (providerEncoding != null) {
+            return providerEncoding;
+        }
+        return getEncoding(getDefaultEncodingType(provider));
+    }
+
+    /**
+     * Use a provider specific tokenizer instead of the built-in approximation.
+     *
+     * @param provider the model provider
+     * @param encoding the encoding to use for the provider
+     */
+    public void registerProviderEncoding(@NotNull ModelProvider provider, @NotNull Encoding encoding) {
+        log.debug("Registering tokenizer {} for provider {}", encoding.getName(), provider);
+        providerEncodings.put(provider, encoding);
+    }
+
+    public void unregisterProviderEncoding(@NotNull ModelProvider provider) {
+        providerEncodings.remove(provider);
+    }
+
+    /**
+     * Load a BPE vocabulary in tiktoken format, one "base64-token rank" pair per line,
+     * like the tokenizer.model file shipped with Llama 3 models.
+     *
+     * @param name       the name of the encoding, must not clash with a built-in encoding
+     * @param ranksFile  the vocabulary file
+     * @return the encoding
+     * @throws IOException when the file can't be read or is malformed
+     */
+    public @NotNull Encoding loadTiktokenEncoding(@NotNull String name, @NotNull Path ranksFile) throws IOException {
+        Map<byte[], Integer> ranks = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(ranksFile, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 2) {
+                    throw new IOException("Invalid tokenizer entry at line " + lineNumber + " of " + ranksFile);
+                }
+                try {
+                    ranks.put(Base64.getDecoder().decode(parts[0]), Integer.parseInt(parts[1]));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid tokenizer entry at line " + lineNumber + " of " + ranksFile, e);
+                }
+            }
+        }
+
+        registry.registerGptBytePairEncoding(new GptBytePairEncodingParams(name, TIKTOKEN_PATTERN, ranks, Map.of()));
+        return registry.getEncoding(name)
+                .orElseThrow(() -> new IOException("Tokenizer " + name + " could not be registered"));
+    }
+
+    /**
+     * Count the tokens of the local providers with the given tiktoken vocabulary, or go back to the
+     * built-in approximation when no file is configured or the file can't be loaded.
+     *
+     * @param ranksFile the vocabulary file from the settings, blank when none is configured
+     */
+    public synchronized void useLocalModelTokenizer(@Nullable String ranksFile) {
+        Encoding encoding = null;
+        if (ranksFile != null && !ranksFile.isBlank()) {
+            Path path = Path.of(ranksFile.trim()).toAbsolutePath().normalize();
+            encoding = vocabularies.get(path);
+            if (encoding == null) {
+                try {
+                    encoding = loadTiktokenEncoding("local-" + path, path);
+                    vocabularies.put(path, encoding);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Unable to load the local model tokenizer {}, using the built-in one: {}", path, e.getMessage());
+                }
+            }
+        }
+
+        for (ModelProvider provider : ModelProvider.fromType(ModelProvider.Type.LOCAL)) {
+            if (encoding != null) {
+                registerProviderEncoding(provider, encoding);
+            } else {
+                unregisterProviderEncoding(provider);
+            }
+        }
+    }
+
+    /**
+     * Create the most used encodings so the first token count doesn't pay for loading the BPE ranks.
+     * Only the first call does any work.
+     */
+    public void warmUp() {
+        if (warmedUp.compareAndSet(false, true)) {
+            long start = System.currentTimeMillis();
+            getEncoding(EncodingType.CL100K_BASE);
+            getEncoding(EncodingType.R50K_BASE);
+            log.debug("Tokenizers warmed up in {} ms", System.currentTimeMillis() - start);
+        }
+    }
+
+    private static @NotNull EncodingType getDefaultEncodingType(@NotNull ModelProvider provider) {
+        return switch (provider) {
+            case OpenAI, Anthropic, Google, AzureOpenAI -> EncodingType.CL100K_BASE;
+            // These often use the Llama tokenizer or similar
+            case Mistral, DeepInfra, Groq, DeepSeek, OpenRouter -> EncodingType.R50K_BASE;
+            // Default to cl100k_base for unknown providers
+            default -> EncodingType.CL100K_BASE;
+        };
+    }
+}
@@ -1,6 +1,6 @@
 package com.devoxx.genie.service.analyzer.util;
 
-import com.intellij.openapi.application.ApplicationManager;
+import com.devoxx.genie.service.prompt.threading.ThreadPoolManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
@@ -15,7 +15,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Scans project directories while respecting .gitignore rules and using caching.
- * Uses a controlled thread pool and timeout mechanisms to prevent hangs.
+ * Uses the shared I/O executor and timeout mechanisms to prevent hangs.
  */
 @Slf4j
 public class CachedProjectScanner {
@@ -26,22 +26,14 @@ public class CachedProjectScanner {
     private static final int MAX_FILES = 10000; // Reduced maximum to improve responsiveness
     private static final int MAX_DIRECTORIES = 1000; // Maximum number of directories to scan
     
-    // Thread pool for scanning - use a reasonable fixed size to prevent resource exhaustion
-    private static final ExecutorService SCAN_EXECUTOR = 
-            Executors.newFixedThreadPool(
-                    Math.max(2, Runtime.getRuntime().availableProcessors() - 1),
-                    r -> {
-                        Thread t = new Thread(r, "ProjectScanner-Worker");
-                        t.setDaemon(true); // Allow JVM to exit even if threads are running
-                        return t;
-                    });
-    
     // Cache for scan results
     private static final ConcurrentHashMap<String, CachedScanResult> scanCache = new ConcurrentHashMap<>();
 
     // Gitignore parser instance
     private final GitignoreParser gitignoreParser;
     private final VirtualFile baseDir;
+    // The scan waits on the file system, it runs on the I/O executor
+    private final Executor scanExecutor = ThreadPoolManager.getInstance().getIoExecutor();
     
     // Scan statistics
     private final AtomicInteger fileCount = new AtomicInteger(0);
@@ -144,7 +136,7 @@ public class CachedProjectScanner {
                 // Handle any exceptions that occur during scanning
                 result.completeExceptionally(e);
             }
-        }, SCAN_EXECUTOR);
+        }, scanExecutor);
         
         return result;
     }
@@ -240,7 +232,7 @@ public class CachedProjectScanner {
                     } finally {
                         latch.countDown();
                     }
-                }, SCAN_EXECUTOR);
+                }, scanExecutor);
             }
             
             // Wait for all batches to complete but with a timeout
@@ -318,45 +310,4 @@ public class CachedProjectScanner {
     public static void clearCache() {
         scanCache.clear();
     }
-
-    /**
-     * Shutdown the scanner executor service
-     */
-    public static void shutdown() {
-        // Make sure we're on EDT before accessing any IntelliJ Platform components
-        try {
-            if (!ApplicationManager.getApplication().isDispatchThread()) {
-                try {
-                    ApplicationManager.getApplication().invokeAndWait(CachedProjectScanner::performShutdown);
-                } catch (Exception e) {
-                    log.error("Error during scanner shutdown", e);
-                    // Fallback to direct shutdown if EDT access fails
-                    performShutdown();
-                }
-            } else {
-                performShutdown();
-            }
-        } catch (Exception e) {
-            log.error("Unexpected error during scanner shutdown", e);
-            // Last resort emergency shutdown
-            SCAN_EXECUTOR.shutdownNow();
-        }
-    }
-    
-    /**
-     * Performs the actual shutdown operations
-     */
-    private static void performShutdown() {
-        SCAN_EXECUTOR.shutdown();
-        try {
-            // Wait for ongoing tasks to complete
-            if (!SCAN_EXECUTOR.awaitTermination(5, TimeUnit.SECONDS)) {
-                // Force shutdown if tasks don't complete
-                SCAN_EXECUTOR.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            SCAN_EXECUTOR.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
-    }
 }
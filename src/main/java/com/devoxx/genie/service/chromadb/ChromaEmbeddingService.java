@@ -1,34 +1,37 @@
 package com.devoxx.genie.service.chromadb;
 
+import com.devoxx.genie.service.chromadb.model.ChromaCollection;
+import com.devoxx.genie.service.rag.store.VectorStoreBackend;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
-import com.devoxx.genie.ui.util.NotificationUtil;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.project.Project;
-import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.chroma.ChromaEmbeddingStore;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Slf4j
 @Service
-public final class ChromaEmbeddingService {
+public final class ChromaEmbeddingService implements VectorStoreBackend {
     
     private final DevoxxGenieStateService stateService = DevoxxGenieStateService.getInstance();
 
-    @Getter
-    private ChromaEmbeddingStore embeddingStore;
-
     @NotNull
     public static ChromaEmbeddingService getInstance() {
         return ApplicationManager.getApplication().getService(ChromaEmbeddingService.class);
     }
 
-    public void init(Project project) {
+    @Override
+    public @NotNull EmbeddingStore<TextSegment> getEmbeddingStore(@NotNull Project project) {
         String url = "http://localhost:" + stateService.getIndexerPort();
         try {
-            this.embeddingStore = ChromaEmbeddingStore.builder()
+            return ChromaEmbeddingStore.builder()
                     .baseUrl(url)
                     .logRequests(true)
                     .logResponses(true)
@@ -45,16 +48,34 @@ public final class ChromaEmbeddingService {
      * @param project the project
      * @return the collection name for the project
      */
-    private @NotNull String getCollectionName(@NotNull Project project) {
+    @Override
+    public @NotNull String getCollectionName(@NotNull Project project) {
         return project.getName()
                       .toLowerCase()
                       .replaceAll("[^a-z0-9-]", "-");
     }
 
-    public OllamaEmbeddingModel getEmbeddingModel() {
-        return OllamaEmbeddingModel.builder()
-                .baseUrl(stateService.getOllamaModelUrl())
-                .modelName("nomic-embed-text")
-                .build();
+    @Override
+    public @NotNull Map<String, Integer> listCollections(@NotNull Project project) throws IOException {
+        ChromaDBManager chromaDBManager = ChromaDBManager.getInstance(project);
+        Map<String, Integer> collections = new LinkedHashMap<>();
+        for (ChromaCollection collection : chromaDBManager.listCollections()) {
+            try {
+                collections.put(collection.name(), chromaDBManager.countDocuments(collection.id()));
+            } catch (IOException e) {
+                // If we can't count documents for a specific collection, still add it with 0 count
+                collections.put(collection.name(), 0);
+            }
+        }
+        return collections;
+    }
+
+    @Override
+    public void deleteCollection(@NotNull Project project, @NotNull String collection) throws IOException {
+        // Delete collection first
+        ChromaDBManager.getInstance(project).deleteCollection(collection);
+
+        // Delete the associated volume data
+        ApplicationManager.getApplication().getService(ChromaDockerService.class).deleteCollectionData(project, collection);
     }
 }
@@ -2,10 +2,15 @@ package com.devoxx.genie.service.conversations;
 
 import com.devoxx.genie.model.conversation.ChatMessage;
 import com.devoxx.genie.model.conversation.Conversation;
+import com.devoxx.genie.model.conversation.ConversationSearchResult;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -13,7 +18,11 @@ import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Instead of using the IntelliJ State API, we use a separate database to store conversations.
@@ -21,383 +30,634 @@ import java.util.concurrent.CompletableFuture;
  * The conversations.db is stored for mac in
  * /Users/[username]/Library/Caches/JetBrains/IntelliJIdea2024.3/DevoxxGenie/conversations.db
  * You can connect to the SQLite db using IDEA's Database tool window.
+ * <p>
+ * The database runs in WAL mode with two long-lived connections: a write connection, only used by a single
+ * writer thread, and a read connection shared by the readers. WAL lets the reads proceed while a write is in
+ * progress. Writes are queued to the writer and never block the caller. The schema is migrated once, when the
+ * service starts, and the statements are prepared once per connection.
  */
 @Slf4j
-public class ConversationStorageService {
-    
-    private final String dbPath;
+public class ConversationStorageService implements Disposable {
+
     private static final long MAX_DB_SIZE_BYTES = 50 * 1024 * 1024;  // 50 MB threshold
     private static final int DELETE_COUNT = 10; // Delete 10 oldest conversations
+    private static final long WRITER_SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    @FunctionalInterface
+    private interface Migration {
+        void migrate(@NotNull Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void run() throws SQLException;
+    }
+
+    // Applied in order, the index + 1 is the schema version after the migration
+    private static final List<Migration> MIGRATIONS = List.of(
+            ConversationStorageService::createTables,
+            ConversationStorageService::addIsUserColumn,
+            connection -> execute(connection,
+                    // Serves the paged history listing, newest first, without sorting
+                    "CREATE INDEX IF NOT EXISTS idx_conversations_project_timestamp ON conversations(projectHash, timestamp DESC)"),
+            ConversationStorageService::createSearchIndex
+    );
+
+    // The number of tokens around the matching terms in a search snippet
+    private static final int SNIPPET_TOKENS = 16;
+
+    private final Path dbPath;
+    private final ExecutorService writer;
+
+    // Only used on the writer thread, once the schema is migrated
+    private final Connection writeConnection;
+    private final PreparedStatement insertConversation;
+    private final PreparedStatement insertMessage;
+    private final PreparedStatement deleteConversationMessages;
+    private final PreparedStatement deleteConversation;
+    private final PreparedStatement deleteProjectMessages;
+    private final PreparedStatement deleteProjectConversations;
+    private final PreparedStatement deleteOldestConversations;
+    private final PreparedStatement deleteOrphanedMessages;
+
+    // Guarded by the read connection
+    private final Connection readConnection;
+    private final PreparedStatement countConversations;
+    private final PreparedStatement selectConversationHeaders;
+    private final PreparedStatement selectMessages;
+    private final PreparedStatement searchConversations;
 
     public ConversationStorageService() {
+        this(Path.of(PathManager.getSystemPath(), "DevoxxGenie", "conversations.db"),
+                AppExecutorUtil.createBoundedApplicationPoolExecutor("DevoxxGenie Conversation Writer", 1));
+    }
+
+    ConversationStorageService(@NotNull Path dbPath, @NotNull ExecutorService writer) {
         try {
             Class.forName("org.sqlite.JDBC");
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("SQLite JDBC driver not found", e);
         }
 
-        this.dbPath = Path.of(PathManager.getSystemPath(), "DevoxxGenie", "conversations.db").toString();
+        this.dbPath = dbPath;
+        this.writer = writer;
         try {
-            Files.createDirectories(Path.of(dbPath).getParent());
+            Files.createDirectories(dbPath.getParent());
             log.info("Database directory created at " + dbPath);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create database directory", e);
         }
-        createTableIfNotExists();
-        migrateDatabase();
-    }
-
-    public static @NotNull ConversationStorageService getInstance() {
-        return new ConversationStorageService();
-    }
 
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection("jdbc:sqlite:" + dbPath);
-    }
+        try {
+            writeConnection = openConnection();
+            migrateDatabase(writeConnection);
 
-    private void createTableIfNotExists() {
-        try (Connection connection = getConnection();
-             Statement statement = connection.createStatement()) {
-                statement.execute("""
-                        CREATE TABLE IF NOT EXISTS conversations (
-                            id TEXT PRIMARY KEY,
-                            projectHash TEXT,
-                            timestamp TEXT,
-                            title TEXT,
-                            llmProvider TEXT,
-                            modelName TEXT,
-                            apiKeyUsed INTEGER,
-                            inputCost INTEGER,
-                            outputCost INTEGER,
-                            contextWindow INTEGER,
-                            executionTimeMs INTEGER
-                        )
+            insertConversation = writeConnection.prepareStatement("""
+                    INSERT INTO conversations
+                    (id, projectHash, timestamp, title, llmProvider, modelName,
+                     apiKeyUsed, inputCost, outputCost, contextWindow, executionTimeMs)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
                     """);
-
-            // SQLite uses INTEGER PRIMARY KEY for autoincrement
-            statement.execute("""
-                        CREATE TABLE IF NOT EXISTS chat_messages (
-                            id INTEGER PRIMARY KEY AUTOINCREMENT,
-                            conversationId TEXT,
-                            content TEXT,
-                            isUser INTEGER,
-                            FOREIGN KEY (conversationId) REFERENCES conversations(id)
-                        )
+            insertMessage = writeConnection.prepareStatement(
+                    "INSERT INTO chat_messages (conversationId, content, isUser) VALUES (?, ?, ?)");
+            deleteConversationMessages = writeConnection.prepareStatement(
+                    "DELETE FROM chat_messages WHERE conversationId = ?");
+            deleteConversation = writeConnection.prepareStatement(
+                    "DELETE FROM conversations WHERE id = ? AND projectHash = ?");
+            deleteProjectMessages = writeConnection.prepareStatement("""
+                    DELETE FROM chat_messages
+                    WHERE conversationId IN (
+                        SELECT id FROM conversations WHERE projectHash = ?
+                    )
                     """);
+            deleteProjectConversations = writeConnection.prepareStatement(
+                    "DELETE FROM conversations WHERE projectHash = ?");
+            deleteOldestConversations = writeConnection.prepareStatement(
+                    "DELETE FROM conversations WHERE id IN (SELECT id FROM conversations ORDER BY timestamp ASC LIMIT ?)");
+            deleteOrphanedMessages = writeConnection.prepareStatement(
+                    "DELETE FROM chat_messages WHERE conversationId NOT IN (SELECT id FROM conversations)");
 
-            // Add indices for better performance
-            statement.execute("CREATE INDEX IF NOT EXISTS idx_conversations_project ON conversations(projectHash)");
-            statement.execute("CREATE INDEX IF NOT EXISTS idx_messages_conversation ON chat_messages(conversationId)");
+            readConnection = openConnection();
+            countConversations = readConnection.prepareStatement(
+                    "SELECT COUNT(*) FROM conversations WHERE projectHash = ?");
+            selectConversationHeaders = readConnection.prepareStatement("""
+                    SELECT id, timestamp, title, llmProvider, modelName, apiKeyUsed,
+                           inputCost, outputCost, contextWindow, executionTimeMs
+                    FROM conversations
+                    WHERE projectHash = ?
+                    ORDER BY timestamp DESC
+                    LIMIT ? OFFSET ?
+                    """);
+            selectMessages = readConnection.prepareStatement(
+                    "SELECT content, isUser FROM chat_messages WHERE conversationId = ? ORDER BY id");
+            // Ranks every matching title and message, and keeps the best match of each conversation.
+            // A title match weighs ten times a message match.
+            // The full-text queries are materialized, the snippet and bm25 functions only work in a full-text query.
+            searchConversations = readConnection.prepareStatement("""
+                    WITH hits AS MATERIALIZED (
+                        SELECT conversationId,
+                               snippet(conversation_title_search, 1, ?1, ?2, '…', ?3) AS snippet,
+                               10.0 * bm25(conversation_title_search) AS score
+                        FROM conversation_title_search
+                        WHERE conversation_title_search MATCH ?4
+                        UNION ALL
+                        SELECT conversationId,
+                               snippet(conversation_search, 1, ?1, ?2, '…', ?3) AS snippet,
+                               bm25(conversation_search) AS score
+                        FROM conversation_search
+                        WHERE conversation_search MATCH ?4
+                    )
+                    SELECT c.id, c.timestamp, c.title, c.llmProvider, c.modelName, c.apiKeyUsed,
+                           c.inputCost, c.outputCost, c.contextWindow, c.executionTimeMs,
+                           h.snippet, MIN(h.score) AS score
+                    FROM hits h
+                    JOIN conversations c ON c.id = h.conversationId
+                    WHERE c.projectHash = ?5
+                    GROUP BY c.id
+                    ORDER BY score
+                    LIMIT ?6
+                    """);
         } catch (SQLException e) {
-            log.error("Error creating table", e);
-            throw new RuntimeException("Error creating table", e);
+            log.error("Error opening the conversation database", e);
+            throw new RuntimeException("Error opening the conversation database", e);
         }
     }
 
-    public void addConversation(@NotNull Project project, @NotNull Conversation conversation) {
-        // Cleanup old conversations asynchronously if the DB size exceeds the threshold
-        CompletableFuture.runAsync(() -> {
-            try {
-                Path dbFile = Path.of(dbPath);
-                if (Files.size(dbFile) > MAX_DB_SIZE_BYTES) {
-                    cleanupOldConversations();
-                }
-            } catch (IOException e) {
-                log.error("Error checking DB size asynchronously", e);
-            }
-        });
+    public static @NotNull ConversationStorageService getInstance() {
+        return ApplicationManager.getApplication().getService(ConversationStorageService.class);
+    }
+
+    private @NotNull Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+        try (Statement statement = connection.createStatement()) {
+            // Readers don't block the writer and the writer doesn't block the readers
+            statement.execute("PRAGMA journal_mode=WAL");
+            // Safe in WAL mode, only the last commits can be lost on a power failure
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("PRAGMA busy_timeout=5000");
+        }
+        return connection;
+    }
+
+    /**
+     * Migrate the database to the latest schema version.
+     * Databases created before the schema version was recorded start at version 0, all migrations
+     * are written to be no-ops on the parts of the schema these databases already have.
+     */
+    private static void migrateDatabase(@NotNull Connection connection) throws SQLException {
+        execute(connection, "CREATE TABLE IF NOT EXISTS schema_version (version INTEGER NOT NULL)");
+        int version;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        }
 
-        // Add the conversation
-        try (Connection connection = getConnection()) {
+        for (int i = version; i < MIGRATIONS.size(); i++) {
+            int targetVersion = i + 1;
             connection.setAutoCommit(false);
             try {
-                try (PreparedStatement ps = connection.prepareStatement(
-                        """
-                                INSERT INTO conversations
-                                (id, projectHash, timestamp, title, llmProvider, modelName,
-                                 apiKeyUsed, inputCost, outputCost, contextWindow, executionTimeMs)
-                                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                                """)) {
-                    ps.setString(1, conversation.getId());
-                    ps.setString(2, project.getLocationHash());
-                    ps.setString(3, conversation.getTimestamp());
-                    ps.setString(4, conversation.getTitle());
-                    ps.setString(5, conversation.getLlmProvider());
-                    ps.setString(6, conversation.getModelName());
-                    // Handle nulls for boolean values
-                    ps.setInt(7, conversation.getApiKeyUsed() != null && conversation.getApiKeyUsed() ? 1 : 0);
-                    ps.setLong(8, conversation.getInputCost() == null ? 0 : conversation.getInputCost());
-                    ps.setLong(9, conversation.getOutputCost() == null ? 0 : conversation.getOutputCost());
-                    ps.setInt(10, conversation.getContextWindow() == null ? 0 : conversation.getContextWindow());
-                    ps.setInt(11, (int) (conversation.getExecutionTimeMs() > 0 ? conversation.getExecutionTimeMs() : 0));
+                MIGRATIONS.get(i).migrate(connection);
+                try (PreparedStatement ps = connection.prepareStatement("INSERT INTO schema_version (version) VALUES (?)")) {
+                    ps.setInt(1, targetVersion);
                     ps.executeUpdate();
                 }
-
-                // Insert chat messages
-                try (PreparedStatement msgPs = connection.prepareStatement(
-                        "INSERT INTO chat_messages (conversationId, content, isUser) VALUES (?, ?, ?)")) {
-                    for (ChatMessage message : conversation.getMessages()) {
-                        msgPs.setString(1, conversation.getId());
-                        msgPs.setString(2, message.getContent());
-                        msgPs.setInt(3, message.isUser() ? 1 : 0); // Store isUser as INTEGER (1=true, 0=false)
-                        msgPs.executeUpdate();
-                    }
-                }
                 connection.commit();
+                log.info("Migrated conversation database to schema version {}", targetVersion);
             } catch (SQLException e) {
-                log.error("Error adding conversation", e);
                 connection.rollback();
+                log.error("Error migrating conversation database to schema version {}", targetVersion, e);
                 throw e;
             } finally {
                 connection.setAutoCommit(true);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error adding conversation", e);
         }
     }
 
-    @NotNull
-    public List<Conversation> getConversations(@NotNull Project project) {
-        List<Conversation> conversations = new ArrayList<>();
-        try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(
-                     "SELECT * FROM conversations WHERE projectHash = ?")) {
-            ps.setString(1, project.getLocationHash());
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Conversation conversation = new Conversation();
-                    conversation.setId(rs.getString("id"));
-                    conversation.setTimestamp(rs.getString("timestamp"));
-                    conversation.setTitle(rs.getString("title"));
-                    conversation.setLlmProvider(rs.getString("llmProvider"));
-                    conversation.setModelName(rs.getString("modelName"));
-                    conversation.setApiKeyUsed(rs.getInt("apiKeyUsed") == 1); // Convert INTEGER to boolean
-                    conversation.setInputCost(rs.getLong("inputCost"));
-                    conversation.setOutputCost(rs.getLong("outputCost"));
-                    conversation.setContextWindow(rs.getInt("contextWindow"));
-                    conversation.setExecutionTimeMs(rs.getInt("executionTimeMs"));
-
-                    // Retrieve chat messages for the conversation
-                    List<ChatMessage> messages = new ArrayList<>();
-                    try (PreparedStatement msgPs = connection.prepareStatement(
-                            "SELECT * FROM chat_messages WHERE conversationId = ? ORDER BY id")) {
-                        msgPs.setString(1, conversation.getId());
-                        try (ResultSet msgRs = msgPs.executeQuery()) {
-                            while (msgRs.next()) {
-                                ChatMessage message = new ChatMessage();
-                                message.setContent(msgRs.getString("content"));
-                                
-                                // Check if the isUser column exists in the result set
-                                try {
-                                    int isUserFlag = msgRs.getInt("isUser");
-                                    message.setUser(isUserFlag == 1);
-                                    log.debug("Set isUser flag to {} for message", isUserFlag == 1);
-                                } catch (SQLException e) {
-                                    // Column doesn't exist in older database versions, default to alternating pattern
-                                    message.setUser(messages.size() % 2 == 0);
-                                    log.debug("isUser column not found, defaulting to alternating pattern");
-                                }
-                                
-                                messages.add(message);
-                            }
-                        }
-                    }
-                    conversation.setMessages(messages);
-                    conversations.add(conversation);
+    private static void createTables(@NotNull Connection connection) throws SQLException {
+        execute(connection, """
+                CREATE TABLE IF NOT EXISTS conversations (
+                    id TEXT PRIMARY KEY,
+                    projectHash TEXT,
+                    timestamp TEXT,
+                    title TEXT,
+                    llmProvider TEXT,
+                    modelName TEXT,
+                    apiKeyUsed INTEGER,
+                    inputCost INTEGER,
+                    outputCost INTEGER,
+                    contextWindow INTEGER,
+                    executionTimeMs INTEGER
+                )
+                """);
+
+        // SQLite uses INTEGER PRIMARY KEY for autoincrement
+        execute(connection, """
+                CREATE TABLE IF NOT EXISTS chat_messages (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    conversationId TEXT,
+                    content TEXT,
+                    isUser INTEGER,
+                    FOREIGN KEY (conversationId) REFERENCES conversations(id)
+                )
+                """);
+
+        // Add indices for better performance
+        execute(connection, "CREATE INDEX IF NOT EXISTS idx_conversations_project ON conversations(projectHash)");
+        execute(connection, "CREATE INDEX IF NOT EXISTS idx_messages_conversation ON chat_messages(conversationId)");
+    }
+
+    /**
+     * Databases created before the isUser column get it, the messages of a conversation alternate
+     * between the user and the AI, starting with the user.
+     */
+    private static void addIsUserColumn(@NotNull Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA table_info(chat_messages)")) {
+            while (rs.next()) {
+                if ("isUser".equals(rs.getString("name"))) {
+                    log.info("isUser column already exists in chat_messages table");
+                    return;
                 }
             }
-        } catch (SQLException e) {
-            log.error("Error getting conversations", e);
-            throw new RuntimeException("Error getting conversations", e);
         }
-        return conversations;
-    }
 
-    public void removeConversation(@NotNull Project project, @NotNull Conversation conversation) {
-        try (Connection connection = getConnection()) {
-            connection.setAutoCommit(false);
-            try {
-                // Delete messages first due to foreign key constraint
-                try (PreparedStatement ps = connection.prepareStatement(
-                        "DELETE FROM chat_messages WHERE conversationId = ?")) {
-                    ps.setString(1, conversation.getId());
-                    int messagesDeleted = ps.executeUpdate();
-                    log.info("Deleted {} messages for conversation {}", messagesDeleted, conversation.getId());
-                    if (messagesDeleted == 0) {
-                        log.warn("No messages found for conversation {}", conversation.getId());
-                    }
-                }
+        log.info("Adding isUser column to chat_messages table");
+        execute(connection, "ALTER TABLE chat_messages ADD COLUMN isUser INTEGER DEFAULT 0");
 
-                // Then delete the conversation
-                try (PreparedStatement ps = connection.prepareStatement(
-                        "DELETE FROM conversations WHERE id = ? AND projectHash = ?")) {
-                    ps.setString(1, conversation.getId());
-                    ps.setString(2, project.getLocationHash());
-                    int conversationsDeleted = ps.executeUpdate();
-                    log.info("Deleted " + conversationsDeleted + " conversations with ID " + conversation.getId());
-                    if (conversationsDeleted == 0) {
-                        log.warn("No conversation found with ID " + conversation.getId() + " and project hash " + project.getLocationHash());
-                    }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, conversationId FROM chat_messages ORDER BY conversationId, id");
+             PreparedStatement update = connection.prepareStatement("UPDATE chat_messages SET isUser = ? WHERE id = ?")) {
+            String conversationId = null;
+            int messageIndex = 0;
+            while (rs.next()) {
+                if (!Objects.equals(rs.getString("conversationId"), conversationId)) {
+                    conversationId = rs.getString("conversationId");
+                    messageIndex = 0;
                 }
-                connection.commit();
-            } catch (SQLException e) {
-                log.error("Error removing conversation", e);
-                connection.rollback();
-                throw e;
-            } finally {
-                connection.setAutoCommit(true);
+                // Even index = user message
+                update.setInt(1, messageIndex % 2 == 0 ? 1 : 0);
+                update.setInt(2, rs.getInt("id"));
+                update.addBatch();
+                messageIndex++;
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error removing conversation", e);
+            update.executeBatch();
         }
     }
 
-    public void clearAllConversations(@NotNull Project project) {
-        try (Connection connection = getConnection()) {
-            connection.setAutoCommit(false);
+    /**
+     * Full-text indices over the message contents and the conversation titles, kept up to date by triggers.
+     * The message index is an external-content table: it reads the contents from chat_messages instead of
+     * storing a second copy, the triggers pass the old content to remove a message from the index.
+     */
+    private static void createSearchIndex(@NotNull Connection connection) throws SQLException {
+        execute(connection, """
+                CREATE VIRTUAL TABLE IF NOT EXISTS conversation_search
+                USING fts5(conversationId UNINDEXED, content, content = 'chat_messages', content_rowid = 'id',
+                           tokenize = 'unicode61 remove_diacritics 2')
+                """);
+        execute(connection, """
+                CREATE TRIGGER IF NOT EXISTS conversation_search_message_insert AFTER INSERT ON chat_messages BEGIN
+                    INSERT INTO conversation_search (rowid, conversationId, content) VALUES (new.id, new.conversationId, new.content);
+                END
+                """);
+        execute(connection, """
+                CREATE TRIGGER IF NOT EXISTS conversation_search_message_delete AFTER DELETE ON chat_messages BEGIN
+                    INSERT INTO conversation_search (conversation_search, rowid, conversationId, content)
+                    VALUES ('delete', old.id, old.conversationId, old.content);
+                END
+                """);
+        execute(connection, """
+                CREATE TRIGGER IF NOT EXISTS conversation_search_message_update AFTER UPDATE OF conversationId, content ON chat_messages BEGIN
+                    INSERT INTO conversation_search (conversation_search, rowid, conversationId, content)
+                    VALUES ('delete', old.id, old.conversationId, old.content);
+                    INSERT INTO conversation_search (rowid, conversationId, content) VALUES (new.id, new.conversationId, new.content);
+                END
+                """);
+
+        // The titles are short, their index keeps its own copy under the rowid of the conversation
+        execute(connection, """
+                CREATE VIRTUAL TABLE IF NOT EXISTS conversation_title_search
+                USING fts5(conversationId UNINDEXED, title, tokenize = 'unicode61 remove_diacritics 2')
+                """);
+        execute(connection, """
+                CREATE TRIGGER IF NOT EXISTS conversation_title_search_insert AFTER INSERT ON conversations BEGIN
+                    INSERT INTO conversation_title_search (rowid, conversationId, title) VALUES (new.rowid, new.id, new.title);
+                END
+                """);
+        execute(connection, """
+                CREATE TRIGGER IF NOT EXISTS conversation_title_search_update AFTER UPDATE OF title ON conversations BEGIN
+                    UPDATE conversation_title_search SET title = new.title WHERE rowid = old.rowid;
+                END
+                """);
+        execute(connection, """
+                CREATE TRIGGER IF NOT EXISTS conversation_title_search_delete AFTER DELETE ON conversations BEGIN
+                    DELETE FROM conversation_title_search WHERE rowid = old.rowid;
+                END
+                """);
+
+        // Index the existing conversations
+        execute(connection, "INSERT INTO conversation_search (conversation_search) VALUES ('rebuild')");
+        execute(connection, """
+                INSERT INTO conversation_title_search (rowid, conversationId, title)
+                SELECT rowid, id, title FROM conversations
+                """);
+    }
+
+    private static void execute(@NotNull Connection connection, @NotNull String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Queue a write, the write runs in a transaction on the writer thread.
+     *
+     * @return completes when the write is committed, or exceptionally when it was rolled back
+     */
+    private @NotNull CompletableFuture<Void> write(@NotNull String description, @NotNull Write write) {
+        return CompletableFuture.runAsync(() -> {
             try {
-                // Delete all messages for conversations in this project
-                try (PreparedStatement ps = connection.prepareStatement(
-                        """
-                                DELETE FROM chat_messages
-                                WHERE conversationId IN (
-                                    SELECT id FROM conversations WHERE projectHash = ?
-                                )
-                                """)) {
-                    ps.setString(1, project.getLocationHash());
-                    ps.executeUpdate();
+                writeConnection.setAutoCommit(false);
+                try {
+                    write.run();
+                    writeConnection.commit();
+                } catch (SQLException e) {
+                    writeConnection.rollback();
+                    throw e;
+                } finally {
+                    writeConnection.setAutoCommit(true);
                 }
+            } catch (SQLException e) {
+                log.error("Error " + description, e);
+                throw new CompletionException(new RuntimeException("Error " + description, e));
+            }
+        }, writer);
+    }
 
-                // Then delete all conversations
-                try (PreparedStatement ps = connection.prepareStatement(
-                        "DELETE FROM conversations WHERE projectHash = ?")) {
-                    ps.setString(1, project.getLocationHash());
-                    ps.executeUpdate();
+    public @NotNull CompletableFuture<Void> addConversation(@NotNull Project project, @NotNull Conversation conversation) {
+        String projectHash = project.getLocationHash();
+        List<ChatMessage> messages = List.copyOf(conversation.getMessages());
+        return write("adding conversation", () -> {
+            insertConversation.setString(1, conversation.getId());
+            insertConversation.setString(2, projectHash);
+            insertConversation.setString(3, conversation.getTimestamp());
+            insertConversation.setString(4, conversation.getTitle());
+            insertConversation.setString(5, conversation.getLlmProvider());
+            insertConversation.setString(6, conversation.getModelName());
+            // Handle nulls for boolean values
+            insertConversation.setInt(7, conversation.getApiKeyUsed() != null && conversation.getApiKeyUsed() ? 1 : 0);
+            insertConversation.setLong(8, conversation.getInputCost() == null ? 0 : conversation.getInputCost());
+            insertConversation.setLong(9, conversation.getOutputCost() == null ? 0 : conversation.getOutputCost());
+            insertConversation.setInt(10, conversation.getContextWindow() == null ? 0 : conversation.getContextWindow());
+            insertConversation.setInt(11, (int) (conversation.getExecutionTimeMs() > 0 ? conversation.getExecutionTimeMs() : 0));
+            insertConversation.executeUpdate();
+
+            for (ChatMessage message : messages) {
+                insertMessage.setString(1, conversation.getId());
+                insertMessage.setString(2, message.getContent());
+                insertMessage.setInt(3, message.isUser() ? 1 : 0); // Store isUser as INTEGER (1=true, 0=false)
+                insertMessage.addBatch();
+            }
+            insertMessage.executeBatch();
+
+            cleanupOldConversations();
+        });
+    }
+
+    /**
+     * @param project the project
+     * @return the number of conversations of the project
+     */
+    public int countConversations(@NotNull Project project) {
+        synchronized (readConnection) {
+            try {
+                countConversations.setString(1, project.getLocationHash());
+                try (ResultSet rs = countConversations.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
                 }
-                connection.commit();
             } catch (SQLException e) {
-                log.error("Error clearing conversations", e);
-                connection.rollback();
-                throw e;
-            } finally {
-                connection.setAutoCommit(true);
+                log.error("Error counting conversations", e);
+                throw new RuntimeException("Error counting conversations", e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error clearing conversations", e);
         }
     }
 
-    private void cleanupOldConversations() {
-        try (Connection connection = getConnection()) {
-            connection.setAutoCommit(false);
+    /**
+     * Get a page of conversations, newest first, without their messages.
+     * The messages of a conversation are loaded with {@link #getMessages(String)} once it is selected.
+     *
+     * @param project the project
+     * @param offset  the number of conversations to skip
+     * @param limit   the maximum number of conversations to return
+     * @return the conversation headers
+     */
+    @NotNull
+    public List<Conversation> getConversationHeaders(@NotNull Project project, int offset, int limit) {
+        List<Conversation> conversations = new ArrayList<>();
+        synchronized (readConnection) {
             try {
-                // Delete the oldest DELETE_COUNT conversations based on the timestamp
-                try (PreparedStatement ps = connection.prepareStatement(
-                        "DELETE FROM conversations WHERE id IN (" +
-                                "SELECT id FROM conversations ORDER BY timestamp ASC LIMIT ?)")) {
-                    ps.setInt(1, DELETE_COUNT);
-                    int deleted = ps.executeUpdate();
-                    log.info("Deleted {} old conversations to free up space", deleted);
-                }
-                // Also delete associated messages
-                try (PreparedStatement ps = connection.prepareStatement(
-                        "DELETE FROM chat_messages WHERE conversationId NOT IN (SELECT id FROM conversations)")) {
-                    int msgDeleted = ps.executeUpdate();
-                    log.info("Deleted {} orphaned chat messages", msgDeleted);
+                selectConversationHeaders.setString(1, project.getLocationHash());
+                selectConversationHeaders.setInt(2, limit);
+                selectConversationHeaders.setInt(3, offset);
+                try (ResultSet rs = selectConversationHeaders.executeQuery()) {
+                    while (rs.next()) {
+                        Conversation conversation = new Conversation();
+                        conversation.setId(rs.getString("id"));
+                        conversation.setTimestamp(rs.getString("timestamp"));
+                        conversation.setTitle(rs.getString("title"));
+                        conversation.setLlmProvider(rs.getString("llmProvider"));
+                        conversation.setModelName(rs.getString("modelName"));
+                        conversation.setApiKeyUsed(rs.getInt("apiKeyUsed") == 1); // Convert INTEGER to boolean
+                        conversation.setInputCost(rs.getLong("inputCost"));
+                        conversation.setOutputCost(rs.getLong("outputCost"));
+                        conversation.setContextWindow(rs.getInt("contextWindow"));
+                        conversation.setExecutionTimeMs(rs.getInt("executionTimeMs"));
+                        conversations.add(conversation);
+                    }
                 }
             } catch (SQLException e) {
-                connection.rollback();
-                throw e;
-            } finally {
-                connection.setAutoCommit(true);
+                log.error("Error getting conversations", e);
+                throw new RuntimeException("Error getting conversations", e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error clearing conversations", e);
         }
+        return conversations;
     }
-    
+
     /**
-     * Migrate database to newer schema if needed.
-     * This method handles adding new columns and populating existing records
-     * with appropriate values to ensure backward compatibility.
+     * @param conversationId the conversation id
+     * @return the messages of the conversation, in the order they were added
      */
-    private void migrateDatabase() {
-        try (Connection connection = getConnection()) {
-            connection.setAutoCommit(false);
-            
+    @NotNull
+    public List<ChatMessage> getMessages(@NotNull String conversationId) {
+        List<ChatMessage> messages = new ArrayList<>();
+        synchronized (readConnection) {
             try {
-                // Check if isUser column exists in chat_messages table
-                boolean isUserColumnExists = false;
-                try (Statement statement = connection.createStatement();
-                     ResultSet rs = statement.executeQuery("PRAGMA table_info(chat_messages)")) {
-                    
+                selectMessages.setString(1, conversationId);
+                try (ResultSet rs = selectMessages.executeQuery()) {
                     while (rs.next()) {
-                        String columnName = rs.getString("name");
-                        if ("isUser".equals(columnName)) {
-                            isUserColumnExists = true;
-                            log.info("isUser column already exists in chat_messages table");
-                            break;
-                        }
+                        ChatMessage message = new ChatMessage();
+                        message.setContent(rs.getString("content"));
+                        message.setUser(rs.getInt("isUser") == 1);
+                        messages.add(message);
                     }
                 }
-                
-                if (!isUserColumnExists) {
-                    log.info("Adding isUser column to chat_messages table");
-                    
-                    // Add the isUser column to the table
-                    try (Statement statement = connection.createStatement()) {
-                        statement.execute("ALTER TABLE chat_messages ADD COLUMN isUser INTEGER DEFAULT 0");
-                    }
-                    
-                    // Process all conversations to set isUser flag correctly
-                    try (Statement statement = connection.createStatement();
-                         ResultSet conversationRs = statement.executeQuery("SELECT id FROM conversations")) {
-                        
-                        while (conversationRs.next()) {
-                            String conversationId = conversationRs.getString("id");
-                            
-                            // Get messages for this conversation
-                            try (PreparedStatement msgPs = connection.prepareStatement(
-                                 "SELECT id FROM chat_messages WHERE conversationId = ? ORDER BY id")) {
-                                msgPs.setString(1, conversationId);
-                                ResultSet msgRs = msgPs.executeQuery();
-                                
-                                // Set every even-indexed message as user (isUser=1)
-                                // and every odd-indexed message as AI (isUser=0)
-                                int messageIndex = 0;
-                                while (msgRs.next()) {
-                                    int messageId = msgRs.getInt("id");
-                                    boolean isUser = messageIndex % 2 == 0; // Even index = user message
-                                    
-                                    try (PreparedStatement updatePs = connection.prepareStatement(
-                                         "UPDATE chat_messages SET isUser = ? WHERE id = ?")) {
-                                        updatePs.setInt(1, isUser ? 1 : 0);
-                                        updatePs.setInt(2, messageId);
-                                        updatePs.executeUpdate();
-                                    }
-                                    
-                                    messageIndex++;
-                                }
-                                
-                                log.debug("Updated {} messages for conversation {}", messageIndex, conversationId);
-                            }
-                        }
+            } catch (SQLException e) {
+                log.error("Error getting chat messages", e);
+                throw new RuntimeException("Error getting chat messages", e);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Search the titles and messages of the conversations of a project.
+     *
+     * @param project the project
+     * @param query   the search terms, the last term also matches as a prefix
+     * @param limit   the maximum number of conversations to return
+     * @return the matching conversations without their messages, best match first
+     */
+    @NotNull
+    public List<ConversationSearchResult> searchConversations(@NotNull Project project, @NotNull String query, int limit) {
+        String matchQuery = toMatchQuery(query);
+        if (matchQuery == null) {
+            return List.of();
+        }
+
+        List<ConversationSearchResult> results = new ArrayList<>();
+        synchronized (readConnection) {
+            try {
+                searchConversations.setString(1, ConversationSearchResult.HIGHLIGHT_START);
+                searchConversations.setString(2, ConversationSearchResult.HIGHLIGHT_END);
+                searchConversations.setInt(3, SNIPPET_TOKENS);
+                searchConversations.setString(4, matchQuery);
+                searchConversations.setString(5, project.getLocationHash());
+                searchConversations.setInt(6, limit);
+                try (ResultSet rs = searchConversations.executeQuery()) {
+                    while (rs.next()) {
+                        Conversation conversation = new Conversation();
+                        conversation.setId(rs.getString("id"));
+                        conversation.setTimestamp(rs.getString("timestamp"));
+                        conversation.setTitle(rs.getString("title"));
+                        conversation.setLlmProvider(rs.getString("llmProvider"));
+                        conversation.setModelName(rs.getString("modelName"));
+                        conversation.setApiKeyUsed(rs.getInt("apiKeyUsed") == 1); // Convert INTEGER to boolean
+                        conversation.setInputCost(rs.getLong("inputCost"));
+                        conversation.setOutputCost(rs.getLong("outputCost"));
+                        conversation.setContextWindow(rs.getInt("contextWindow"));
+                        conversation.setExecutionTimeMs(rs.getInt("executionTimeMs"));
+                        String snippet = rs.getString("snippet");
+                        results.add(new ConversationSearchResult(conversation, snippet == null ? "" : snippet, rs.getDouble("score")));
                     }
-                    
-                    log.info("Database migration completed successfully");
                 }
-                
-                connection.commit();
             } catch (SQLException e) {
-                connection.rollback();
-                log.error("Error during database migration", e);
-                // Don't throw exception to allow application to continue with fallback behavior
-            } finally {
-                connection.setAutoCommit(true);
+                log.error("Error searching conversations", e);
+                throw new RuntimeException("Error searching conversations", e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Every term of the user input is quoted, so FTS5 operators and punctuation are searched as text.
+     * The last term matches as a prefix, to search while typing.
+     *
+     * @return the FTS5 query, null when the input has no terms
+     */
+    static @Nullable String toMatchQuery(@NotNull String input) {
+        String[] terms = input.trim().split("\\s+");
+        StringBuilder query = new StringBuilder();
+        for (String term : terms) {
+            // Terms without letters or digits have no tokens to search for
+            if (term.codePoints().noneMatch(Character::isLetterOrDigit)) {
+                continue;
+            }
+            if (!query.isEmpty()) {
+                query.append(' ');
+            }
+            query.append('"').append(term.replace("\"", "\"\"")).append('"');
+        }
+        return query.isEmpty() ? null : query.append('*').toString();
+    }
+
+    public @NotNull CompletableFuture<Void> removeConversation(@NotNull Project project, @NotNull Conversation conversation) {
+        String projectHash = project.getLocationHash();
+        return write("removing conversation", () -> {
+            // Delete messages first due to foreign key constraint
+            deleteConversationMessages.setString(1, conversation.getId());
+            int messagesDeleted = deleteConversationMessages.executeUpdate();
+            log.info("Deleted {} messages for conversation {}", messagesDeleted, conversation.getId());
+
+            // Then delete the conversation
+            deleteConversation.setString(1, conversation.getId());
+            deleteConversation.setString(2, projectHash);
+            int conversationsDeleted = deleteConversation.executeUpdate();
+            log.info("Deleted " + conversationsDeleted + " conversations with ID " + conversation.getId());
+            if (conversationsDeleted == 0) {
+                log.warn("No conversation found with ID " + conversation.getId() + " and project hash " + projectHash);
+            }
+        });
+    }
+
+    public @NotNull CompletableFuture<Void> clearAllConversations(@NotNull Project project) {
+        String projectHash = project.getLocationHash();
+        return write("clearing conversations", () -> {
+            // Delete all messages for conversations in this project
+            deleteProjectMessages.setString(1, projectHash);
+            deleteProjectMessages.executeUpdate();
+
+            // Then delete all conversations
+            deleteProjectConversations.setString(1, projectHash);
+            deleteProjectConversations.executeUpdate();
+        });
+    }
+
+    /**
+     * Delete the oldest conversations when the database exceeds its size threshold, runs on the writer thread.
+     */
+    private void cleanupOldConversations() throws SQLException {
+        try {
+            if (Files.size(dbPath) <= MAX_DB_SIZE_BYTES) {
+                return;
+            }
+        } catch (IOException e) {
+            log.error("Error checking DB size", e);
+            return;
+        }
+
+        // Delete the oldest DELETE_COUNT conversations based on the timestamp
+        deleteOldestConversations.setInt(1, DELETE_COUNT);
+        int deleted = deleteOldestConversations.executeUpdate();
+        log.info("Deleted {} old conversations to free up space", deleted);
+
+        // Also delete associated messages
+        int msgDeleted = deleteOrphanedMessages.executeUpdate();
+        log.info("Deleted {} orphaned chat messages", msgDeleted);
+    }
+
+    @Override
+    public void dispose() {
+        // Let the queued writes finish before closing the connections
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(WRITER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Conversation writes still pending after {} seconds, closing the database", WRITER_SHUTDOWN_TIMEOUT_SECONDS);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        close(writeConnection);
+        synchronized (readConnection) {
+            close(readConnection);
+        }
+    }
+
+    private static void close(@NotNull Connection connection) {
+        try {
+            // Closes the prepared statements of the connection too
+            connection.close();
         } catch (SQLException e) {
-            log.error("Failed to connect to database for migration", e);
-            // Don't throw exception to allow application to continue with fallback behavior
+            log.warn("Error closing the conversation database", e);
         }
     }
 }
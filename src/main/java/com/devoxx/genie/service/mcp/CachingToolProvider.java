@@ -0,0 +1,48 @@
+package com.devoxx.genie.service.mcp;
+
+import dev.langchain4j.service.tool.ToolProvider;
+import dev.langchain4j.service.tool.ToolProviderRequest;
+import dev.langchain4j.service.tool.ToolProviderResult;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Tool provider which keeps the tools of its delegate until it is invalidated.
+ * <p>
+ * The MCP tool provider lists the tools of every MCP server each time an assistant asks for them,
+ * which is a round trip per server for every prompt. The tool specifications only change when the
+ * servers are reconfigured or restarted, the tool executors keep calling the live clients.
+ */
+@Slf4j
+public final class CachingToolProvider implements ToolProvider {
+
+    private final ToolProvider delegate;
+    private volatile ToolProviderResult tools;
+
+    public CachingToolProvider(@NotNull ToolProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ToolProviderResult provideTools(ToolProviderRequest request) {
+        ToolProviderResult result = tools;
+        if (result == null) {
+            synchronized (this) {
+                result = tools;
+                if (result == null) {
+                    result = delegate.provideTools(request);
+                    tools = result;
+                    log.debug("Cached {} MCP tool specifications", result.tools().size());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop the cached tools, the next request lists the tools of the servers again.
+     */
+    public void invalidate() {
+        tools = null;
+    }
+}
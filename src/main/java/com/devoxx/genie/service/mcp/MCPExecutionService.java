@@ -2,9 +2,9 @@ package com.devoxx.genie.service.mcp;
 
 import com.devoxx.genie.model.mcp.MCPServer;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
+import com.devoxx.genie.ui.topic.AppTopics;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
-import dev.langchain4j.mcp.McpToolProvider;
 import dev.langchain4j.mcp.client.DefaultMcpClient;
 import dev.langchain4j.mcp.client.McpClient;
 import dev.langchain4j.mcp.client.transport.http.HttpMcpTransport;
@@ -17,52 +17,75 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
- * Service for creating and managing MCP clients based on user configuration
+ * Service for creating and managing MCP clients based on user configuration.
+ * The clients are started and kept running by the {@link MCPServerSupervisor}.
  */
 @Slf4j
 public class MCPExecutionService implements Disposable {
 
-    // Cache of MCP clients keyed by server name
-    private final Map<String, McpClient> clientCache = new ConcurrentHashMap<>();
+    // How long a prompt waits for the MCP servers which are still starting
+    private static final Duration STARTUP_DEADLINE = Duration.ofSeconds(5);
+
+    // Tool provider of the ready servers, reused until the supervisor reports a change
+    private final Object toolProviderLock = new Object();
+    private CachingToolProvider toolProvider;
+    private long toolProviderGeneration;
 
     public static MCPExecutionService getInstance() {
         return ApplicationManager.getApplication().getService(MCPExecutionService.class);
     }
-    
+
+    public MCPExecutionService() {
+        ApplicationManager.getApplication().getMessageBus()
+                .connect(this)
+                .subscribe(AppTopics.SETTINGS_CHANGED_TOPIC, hasKey -> settingsChanged());
+    }
+
     /**
-     * Clears the client cache, forcing new client creation on next request
+     * Start the enabled MCP servers in the background, so the first prompt doesn't wait for them.
      */
-    public void clearClientCache() {
-        MCPService.logDebug("Clearing MCP client cache: " + clientCache.size() + " clients");
-        // Close each client to clean up resources
-        for (Map.Entry<String, McpClient> entry : clientCache.entrySet()) {
-            try {
-                // Attempt to close client if it has a close method
-                closeClientSafely(entry.getValue());
-            } catch (Exception e) {
-                log.warn("Error closing MCP client for: {}", entry.getKey(), e);
-            }
+    public void startServers() {
+        if (MCPService.isMCPEnabled()) {
+            MCPServerSupervisor.getInstance().sync(getEnabledServers());
         }
-        clientCache.clear();
     }
 
     /**
-     * Safely close an MCP client, handling exceptions
-     * 
-     * @param client The client to close
+     * Drop the cached tool list, the next prompt lists the tools of the servers again.
+     * Used when the tools of a server may have changed without a change of its configuration.
      */
-    private void closeClientSafely(McpClient client) {
-        if (client == null) return;
+    public void invalidateToolList() {
+        synchronized (toolProviderLock) {
+            if (toolProvider != null) {
+                toolProvider.invalidate();
+            }
+        }
+    }
 
-        try {
-            client.close();
-        } catch (Exception e) {
-            log.warn("Error closing MCP client", e);
+    /**
+     * Restart the reconfigured servers, stop all servers when MCP was disabled, and list the tools again.
+     */
+    private void settingsChanged() {
+        if (MCPService.isMCPEnabled()) {
+            MCPServerSupervisor.getInstance().sync(getEnabledServers());
+        } else {
+            MCPServerSupervisor.getInstance().stopAll();
         }
+        invalidateToolList();
+    }
+    
+    /**
+     * Stops all MCP servers, they are started again on the next request
+     */
+    public void clearClientCache() {
+        MCPService.logDebug("Stopping all MCP servers");
+        synchronized (toolProviderLock) {
+            toolProvider = null;
+        }
+        MCPServerSupervisor.getInstance().stopAll();
     }
     
     /**
@@ -70,46 +93,58 @@ public class MCPExecutionService implements Disposable {
      */
     @Override
     public void dispose() {
-        log.info("Disposing MCPExecutionService, closing all clients");
-        clearClientCache();
+        synchronized (toolProviderLock) {
+            toolProvider = null;
+        }
     }
     
     /**
-     * Creates tool providers for all configured MCP servers
+     * Returns the tool provider for the ready MCP servers.
+     * Servers which are still starting are waited for up to a short deadline, the provider and its
+     * tool list are reused until the ready servers or their tools change.
      * 
      * @return A ToolProvider that includes all enabled MCP tools, or null if MCP is disabled or no servers are configured
      */
     public ToolProvider createMCPToolProvider() {
-        log.debug("Creating MCP Tool Provider");
-
-        // Get all configured MCP servers
-        Map<String, MCPServer> mcpServers = DevoxxGenieStateService.getInstance()
-                .getMcpSettings()
-                .getMcpServers();
+        if (!MCPService.isMCPEnabled()) {
+            return null;
+        }
 
-        if (mcpServers.isEmpty()) {
+        List<MCPServer> enabledServers = getEnabledServers();
+        if (enabledServers.isEmpty()) {
             MCPService.logDebug("No MCP servers configured");
             return null;
         }
 
-        // Filter enabled servers, map to clients, and collect
-        List<McpClient> mcpClients = mcpServers.values().stream()
-                .filter(MCPServer::isEnabled)
-                .peek(server -> MCPService.logDebug("Processing MCP server: " + server.getName()))
-                .map(this::createMcpClient)
-                .filter(Objects::nonNull)
-                .peek(client -> MCPService.logDebug("Added MCP client"))
-                .collect(Collectors.toList());
-
-        if (mcpClients.isEmpty()) {
-            MCPService.logDebug("No MCP clients could be created");
-            return null;
+        MCPServerSupervisor supervisor = MCPServerSupervisor.getInstance();
+        supervisor.sync(enabledServers);
+        supervisor.awaitStarted(STARTUP_DEADLINE);
+
+        synchronized (toolProviderLock) {
+            long generation = supervisor.generation();
+            if (toolProvider != null && generation == toolProviderGeneration) {
+                return toolProvider;
+            }
+
+            if (!supervisor.hasReadyServers()) {
+                MCPService.logDebug("No MCP servers are ready");
+                return null;
+            }
+
+            MCPService.logDebug("Creating MCP Tool Provider for the ready MCP servers");
+            toolProvider = new CachingToolProvider(request -> supervisor.provideTools());
+            toolProviderGeneration = generation;
+            return toolProvider;
         }
+    }
 
-        MCPService.logDebug("Creating MCP Tool Provider with " + mcpClients.size() + " clients");
-        return McpToolProvider.builder()
-                .mcpClients(mcpClients)
-                .build();
+    private static @NotNull List<MCPServer> getEnabledServers() {
+        return DevoxxGenieStateService.getInstance()
+                .getMcpSettings()
+                .getMcpServers()
+                .values().stream()
+                .filter(MCPServer::isEnabled)
+                .toList();
     }
 
     /**
@@ -119,15 +154,9 @@ public class MCPExecutionService implements Disposable {
      * @return An initialized MCP client or null if creation fails
      */
     @Nullable
-    private McpClient createMcpClient(@NotNull MCPServer mcpServer) {
+    static McpClient createMcpClient(@NotNull MCPServer mcpServer) {
         String serverName = mcpServer.getName();
 
-        // Check if we already have a client for this server
-        if (clientCache.containsKey(serverName)) {
-            MCPService.logDebug("Reusing existing MCP client for: " + serverName);
-            return clientCache.get(serverName);
-        }
-
         try {
             MCPService.logDebug("Creating new MCP client for: " + serverName);
 
@@ -152,11 +181,6 @@ public class MCPExecutionService implements Disposable {
                 client = initStdioClient(commandList, mcpServer.getEnv());
             }
 
-            // Cache the client if not null
-            if (client != null) {
-                clientCache.put(serverName, client);
-                MCPService.logDebug("Added new MCP client to cache for: " + serverName);
-            }
             return client;
         } catch (Exception e) {
             log.error("Failed to create MCP client for: " + serverName, e);
@@ -0,0 +1,468 @@
+package com.devoxx.genie.service.mcp;
+
+import com.devoxx.genie.model.mcp.MCPServer;
+import com.devoxx.genie.service.prompt.threading.StructuredTasks;
+import com.devoxx.genie.service.prompt.threading.ThreadPoolManager;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.mcp.client.McpClient;
+import dev.langchain4j.service.tool.ToolProviderResult;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Starts the enabled MCP servers and keeps them running.
+ * <p>
+ * Servers are started concurrently in the background, a prompt waits a short deadline for the servers
+ * which are still starting and continues with the servers which are ready. A server whose start or health
+ * check fails, or which loses its connection during a tool call, is closed and restarted with an exponential
+ * backoff. A tool which reports an error doesn't restart its server. The health check lists the tools of the
+ * server, a changed tool list is reported like a change of the ready servers.
+ */
+@Slf4j
+public final class MCPServerSupervisor implements Disposable {
+
+    static final long INITIAL_BACKOFF_MS = 1_000;
+    static final long MAX_BACKOFF_MS = 60_000;
+    private static final long HEALTH_CHECK_INTERVAL_SECONDS = 60;
+    private static final long LIST_TOOLS_TIMEOUT_SECONDS = 10;
+
+    public enum State { STARTING, READY, FAILED }
+
+    /**
+     * Startup and tool call latency of a server.
+     */
+    public record ServerStatus(@NotNull State state,
+                               long startupMillis,
+                               int restarts,
+                               long toolCalls,
+                               long averageToolCallMillis,
+                               long maxToolCallMillis) {
+
+        public @NotNull String describe() {
+            String status = switch (state) {
+                case STARTING -> "Starting";
+                case READY -> "Ready, started in " + startupMillis + " ms";
+                case FAILED -> "Failed, restarting";
+            };
+            if (restarts > 0) {
+                status += ", " + restarts + (restarts == 1 ? " restart" : " restarts");
+            }
+            if (toolCalls > 0) {
+                status += ", " + toolCalls + " tool calls (avg " + averageToolCallMillis + " ms, max " + maxToolCallMillis + " ms)";
+            }
+            return status;
+        }
+    }
+
+    /**
+     * The settings of an MCP server which are used to start it, a change requires a restart.
+     */
+    private record ServerConfig(String name,
+                                MCPServer.TransportType transportType,
+                                String command,
+                                List<String> args,
+                                String sseUrl,
+                                Map<String, String> env) {
+
+        static @NotNull ServerConfig of(@NotNull MCPServer server) {
+            return new ServerConfig(server.getName(),
+                    server.getTransportType(),
+                    server.getCommand(),
+                    server.getArgs() == null ? List.of() : new ArrayList<>(server.getArgs()),
+                    server.getSseUrl(),
+                    server.getEnv() == null ? Map.of() : new HashMap<>(server.getEnv()));
+        }
+    }
+
+    private final class ServerHandle {
+        private final MCPServer server;
+        private final ServerConfig config;
+        private final LongAdder toolCalls = new LongAdder();
+        private final LongAdder toolCallNanos = new LongAdder();
+        private final AtomicLong maxToolCallNanos = new AtomicLong();
+
+        // Guarded by this handle
+        private State state = State.STARTING;
+        private McpClient client;
+        private CompletableFuture<Void> started = new CompletableFuture<>();
+        private ScheduledFuture<?> restart;
+        private List<ToolSpecification> tools;
+        private long startupMillis;
+        private int failures;
+        private int restarts;
+        private boolean stopped;
+
+        private ServerHandle(@NotNull MCPServer server) {
+            this.server = server;
+            this.config = ServerConfig.of(server);
+        }
+
+        private void start() {
+            long startNanos = System.nanoTime();
+            executor.execute(() -> {
+                McpClient newClient = null;
+                Exception error = null;
+                try {
+                    newClient = clientFactory.apply(server);
+                } catch (Exception e) {
+                    error = e;
+                }
+                synchronized (this) {
+                    if (stopped) {
+                        closeQuietly(newClient);
+                        return;
+                    }
+                    if (newClient == null) {
+                        log.warn("MCP server {} failed to start", config.name(), error);
+                        failed();
+                    } else {
+                        client = newClient;
+                        state = State.READY;
+                        failures = 0;
+                        startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                        log.info("MCP server {} ready in {} ms", config.name(), startupMillis);
+                        generation.incrementAndGet();
+                    }
+                    started.complete(null);
+                }
+            });
+        }
+
+        /**
+         * @param failedClient the client which failed, a late failure of a client which was already replaced
+         *                     doesn't restart the server
+         */
+        private synchronized void failed(@NotNull McpClient failedClient) {
+            if (client != failedClient) {
+                log.debug("Ignoring a failure of a previous client of MCP server {}", config.name());
+                return;
+            }
+            failed();
+        }
+
+        private synchronized void failed() {
+            if (stopped || state == State.FAILED) {
+                return;
+            }
+            boolean wasReady = state == State.READY;
+            state = State.FAILED;
+            closeQuietly(client);
+            client = null;
+            tools = null;
+            failures++;
+            long delay = backoffMillis(failures);
+            log.info("Restarting MCP server {} in {} ms", config.name(), delay);
+            restart = scheduler.schedule(this::restart, delay, TimeUnit.MILLISECONDS);
+            started.complete(null);
+            if (wasReady) {
+                generation.incrementAndGet();
+            }
+        }
+
+        private synchronized void restart() {
+            if (stopped) {
+                return;
+            }
+            restarts++;
+            state = State.STARTING;
+            started = new CompletableFuture<>();
+            start();
+        }
+
+        private synchronized void stop() {
+            stopped = true;
+            if (restart != null) {
+                restart.cancel(false);
+            }
+            closeQuietly(client);
+            client = null;
+            started.complete(null);
+        }
+
+        private synchronized @Nullable McpClient readyClient() {
+            return state == State.READY ? client : null;
+        }
+
+        private void recordToolCall(long nanos) {
+            toolCalls.increment();
+            toolCallNanos.add(nanos);
+            maxToolCallNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private synchronized @NotNull ServerStatus status() {
+            long calls = toolCalls.sum();
+            return new ServerStatus(state,
+                    startupMillis,
+                    restarts,
+                    calls,
+                    calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(toolCallNanos.sum() / calls),
+                    TimeUnit.NANOSECONDS.toMillis(maxToolCallNanos.get()));
+        }
+    }
+
+    private final Function<MCPServer, McpClient> clientFactory;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, ServerHandle> servers = new ConcurrentHashMap<>();
+    // Incremented whenever the ready servers or their tools change
+    private final AtomicLong generation = new AtomicLong();
+    private final ScheduledFuture<?> healthCheck;
+
+    public static MCPServerSupervisor getInstance() {
+        return ApplicationManager.getApplication().getService(MCPServerSupervisor.class);
+    }
+
+    public MCPServerSupervisor() {
+        this(MCPExecutionService::createMcpClient,
+                ThreadPoolManager.getInstance().getIoExecutor(),
+                AppExecutorUtil.getAppScheduledExecutorService(),
+                HEALTH_CHECK_INTERVAL_SECONDS);
+    }
+
+    MCPServerSupervisor(@NotNull Function<MCPServer, McpClient> clientFactory,
+                        @NotNull Executor executor,
+                        @NotNull ScheduledExecutorService scheduler,
+                        long healthCheckIntervalSeconds) {
+        this.clientFactory = clientFactory;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.healthCheck = healthCheckIntervalSeconds <= 0 ? null : scheduler.scheduleWithFixedDelay(
+                () -> executor.execute(this::checkHealth),
+                healthCheckIntervalSeconds, healthCheckIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Start the servers which are not running yet, restart the reconfigured servers and stop the servers
+     * which are no longer enabled. Returns without waiting for the servers to start.
+     *
+     * @param enabledServers the enabled servers
+     */
+    public synchronized void sync(@NotNull Collection<MCPServer> enabledServers) {
+        Set<String> names = new HashSet<>();
+        for (MCPServer server : enabledServers) {
+            names.add(server.getName());
+            ServerHandle handle = servers.get(server.getName());
+            if (handle != null && handle.config.equals(ServerConfig.of(server))) {
+                continue;
+            }
+            if (handle != null) {
+                log.info("MCP server {} was reconfigured, restarting it", server.getName());
+                handle.stop();
+                generation.incrementAndGet();
+            }
+            ServerHandle newHandle = new ServerHandle(server);
+            servers.put(server.getName(), newHandle);
+            newHandle.start();
+        }
+        servers.entrySet().removeIf(entry -> {
+            if (names.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().stop();
+            generation.incrementAndGet();
+            return true;
+        });
+    }
+
+    /**
+     * Wait until the servers which are starting are ready, failed, or the deadline has passed.
+     *
+     * @param deadline the maximum time to wait
+     */
+    public void awaitStarted(@NotNull Duration deadline) {
+        CompletableFuture<?>[] starting = servers.values().stream()
+                .map(handle -> {
+                    synchronized (handle) {
+                        return handle.started;
+                    }
+                })
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(starting).get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Not all MCP servers started within {} ms, continuing with the ready servers", deadline.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The futures are only completed normally
+        }
+    }
+
+    public boolean hasReadyServers() {
+        return servers.values().stream().anyMatch(handle -> handle.readyClient() != null);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Lists the tools of the ready servers. A server which fails to list its tools is restarted
+     * and left out, the tool calls are timed per server. A tool call only restarts its server when
+     * the connection to the server failed, the server is shared by all projects and prompts.
+     *
+     * @return the tools of the ready servers
+     */
+    public @NotNull ToolProviderResult provideTools() {
+        ToolProviderResult.Builder result = ToolProviderResult.builder();
+        List<ServerTools> listed;
+        try {
+            listed = listTools();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result.build();
+        }
+        for (ServerTools serverTools : listed) {
+            ServerHandle handle = serverTools.handle();
+            McpClient client = serverTools.client();
+            synchronized (handle) {
+                handle.tools = serverTools.tools();
+            }
+            for (ToolSpecification tool : serverTools.tools()) {
+                result.add(tool, (request, memoryId) -> {
+                    long start = System.nanoTime();
+                    try {
+                        return client.executeTool(request);
+                    } catch (RuntimeException e) {
+                        if (isConnectionFailure(e)) {
+                            log.warn("MCP server {} lost its connection during a tool call", handle.config.name(), e);
+                            handle.failed(client);
+                        } else {
+                            log.debug("Tool {} of MCP server {} failed: {}", request.name(), handle.config.name(), e.getMessage());
+                        }
+                        throw e;
+                    } finally {
+                        handle.recordToolCall(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * @param serverName the server name
+     * @return the status of the server, null when it isn't supervised
+     */
+    public @Nullable ServerStatus getStatus(@NotNull String serverName) {
+        ServerHandle handle = servers.get(serverName);
+        return handle == null ? null : handle.status();
+    }
+
+    public synchronized void stopAll() {
+        if (servers.isEmpty()) {
+            return;
+        }
+        servers.values().forEach(ServerHandle::stop);
+        servers.clear();
+        generation.incrementAndGet();
+    }
+
+    void checkHealth() {
+        List<ServerTools> listed;
+        try {
+            listed = listTools();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (ServerTools serverTools : listed) {
+            ServerHandle handle = serverTools.handle();
+            List<ToolSpecification> tools = serverTools.tools();
+            synchronized (handle) {
+                if (handle.tools != null && !handle.tools.equals(tools)) {
+                    log.info("The tools of MCP server {} changed", handle.config.name());
+                    generation.incrementAndGet();
+                }
+                handle.tools = tools;
+            }
+        }
+    }
+
+    private record ServerTools(ServerHandle handle, McpClient client, List<ToolSpecification> tools) {
+    }
+
+    /**
+     * Lists the tools of all ready servers at once. A server which fails to list its tools or doesn't answer
+     * in time is restarted and left out.
+     */
+    private @NotNull List<ServerTools> listTools() throws InterruptedException {
+        List<ServerHandle> handles = new ArrayList<>();
+        List<McpClient> clients = new ArrayList<>();
+        List<Callable<List<ToolSpecification>>> calls = new ArrayList<>();
+        for (ServerHandle handle : servers.values()) {
+            McpClient client = handle.readyClient();
+            if (client != null) {
+                handles.add(handle);
+                clients.add(client);
+                calls.add(client::listTools);
+            }
+        }
+
+        List<Future<List<ToolSpecification>>> results =
+                StructuredTasks.invokeAll(executor, calls, LIST_TOOLS_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        List<ServerTools> listed = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            ServerHandle handle = handles.get(i);
+            try {
+                listed.add(new ServerTools(handle, clients.get(i), results.get(i).get()));
+            } catch (ExecutionException e) {
+                log.warn("Failed to list the tools of MCP server {}", handle.config.name(), e.getCause());
+                handle.failed(clients.get(i));
+            } catch (CancellationException e) {
+                log.warn("MCP server {} didn't list its tools within {} seconds", handle.config.name(), LIST_TOOLS_TIMEOUT_SECONDS);
+                handle.failed(clients.get(i));
+            }
+        }
+        return listed;
+    }
+
+    /**
+     * A tool which fails, for example on invalid arguments, leaves its server running. A failure of the
+     * transport is caused by an I/O error, the health check finds the servers which stopped answering.
+     */
+    static boolean isConnectionFailure(@NotNull Throwable error) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Throwable cause = error; cause != null && seen.add(cause); cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long backoffMillis(int failures) {
+        return Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << Math.min(failures - 1, 16));
+    }
+
+    private static void closeQuietly(@Nullable McpClient client) {
+        if (client == null) {
+            return;
+        }
+        try {
+            client.close();
+        } catch (Exception e) {
+            log.warn("Error closing MCP client", e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (healthCheck != null) {
+            healthCheck.cancel(false);
+        }
+        stopAll();
+    }
+}
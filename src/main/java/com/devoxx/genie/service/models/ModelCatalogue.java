@@ -0,0 +1,119 @@
+package com.devoxx.genie.service.models;
+
+import com.devoxx.genie.model.LanguageModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * An immutable snapshot of the known language models, indexed by provider and by provider and model name.
+ * <p>
+ * The catalogue is never changed, updating the models of a provider returns a new catalogue, so readers on any
+ * thread can use a catalogue without locking.
+ */
+public final class ModelCatalogue {
+
+    private static final ModelCatalogue EMPTY = new ModelCatalogue(new EnumMap<>(ModelProvider.class));
+
+    private final Map<ModelProvider, List<LanguageModel>> modelsByProvider;
+    private final Map<String, LanguageModel> modelsByKey;
+    private final List<LanguageModel> models;
+
+    private ModelCatalogue(@NotNull EnumMap<ModelProvider, List<LanguageModel>> modelsByProvider) {
+        this.modelsByProvider = Collections.unmodifiableMap(modelsByProvider);
+
+        Map<String, LanguageModel> byKey = new HashMap<>();
+        List<LanguageModel> all = new ArrayList<>();
+        modelsByProvider.forEach((provider, providerModels) -> {
+            for (LanguageModel model : providerModels) {
+                byKey.put(key(provider, model.getModelName()), model);
+            }
+            all.addAll(providerModels);
+        });
+        this.modelsByKey = byKey;
+        this.models = Collections.unmodifiableList(all);
+    }
+
+    public static @NotNull ModelCatalogue empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a catalogue from models of any provider, a later model replaces an earlier one with the same name.
+     *
+     * @param models the models
+     * @return the catalogue
+     */
+    public static @NotNull ModelCatalogue of(@NotNull Collection<LanguageModel> models) {
+        EnumMap<ModelProvider, Map<String, LanguageModel>> grouped = new EnumMap<>(ModelProvider.class);
+        for (LanguageModel model : models) {
+            grouped.computeIfAbsent(model.getProvider(), provider -> new LinkedHashMap<>())
+                    .put(model.getModelName(), model);
+        }
+        EnumMap<ModelProvider, List<LanguageModel>> byProvider = new EnumMap<>(ModelProvider.class);
+        grouped.forEach((provider, providerModels) -> byProvider.put(provider, List.copyOf(providerModels.values())));
+        return new ModelCatalogue(byProvider);
+    }
+
+    /**
+     * @return all models, grouped by provider
+     */
+    public @NotNull List<LanguageModel> getModels() {
+        return models;
+    }
+
+    /**
+     * @param provider the provider
+     * @return the models of the provider, empty if it has none
+     */
+    public @NotNull List<LanguageModel> getModels(@NotNull ModelProvider provider) {
+        return modelsByProvider.getOrDefault(provider, List.of());
+    }
+
+    /**
+     * @param provider  the provider
+     * @param modelName the name of the model
+     * @return the model, empty if the provider has no model with this name
+     */
+    public @NotNull Optional<LanguageModel> findModel(@NotNull ModelProvider provider, @NotNull String modelName) {
+        return Optional.ofNullable(modelsByKey.get(key(provider, modelName)));
+    }
+
+    /**
+     * @param provider the provider
+     * @return true if the catalogue has models of the provider
+     */
+    public boolean hasModels(@NotNull ModelProvider provider) {
+        return modelsByProvider.containsKey(provider);
+    }
+
+    /**
+     * Replace the models of a provider.
+     *
+     * @param provider the provider
+     * @param models   the new models of the provider, models of other providers are ignored
+     * @return a new catalogue, this catalogue is not changed
+     */
+    public @NotNull ModelCatalogue withModels(@NotNull ModelProvider provider, @NotNull Collection<LanguageModel> models) {
+        EnumMap<ModelProvider, List<LanguageModel>> byProvider = new EnumMap<>(ModelProvider.class);
+        byProvider.putAll(modelsByProvider);
+
+        Map<String, LanguageModel> providerModels = new LinkedHashMap<>();
+        for (LanguageModel model : models) {
+            if (model.getProvider() == provider) {
+                providerModels.put(model.getModelName(), model);
+            }
+        }
+        if (providerModels.isEmpty()) {
+            byProvider.remove(provider);
+        } else {
+            byProvider.put(provider, List.copyOf(providerModels.values()));
+        }
+        return new ModelCatalogue(byProvider);
+    }
+
+    private static @NotNull String key(@NotNull ModelProvider provider, @NotNull String modelName) {
+        return provider.name() + ":" + modelName;
+    }
+}
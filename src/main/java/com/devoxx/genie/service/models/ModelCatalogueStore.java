@@ -0,0 +1,107 @@
+package com.devoxx.genie.service.models;
+
+import com.devoxx.genie.model.LanguageModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the fetched models on disk, so the IDE starts with the models of the last session, also when offline.
+ */
+@Slf4j
+public class ModelCatalogueStore {
+
+    private static final int VERSION = 1;
+
+    private final Gson gson = new Gson();
+    private final Path file;
+
+    /**
+     * The models fetched for a provider.
+     *
+     * @param refreshedAt when the models were fetched, in milliseconds since the epoch
+     * @param models      the models
+     */
+    public record StoredModels(long refreshedAt, List<LanguageModel> models) {
+    }
+
+    private record Snapshot(int version, Map<String, StoredModels> providers) {
+    }
+
+    /**
+     * @param file the JSON file, created on the first save
+     */
+    public ModelCatalogueStore(@NotNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the stored models per provider, empty if nothing is stored or the file can't be read
+     */
+    public @NotNull Map<ModelProvider, StoredModels> load() {
+        Map<ModelProvider, StoredModels> result = new EnumMap<>(ModelProvider.class);
+        if (!Files.isRegularFile(file)) {
+            return result;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Snapshot snapshot = gson.fromJson(reader, Snapshot.class);
+            if (snapshot == null || snapshot.version() != VERSION || snapshot.providers() == null) {
+                return result;
+            }
+            snapshot.providers().forEach((name, stored) -> {
+                try {
+                    ModelProvider provider = ModelProvider.valueOf(name);
+                    if (stored != null && stored.models() != null) {
+                        // Skip entries of models which no longer parse
+                        List<LanguageModel> models = stored.models().stream()
+                                .filter(model -> model != null && model.getProvider() == provider && model.getModelName() != null)
+                                .toList();
+                        result.put(provider, new StoredModels(stored.refreshedAt(), models));
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.debug("Ignoring the stored models of unknown provider {}", name);
+                }
+            });
+        } catch (IOException | JsonParseException e) {
+            log.warn("Failed to read the model catalogue from {}", file, e);
+            result.clear();
+        }
+        return result;
+    }
+
+    /**
+     * Replace the stored models.
+     *
+     * @param providers the models per provider
+     * @throws IOException if the file can't be written, the previous file is kept
+     */
+    public void save(@NotNull Map<ModelProvider, StoredModels> providers) throws IOException {
+        Map<String, StoredModels> byName = new LinkedHashMap<>();
+        providers.forEach((provider, stored) -> byName.put(provider.name(), stored));
+
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(new Snapshot(VERSION, byName), writer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
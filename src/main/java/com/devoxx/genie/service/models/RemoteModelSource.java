@@ -0,0 +1,23 @@
+package com.devoxx.genie.service.models;
+
+import com.devoxx.genie.model.LanguageModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A provider whose models are fetched from a server instead of being built into the plugin.
+ *
+ * @param provider the provider
+ * @param ttl      how long fetched models are used before they are fetched again
+ * @param enabled  whether the provider is configured, the models of a disabled provider are not fetched
+ * @param fetcher  fetches the models, blocking
+ */
+public record RemoteModelSource(ModelProvider provider,
+                                Duration ttl,
+                                BooleanSupplier enabled,
+                                Callable<List<LanguageModel>> fetcher) {
+}
@@ -1,13 +1,12 @@
 package com.devoxx.genie.service.projectscanner;
 
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 
 public class ContentExtractor {
@@ -37,15 +36,12 @@ public class ContentExtractor {
     protected void extractFileContentInternal(VirtualFile file, StringBuilder content) throws IOException {
         String fileContent;
 
-        try (InputStream is = file.getInputStream();
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append('\n');
-            }
-            fileContent = sb.toString();
+        // Read the file in one go, this method runs on the parallel scan readers for every file
+        try (InputStream is = file.getInputStream()) {
+            fileContent = StringUtil.convertLineSeparators(new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        if (!fileContent.isEmpty() && !fileContent.endsWith("\n")) {
+            fileContent += "\n";
         }
 
         // Process and append the file content
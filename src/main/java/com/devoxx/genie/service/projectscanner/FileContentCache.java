@@ -0,0 +1,184 @@
+package com.devoxx.genie.service.projectscanner;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of processed file contents (after Javadoc stripping) and their CL100K token counts.
+ * <p>
+ * Entries are keyed by file path and only valid as long as the file's time stamp and length
+ * are unchanged, so checking an entry costs a single stat. Entries are also dropped explicitly
+ * when VFS change events report the file (or one of its parent directories) as modified.
+ * <p>
+ * The cache is thread-safe, the parallel scan readers look up and store entries concurrently.
+ */
+@Slf4j
+public class FileContentCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * A cached file.
+     *
+     * @param timeStamp  the file time stamp when the content was read
+     * @param length     the file length when the content was read
+     * @param content    the processed content, including the file header
+     * @param tokenCount the CL100K token count of the processed content
+     */
+    public record Entry(long timeStamp, long length, @NotNull String content, int tokenCount) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Describes the settings the cached content was processed with, e.g. Javadoc stripping
+    private volatile String variant = "";
+
+    private volatile boolean dirty = false;
+
+    /**
+     * Look up the cached content of a file.
+     *
+     * @param file the file
+     * @return the entry, or null when the file is not cached or changed since it was cached
+     */
+    public @Nullable Entry get(@NotNull VirtualFile file) {
+        Entry entry = entries.get(file.getPath());
+        if (entry == null) {
+            return null;
+        }
+        if (entry.timeStamp() != file.getTimeStamp() || entry.length() != file.getLength()) {
+            entries.remove(file.getPath(), entry);
+            dirty = true;
+            return null;
+        }
+        return entry;
+    }
+
+    public void put(@NotNull VirtualFile file, @NotNull String content, int tokenCount) {
+        entries.put(file.getPath(), new Entry(file.getTimeStamp(), file.getLength(), content, tokenCount));
+        dirty = true;
+    }
+
+    /**
+     * Drop the entry for a path, including all entries below it when the path is a directory.
+     *
+     * @param path      the changed path
+     * @param directory whether the path is a directory, only then all entries are scanned
+     */
+    public void invalidate(@NotNull String path, boolean directory) {
+        if (entries.remove(path) != null) {
+            dirty = true;
+        }
+        if (!directory) {
+            return;
+        }
+        String directoryPrefix = path.endsWith("/") ? path : path + "/";
+        if (entries.keySet().removeIf(key -> key.startsWith(directoryPrefix))) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Make sure the cached content was processed with the given settings, clears the cache otherwise.
+     *
+     * @param newVariant a description of the settings that influence the processed content
+     */
+    public void ensureVariant(@NotNull String newVariant) {
+        if (!newVariant.equals(variant)) {
+            log.debug("Scan cache settings changed from '{}' to '{}', clearing {} entries", variant, newVariant, entries.size());
+            entries.clear();
+            variant = newVariant;
+            dirty = true;
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        dirty = true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Load the cache from disk, replacing the current entries. A missing or unreadable file leaves the cache empty.
+     *
+     * @param file the cache file
+     */
+    public void load(@NotNull Path file) {
+        entries.clear();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            variant = in.readUTF();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long timeStamp = in.readLong();
+                long length = in.readLong();
+                int tokenCount = in.readInt();
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                entries.put(path, new Entry(timeStamp, length, new String(content, StandardCharsets.UTF_8), tokenCount));
+            }
+            dirty = false;
+            log.debug("Loaded {} scan cache entries from {}", count, file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load scan cache from {}, starting empty", file, e);
+            entries.clear();
+        }
+    }
+
+    /**
+     * Write the cache to disk if it changed since it was loaded or last saved.
+     *
+     * @param file the cache file
+     */
+    public void save(@NotNull Path file) {
+        if (!dirty) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            // Snapshot first, the entry count must match the entries written
+            Map<String, Entry> snapshot = Map.copyOf(entries);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(variant);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Entry> mapEntry : snapshot.entrySet()) {
+                    Entry entry = mapEntry.getValue();
+                    byte[] content = entry.content().getBytes(StandardCharsets.UTF_8);
+                    out.writeUTF(mapEntry.getKey());
+                    out.writeLong(entry.timeStamp());
+                    out.writeLong(entry.length());
+                    out.writeInt(entry.tokenCount());
+                    out.writeInt(content.length);
+                    out.write(content);
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Failed to save scan cache to {}", file, e);
+        }
+    }
+}
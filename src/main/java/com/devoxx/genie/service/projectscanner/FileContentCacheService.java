@@ -0,0 +1,94 @@
+package com.devoxx.genie.service.projectscanner;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Project level owner of the {@link FileContentCache} used by the project scanner.
+ * <p>
+ * The cache is stored in the IDE system directory, next to the conversations database, and loaded
+ * on first use. VFS change events invalidate the affected entries, the cache is written back to disk
+ * when the project is closed.
+ */
+@Slf4j
+public final class FileContentCacheService implements Disposable {
+
+    private final Path cacheFile;
+    private final FileContentCache cache = new FileContentCache();
+    private volatile boolean loaded = false;
+
+    public FileContentCacheService(@NotNull Project project) {
+        this.cacheFile = Path.of(PathManager.getSystemPath(), "DevoxxGenie", "scan-cache", project.getLocationHash() + ".bin");
+
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                invalidate(events);
+            }
+        });
+    }
+
+    public static FileContentCacheService getInstance(@NotNull Project project) {
+        return project.getService(FileContentCacheService.class);
+    }
+
+    /**
+     * @return the cache, loaded from disk on first access
+     */
+    public @NotNull FileContentCache getCache() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    cache.load(cacheFile);
+                    loaded = true;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private void invalidate(@NotNull List<? extends VFileEvent> events) {
+        if (!loaded) {
+            // Nothing in memory yet, stale disk entries are caught by the time stamp and length check
+            return;
+        }
+        for (VFileEvent event : events) {
+            boolean directory = isDirectory(event);
+            cache.invalidate(event.getPath(), directory);
+            if (event instanceof VFileMoveEvent moveEvent) {
+                cache.invalidate(moveEvent.getOldPath(), directory);
+            } else if (event instanceof VFilePropertyChangeEvent propertyChangeEvent && propertyChangeEvent.isRename()) {
+                cache.invalidate(propertyChangeEvent.getOldPath(), directory);
+            }
+        }
+    }
+
+    private static boolean isDirectory(@NotNull VFileEvent event) {
+        if (event instanceof VFileCreateEvent createEvent) {
+            return createEvent.isDirectory();
+        }
+        VirtualFile file = event.getFile();
+        // When the file is unknown, also drop everything that could be below it
+        return file == null || file.isDirectory();
+    }
+
+    @Override
+    public void dispose() {
+        if (loaded) {
+            cache.save(cacheFile);
+        }
+    }
+}
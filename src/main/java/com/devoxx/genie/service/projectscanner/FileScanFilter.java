@@ -0,0 +1,187 @@
+package com.devoxx.genie.service.projectscanner;
+
+import com.devoxx.genie.service.DevoxxGenieSettingsService;
+import com.intellij.openapi.vfs.VirtualFile;
+import nl.basjes.gitignore.GitIgnoreFileSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The file inclusion rules of a scan, compiled once from the settings and the .gitignore files.
+ * <p>
+ * The excluded names and paths and the included extensions are hash sets. The .gitignore rules are evaluated
+ * once per directory, the decision is cached: a file below an ignored directory is ignored without matching
+ * its path, as in git a file can't be re-included when one of its parent directories is ignored.
+ */
+public final class FileScanFilter {
+
+    static final String EXCLUDED_IN_SETTINGS = "file explicitly excluded in settings";
+    static final String EXCLUDED_BY_GITIGNORE = "excluded by .gitignore";
+    static final String NO_EXTENSION = "no file extension";
+    static final String NO_EXTENSIONS_CONFIGURED = "no file extensions configured for inclusion";
+
+    // The settings the filter was compiled from
+    private final List<String> excludedDirectoriesSource;
+    private final List<String> excludedFilesSource;
+    private final List<String> includedExtensionsSource;
+    private final GitIgnoreFileSet gitIgnoreFileSet;
+
+    // Directory names and paths
+    private final Set<String> excludedDirectories;
+    private final Set<String> excludedFiles;
+    private final Set<String> includedExtensions;
+    private final Map<String, Boolean> ignoredDirectories = new ConcurrentHashMap<>();
+
+    private FileScanFilter(@Nullable List<String> excludedDirectories,
+                           @Nullable List<String> excludedFiles,
+                           @Nullable List<String> includedExtensions,
+                           @Nullable GitIgnoreFileSet gitIgnoreFileSet) {
+        this.excludedDirectoriesSource = copy(excludedDirectories);
+        this.excludedFilesSource = copy(excludedFiles);
+        this.includedExtensionsSource = copy(includedExtensions);
+        this.gitIgnoreFileSet = gitIgnoreFileSet;
+
+        this.excludedDirectories = new HashSet<>(excludedDirectoriesSource);
+        this.excludedFiles = new HashSet<>(excludedFilesSource);
+        this.includedExtensions = new HashSet<>(includedExtensionsSource);
+    }
+
+    /**
+     * @param settings         the settings with the excluded directories, excluded files and included extensions
+     * @param gitIgnoreFileSet the .gitignore rules, only applied if enabled in the settings
+     * @return the filter
+     */
+    public static @NotNull FileScanFilter compile(@NotNull DevoxxGenieSettingsService settings,
+                                                  @Nullable GitIgnoreFileSet gitIgnoreFileSet) {
+        return new FileScanFilter(settings.getExcludedDirectories(),
+                settings.getExcludedFiles(),
+                settings.getIncludedFileExtensions(),
+                Boolean.TRUE.equals(settings.getUseGitIgnore()) ? gitIgnoreFileSet : null);
+    }
+
+    /**
+     * @return true if the filter still matches the settings and the .gitignore rules
+     */
+    public boolean isCompiledFrom(@NotNull DevoxxGenieSettingsService settings, @Nullable GitIgnoreFileSet gitIgnoreFileSet) {
+        GitIgnoreFileSet applied = Boolean.TRUE.equals(settings.getUseGitIgnore()) ? gitIgnoreFileSet : null;
+        return this.gitIgnoreFileSet == applied &&
+                sameValues(excludedDirectoriesSource, settings.getExcludedDirectories()) &&
+                sameValues(excludedFilesSource, settings.getExcludedFiles()) &&
+                sameValues(includedExtensionsSource, settings.getIncludedFileExtensions());
+    }
+
+    public boolean excludesDirectory(@NotNull VirtualFile directory) {
+        return directory.isDirectory() && excludesDirectory(directory.getName(), directory.getPath());
+    }
+
+    /**
+     * @param name the name of the directory
+     * @param path the path of the directory
+     * @return true if the directory and everything below it is skipped
+     */
+    public boolean excludesDirectory(@NotNull String name, @NotNull String path) {
+        return excludedDirectories.contains(name) ||
+                excludedDirectories.contains(path) ||
+                excludedFiles.contains(name) ||
+                isIgnoredDirectory(path);
+    }
+
+    public boolean excludesFile(@NotNull VirtualFile file) {
+        return file.isDirectory()
+                ? excludedFiles.contains(file.getName()) || isIgnoredDirectory(file.getPath())
+                : excludesFile(file.getName(), file.getPath());
+    }
+
+    /**
+     * @param name the name of the file
+     * @param path the path of the file
+     * @return true if the file is excluded in the settings or by a .gitignore file
+     */
+    public boolean excludesFile(@NotNull String name, @NotNull String path) {
+        return excludedFiles.contains(name) || isIgnoredFile(path);
+    }
+
+    public boolean includesFile(@NotNull VirtualFile file) {
+        return includesFile(file.getName(), file.getPath(), file.getExtension());
+    }
+
+    /**
+     * @param name      the name of the file
+     * @param path      the path of the file
+     * @param extension the extension of the file, null if it has none
+     * @return true if the file isn't excluded and has an included extension
+     */
+    public boolean includesFile(@NotNull String name, @NotNull String path, @Nullable String extension) {
+        return extension != null &&
+                includedExtensions.contains(extension.toLowerCase(Locale.ROOT)) &&
+                !excludesFile(name, path);
+    }
+
+    /**
+     * @param file a file which isn't included
+     * @return why the file isn't included
+     */
+    public @NotNull String getSkipReason(@NotNull VirtualFile file) {
+        if (excludedFiles.contains(file.getName())) {
+            return EXCLUDED_IN_SETTINGS;
+        }
+        if (isIgnoredFile(file.getPath())) {
+            return EXCLUDED_BY_GITIGNORE;
+        }
+        String extension = file.getExtension();
+        if (extension == null) {
+            return NO_EXTENSION;
+        }
+        if (includedExtensions.isEmpty()) {
+            return NO_EXTENSIONS_CONFIGURED;
+        }
+        extension = extension.toLowerCase(Locale.ROOT);
+        if (!includedExtensions.contains(extension)) {
+            return "extension '" + extension + "' not in included list";
+        }
+        return "unknown reason";
+    }
+
+    private boolean isIgnoredFile(@NotNull String path) {
+        if (gitIgnoreFileSet == null) {
+            return false;
+        }
+        int separator = path.lastIndexOf('/');
+        return (separator > 0 && isIgnoredDirectory(path.substring(0, separator))) || isIgnored(path);
+    }
+
+    private boolean isIgnoredDirectory(@NotNull String path) {
+        if (gitIgnoreFileSet == null) {
+            return false;
+        }
+        Boolean ignored = ignoredDirectories.get(path);
+        if (ignored == null) {
+            int separator = path.lastIndexOf('/');
+            // Patterns with a trailing slash only match a path with a trailing slash
+            ignored = (separator > 0 && isIgnoredDirectory(path.substring(0, separator))) ||
+                    isIgnored(path) || isIgnored(path + "/");
+            ignoredDirectories.put(path, ignored);
+        }
+        return ignored;
+    }
+
+    private boolean isIgnored(@NotNull String path) {
+        try {
+            return gitIgnoreFileSet.ignoreFile(path);
+        } catch (IllegalArgumentException e) {
+            // Outside the project directory, the .gitignore rules don't apply
+            return false;
+        }
+    }
+
+    private static boolean sameValues(@NotNull List<String> compiled, @Nullable List<String> current) {
+        return current == null ? compiled.isEmpty() : compiled.equals(current);
+    }
+
+    private static @NotNull List<String> copy(@Nullable List<String> values) {
+        return values == null ? List.of() : new ArrayList<>(values);
+    }
+}
@@ -25,6 +25,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Handles file system traversal logic for project scanning.
@@ -35,6 +36,7 @@ public class FileScanner {
     private static final String GITIGNORE = ".gitignore";
 
     private GitIgnoreFileSet gitIgnoreFileSet;
+    private volatile FileScanFilter filter;
 
     @Getter
     private final List<Path> includedFiles = new ArrayList<>();
@@ -54,6 +56,7 @@ public class FileScanner {
         skippedFileCount = 0;
         skippedDirectoryCount = 0;
         fileCount = 0;
+        filter = null;
     }
 
     /**
@@ -177,99 +180,57 @@ public class FileScanner {
                                            VirtualFile directory,
                                            ScanContentResult scanContentResult) {
         List<VirtualFile> relevantFiles = new ArrayList<>();
-        log.info("Starting directory scan for: " + directory.getPath());
+        scanDirectory(fileIndex, directory, scanContentResult, relevantFiles::add);
+        return relevantFiles;
+    }
+
+    /**
+     * Scans a directory recursively and streams every relevant file to the given consumer
+     * as soon as it is found, so the files can be processed while the scan is still running.
+     *
+     * @param fileIndex the project file index
+     * @param directory the directory to scan
+     * @param scanContentResult the result object to populate
+     * @param fileConsumer receives the files that should be included, in traversal order
+     */
+    public void scanDirectory(ProjectFileIndex fileIndex,
+                              VirtualFile directory,
+                              ScanContentResult scanContentResult,
+                              Consumer<VirtualFile> fileConsumer) {
+        int initialFileCount = fileCount;
+        int initialSkippedFileCount = skippedFileCount;
+        log.info("Starting directory scan for: {}", directory.getPath());
+        FileScanFilter scanFilter = getFilter();
 
         VfsUtilCore.visitChildrenRecursively(directory, new VirtualFileVisitor<Void>() {
             @Override
             public boolean visitFile(@NotNull VirtualFile file) {
                 if (file.isDirectory()) {
-                    log.info("Visiting directory: " + file.getPath());
-                    if (shouldExcludeDirectory(file)) {
-                        log.info("Excluding directory: " + file.getPath());
+                    if (scanFilter.excludesDirectory(file)) {
+                        // Prunes the whole subtree
                         skippedDirectoryCount++;
                         return false;
                     }
                 } else {
-                    log.info("Checking file: " + file.getPath());
+                    boolean shouldInclude = scanFilter.includesFile(file);
                     // Wrap file index access in a read action to prevent threading issues
                     boolean isInContent = ApplicationManager.getApplication().runReadAction((Computable<Boolean>) () -> fileIndex.isInContent(file));
-                    boolean shouldNotExclude = !shouldExcludeFile(file);
-                    boolean shouldInclude = shouldIncludeFile(file);
-                    log.info("File checks: isInContent=" + isInContent + ", shouldNotExclude=" + shouldNotExclude + ", shouldInclude=" + shouldInclude);
-                    
-                    if (isInContent && shouldNotExclude && shouldInclude) {
-                        log.info("Including file: " + file.getPath());
-                        relevantFiles.add(file);
+
+                    if (isInContent && shouldInclude) {
                         fileCount++;
                         includedFiles.add(Paths.get(file.getPath()));
+                        fileConsumer.accept(file);
                     } else {
                         skippedFileCount++;
-                        String reason = determineSkipReason(file, fileIndex);
-                        log.info("Skipping file: " + file.getPath() + " (" + reason + ")");
+                        String reason = isInContent ? scanFilter.getSkipReason(file) : "not in project content";
                         scanContentResult.addSkippedFile(file.getPath(), reason);
                     }
                 }
                 return true;
             }
         });
-        log.info("Scan completed. Found " + relevantFiles.size() + " relevant files, skipped " + skippedFileCount + " files");
-
-        return relevantFiles;
-    }
-    
-    /**
-     * Determines the reason why a file was skipped.
-     *
-     * @param file the file that was skipped
-     * @param fileIndex the project file index
-     * @return the reason for skipping the file
-     */
-    private String determineSkipReason(VirtualFile file, ProjectFileIndex fileIndex) {
-        // Wrap file index access in a read action to prevent threading issues
-        boolean isInContent = ApplicationManager.getApplication().runReadAction((Computable<Boolean>) () -> fileIndex.isInContent(file));
-        if (!isInContent) {
-            return "not in project content";
-        }
-        
-        // Check if file is excluded by settings or gitignore
-        DevoxxGenieSettingsService settings = DevoxxGenieStateService.getInstance();
-        List<String> excludedFiles = settings.getExcludedFiles();
-        if (!excludedFiles.isEmpty() && excludedFiles.contains(file.getName())) {
-            return "file explicitly excluded in settings";
-        }
-        
-        // Check gitignore if enabled
-        if (Boolean.TRUE.equals(settings.getUseGitIgnore()) && gitIgnoreFileSet != null) {
-            try {
-                if (gitIgnoreFileSet.ignoreFile(file.getPath())) {
-                    return "excluded by .gitignore";
-                }
-            } catch (IllegalArgumentException e) {
-                // Ignore the exception
-            }
-        }
-        
-        // Check file extension
-        String extension = file.getExtension();
-        if (extension == null) {
-            return "no file extension";
-        }
-        
-        extension = extension.toLowerCase();
-        List<String> includedExtensions = settings.getIncludedFileExtensions();
-        if (includedExtensions == null || includedExtensions.isEmpty()) {
-            return "no file extensions configured for inclusion";
-        }
-        
-        boolean isExtensionIncluded = includedExtensions.contains(extension);
-        log.info("Extension check for " + file.getName() + ": extension=" + extension + ", included=" + isExtensionIncluded + ", includedList=" + includedExtensions);
-        
-        if (!isExtensionIncluded) {
-            return "extension '" + extension + "' not in included list";
-        }
-        
-        // If we reach here, there must be some other reason
-        return "unknown reason";
+        log.info("Scan completed. Found {} relevant files, skipped {} files",
+                fileCount - initialFileCount, skippedFileCount - initialSkippedFileCount);
     }
 
     /**
@@ -280,12 +241,14 @@ public class FileScanner {
      * @return a string representation of the source tree
      */
     public String generateSourceTreeRecursive(VirtualFile virtualFile, int depth) {
+        return generateSourceTree(virtualFile, depth, getFilter());
+    }
+
+    private @NotNull String generateSourceTree(@NotNull VirtualFile virtualFile, int depth, @NotNull FileScanFilter scanFilter) {
         StringBuilder result = new StringBuilder();
         String indent = "  ".repeat(depth);
 
-        boolean excludeFile = shouldExcludeFile(virtualFile);
-        boolean excludeDirectory = shouldExcludeDirectory(virtualFile);
-        if (excludeFile || excludeDirectory) {
+        if (scanFilter.excludesFile(virtualFile) || scanFilter.excludesDirectory(virtualFile)) {
             return "";
         }
 
@@ -295,8 +258,8 @@ public class FileScanner {
         if (children != null) {
             for (VirtualFile child : children) {
                 if (child.isDirectory()) {
-                    result.append(generateSourceTreeRecursive(child, depth + 1));
-                } else if (shouldIncludeFile(child)) {
+                    result.append(generateSourceTree(child, depth + 1, scanFilter));
+                } else if (scanFilter.includesFile(child)) {
                     result.append(indent).append("  ").append(child.getName()).append("\n");
                 }
             }
@@ -312,21 +275,7 @@ public class FileScanner {
      * @return true if the directory should be excluded
      */
     public boolean shouldExcludeDirectory(@NotNull VirtualFile file) {
-        if (!file.isDirectory()) {
-            return false;
-        }
-
-        List<String> excludedDirectories = DevoxxGenieStateService.getInstance().getExcludedDirectories();
-
-        // Add null check for excludedDirectories
-        if (excludedDirectories == null || excludedDirectories.isEmpty()) {
-            return false; // If excludedDirectories is null or empty, don't exclude any directories
-        }
-
-        // Check if the directory name or path is in the excluded list
-        return excludedDirectories.contains(file.getName()) ||
-               excludedDirectories.contains(file.getPath()) ||
-               shouldExcludeFile(file);
+        return getFilter().excludesDirectory(file);
     }
 
     /**
@@ -336,58 +285,44 @@ public class FileScanner {
      * @return true if the file should be excluded
      */
     public boolean shouldExcludeFile(@NotNull VirtualFile file) {
-        DevoxxGenieSettingsService settings = DevoxxGenieStateService.getInstance();
-
-        List<String> excludedFiles = settings.getExcludedFiles();
+        return getFilter().excludesFile(file);
+    }
 
-        // Check if file is in excluded files list
-        if (!excludedFiles.isEmpty() && excludedFiles.contains(file.getName())) {
-            return true;
-        }
+    public boolean shouldIncludeFile(@NotNull VirtualFile file) {
+        return getFilter().includesFile(file);
+    }
 
-        // Check gitignore if enabled
-        if (Boolean.TRUE.equals(settings.getUseGitIgnore()) && gitIgnoreFileSet != null) {
-            try {
-                // Try to use the gitignore check and catch the specific IllegalArgumentException
-                return gitIgnoreFileSet.ignoreFile(file.getPath());
-            } catch (IllegalArgumentException e) {
-                // If the file is not within the project directory, just ignore the error
-                // and don't apply gitignore rules to this file
-                log.debug("File outside project directory, skipping gitignore check: " + file.getPath());
-                return false;
+    /**
+     * Checks if a path is skipped by a scan of the base directory because one of its parent directories,
+     * or the path itself when it is a directory, is excluded. Also works for paths which no longer exist.
+     *
+     * @param path      the path, below the base directory
+     * @param basePath  the base directory of the scan
+     * @param directory whether the path is a directory
+     * @return true if the path is in an excluded directory
+     */
+    public boolean isInExcludedDirectory(@NotNull String path, @NotNull String basePath, boolean directory) {
+        FileScanFilter scanFilter = getFilter();
+        int nameStart = basePath.length() + 1;
+        for (int separator = path.indexOf('/', nameStart); separator > 0; separator = path.indexOf('/', nameStart)) {
+            if (scanFilter.excludesDirectory(path.substring(nameStart, separator), path.substring(0, separator))) {
+                return true;
             }
+            nameStart = separator + 1;
         }
-        return false;
+        return directory && nameStart < path.length() && scanFilter.excludesDirectory(path.substring(nameStart), path);
     }
 
-    public boolean shouldIncludeFile(@NotNull VirtualFile file) {
+    /**
+     * The filter is compiled once per scan, it's compiled again when the settings or the .gitignore files change.
+     */
+    private @NotNull FileScanFilter getFilter() {
         DevoxxGenieSettingsService settings = DevoxxGenieStateService.getInstance();
-
-        // First check if file should be excluded
-        if (shouldExcludeFile(file)) {
-            log.info("Skipping file: " + file.getPath() + " (excluded by settings or .gitignore)");
-            return false;
+        FileScanFilter current = filter;
+        if (current == null || !current.isCompiledFrom(settings, gitIgnoreFileSet)) {
+            current = FileScanFilter.compile(settings, gitIgnoreFileSet);
+            filter = current;
         }
-
-        // Then check if extension is included
-        String extension = file.getExtension();
-        if (extension == null) {
-            return false;
-        }
-
-        // Convert to lowercase for case-insensitive comparison
-        extension = extension.toLowerCase();
-        
-        List<String> includedExtensions = settings.getIncludedFileExtensions();
-        
-        // Debug log to check the actual extension and included list
-        log.info("File: " + file.getPath() + ", Extension: " + extension + ", Included extensions: " + includedExtensions);
-
-        boolean includeFile = includedExtensions != null &&
-                !includedExtensions.isEmpty() &&
-                includedExtensions.contains(extension);
-
-        log.info("Decision for file: " + file.getPath() + ", Include: " + includeFile + ", Extension: " + extension);
-        return includeFile;
+        return current;
     }
 }
@@ -0,0 +1,214 @@
+package com.devoxx.genie.service.projectscanner;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Multi-stage pipeline used to extract the content of scanned project files.
+ * <p>
+ * Stage 1, the walker, runs on the calling thread (usually inside a read action) and emits the
+ * files to include. Files are handed over through a bounded queue, so a fast walk can never
+ * run too far ahead of the readers. Stage 2 is a pool of content readers sized to the available
+ * cores, they also count the tokens of every file. Stage 3, the ordered assembler, joins the results
+ * in the order the walker emitted the files, so the output is identical to a serial scan.
+ * <p>
+ * When a {@link FileContentCache} is given, readers reuse the cached content and token count of
+ * unchanged files and only read and tokenize the files that changed.
+ * <p>
+ * Cancellation is cooperative: the walker, the readers and the assembler all check the given
+ * {@link ProgressIndicator} and the pipeline throws {@link ProcessCanceledException} once it is canceled.
+ */
+@Slf4j
+public class ProjectScanPipeline {
+
+    // Number of queued files per reader, enough to keep readers busy while the walker filters files
+    private static final int QUEUE_CAPACITY_PER_READER = 64;
+
+    private static final WorkItem POISON_PILL = new WorkItem(null, null);
+
+    /**
+     * The outcome of a pipeline run.
+     *
+     * @param content    the concatenated content of all files
+     * @param tokenCount the sum of the per-file token counts
+     * @param cacheHits  the number of files served from the cache
+     * @param files      the length and token count of every file in the content, in content order
+     */
+    public record Result(@NotNull String content, int tokenCount, int cacheHits, @NotNull List<FileSpan> files) {
+    }
+
+    /**
+     * The part of the assembled content taken by a single file.
+     *
+     * @param length     the number of characters of the file in the content
+     * @param tokenCount the token count of the file content
+     */
+    public record FileSpan(int length, int tokenCount) {
+    }
+
+    private record FileResult(@NotNull String content, int tokenCount, boolean cached) {
+    }
+
+    private final ContentExtractor contentExtractor;
+    private final TokenCalculator tokenCalculator;
+    private final FileContentCache cache;
+    private final int readerCount;
+
+    public ProjectScanPipeline(@NotNull ContentExtractor contentExtractor,
+                               @NotNull TokenCalculator tokenCalculator,
+                               @Nullable FileContentCache cache) {
+        this(contentExtractor, tokenCalculator, cache, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ProjectScanPipeline(@NotNull ContentExtractor contentExtractor,
+                               @NotNull TokenCalculator tokenCalculator,
+                               @Nullable FileContentCache cache,
+                               int readerCount) {
+        this.contentExtractor = contentExtractor;
+        this.tokenCalculator = tokenCalculator;
+        this.cache = cache;
+        this.readerCount = Math.max(1, readerCount);
+    }
+
+    /**
+     * Run the pipeline.
+     *
+     * @param walker    emits the files to include, in the order they must appear in the output
+     * @param indicator the progress indicator used for cancellation, may be null
+     * @return the concatenated content of all emitted files and their token count
+     * @throws ProcessCanceledException when the indicator is canceled
+     */
+    public @NotNull Result run(@NotNull Consumer<Consumer<VirtualFile>> walker,
+                               @Nullable ProgressIndicator indicator) {
+        BlockingQueue<WorkItem> queue = new ArrayBlockingQueue<>(readerCount * QUEUE_CAPACITY_PER_READER);
+        List<CompletableFuture<FileResult>> results = new ArrayList<>();
+
+        ExecutorService readers = Executors.newFixedThreadPool(readerCount, new ReaderThreadFactory());
+        try {
+            for (int i = 0; i < readerCount; i++) {
+                readers.execute(() -> readFiles(queue, indicator));
+            }
+
+            walker.accept(file -> {
+                checkCanceled(indicator);
+                CompletableFuture<FileResult> result = new CompletableFuture<>();
+                results.add(result);
+                put(queue, new WorkItem(file, result));
+            });
+
+            for (int i = 0; i < readerCount; i++) {
+                put(queue, POISON_PILL);
+            }
+
+            return assemble(results, indicator);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    private void readFiles(@NotNull BlockingQueue<WorkItem> queue, @Nullable ProgressIndicator indicator) {
+        try {
+            while (true) {
+                WorkItem item = queue.take();
+                if (item == POISON_PILL) {
+                    return;
+                }
+                if (indicator != null && indicator.isCanceled()) {
+                    // Keep draining the queue so the walker never blocks on a full queue
+                    item.result().complete(new FileResult("", 0, false));
+                    continue;
+                }
+                try {
+                    item.result().complete(readFile(item.file()));
+                } catch (RuntimeException e) {
+                    item.result().completeExceptionally(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private @NotNull FileResult readFile(@NotNull VirtualFile file) {
+        if (cache != null) {
+            FileContentCache.Entry entry = cache.get(file);
+            if (entry != null) {
+                return new FileResult(entry.content(), entry.tokenCount(), true);
+            }
+        }
+        String content = contentExtractor.extractFileContent(file);
+        int tokenCount = tokenCalculator.calculateTokens(content);
+        if (cache != null) {
+            cache.put(file, content, tokenCount);
+        }
+        return new FileResult(content, tokenCount, false);
+    }
+
+    private @NotNull Result assemble(@NotNull List<CompletableFuture<FileResult>> results,
+                                     @Nullable ProgressIndicator indicator) {
+        StringBuilder content = new StringBuilder();
+        List<FileSpan> files = new ArrayList<>(results.size());
+        int tokenCount = 0;
+        int cacheHits = 0;
+        for (int i = 0; i < results.size(); i++) {
+            checkCanceled(indicator);
+            if (indicator != null) {
+                indicator.setFraction((double) i / results.size());
+            }
+            FileResult fileResult = results.get(i).join();
+            content.append(fileResult.content());
+            files.add(new FileSpan(fileResult.content().length(), fileResult.tokenCount()));
+            tokenCount += fileResult.tokenCount();
+            if (fileResult.cached()) {
+                cacheHits++;
+            }
+        }
+        checkCanceled(indicator);
+        log.debug("Assembled content of {} files ({} from cache) using {} readers", results.size(), cacheHits, readerCount);
+        return new Result(content.toString(), tokenCount, cacheHits, files);
+    }
+
+    private static void put(@NotNull BlockingQueue<WorkItem> queue, @NotNull WorkItem item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        }
+    }
+
+    private static void checkCanceled(@Nullable ProgressIndicator indicator) {
+        if (indicator != null) {
+            indicator.checkCanceled();
+        }
+    }
+
+    private record WorkItem(VirtualFile file, CompletableFuture<FileResult> result) {
+    }
+
+    private static class ReaderThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "DevoxxGenie-ProjectScan-Reader-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.devoxx.genie.service.projectscanner;
 
 import com.devoxx.genie.model.ScanContentResult;
+import com.devoxx.genie.model.TokenizationResult;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -10,17 +14,19 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Setter
 @Getter
 public class ProjectScannerService {
 
+    private static final String TRUNCATION_MARKER = "\n--- Project context truncated due to token limit ---\n";
+
     protected FileScanner fileScanner;
 
     protected ContentExtractor contentExtractor;
@@ -68,6 +74,9 @@ public class ProjectScannerService {
         log.debug("Scanning project: {} with directory: {}", project.getName(),
                 (startDirectory != null ? startDirectory.getPath() : "null"));
 
+        // Picks up the indicator of the background task we're running in, if any, for cancellation
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+
         ScanContentResult scanContentResult = new ScanContentResult();
         ReadAction.run(() -> {
             fileScanner.reset();
@@ -84,7 +93,7 @@ public class ProjectScannerService {
             fileScanner.initGitignoreParser(project, resolvedDirectory);
 
             log.info("Starting content scan for {}", (startDirectory != null ? startDirectory.getPath() : "entire project"));
-            String content = scanContent(project, startDirectory, windowContextMaxTokens, isTokenCalculation, scanContentResult, projectFileIndex);
+            String content = scanContent(project, startDirectory, windowContextMaxTokens, isTokenCalculation, scanContentResult, projectFileIndex, indicator);
 
             // Log included files for debugging
             log.info("Files included after scan: {}", fileScanner.getIncludedFiles().size());
@@ -93,7 +102,11 @@ public class ProjectScannerService {
                 scanContentResult.addFile(file);
             });
 
-            int tokenCount = tokenCalculator.calculateTokens(content);
+            // Directory scans are budgeted from the per-file token counts, only a single file still needs encoding
+            if (scanContentResult.getTokenization() == null) {
+                scanContentResult.setTokenization(tokenCalculator.tokenize(content));
+            }
+            int tokenCount = scanContentResult.getTokenization().tokenCount();
             log.info("FINAL TOKEN COUNT: {} tokens", tokenCount);
             log.info("Content length: {} characters", content.length());
             log.info("First 100 chars: {}", content.substring(0, Math.min(100, content.length())));
@@ -119,41 +132,107 @@ public class ProjectScannerService {
                                        boolean isTokenCalculation,
                                        ScanContentResult scanContentResult,
                                        ProjectFileIndex projectFileIndex) {
+        return scanContent(project, startDirectory, windowContextMaxTokens, isTokenCalculation,
+                scanContentResult, projectFileIndex, null);
+    }
+
+    /**
+     * Scan the content of the given directory (or the whole project when null). File contents are
+     * read in parallel while the directory walk is still running, see {@link ProjectScanPipeline}.
+     * Unchanged files are served from the project's {@link FileContentCache}.
+     *
+     * @param indicator the progress indicator used for cooperative cancellation, may be null
+     */
+    public @NotNull String scanContent(Project project,
+                                       VirtualFile startDirectory,
+                                       int windowContextMaxTokens,
+                                       boolean isTokenCalculation,
+                                       ScanContentResult scanContentResult,
+                                       ProjectFileIndex projectFileIndex,
+                                       @Nullable ProgressIndicator indicator) {
         // We're now using the projectFileIndex parameter directly
 
         StringBuilder directoryStructure = new StringBuilder();
-        String fileContents;
+        ProjectScanPipeline.Result fileContents;
+        FileContentCache cache = getFileContentCache(project);
 
         if (startDirectory == null) {
             // Case 1: No directory provided, scan all modules
             VirtualFile rootDirectory = fileScanner.scanProjectModules(project);
             directoryStructure.append(fileScanner.generateSourceTreeRecursive(rootDirectory, 0));
             // Use the provided projectFileIndex
-            List<VirtualFile> files = fileScanner.scanDirectory(projectFileIndex, rootDirectory, scanContentResult);
-            fileContents = extractAllFileContents(files);
+            fileContents = createPipeline(cache).run(fileConsumer ->
+                    fileScanner.scanDirectory(projectFileIndex, rootDirectory, scanContentResult, fileConsumer), indicator);
         } else if (startDirectory.isDirectory()) {
             // Case 2: Directory provided
             directoryStructure.append(fileScanner.generateSourceTreeRecursive(startDirectory, 0));
             // Use the provided projectFileIndex
-            List<VirtualFile> files = fileScanner.scanDirectory(projectFileIndex, startDirectory, scanContentResult);
-            fileContents = extractAllFileContents(files);
+            fileContents = createPipeline(cache).run(fileConsumer ->
+                    fileScanner.scanDirectory(projectFileIndex, startDirectory, scanContentResult, fileConsumer), indicator);
         } else {
             // Case 3: Single file provided
             return handleSingleFile(startDirectory);
         }
 
-        String fullContent = contentExtractor.combineContent(directoryStructure.toString(), fileContents);
+        log.info("Scanned {} files, {} served from the scan cache", fileScanner.getFileCount(), fileContents.cacheHits());
+        String fullContent = contentExtractor.combineContent(directoryStructure.toString(), fileContents.content());
+
+        if (!fullContent.endsWith(fileContents.content())) {
+            // Unknown layout, the per-file counts can't be mapped onto the content
+            return truncateContent(fullContent, windowContextMaxTokens, isTokenCalculation);
+        }
 
         // For token calculation (Calc tokens for directory), we want the ACTUAL token count
         // For content to be used in prompts, we need to truncate
+        int maxTokens = isTokenCalculation ? Integer.MAX_VALUE : windowContextMaxTokens;
+        TokenizationResult tokenization = budgetByFile(fullContent, fileContents, maxTokens);
+        scanContentResult.setTokenization(tokenization);
+        scanContentResult.setTokenCount(tokenization.tokenCount());
+
+        if (tokenization.isTruncated()) {
+            log.info("Truncated content to {} tokens for usage in prompt", tokenization.tokenCount());
+            return fullContent.substring(0, tokenization.truncationOffset()) + TRUNCATION_MARKER;
+        }
+        return fullContent;
+    }
+
+    /**
+     * Fit the content in the token budget by dropping whole files from the end, using the per-file
+     * token counts. Only the directory structure and the truncation marker are encoded, the full
+     * content is never encoded or decoded.
+     */
+    private @NotNull TokenizationResult budgetByFile(@NotNull String fullContent,
+                                                     @NotNull ProjectScanPipeline.Result fileContents,
+                                                     int maxTokens) {
+        int offset = fullContent.length() - fileContents.content().length();
+        int structureTokens = tokenCalculator.calculateTokens(fullContent.substring(0, offset));
+
+        long totalTokens = (long) structureTokens + fileContents.tokenCount();
+        if (totalTokens <= maxTokens) {
+            return new TokenizationResult(null, (int) totalTokens, -1);
+        }
+
+        int markerTokens = tokenCalculator.calculateTokens(TRUNCATION_MARKER);
+        int budget = maxTokens - markerTokens;
+        int usedTokens = structureTokens;
+        for (ProjectScanPipeline.FileSpan file : fileContents.files()) {
+            if (usedTokens + file.tokenCount() > budget) {
+                break;
+            }
+            usedTokens += file.tokenCount();
+            offset += file.length();
+        }
+        return new TokenizationResult(null, usedTokens + markerTokens, offset);
+    }
+
+    private @NotNull String truncateContent(@NotNull String fullContent, int windowContextMaxTokens, boolean isTokenCalculation) {
         if (isTokenCalculation) {
             log.info("Not truncating content for token calculation only");
             return fullContent;
-        } else {
-            // Only truncate if the content will be used (not for token calculation only)
-            log.info("Truncating content to {} tokens for usage in prompt", windowContextMaxTokens);
-            return tokenCalculator.truncateToTokens(fullContent, windowContextMaxTokens, isTokenCalculation);
         }
+        // Only truncate if the content will be used (not for token calculation only)
+        log.info("Truncating content to {} tokens for usage in prompt", windowContextMaxTokens);
+        return tokenCalculator.truncateToTokens(fullContent, windowContextMaxTokens, false);
     }
 
     // Changed from private to public for better testability
@@ -172,8 +251,24 @@ public class ProjectScannerService {
 
     // Changed from private to public for better testability
     public @NotNull String extractAllFileContents(@NotNull List<VirtualFile> files) {
-        return files.stream()
-                .map(contentExtractor::extractFileContent)
-                .collect(Collectors.joining());
+        return createPipeline(null).run(files::forEach, null).content();
+    }
+
+    protected @NotNull ProjectScanPipeline createPipeline(@Nullable FileContentCache cache) {
+        return new ProjectScanPipeline(contentExtractor, tokenCalculator, cache);
+    }
+
+    /**
+     * Get the scan cache of the project, cleared first when the settings that influence the
+     * processed file content changed since it was filled.
+     */
+    private @Nullable FileContentCache getFileContentCache(Project project) {
+        FileContentCacheService cacheService = project != null ? FileContentCacheService.getInstance(project) : null;
+        if (cacheService == null) {
+            return null;
+        }
+        FileContentCache cache = cacheService.getCache();
+        cache.ensureVariant("excludeJavaDoc=" + DevoxxGenieStateService.getInstance().getExcludeJavaDoc());
+        return cache;
     }
 }
@@ -1,6 +1,7 @@
 package com.devoxx.genie.service.projectscanner;
 
-import com.knuddels.jtokkit.Encodings;
+import com.devoxx.genie.model.TokenizationResult;
+import com.devoxx.genie.service.TokenizerService;
 import com.knuddels.jtokkit.api.Encoding;
 import com.knuddels.jtokkit.api.EncodingType;
 import com.knuddels.jtokkit.api.IntArrayList;
@@ -12,16 +13,23 @@ import org.jetbrains.annotations.NotNull;
  */
 @Slf4j
 public class TokenCalculator {
-    private final Encoding encoding;
+    private volatile Encoding encoding;
 
     // Constructor injection
     public TokenCalculator(Encoding encoding) {
         this.encoding = encoding;
     }
 
-    // Default constructor for production code
+    // Default constructor for production code, the shared encoding is resolved on first use
     public TokenCalculator() {
-        this(Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE));
+    }
+
+    private Encoding getEncoding() {
+        if (encoding == null) {
+            // Benign race, every thread resolves the same shared instance
+            encoding = TokenizerService.getInstance().getEncoding(EncodingType.CL100K_BASE);
+        }
+        return encoding;
     }
 
     /**
@@ -32,16 +40,27 @@ public class TokenCalculator {
      */
     public int calculateTokens(@NotNull String text) {
         // Make sure we're getting the accurate token count
-        log.info("Calculating tokens for text of length: {}", text.length());
-        int tokenCount = encoding.countTokensOrdinary(text);
-        log.info("Token count calculated: {}", tokenCount);
+        log.debug("Calculating tokens for text of length: {}", text.length());
+        int tokenCount = getEncoding().countTokensOrdinary(text);
+        log.debug("Token count calculated: {}", tokenCount);
         return tokenCount;
     }
 
+    /**
+     * Encodes the text once, the result holds the tokens and their count.
+     *
+     * @param text The text to tokenize
+     * @return The tokenization result, never truncated
+     */
+    public @NotNull TokenizationResult tokenize(@NotNull String text) {
+        IntArrayList tokens = getEncoding().encodeOrdinary(text);
+        return new TokenizationResult(tokens, tokens.size(), -1);
+    }
+
     public String truncateToTokens(@NotNull String text,
                                    int maxTokens,
                                    boolean isTokenCalculation) {
-        IntArrayList tokens = encoding.encodeOrdinary(text);
+        IntArrayList tokens = getEncoding().encodeOrdinary(text);
         if (tokens.size() <= maxTokens) {
             return text;
         }
@@ -49,7 +68,7 @@ public class TokenCalculator {
         for (int i = 0; i < maxTokens; i++) {
             truncatedTokens.add(tokens.get(i));
         }
-        String truncatedContent = encoding.decode(truncatedTokens);
+        String truncatedContent = getEncoding().decode(truncatedTokens);
         return isTokenCalculation ? truncatedContent :
                 truncatedContent + "\n--- Project context truncated due to token limit ---\n";
     }
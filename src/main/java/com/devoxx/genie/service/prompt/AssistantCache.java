@@ -0,0 +1,61 @@
+package com.devoxx.genie.service.prompt;
+
+import com.intellij.openapi.project.Project;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.service.tool.ToolProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Project level cache of the AiServices assistants.
+ * <p>
+ * Building an assistant creates a proxy and introspects the assistant interface. The chat model
+ * clients and the MCP tool provider are cached themselves, so consecutive prompts mostly ask for an
+ * assistant of the same model, chat memory and tool provider, which is then reused. A change of the model
+ * or MCP settings creates new model clients or a new tool provider, the assistant is rebuilt for those.
+ */
+@Slf4j
+public final class AssistantCache {
+
+    private record Entry(Object model, ChatMemory chatMemory, @Nullable ToolProvider toolProvider, Object assistant) {
+
+        boolean isBuiltFrom(Object model, ChatMemory chatMemory, @Nullable ToolProvider toolProvider) {
+            return this.model == model && this.chatMemory == chatMemory && this.toolProvider == toolProvider;
+        }
+    }
+
+    // One assistant per assistant interface, e.g. the streaming and the non-streaming assistant
+    private final Map<Class<?>, Entry> assistants = new ConcurrentHashMap<>();
+
+    public static AssistantCache getInstance(@NotNull Project project) {
+        return project.getService(AssistantCache.class);
+    }
+
+    /**
+     * @param type         the assistant interface
+     * @param model        the (streaming) chat model the assistant is built with
+     * @param chatMemory   the chat memory the assistant is built with
+     * @param toolProvider the tool provider the assistant is built with, if any
+     * @param factory      builds the assistant
+     * @return the cached assistant when it was built from the same instances, otherwise a new one
+     */
+    public <A> @NotNull A getAssistant(@NotNull Class<A> type,
+                                       @NotNull Object model,
+                                       @NotNull ChatMemory chatMemory,
+                                       @Nullable ToolProvider toolProvider,
+                                       @NotNull Supplier<A> factory) {
+        Entry entry = assistants.compute(type, (key, cached) -> {
+            if (cached != null && cached.isBuiltFrom(model, chatMemory, toolProvider)) {
+                return cached;
+            }
+            log.debug("Building {} assistant", type.getSimpleName());
+            return new Entry(model, chatMemory, toolProvider, factory.get());
+        });
+        return type.cast(entry.assistant());
+    }
+}
@@ -0,0 +1,115 @@
+package com.devoxx.genie.service.prompt.context;
+
+import com.devoxx.genie.service.projectscanner.ContentExtractor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the project context of a project byte-identical across the prompts of a conversation.
+ * <p>
+ * The project context is shared once, as part of the system message, so every prompt starts with the
+ * same prefix and the provider can reuse it: Anthropic caches the system message, OpenAI caches
+ * identical prompt prefixes automatically and Ollama reuses the KV cache of the previous prompt.
+ * <p>
+ * The files included in the context are snapshotted by their modification stamp. When a file changes
+ * afterward, only its new content is sent with the next prompt instead of the whole project again.
+ * Files created after the project context was added are not tracked, the context has to be added again.
+ */
+@Slf4j
+public final class ProjectContextManager {
+
+    private static final long DELETED = -1;
+
+    static final String CHANGED_FILES_HEADER = "The following files changed since the project context was shared:\n";
+
+    private final ContentExtractor contentExtractor;
+
+    private @Nullable String projectContext;
+    // The modification stamps of the files when the project context was scanned, in context order
+    private final Map<VirtualFile, Long> snapshotStamps = new LinkedHashMap<>();
+    // The modification stamps of the files as last sent in the current conversation
+    private final Map<VirtualFile, Long> sentStamps = new LinkedHashMap<>();
+
+    public static ProjectContextManager getInstance(@NotNull Project project) {
+        return project.getService(ProjectContextManager.class);
+    }
+
+    public ProjectContextManager() {
+        this(new ContentExtractor());
+    }
+
+    ProjectContextManager(@NotNull ContentExtractor contentExtractor) {
+        this.contentExtractor = contentExtractor;
+    }
+
+    /**
+     * @param projectContext the scanned project context
+     * @param files          the files included in the project context
+     */
+    public synchronized void setProjectContext(@NotNull String projectContext, @NotNull Collection<VirtualFile> files) {
+        this.projectContext = projectContext;
+        snapshotStamps.clear();
+        for (VirtualFile file : files) {
+            snapshotStamps.put(file, file.getModificationStamp());
+        }
+        sentStamps.clear();
+        sentStamps.putAll(snapshotStamps);
+        log.debug("Project context set with {} tracked files", snapshotStamps.size());
+    }
+
+    public synchronized void clear() {
+        projectContext = null;
+        snapshotStamps.clear();
+        sentStamps.clear();
+    }
+
+    /**
+     * @return the project context as scanned, unchanged until the context is added again, null when there is none
+     */
+    public synchronized @Nullable String getProjectContext() {
+        return projectContext;
+    }
+
+    /**
+     * The content of the files which changed since they were last sent and mark them as sent.
+     *
+     * @param newConversation true when the conversation doesn't contain earlier changes yet,
+     *                        the changes are then computed against the scanned project context
+     * @return the changed files, or an empty string when no file changed
+     */
+    public synchronized @NotNull String takeChangedFiles(boolean newConversation) {
+        if (projectContext == null) {
+            return "";
+        }
+        if (newConversation) {
+            sentStamps.clear();
+            sentStamps.putAll(snapshotStamps);
+        }
+
+        StringBuilder changes = new StringBuilder();
+        int changedFiles = 0;
+        for (Map.Entry<VirtualFile, Long> entry : sentStamps.entrySet()) {
+            VirtualFile file = entry.getKey();
+            long stamp = file.isValid() ? file.getModificationStamp() : DELETED;
+            if (stamp == entry.getValue()) {
+                continue;
+            }
+            if (stamp == DELETED) {
+                changes.append("\n--- ").append(file.getPath()).append(" (deleted) ---\n");
+            } else {
+                changes.append(contentExtractor.extractFileContent(file));
+            }
+            entry.setValue(stamp);
+            changedFiles++;
+        }
+        log.debug("{} files of the project context changed", changedFiles);
+        return changedFiles == 0 ? "" : CHANGED_FILES_HEADER + changes;
+    }
+}
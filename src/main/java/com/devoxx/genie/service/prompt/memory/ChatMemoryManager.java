@@ -1,15 +1,20 @@
 package com.devoxx.genie.service.prompt.memory;
 
+import com.devoxx.genie.chatmodel.ChatModelProvider;
 import com.devoxx.genie.model.LanguageModel;
 import com.devoxx.genie.model.conversation.Conversation;
 import com.devoxx.genie.model.request.ChatMessageContext;
+import com.devoxx.genie.service.TokenizerService;
 import com.devoxx.genie.service.mcp.MCPService;
+import com.devoxx.genie.service.prompt.context.ProjectContextManager;
 import com.devoxx.genie.service.prompt.error.MemoryException;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.util.ChatMessageContextUtil;
 import com.devoxx.genie.util.TemplateVariableEscaper;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.SystemMessage;
@@ -20,6 +25,9 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
 
 import static com.devoxx.genie.model.Constant.MARKDOWN;
 
@@ -32,6 +40,8 @@ import static com.devoxx.genie.model.Constant.MARKDOWN;
 public class ChatMemoryManager {
 
     private final ChatMemoryService chatMemoryService;
+    // One counter per tokenizer, the token budget memory keeps its token counts while the counter is the same
+    private final Map<Encoding, ToIntFunction<String>> tokenCounters = new ConcurrentHashMap<>();
 
     public static ChatMemoryManager getInstance() {
         return ApplicationManager.getApplication().getService(ChatMemoryManager.class);
@@ -63,8 +73,10 @@ public class ChatMemoryManager {
         try {
             Project project = context.getProject();
 
-            // If memory isn't initialized yet, do it now
-            if (chatMemoryService.isEmpty(project)) {
+            // If memory isn't initialized yet, do it now.
+            // With a project context, the system message carrying it is replaced when the context was added
+            // or removed during the conversation, adding the same system message again leaves the memory as is.
+            if (chatMemoryService.isEmpty(project) || hasSharedProjectContext(project)) {
                 log.debug("Preparing memory with initial system message if needed");
 
                 if (shouldIncludeSystemMessage(context)) {
@@ -73,11 +85,52 @@ public class ChatMemoryManager {
                     log.debug("Added system message to memory");
                 }
             }
+
+            configureTokenBudget(context);
         } catch (Exception e) {
             throw new MemoryException("Failed to prepare memory", e);
         }
     }
 
+    /**
+     * Measure the messages with the tokenizer of the prompt's provider and summarize with its model.
+     * Only applies to the token budget memory.
+     */
+    private void configureTokenBudget(@NotNull ChatMessageContext context) {
+        if (!(chatMemoryService.get(context.getProject().getLocationHash()) instanceof TokenBudgetChatMemory memory)) {
+            return;
+        }
+        LanguageModel languageModel = context.getLanguageModel();
+        Encoding encoding = languageModel == null ?
+                TokenizerService.getInstance().getEncoding(EncodingType.CL100K_BASE) :
+                TokenizerService.getInstance().getEncodingForProvider(languageModel.getProvider());
+        ChatMemorySummarizer summarizer = languageModel == null ? null : new ModelChatMemorySummarizer(() ->
+                context.getChatLanguageModel() != null ?
+                        context.getChatLanguageModel() :
+                        new ChatModelProvider().getChatLanguageModel(context));
+        memory.configure(DevoxxGenieStateService.getInstance().getChatMemoryTokenBudget(),
+                tokenCounters.computeIfAbsent(encoding, e -> e::countTokensOrdinary),
+                summarizer);
+    }
+
+    /**
+     * @param project the project
+     * @return the number of prompt tokens the token budget memory no longer sends with every prompt, 0 for other memories
+     */
+    public int getSavedPromptTokens(@NotNull Project project) {
+        return chatMemoryService.get(project.getLocationHash()) instanceof TokenBudgetChatMemory memory ?
+                memory.getSavedTokens() : 0;
+    }
+
+    /**
+     * @param project the project
+     * @return true when the memory doesn't contain a user message yet
+     */
+    public boolean isNewConversation(@NotNull Project project) {
+        ChatMemory memory = chatMemoryService.get(project.getLocationHash());
+        return memory == null || memory.messages().stream().noneMatch(UserMessage.class::isInstance);
+    }
+
     /**
      * Adds AI response to memory from the provided context
      * @param context The chat message context containing the AI message
@@ -284,6 +337,22 @@ public class ChatMemoryManager {
             MCPService.logDebug("Added MCP instructions to system prompt");
         }
 
+        // The project context is shared once, in the system message, so every prompt starts with the same prefix
+        String projectContext = ProjectContextManager.getInstance(context.getProject()).getProjectContext();
+        if (projectContext != null) {
+            systemPrompt += "\n<Context>" + projectContext + "</Context>";
+        }
+
         return systemPrompt;
     }
+
+    private boolean hasSharedProjectContext(@NotNull Project project) {
+        if (ProjectContextManager.getInstance(project).getProjectContext() != null) {
+            return true;
+        }
+        // The project context was removed, the system message still carrying it is replaced
+        return chatMemoryService.getMessages(project).stream()
+                .anyMatch(message -> message instanceof SystemMessage systemMessage &&
+                        systemMessage.text().contains("\n<Context>"));
+    }
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.devoxx.genie.service.prompt.memory;
 
+import com.devoxx.genie.service.TokenizerService;
 import com.devoxx.genie.service.prompt.error.MemoryException;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
+import com.knuddels.jtokkit.api.EncodingType;
 import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
@@ -33,7 +37,7 @@ public class ChatMemoryService implements ChatMemoryProvider {
     public static final String FAILED_TO_CHECK_IF_MEMORY_IS_EMPTY = "Failed to check if memory is empty";
     public static final String FAILED_TO_REMOVE_LAST_MESSAGE_FROM_MEMORY = "Failed to remove last message from memory";
 
-    private final Map<String, MessageWindowChatMemory> projectConversations = new ConcurrentHashMap<>();
+    private final Map<String, ChatMemory> projectConversations = new ConcurrentHashMap<>();
     private final InMemoryChatMemoryStore inMemoryChatMemoryStore = new InMemoryChatMemoryStore();
 
     public static ChatMemoryService getInstance() {
@@ -69,9 +73,13 @@ public class ChatMemoryService implements ChatMemoryProvider {
     public void clearMemory(@NotNull Project project) {
         try {
             String projectHash = project.getLocationHash();
-            MessageWindowChatMemory memory = projectConversations.get(projectHash);
+            ChatMemory memory = projectConversations.get(projectHash);
             if (memory != null) {
                 memory.clear();
+                // A new conversation picks up a change of the memory type
+                if ((memory instanceof TokenBudgetChatMemory) != useTokenBudgetMemory()) {
+                    createChatMemory(projectHash, DevoxxGenieStateService.getInstance().getChatMemorySize());
+                }
                 log.debug("Cleared memory for project: {}", projectHash);
             } else {
                 log.warn("Attempted to clear memory for non-existent project: {}", projectHash);
@@ -89,24 +97,23 @@ public class ChatMemoryService implements ChatMemoryProvider {
     public void addMessage(@NotNull Project project, ChatMessage chatMessage) {
         try {
             String projectHash = project.getLocationHash();
-            MessageWindowChatMemory memory = projectConversations.get(projectHash);
+            ChatMemory memory = projectConversations.get(projectHash);
             if (memory != null) {
-                // Check for duplicate messages to prevent adding the same message multiple times
+                // Check for duplicate messages to prevent adding the same message multiple times.
+                // The memory itself keeps a single system message and skips an identical one
                 List<ChatMessage> currentMessages = memory.messages();
-                if (!currentMessages.isEmpty()) {
+                if (!(chatMessage instanceof SystemMessage) && !currentMessages.isEmpty()) {
                     ChatMessage lastMessage = currentMessages.get(currentMessages.size() - 1);
                     
                     // Check if the last message is of the same type and has the same content
-                    if (lastMessage.getClass().equals(chatMessage.getClass()) &&
-                        lastMessage.toString().equals(chatMessage.toString())) {
+                    if (lastMessage.equals(chatMessage)) {
                         log.warn("Prevented duplicate message addition for project: {}", projectHash);
                         return; // Skip adding duplicate message
                     }
                 }
                 
-                // Log the message content for debugging XML issues
-                log.debug("Adding message to memory - Type: {}, Content: {}", 
-                        chatMessage.getClass().getSimpleName(), chatMessage);
+                // The content isn't logged, the system message and the user message can carry a whole project
+                log.debug("Adding message to memory - Type: {}", chatMessage.getClass().getSimpleName());
                 
                 memory.add(chatMessage);
                 log.debug("Successfully added message to project: {}, message type: {}", projectHash, chatMessage.getClass().getSimpleName());
@@ -129,7 +136,7 @@ public class ChatMemoryService implements ChatMemoryProvider {
     public List<ChatMessage> getMessages(@NotNull Project project) {
         try {
             String projectHash = project.getLocationHash();
-            MessageWindowChatMemory memory = projectConversations.get(projectHash);
+            ChatMemory memory = projectConversations.get(projectHash);
             if (memory != null) {
                 return memory.messages();
             } else {
@@ -151,7 +158,7 @@ public class ChatMemoryService implements ChatMemoryProvider {
     public boolean isEmpty(@NotNull Project project) {
         try {
             String projectHash = project.getLocationHash();
-            MessageWindowChatMemory memory = projectConversations.get(projectHash);
+            ChatMemory memory = projectConversations.get(projectHash);
             if (memory != null) {
                 return memory.messages().isEmpty();
             } else {
@@ -170,7 +177,7 @@ public class ChatMemoryService implements ChatMemoryProvider {
     public void removeLastMessage(@NotNull Project project) {
         try {
             String projectHash = project.getLocationHash();
-            MessageWindowChatMemory memory = projectConversations.get(projectHash);
+            ChatMemory memory = projectConversations.get(projectHash);
             if (memory != null) {
                 List<ChatMessage> messages = memory.messages();
                 if (!messages.isEmpty()) {
@@ -204,7 +211,7 @@ public class ChatMemoryService implements ChatMemoryProvider {
     public void removeMessages(@NotNull Project project, List<ChatMessage> messagesToRemove) {
         try {
             String projectHash = project.getLocationHash();
-            MessageWindowChatMemory memory = projectConversations.get(projectHash);
+            ChatMemory memory = projectConversations.get(projectHash);
             if (memory != null) {
                 List<ChatMessage> currentMessages = memory.messages();
 
@@ -238,13 +245,25 @@ public class ChatMemoryService implements ChatMemoryProvider {
      * @param chatMemorySize The maximum number of messages to retain
      */
     private void createChatMemory(@NotNull String projectHash, int chatMemorySize) {
-        MessageWindowChatMemory chatMemory = MessageWindowChatMemory.builder()
-                .id("devoxxgenie-" + projectHash)
-                .chatMemoryStore(inMemoryChatMemoryStore)
-                .maxMessages(chatMemorySize)
-                .build();
+        ChatMemory chatMemory;
+        if (useTokenBudgetMemory()) {
+            // The tokenizer and summarizer of the prompt's model are configured before every prompt
+            chatMemory = new TokenBudgetChatMemory("devoxxgenie-" + projectHash,
+                    DevoxxGenieStateService.getInstance().getChatMemoryTokenBudget(),
+                    TokenizerService.getInstance().getEncoding(EncodingType.CL100K_BASE)::countTokensOrdinary);
+        } else {
+            chatMemory = MessageWindowChatMemory.builder()
+                    .id("devoxxgenie-" + projectHash)
+                    .chatMemoryStore(inMemoryChatMemoryStore)
+                    .maxMessages(chatMemorySize)
+                    .build();
+        }
         projectConversations.put(projectHash, chatMemory);
-        log.debug("Created new chat memory for project: {}", projectHash);
+        log.debug("Created new {} for project: {}", chatMemory.getClass().getSimpleName(), projectHash);
+    }
+
+    private static boolean useTokenBudgetMemory() {
+        return Boolean.TRUE.equals(DevoxxGenieStateService.getInstance().getUseTokenBudgetMemory());
     }
 
     @Override
@@ -0,0 +1,21 @@
+package com.devoxx.genie.service.prompt.memory;
+
+import dev.langchain4j.data.message.ChatMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Folds old exchanges of a conversation into a running summary.
+ */
+@FunctionalInterface
+public interface ChatMemorySummarizer {
+
+    /**
+     * @param previousSummary the summary of the exchanges before these, if any
+     * @param messages        the exchanges to add to the summary
+     * @return the new summary, covering the previous summary and the messages
+     */
+    @NotNull String summarize(@Nullable String previousSummary, @NotNull List<ChatMessage> messages);
+}
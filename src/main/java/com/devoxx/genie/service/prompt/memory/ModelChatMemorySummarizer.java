@@ -0,0 +1,59 @@
+package com.devoxx.genie.service.prompt.memory;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Summarizes old exchanges with a chat model.
+ * <p>
+ * The exchanges are sent without their context blocks and the summary is asked to stay short, so a
+ * summary costs a fraction of resending the exchanges with every prompt.
+ */
+public final class ModelChatMemorySummarizer implements ChatMemorySummarizer {
+
+    // Long answers are cut, the summary only needs their gist
+    private static final int MAX_MESSAGE_LENGTH = 4_000;
+
+    private static final String INSTRUCTIONS = """
+            Summarize the conversation below between a developer and an AI coding assistant in at most 200 words.
+            Keep the questions asked, the decisions made, and the names of files, classes, methods and libraries.
+            Leave out code listings. Answer with the summary only.
+            """;
+
+    private final Supplier<ChatLanguageModel> model;
+
+    /**
+     * @param model supplies the model, only called when there is something to summarize
+     */
+    public ModelChatMemorySummarizer(@NotNull Supplier<ChatLanguageModel> model) {
+        this.model = model;
+    }
+
+    @Override
+    public @NotNull String summarize(@Nullable String previousSummary, @NotNull List<ChatMessage> messages) {
+        StringBuilder prompt = new StringBuilder(INSTRUCTIONS).append('\n');
+        if (previousSummary != null) {
+            prompt.append("Summary of the conversation so far:\n").append(previousSummary).append("\n\n");
+        }
+        prompt.append("Conversation:\n");
+        for (ChatMessage message : messages) {
+            if (message instanceof UserMessage || message instanceof AiMessage) {
+                String text = TokenBudgetChatMemory.text(message);
+                if (text.length() > MAX_MESSAGE_LENGTH) {
+                    text = text.substring(0, MAX_MESSAGE_LENGTH) + " [...]";
+                }
+                prompt.append(message instanceof UserMessage ? "Developer: " : "Assistant: ")
+                        .append(text)
+                        .append('\n');
+            }
+        }
+        return model.get().chat(prompt.toString()).trim();
+    }
+}
@@ -0,0 +1,365 @@
+package com.devoxx.genie.service.prompt.memory;
+
+import dev.langchain4j.data.message.*;
+import dev.langchain4j.memory.ChatMemory;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chat memory bounded by a token budget instead of a number of messages.
+ * <p>
+ * A single message can carry a whole project as context, so a message window doesn't bound what is
+ * sent with every prompt. When the messages exceed the budget, the memory first replaces the context
+ * blocks of the user messages which were already answered by a short note, the model has seen them.
+ * When that isn't enough, the oldest exchanges are folded into a running summary, or dropped when no
+ * summarizer is available. The system message and the current user message are always kept.
+ * <p>
+ * The system message is not counted against the budget: it carries the project context of the prompt,
+ * which compacting the conversation can't reduce.
+ * <p>
+ * The memory is compacted when a user message is added, i.e. right before it is sent. The summarizer
+ * runs without holding the lock of the memory.
+ */
+@Slf4j
+public final class TokenBudgetChatMemory implements ChatMemory {
+
+    // The blocks added to the user message by the MessageCreationService
+    private static final Pattern CONTEXT_BLOCK = Pattern.compile(
+            "<(Context|ProjectContext|SemanticContext|FileContents|SelectedText)>(.*?)</\\1>", Pattern.DOTALL);
+    // Roles, separators and message framing, roughly the same for all providers
+    private static final int TOKENS_PER_MESSAGE = 4;
+    // Context blocks smaller than this are left alone
+    private static final int MIN_OMITTED_CONTEXT_TOKENS = 64;
+
+    static final String SUMMARY_PREFIX = "Summary of the earlier conversation:\n";
+    static final String SUMMARY_ACKNOWLEDGEMENT = "Understood, I'll keep this summary in mind.";
+
+    private final Object id;
+    private final List<ChatMessage> messages = new ArrayList<>();
+    private final Map<ChatMessage, Integer> tokenCounts = new IdentityHashMap<>();
+
+    private int maxTokens;
+    private ToIntFunction<String> tokenCounter;
+    private @Nullable ChatMemorySummarizer summarizer;
+    // Tokens which are no longer sent with every prompt, compared to keeping all messages verbatim
+    private int savedTokens;
+
+    public TokenBudgetChatMemory(@NotNull Object id, int maxTokens, @NotNull ToIntFunction<String> tokenCounter) {
+        this.id = id;
+        this.maxTokens = maxTokens;
+        this.tokenCounter = tokenCounter;
+    }
+
+    /**
+     * Update the budget and the way messages are measured and summarized, e.g. for the model of the next prompt.
+     *
+     * @param maxTokens    the token budget of the messages
+     * @param tokenCounter counts the tokens of a text with the tokenizer of the model
+     * @param summarizer   summarizes old exchanges, null to drop them instead
+     */
+    public synchronized void configure(int maxTokens,
+                                       @NotNull ToIntFunction<String> tokenCounter,
+                                       @Nullable ChatMemorySummarizer summarizer) {
+        if (this.tokenCounter != tokenCounter) {
+            tokenCounts.clear();
+        }
+        this.maxTokens = maxTokens;
+        this.tokenCounter = tokenCounter;
+        this.summarizer = summarizer;
+    }
+
+    @Override
+    public Object id() {
+        return id;
+    }
+
+    /**
+     * Old exchanges selected for the summary while holding the lock, summarized after releasing it.
+     */
+    private record PendingSummary(int tokensBefore,
+                                  int start,
+                                  @NotNull List<ChatMessage> oldExchanges,
+                                  @Nullable ChatMemorySummarizer summarizer,
+                                  @NotNull ToIntFunction<String> tokenCounter) {
+    }
+
+    @Override
+    public void add(ChatMessage message) {
+        PendingSummary pending;
+        synchronized (this) {
+            if (message instanceof SystemMessage systemMessage) {
+                addSystemMessage(systemMessage);
+                return;
+            }
+            messages.add(message);
+            if (!(message instanceof UserMessage)) {
+                return;
+            }
+            pending = compact();
+        }
+        if (pending != null) {
+            String newSummary = summarize(pending);
+            applySummary(pending, newSummary);
+        }
+    }
+
+    private void addSystemMessage(@NotNull SystemMessage systemMessage) {
+        // Like the message window memory, there is at most one system message, kept first
+        if (!messages.isEmpty() && messages.get(0) instanceof SystemMessage) {
+            if (messages.get(0).equals(systemMessage)) {
+                return;
+            }
+            tokenCounts.remove(messages.remove(0));
+        }
+        messages.add(0, systemMessage);
+    }
+
+    @Override
+    public synchronized List<ChatMessage> messages() {
+        return new ArrayList<>(messages);
+    }
+
+    @Override
+    public synchronized void clear() {
+        messages.clear();
+        tokenCounts.clear();
+        savedTokens = 0;
+    }
+
+    /**
+     * @return the number of tokens no longer sent with every prompt thanks to the compaction
+     */
+    public synchronized int getSavedTokens() {
+        return savedTokens;
+    }
+
+    /**
+     * @return the tokens of the conversation, without the system message
+     */
+    synchronized int totalTokens() {
+        int total = 0;
+        for (int i = firstConversationIndex(); i < messages.size(); i++) {
+            total += tokens(messages.get(i));
+        }
+        return total;
+    }
+
+    /**
+     * @return the old exchanges to summarize outside the lock, null when the compaction is complete
+     */
+    private @Nullable PendingSummary compact() {
+        int total = totalTokens();
+        if (total <= maxTokens) {
+            return null;
+        }
+        int before = total;
+
+        total = omitAnsweredContext(total);
+        if (total > maxTokens) {
+            PendingSummary pending = selectOldExchanges(before, total);
+            if (pending != null) {
+                return pending;
+            }
+        }
+        compacted(before, total);
+        return null;
+    }
+
+    private void compacted(int before, int total) {
+        savedTokens += before - total;
+        log.debug("Compacted chat memory {} from {} to {} tokens, budget {}", id, before, total, maxTokens);
+        if (total > maxTokens) {
+            log.debug("Chat memory {} still exceeds its budget, the current message alone is {} tokens",
+                    id, tokens(messages.get(messages.size() - 1)));
+        }
+    }
+
+    /**
+     * Replace the context blocks of the answered user messages, oldest first, until the budget is met.
+     */
+    private int omitAnsweredContext(int total) {
+        int current = lastUserMessageIndex();
+        for (int i = 0; i < current && total > maxTokens; i++) {
+            if (!(messages.get(i) instanceof UserMessage userMessage) || !isAnswered(i)) {
+                continue;
+            }
+            String text = text(userMessage);
+            String omitted = omitContextBlocks(text, tokenCounter);
+            if (omitted.equals(text)) {
+                continue;
+            }
+            UserMessage replacement = userMessage.name() == null ?
+                    UserMessage.from(omitted) : UserMessage.from(userMessage.name(), omitted);
+            total += replace(i, replacement);
+        }
+        return total;
+    }
+
+    /**
+     * Select the oldest exchanges to fold into the summary until the budget is met, the current user message is kept.
+     */
+    private @Nullable PendingSummary selectOldExchanges(int before, int total) {
+        int start = firstConversationIndex();
+        int current = lastUserMessageIndex();
+
+        // Find the first exchange to keep, exchanges start with a user message
+        int excess = total - maxTokens;
+        int keepFrom = current;
+        int removed = 0;
+        for (int i = start; i < current; i++) {
+            removed += tokens(messages.get(i));
+            if (removed >= excess && messages.get(i + 1) instanceof UserMessage) {
+                keepFrom = i + 1;
+                break;
+            }
+        }
+        if (keepFrom <= start) {
+            return null;
+        }
+        return new PendingSummary(before, start, List.copyOf(messages.subList(start, keepFrom)), summarizer, tokenCounter);
+    }
+
+    /**
+     * Replace the old exchanges, including the previous summary, by the new summary. Skipped when the
+     * messages changed while summarizing, e.g. because the memory was cleared.
+     */
+    private synchronized void applySummary(@NotNull PendingSummary pending, @Nullable String newSummary) {
+        List<ChatMessage> oldExchanges = pending.oldExchanges();
+        int start = pending.start();
+        int end = start + oldExchanges.size();
+        if (end > messages.size() || !isSameMessages(messages.subList(start, end), oldExchanges)) {
+            log.debug("Chat memory {} changed while summarizing, keeping its messages", id);
+            return;
+        }
+
+        for (ChatMessage message : oldExchanges) {
+            tokenCounts.remove(message);
+        }
+        messages.subList(start, end).clear();
+        if (newSummary != null) {
+            messages.addAll(start, List.of(
+                    UserMessage.from(SUMMARY_PREFIX + newSummary),
+                    AiMessage.from(SUMMARY_ACKNOWLEDGEMENT)));
+        }
+        compacted(pending.tokensBefore(), totalTokens());
+    }
+
+    private static boolean isSameMessages(@NotNull List<ChatMessage> current, @NotNull List<ChatMessage> expected) {
+        for (int i = 0; i < expected.size(); i++) {
+            if (current.get(i) != expected.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private @Nullable String summarize(@NotNull PendingSummary pending) {
+        List<ChatMessage> oldExchanges = pending.oldExchanges();
+        // The previous summary, if any, starts the old exchanges
+        String previousSummary = null;
+        if (!oldExchanges.isEmpty() && oldExchanges.get(0) instanceof UserMessage summaryMessage && isSummaryMessage(summaryMessage)) {
+            previousSummary = text(summaryMessage).substring(SUMMARY_PREFIX.length());
+        }
+
+        ChatMemorySummarizer currentSummarizer = pending.summarizer();
+        if (currentSummarizer == null) {
+            log.debug("No summarizer, dropping {} old messages from chat memory {}", oldExchanges.size(), id);
+            return previousSummary;
+        }
+        // The summarizer receives the previous summary itself and the exchanges without their context
+        List<ChatMessage> toSummarize = oldExchanges.stream()
+                .filter(message -> !isSummaryMessage(message))
+                .map(message -> message instanceof UserMessage userMessage ?
+                        UserMessage.from(omitContextBlocks(text(userMessage), pending.tokenCounter())) : message)
+                .toList();
+        if (toSummarize.isEmpty()) {
+            return previousSummary;
+        }
+        try {
+            return currentSummarizer.summarize(previousSummary, toSummarize);
+        } catch (Exception e) {
+            log.warn("Failed to summarize the chat memory, dropping the old messages instead", e);
+            return previousSummary;
+        }
+    }
+
+    private int replace(int index, @NotNull ChatMessage replacement) {
+        ChatMessage original = messages.set(index, replacement);
+        int delta = tokens(replacement) - tokens(original);
+        tokenCounts.remove(original);
+        return delta;
+    }
+
+    private boolean isAnswered(int userMessageIndex) {
+        for (int i = userMessageIndex + 1; i < messages.size(); i++) {
+            if (messages.get(i) instanceof AiMessage) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int firstConversationIndex() {
+        return !messages.isEmpty() && messages.get(0) instanceof SystemMessage ? 1 : 0;
+    }
+
+    private static boolean isSummaryMessage(@NotNull ChatMessage message) {
+        return (message instanceof UserMessage userMessage && text(userMessage).startsWith(SUMMARY_PREFIX)) ||
+                (message instanceof AiMessage aiMessage && SUMMARY_ACKNOWLEDGEMENT.equals(aiMessage.text()));
+    }
+
+    private int lastUserMessageIndex() {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof UserMessage) {
+                return i;
+            }
+        }
+        return messages.size();
+    }
+
+    private static @NotNull String omitContextBlocks(@NotNull String text, @NotNull ToIntFunction<String> tokenCounter) {
+        Matcher matcher = CONTEXT_BLOCK.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            int blockTokens = tokenCounter.applyAsInt(matcher.group(2));
+            String replacement = blockTokens < MIN_OMITTED_CONTEXT_TOKENS ? matcher.group() :
+                    "<" + matcher.group(1) + ">[" + blockTokens + " tokens of context omitted, already sent in an earlier message]</" + matcher.group(1) + ">";
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private int tokens(@NotNull ChatMessage message) {
+        return tokenCounts.computeIfAbsent(message, m -> TOKENS_PER_MESSAGE + tokenCounter.applyAsInt(text(m)));
+    }
+
+    static @NotNull String text(@NotNull ChatMessage message) {
+        String text = null;
+        if (message instanceof UserMessage userMessage) {
+            StringBuilder builder = new StringBuilder();
+            for (Content content : userMessage.contents()) {
+                if (content instanceof TextContent textContent) {
+                    builder.append(textContent.text());
+                }
+            }
+            text = builder.toString();
+        } else if (message instanceof AiMessage aiMessage) {
+            text = aiMessage.text();
+            if (aiMessage.hasToolExecutionRequests()) {
+                text = (text == null ? "" : text) + aiMessage.toolExecutionRequests().toString();
+            }
+        } else if (message instanceof SystemMessage systemMessage) {
+            text = systemMessage.text();
+        } else if (message instanceof ToolExecutionResultMessage toolResult) {
+            text = toolResult.text();
+        }
+        return text == null ? "" : text;
+    }
+}
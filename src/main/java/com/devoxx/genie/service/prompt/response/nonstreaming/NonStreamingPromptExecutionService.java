@@ -6,11 +6,12 @@ import com.devoxx.genie.model.request.ChatMessageContext;
 import com.devoxx.genie.service.FileListManager;
 import com.devoxx.genie.service.mcp.MCPExecutionService;
 import com.devoxx.genie.service.mcp.MCPService;
+import com.devoxx.genie.service.prompt.AssistantCache;
 import com.devoxx.genie.service.prompt.error.ExecutionException;
 import com.devoxx.genie.service.prompt.error.ModelException;
 import com.devoxx.genie.service.prompt.error.PromptErrorHandler;
 import com.devoxx.genie.service.prompt.memory.ChatMemoryManager;
-import com.devoxx.genie.service.prompt.threading.ThreadPoolManager;
+import com.devoxx.genie.service.prompt.threading.PromptScheduler;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.util.TemplateVariableEscaper;
 import com.intellij.openapi.application.ApplicationManager;
@@ -22,29 +23,24 @@ import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.service.AiServices;
 
 import dev.langchain4j.service.tool.ToolProvider;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 public class NonStreamingPromptExecutionService {
 
-    @Getter
-    private volatile boolean running = false;
-    
     private final ChatMemoryManager chatMemoryManager;
-    private final ThreadPoolManager threadPoolManager;
-    private final AtomicReference<CompletableFuture<ChatResponse>> currentQueryFuture = new AtomicReference<>();
+    private final PromptScheduler promptScheduler;
 
     public NonStreamingPromptExecutionService() {
         this.chatMemoryManager = ChatMemoryManager.getInstance();
-        this.threadPoolManager = ThreadPoolManager.getInstance();
+        this.promptScheduler = PromptScheduler.getInstance();
     }
 
     @NotNull
@@ -61,23 +57,21 @@ public class NonStreamingPromptExecutionService {
     public @NotNull CompletableFuture<ChatResponse> executeQuery(@NotNull ChatMessageContext chatMessageContext) {
         log.debug("Execute query : {}", chatMessageContext);
 
-        // Cancel any existing query
-        cancelExecutingQuery();
-        
         Project project = chatMessageContext.getProject();
 
         long startTime = System.currentTimeMillis();
-        running = true;
 
-        // Create new future for the current query
-        CompletableFuture<ChatResponse> queryFuture = CompletableFuture
-            .supplyAsync(
-                () -> processChatMessage(chatMessageContext), 
-                threadPoolManager.getPromptExecutionPool()
-            )
-            .orTimeout(
-                chatMessageContext.getTimeout() == null ? 60 : chatMessageContext.getTimeout(), 
-                TimeUnit.SECONDS
+        // The chat memory is kept per project, so the project is the conversation.
+        // Its previous query is cancelled, the queries of other projects keep running.
+        // The timeout starts when the query runs, not while it waits for the provider.
+        String projectKey = project.getLocationHash();
+        return promptScheduler
+            .submit(
+                chatMessageContext.getLanguageModel().getProvider().getName(),
+                projectKey,
+                projectKey,
+                Duration.ofSeconds(chatMessageContext.getTimeout() == null ? 60 : chatMessageContext.getTimeout()),
+                () -> processChatMessage(chatMessageContext)
             )
             .thenApply(result -> {
                 chatMessageContext.setExecutionTimeMs(System.currentTimeMillis() - startTime);
@@ -96,10 +90,6 @@ public class NonStreamingPromptExecutionService {
                 return null;
             })
             .whenComplete((response, throwable) -> {
-                // Always clear the current future reference when done
-                currentQueryFuture.set(null);
-                running = false;
-                
                 // Add file references if any, similar to StreamingResponseHandler
                 if (response != null && !FileListManager.getInstance().isEmpty(project)) {
                     log.debug("Adding file references for non-streaming response");
@@ -107,26 +97,24 @@ public class NonStreamingPromptExecutionService {
                     chatMessageContext.setFileReferences(FileListManager.getInstance().getFiles(project));
                 }
             });
-        
-        // Store the future for potential cancellation
-        currentQueryFuture.set(queryFuture);
-        
-        return queryFuture;
     }
 
     /**
-     * Cancel the currently executing query if one exists.
+     * @param project the project
+     * @return true if a query of the project is waiting or running
      */
-    public void cancelExecutingQuery() {
-        CompletableFuture<ChatResponse> future = currentQueryFuture.get();
-        if (future != null && !future.isDone()) {
-            future.cancel(true);
-            if (MCPService.isMCPEnabled()) {
-                MCPExecutionService.getInstance().clearClientCache();
-            }
-            currentQueryFuture.set(null);
-            running = false;
-        }
+    public boolean isRunning(@NotNull Project project) {
+        return promptScheduler.hasPrompt(project.getLocationHash());
+    }
+
+    /**
+     * Cancel the executing query of the project if one exists.
+     * Only the query is interrupted, the MCP servers are shared with the other projects and keep running.
+     *
+     * @param project the project
+     */
+    public void cancelExecutingQuery(@NotNull Project project) {
+        promptScheduler.cancel(project.getLocationHash());
     }
 
     /**
@@ -141,8 +129,7 @@ public class NonStreamingPromptExecutionService {
 
             ChatMemory chatMemory = chatMemoryManager.getChatMemory(projectId);
 
-            Assistant assistant = buildAssistant(chatLanguageModel, chatMemory);
-
+            ToolProvider mcpToolProvider = null;
             if (MCPService.isMCPEnabled()) {
                 Map<String, MCPServer> mcpServers = DevoxxGenieStateService.getInstance().getMcpSettings().getMcpServers();
                 int totalActiveMCPTools = mcpServers.values().stream()
@@ -150,33 +137,18 @@ public class NonStreamingPromptExecutionService {
                         .mapToInt(server -> server.getAvailableTools().size())
                         .sum();
 
-                // If MCP is enable and we active tools then recreate assistant
+                // If MCP is enable and we have active tools then use the MCP tool provider
                 if (totalActiveMCPTools > 0) {
-                    MCPService.logDebug("MCP is enabled and we have active tools. Creating MCP tool provider");
-
-                    // Use project-specific tool provider with filesystem access
-                    ToolProvider mcpToolProvider = MCPExecutionService.getInstance().createMCPToolProvider();
-
-                    if (mcpToolProvider != null) {
-                        MCPService.logDebug("Successfully created MCP tool provider with filesystem access");
-
-//                        // Add file references to context before processing if we have them
-//                        if (!FileListManager.getInstance().isEmpty(project)) {
-//                            chatMessageContext.setFileReferences(FileListManager.getInstance().getFiles(project));
-//                            MCPService.logDebug("Added file references to MCP context: " +
-//                                    FileListManager.getInstance().getFiles(project).size() + " files");
-//                        }
-
-                        assistant = AiServices.builder(Assistant.class)
-                                .chatLanguageModel(chatLanguageModel)
-                                .chatMemoryProvider(memoryId -> chatMemory)
-                                .systemMessageProvider(memoryId -> DevoxxGenieStateService.getInstance().getSystemPrompt())
-                                .toolProvider(mcpToolProvider)
-                                .build();
-                    }
+                    MCPService.logDebug("MCP is enabled and we have active tools. Using MCP tool provider");
+                    mcpToolProvider = MCPExecutionService.getInstance().createMCPToolProvider();
                 }
             }
 
+            ToolProvider toolProvider = mcpToolProvider;
+            Assistant assistant = AssistantCache.getInstance(project).getAssistant(
+                    Assistant.class, chatLanguageModel, chatMemory, toolProvider,
+                    () -> buildAssistant(chatLanguageModel, chatMemory, toolProvider));
+
             String userMessage = chatMessageContext.getUserMessage().singleText();
             String cleanText = TemplateVariableEscaper.escape(userMessage);
 
@@ -207,12 +179,16 @@ public class NonStreamingPromptExecutionService {
         }
     }
 
-    private static Assistant buildAssistant(ChatLanguageModel chatLanguageModel, ChatMemory chatMemory) {
-        return AiServices.builder(Assistant.class)
+    private static Assistant buildAssistant(ChatLanguageModel chatLanguageModel,
+                                            ChatMemory chatMemory,
+                                            @Nullable ToolProvider toolProvider) {
+        AiServices<Assistant> builder = AiServices.builder(Assistant.class)
                 .chatLanguageModel(chatLanguageModel)
-                .chatMemoryProvider(memoryId -> chatMemory)
-                .systemMessageProvider(memoryId -> DevoxxGenieStateService.getInstance().getSystemPrompt())
-                .build();
+                .chatMemoryProvider(memoryId -> chatMemory);
+        if (toolProvider != null) {
+            builder.toolProvider(toolProvider);
+        }
+        return builder.build();
     }
 
     /**
@@ -6,6 +6,7 @@ import com.devoxx.genie.service.prompt.error.PromptErrorHandler;
 import com.devoxx.genie.service.prompt.error.StreamingException;
 import com.devoxx.genie.service.prompt.memory.ChatMemoryManager;
 import com.devoxx.genie.service.prompt.memory.ChatMemoryService;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.ui.topic.AppTopics;
 import com.devoxx.genie.ui.webview.ConversationWebViewController;
 import com.intellij.openapi.application.ApplicationManager;
@@ -35,6 +36,9 @@ public class StreamingResponseHandler implements StreamingChatResponseHandler {
     private boolean hasAddedInitialMessage = false;
     private final StringBuilder accumulatedResponse = new StringBuilder();
 
+    // Coalesces tokens into at most one UI flush per interval (null without UI)
+    private final StreamingTokenBatcher tokenBatcher;
+
     /**
      * Creates a new streaming response handler
      *
@@ -55,6 +59,9 @@ public class StreamingResponseHandler implements StreamingChatResponseHandler {
         this.onErrorCallback = onErrorCallback;
         this.startTime = System.currentTimeMillis();
         this.conversationWebViewController = conversationWebViewController;
+        this.tokenBatcher = conversationWebViewController == null ? null : new StreamingTokenBatcher(
+                DevoxxGenieStateService.getInstance().getStreamingFlushIntervalMs(),
+                this::flushTokens);
     }
 
     @Override
@@ -66,30 +73,31 @@ public class StreamingResponseHandler implements StreamingChatResponseHandler {
         log.debug("Received partial response: '{}...'", 
                 partialResponse.substring(0, Math.min(20, partialResponse.length())));
         
-        // Accumulate the response tokens 
+        // Accumulate the response tokens, the full text is only materialized on completion
         accumulatedResponse.append(partialResponse);
-        String fullText = accumulatedResponse.toString();
         
         // Only update the UI if we have a valid controller (might be null in tests)
-        if (conversationWebViewController != null) {
-            ApplicationManager.getApplication().invokeLater(() -> {
-                // Set the AI message with accumulated tokens so far
-                context.setAiMessage(dev.langchain4j.data.message.AiMessage.from(fullText));
-                
-                // Always update the existing message - we already created a placeholder
-                // when the user submitted the prompt
-                conversationWebViewController.updateAiMessageContent(context);
-                
-                // Mark that we've started streaming
-                hasAddedInitialMessage = true;
-            });
+        if (tokenBatcher != null) {
+            tokenBatcher.add(partialResponse);
         } else {
-            // Still update the message in context even without UI
-            context.setAiMessage(dev.langchain4j.data.message.AiMessage.from(fullText));
             hasAddedInitialMessage = true;
         }
     }
 
+    /**
+     * Sends the coalesced tokens to the web view. Runs on the EDT.
+     *
+     * @param tokens The tokens received since the previous flush
+     */
+    private void flushTokens(@NotNull String tokens) {
+        // Send only the delta, the web view re-renders just the trailing markdown block.
+        // We already created a placeholder when the user submitted the prompt
+        conversationWebViewController.appendAiMessageDelta(context, tokens);
+
+        // Mark that we've started streaming
+        hasAddedInitialMessage = true;
+    }
+
     @Override
     public void onCompleteResponse(ChatResponse response) {
         if (isStopped) {
@@ -100,14 +108,17 @@ public class StreamingResponseHandler implements StreamingChatResponseHandler {
             long endTime = System.currentTimeMillis();
             context.setExecutionTimeMs(endTime - startTime);
             context.setAiMessage(response.aiMessage());
+            context.setSavedPromptTokens(ChatMemoryManager.getInstance().getSavedPromptTokens(project));
 
             // Update the web view with the final response (if webViewController is available)
             if (conversationWebViewController != null) {
+                // Flush the remaining tokens first, the flush is queued before the final update
+                tokenBatcher.close();
                 ApplicationManager.getApplication().invokeLater(() -> {
                     // If we've already shown partial responses, just update the AI content
                     // Otherwise add a new message pair (when we get complete response without partials)
                     if (hasAddedInitialMessage) {
-                        conversationWebViewController.updateAiMessageContent(context);
+                        conversationWebViewController.finishAiMessageStream(context);
                     } else {
                         conversationWebViewController.addChatMessage(context);
                     }
@@ -140,6 +151,15 @@ public class StreamingResponseHandler implements StreamingChatResponseHandler {
     @Override
     public void onError(@NotNull Throwable error) {
         log.error("Streaming error for context {}: {}", context.getId(), error.getMessage());
+        if (tokenBatcher != null) {
+            tokenBatcher.close();
+            if (accumulatedResponse.length() > 0) {
+                // Freeze the partial response, this also releases the stream state of the message
+                context.setAiMessage(dev.langchain4j.data.message.AiMessage.from(accumulatedResponse.toString()));
+                ApplicationManager.getApplication().invokeLater(() ->
+                        conversationWebViewController.finishAiMessageStream(context));
+            }
+        }
         StreamingException streamingError = new StreamingException(
             "Error during streaming response", error);
         PromptErrorHandler.handleException(context.getProject(), streamingError, context);
@@ -152,6 +172,17 @@ public class StreamingResponseHandler implements StreamingChatResponseHandler {
     public void stop() {
         if (!isStopped) {
             isStopped = true;
+
+            if (accumulatedResponse.length() > 0) {
+                context.setAiMessage(dev.langchain4j.data.message.AiMessage.from(accumulatedResponse.toString()));
+
+                // Freeze the partial response that is already displayed
+                if (conversationWebViewController != null) {
+                    tokenBatcher.close();
+                    ApplicationManager.getApplication().invokeLater(() ->
+                            conversationWebViewController.finishAiMessageStream(context));
+                }
+            }
             
             // Clean up partial response from memory
             if (context.getAiMessage() != null) {
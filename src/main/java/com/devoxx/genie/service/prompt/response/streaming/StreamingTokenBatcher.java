@@ -0,0 +1,154 @@
+package com.devoxx.genie.service.prompt.response.streaming;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces streamed tokens between the LLM stream and the EDT.
+ * <p>
+ * Fast providers (Groq, local llama.cpp, ...) push hundreds of tokens per second. Instead of
+ * posting one UI update per token, tokens are buffered and flushed at most once per interval,
+ * with at most one flush pending on the UI thread at any time. {@link #close()} always flushes
+ * what is left, so completion and cancellation never lose text.
+ */
+@Slf4j
+public class StreamingTokenBatcher {
+
+    private final Consumer<String> flushConsumer;
+    private final long intervalNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<Runnable> uiExecutor;
+
+    private final Object lock = new Object();
+    private final StringBuilder pending = new StringBuilder();
+    private boolean flushScheduled = false;
+    private boolean closed = false;
+    private long lastFlushNanos = 0;
+
+    // Counters
+    private long tokensReceived = 0;
+    private long flushCount = 0;
+
+    /**
+     * Creates a batcher flushing on the EDT.
+     *
+     * @param intervalMs    minimum time between two flushes, 0 only coalesces while a flush is pending
+     * @param flushConsumer receives the coalesced text on the EDT
+     */
+    public StreamingTokenBatcher(long intervalMs, @NotNull Consumer<String> flushConsumer) {
+        this(intervalMs, flushConsumer,
+                AppExecutorUtil.getAppScheduledExecutorService(),
+                runnable -> ApplicationManager.getApplication().invokeLater(runnable));
+    }
+
+    /**
+     * Constructor for full dependency injection, primarily used for testing.
+     *
+     * @param intervalMs    minimum time between two flushes
+     * @param flushConsumer receives the coalesced text on the UI executor
+     * @param scheduler     scheduler used to delay flushes
+     * @param uiExecutor    executor running the flushes
+     */
+    public StreamingTokenBatcher(long intervalMs,
+                                 @NotNull Consumer<String> flushConsumer,
+                                 @NotNull ScheduledExecutorService scheduler,
+                                 @NotNull Consumer<Runnable> uiExecutor) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMs));
+        this.flushConsumer = flushConsumer;
+        this.scheduler = scheduler;
+        this.uiExecutor = uiExecutor;
+    }
+
+    /**
+     * Buffer a streamed token, scheduling a flush if none is pending.
+     *
+     * @param token the partial response
+     */
+    public void add(@NotNull String token) {
+        long delayNanos;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            pending.append(token);
+            tokensReceived++;
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+            delayNanos = lastFlushNanos == 0 ? 0 : intervalNanos - (System.nanoTime() - lastFlushNanos);
+        }
+
+        if (delayNanos <= 0) {
+            uiExecutor.accept(this::flush);
+        } else {
+            scheduler.schedule(() -> uiExecutor.accept(this::flush), delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Flush the remaining tokens and stop accepting new ones.
+     * The flush is posted on the UI executor, so UI work posted afterward runs after it.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        uiExecutor.accept(() -> {
+            flush();
+            log.debug("Streaming batcher closed: {} tokens, {} flushes, coalescing ratio {}",
+                    getTokensReceived(), getFlushCount(), String.format("%.1f", getCoalescingRatio()));
+        });
+    }
+
+    private void flush() {
+        String text;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            text = pending.toString();
+            pending.setLength(0);
+            lastFlushNanos = System.nanoTime();
+            flushCount++;
+        }
+        flushConsumer.accept(text);
+    }
+
+    /**
+     * @return the number of tokens received from the stream
+     */
+    public long getTokensReceived() {
+        synchronized (lock) {
+            return tokensReceived;
+        }
+    }
+
+    /**
+     * @return the number of UI flushes performed
+     */
+    public long getFlushCount() {
+        synchronized (lock) {
+            return flushCount;
+        }
+    }
+
+    /**
+     * @return the average number of tokens per UI flush
+     */
+    public double getCoalescingRatio() {
+        synchronized (lock) {
+            return flushCount == 0 ? 0 : (double) tokensReceived / flushCount;
+        }
+    }
+}
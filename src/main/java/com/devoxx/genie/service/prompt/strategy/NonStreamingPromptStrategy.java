@@ -77,15 +77,16 @@ public class NonStreamingPromptStrategy extends AbstractPromptExecutionStrategy
         // Prepare memory and add user message
         prepareMemory(context);
 
-        // Execute the prompt using the centralized thread pool
-        threadPoolManager.getPromptExecutionPool().execute(() -> {
+        // Record start time
+        long startTime = System.currentTimeMillis();
+
+        // The prompt scheduler runs the query, handle the response without blocking a pool thread on it
+        promptExecutionService.executeQuery(context).whenComplete((response, error) -> {
+            if (error != null) {
+                handleQueryError(error, context, resultTask);
+                return;
+            }
             try {
-                // Record start time
-                long startTime = System.currentTimeMillis();
-                
-                // Execute the query
-                var response = promptExecutionService.executeQuery(context).get();
-                
                 if (response == null) {
                     resultTask.complete(PromptResult.failure(context, new ExecutionException("Null response received")));
                     return;
@@ -97,6 +98,7 @@ public class NonStreamingPromptStrategy extends AbstractPromptExecutionStrategy
 
                 // Set token usage and cost
                 context.setTokenUsageAndCost(response.tokenUsage());
+                context.setSavedPromptTokens(chatMemoryManager.getSavedPromptTokens(project));
 
                 // Add chat response to panel
                 panel.addChatResponse(context);
@@ -114,14 +116,7 @@ public class NonStreamingPromptStrategy extends AbstractPromptExecutionStrategy
                 
                 resultTask.complete(PromptResult.success(context));
             } catch (Exception e) {
-                if (e instanceof CancellationException || 
-                    e.getCause() instanceof CancellationException || 
-                    Thread.currentThread().isInterrupted()) {
-                    log.info("Prompt execution cancelled for context {}", context.getId());
-                    resultTask.cancel(true);
-                } else {
-                    handleExecutionError(e, context, resultTask);
-                }
+                handleQueryError(e, context, resultTask);
             }
         });
         
@@ -129,17 +124,30 @@ public class NonStreamingPromptStrategy extends AbstractPromptExecutionStrategy
         resultTask.whenComplete((result, error) -> {
             if (resultTask.isCancelled()) {
                 log.debug("Task cancelled, cancelling prompt execution");
-                promptExecutionService.cancelExecutingQuery();
+                promptExecutionService.cancelExecutingQuery(project);
             }
         });
     }
 
+    private void handleQueryError(@NotNull Throwable error,
+                                  @NotNull ChatMessageContext context,
+                                  @NotNull PromptTask<PromptResult> resultTask) {
+        if (error instanceof CancellationException ||
+            error.getCause() instanceof CancellationException ||
+            Thread.currentThread().isInterrupted()) {
+            log.info("Prompt execution cancelled for context {}", context.getId());
+            resultTask.cancel(true);
+        } else {
+            handleExecutionError(error, context, resultTask);
+        }
+    }
+
     /**
      * Cancel the current prompt execution.
      */
     @Override
     public void cancel() {
-        promptExecutionService.cancelExecutingQuery();
+        promptExecutionService.cancelExecutingQuery(project);
     }
 
     /**
@@ -5,10 +5,12 @@ import com.devoxx.genie.service.FileListManager;
 import com.devoxx.genie.service.MessageCreationService;
 import com.devoxx.genie.service.mcp.MCPExecutionService;
 import com.devoxx.genie.service.mcp.MCPService;
+import com.devoxx.genie.service.prompt.AssistantCache;
 import com.devoxx.genie.service.prompt.error.ModelException;
 import com.devoxx.genie.service.prompt.memory.ChatMemoryManager;
 import com.devoxx.genie.service.prompt.result.PromptResult;
 import com.devoxx.genie.service.prompt.response.streaming.StreamingResponseHandler;
+import com.devoxx.genie.service.prompt.threading.PromptScheduler;
 import com.devoxx.genie.service.prompt.threading.PromptTask;
 import com.devoxx.genie.service.prompt.threading.ThreadPoolManager;
 import com.devoxx.genie.ui.panel.PromptOutputPanel;
@@ -24,7 +26,11 @@ import dev.langchain4j.service.tool.ToolExecution;
 import dev.langchain4j.service.tool.ToolProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -35,6 +41,7 @@ import java.util.function.Consumer;
 public class StreamingPromptStrategy extends AbstractPromptExecutionStrategy {
 
     private final AtomicReference<StreamingResponseHandler> currentHandler = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Void>> currentPrompt = new AtomicReference<>();
 
     public StreamingPromptStrategy(Project project) {
         super(project);
@@ -150,51 +157,35 @@ public class StreamingPromptStrategy extends AbstractPromptExecutionStrategy {
             return;
         }
 
-        // Execute streaming using thread pool
-        threadPoolManager.getPromptExecutionPool().execute(() -> {
-            try {
-                String projectId = project.getLocationHash();
-
-                ChatMemory chatMemory = chatMemoryManager.getChatMemory(projectId);
-
-                Assistant assistant;
-
-                ToolProvider mcpToolProvider = MCPExecutionService.getInstance().createMCPToolProvider();
-                if (mcpToolProvider != null) {
-                    MCPService.logDebug("Successfully created MCP tool provider with filesystem access");
-
-                    // Add file references to context before processing if we have them
-                    if (!FileListManager.getInstance().isEmpty(project)) {
-                        context.setFileReferences(FileListManager.getInstance().getFiles(project));
-                        MCPService.logDebug("Added file references to MCP context: " +
-                                FileListManager.getInstance().getFiles(project).size() + " files");
-                    }
-                    assistant = AiServices.builder(Assistant.class)
-                            .streamingChatLanguageModel(streamingModel)
-                            .toolProvider(mcpToolProvider)
-                            .chatMemoryProvider(memoryId -> chatMemory)
-                            .build();
+        // The prompt scheduler starts the stream once the provider has capacity, the prompt keeps its slot until
+        // the response is complete. The chat memory is kept per project, so the project is the conversation.
+        String projectKey = project.getLocationHash();
+        CompletableFuture<Void> prompt = PromptScheduler.getInstance().submit(
+                context.getLanguageModel().getProvider().getName(),
+                projectKey,
+                projectKey,
+                () -> {
+                    stream(context, streamingModel, streamingResponseHandler);
+                    awaitResponse(resultTask);
+                    return null;
+                });
+        currentPrompt.set(prompt);
+
+        // A prompt replaced by a newer prompt of the project, or which failed to start, stops streaming
+        prompt.whenComplete((result, error) -> {
+            if (error != null && !resultTask.isDone()) {
+                StreamingResponseHandler h = currentHandler.getAndSet(null);
+                if (h != null) {
+                    h.stop();
+                }
+                if (error instanceof CancellationException) {
+                    resultTask.cancel(true);
                 } else {
-                    assistant = AiServices.builder(Assistant.class)
-                            .streamingChatLanguageModel(streamingModel)
-                            .chatMemoryProvider(memoryId -> chatMemory)
-                            .build();
+                    resultTask.completeExceptionally(error);
                 }
-
-                TokenStream chat = assistant.chat(context.getUserPrompt());
-
-                chat.onPartialResponse(streamingResponseHandler::onPartialResponse)
-                    .onToolExecuted(ToolExecution::request)
-                    .onCompleteResponse(streamingResponseHandler::onCompleteResponse)
-                    .onError(streamingResponseHandler::onError)
-                    .start();
-
-            } catch (Exception e) {
-                log.error("Error in streaming prompt execution", e);
-                streamingResponseHandler.onError(e);
             }
         });
-        
+
         // Add additional cancellation handling
         resultTask.whenComplete((result, error) -> {
             if (resultTask.isCancelled()) {
@@ -202,10 +193,63 @@ public class StreamingPromptStrategy extends AbstractPromptExecutionStrategy {
                 if (h != null) {
                     h.stop();
                 }
+                prompt.cancel(true);
             }
         });
     }
 
+    private void stream(@NotNull ChatMessageContext context,
+                        @NotNull StreamingChatLanguageModel streamingModel,
+                        @NotNull StreamingResponseHandler streamingResponseHandler) {
+        try {
+            String projectId = project.getLocationHash();
+
+            ChatMemory chatMemory = chatMemoryManager.getChatMemory(projectId);
+
+            ToolProvider mcpToolProvider = MCPExecutionService.getInstance().createMCPToolProvider();
+            if (mcpToolProvider != null) {
+                MCPService.logDebug("Using MCP tool provider with filesystem access");
+
+                // Add file references to context before processing if we have them
+                if (!FileListManager.getInstance().isEmpty(project)) {
+                    context.setFileReferences(FileListManager.getInstance().getFiles(project));
+                    MCPService.logDebug("Added file references to MCP context: " +
+                            FileListManager.getInstance().getFiles(project).size() + " files");
+                }
+            }
+
+            // The assistant is reused as long as the model, memory and tool provider are the same
+            Assistant assistant = AssistantCache.getInstance(project).getAssistant(
+                    Assistant.class, streamingModel, chatMemory, mcpToolProvider,
+                    () -> buildAssistant(streamingModel, chatMemory, mcpToolProvider));
+
+            TokenStream chat = assistant.chat(context.getUserPrompt());
+
+            chat.onPartialResponse(streamingResponseHandler::onPartialResponse)
+                .onToolExecuted(ToolExecution::request)
+                .onCompleteResponse(streamingResponseHandler::onCompleteResponse)
+                .onError(streamingResponseHandler::onError)
+                .start();
+
+        } catch (Exception e) {
+            log.error("Error in streaming prompt execution", e);
+            streamingResponseHandler.onError(e);
+        }
+    }
+
+    /**
+     * Wait until the stream completes, fails or is stopped, the handler reports the outcome to the result task.
+     *
+     * @throws InterruptedException when the scheduler cancels the prompt
+     */
+    private static void awaitResponse(@NotNull PromptTask<PromptResult> resultTask) throws InterruptedException {
+        try {
+            resultTask.get();
+        } catch (ExecutionException | CancellationException e) {
+            // Already reported by the streaming handler
+        }
+    }
+
     /**
      * Cancel the streaming execution.
      */
@@ -215,6 +259,22 @@ public class StreamingPromptStrategy extends AbstractPromptExecutionStrategy {
         if (handler != null) {
             handler.stop();
         }
+        CompletableFuture<Void> prompt = currentPrompt.getAndSet(null);
+        if (prompt != null) {
+            prompt.cancel(true);
+        }
+    }
+
+    private static Assistant buildAssistant(@NotNull StreamingChatLanguageModel streamingModel,
+                                            @NotNull ChatMemory chatMemory,
+                                            @Nullable ToolProvider toolProvider) {
+        AiServices<Assistant> builder = AiServices.builder(Assistant.class)
+                .streamingChatLanguageModel(streamingModel)
+                .chatMemoryProvider(memoryId -> chatMemory);
+        if (toolProvider != null) {
+            builder.toolProvider(toolProvider);
+        }
+        return builder.build();
     }
 
     interface Assistant {
@@ -0,0 +1,23 @@
+package com.devoxx.genie.service.prompt.threading;
+
+/**
+ * A snapshot of the load of an executor, to compare the executor modes.
+ *
+ * @param mode              the kind of threads the executor runs its tasks on
+ * @param submitted         the number of tasks submitted so far
+ * @param completed         the number of tasks which finished, successfully or not
+ * @param active            the number of tasks running now
+ * @param queued            the number of tasks waiting for a thread now
+ * @param peakActive        the largest number of tasks which ran at the same time
+ * @param averageWaitMillis the average time a task waited for a thread
+ * @param maxWaitMillis     the longest time a task waited for a thread
+ */
+public record ExecutorMetrics(String mode,
+                              long submitted,
+                              long completed,
+                              int active,
+                              long queued,
+                              int peakActive,
+                              double averageWaitMillis,
+                              long maxWaitMillis) {
+}
@@ -0,0 +1,100 @@
+package com.devoxx.genie.service.prompt.threading;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor which records how long its tasks wait for a thread and how many run at the same time.
+ * A saturated executor shows as queued tasks and growing wait times.
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final String mode;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    /**
+     * @param delegate the executor running the tasks
+     * @param mode     the kind of threads of the delegate, reported in the metrics
+     */
+    public InstrumentedExecutorService(@NotNull ExecutorService delegate, @NotNull String mode) {
+        this.delegate = delegate;
+        this.mode = mode;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        long submittedAt = System.nanoTime();
+        submitted.increment();
+        try {
+            delegate.execute(() -> {
+                long waited = System.nanoTime() - submittedAt;
+                started.increment();
+                waitNanos.add(waited);
+                maxWaitNanos.accumulateAndGet(waited, Math::max);
+                peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    command.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            submitted.decrement();
+            throw e;
+        }
+    }
+
+    public @NotNull ExecutorMetrics getMetrics() {
+        long startedCount = started.sum();
+        return new ExecutorMetrics(mode,
+                submitted.sum(),
+                completed.sum(),
+                active.get(),
+                Math.max(0, submitted.sum() - startedCount),
+                peakActive.get(),
+                startedCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos.sum() / startedCount) / 1000.0,
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public @NotNull List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,276 @@
+package com.devoxx.genie.service.prompt.threading;
+
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
+import com.intellij.openapi.application.ApplicationManager;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Schedules the prompts of all projects.
+ * <p>
+ * Every conversation has at most one prompt in flight, submitting a new prompt for a conversation cancels its
+ * previous one, prompts of other conversations and projects are not affected. The number of prompts running
+ * against a provider is limited, to stay within its rate limits. Waiting prompts are started round-robin over
+ * the projects, so a project which submits many prompts doesn't hold back the others.
+ * <p>
+ * Prompts block on network I/O while the provider answers and tools are called, they run on the I/O executor
+ * of the {@link ThreadPoolManager}. A streaming prompt waits for the end of its stream, so it keeps its slot
+ * until the response is complete.
+ */
+@Slf4j
+public class PromptScheduler {
+
+    private final Executor executor;
+    private final ToIntFunction<String> concurrencyLimit;
+
+    private final Object lock = new Object();
+    private final Map<String, ProviderQueue> queues = new HashMap<>();
+    private final Map<String, Job<?>> jobsByConversation = new HashMap<>();
+
+    @NotNull
+    public static PromptScheduler getInstance() {
+        return ApplicationManager.getApplication().getService(PromptScheduler.class);
+    }
+
+    public PromptScheduler() {
+        this(ThreadPoolManager.getInstance().getIoExecutor(),
+                provider -> DevoxxGenieStateService.getInstance().getMaxConcurrentPromptsPerProvider());
+    }
+
+    /**
+     * @param executor         runs the prompts
+     * @param concurrencyLimit the maximum number of running prompts for a provider
+     */
+    PromptScheduler(@NotNull Executor executor, @NotNull ToIntFunction<String> concurrencyLimit) {
+        this.executor = executor;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * Submit a prompt, it is started once the provider has capacity.
+     *
+     * @param provider        the provider the prompt is sent to
+     * @param projectKey      the project submitting the prompt, used for the round-robin
+     * @param conversationKey the conversation of the prompt, its previous prompt is cancelled
+     * @param work            the blocking call to the provider
+     * @return the result, cancelling it removes a waiting prompt or interrupts a running one
+     */
+    public <T> @NotNull CompletableFuture<T> submit(@NotNull String provider,
+                                                     @NotNull String projectKey,
+                                                     @NotNull String conversationKey,
+                                                     @NotNull Callable<T> work) {
+        return submit(provider, projectKey, conversationKey, null, work);
+    }
+
+    /**
+     * Submit a prompt with a timeout, it is started once the provider has capacity.
+     *
+     * @param provider        the provider the prompt is sent to
+     * @param projectKey      the project submitting the prompt, used for the round-robin
+     * @param conversationKey the conversation of the prompt, its previous prompt is cancelled
+     * @param timeout         the maximum running time of the prompt, the time waiting for capacity doesn't count
+     * @param work            the blocking call to the provider
+     * @return the result, completed with a {@link java.util.concurrent.TimeoutException} when the prompt runs too long
+     */
+    public <T> @NotNull CompletableFuture<T> submit(@NotNull String provider,
+                                                     @NotNull String projectKey,
+                                                     @NotNull String conversationKey,
+                                                     @Nullable Duration timeout,
+                                                     @NotNull Callable<T> work) {
+        Job<T> job = new Job<>(provider, projectKey, conversationKey, timeout, work);
+        job.whenComplete((result, error) -> onDone(job));
+
+        Job<?> previous;
+        synchronized (lock) {
+            previous = jobsByConversation.put(conversationKey, job);
+            queues.computeIfAbsent(provider, key -> new ProviderQueue()).add(job);
+        }
+        if (previous != null) {
+            log.debug("Cancelling the previous prompt of conversation {}", conversationKey);
+            previous.cancel(true);
+        }
+        dispatch(provider);
+        return job;
+    }
+
+    /**
+     * Cancel the waiting or running prompt of a conversation.
+     *
+     * @param conversationKey the conversation
+     * @return true if a prompt was cancelled
+     */
+    public boolean cancel(@NotNull String conversationKey) {
+        Job<?> job;
+        synchronized (lock) {
+            job = jobsByConversation.get(conversationKey);
+        }
+        return job != null && job.cancel(true);
+    }
+
+    /**
+     * @param conversationKey the conversation
+     * @return true if the conversation has a waiting or running prompt
+     */
+    public boolean hasPrompt(@NotNull String conversationKey) {
+        synchronized (lock) {
+            return jobsByConversation.containsKey(conversationKey);
+        }
+    }
+
+    /**
+     * @param provider the provider
+     * @return the number of prompts running against the provider
+     */
+    public int getRunningCount(@NotNull String provider) {
+        synchronized (lock) {
+            ProviderQueue queue = queues.get(provider);
+            return queue == null ? 0 : queue.running;
+        }
+    }
+
+    private void dispatch(@NotNull String provider) {
+        List<Job<?>> toStart = new ArrayList<>();
+        synchronized (lock) {
+            ProviderQueue queue = queues.get(provider);
+            int limit = Math.max(1, concurrencyLimit.applyAsInt(provider));
+            Job<?> job;
+            while (queue.running < limit && (job = queue.poll()) != null) {
+                job.started = true;
+                queue.running++;
+                toStart.add(job);
+            }
+        }
+        for (Job<?> job : toStart) {
+            try {
+                executor.execute(job);
+            } catch (RuntimeException e) {
+                job.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void onDone(@NotNull Job<?> job) {
+        synchronized (lock) {
+            jobsByConversation.remove(job.conversationKey, job);
+            ProviderQueue queue = queues.get(job.provider);
+            if (!job.started) {
+                queue.remove(job);
+                return;
+            }
+            // A cancelled or timed out prompt gives up its slot right away, the interrupted call is abandoned
+            if (job.runner != null) {
+                job.runner.interrupt();
+            }
+            queue.running--;
+        }
+        dispatch(job.provider);
+    }
+
+    /**
+     * The prompts of a provider, waiting per project.
+     */
+    private static final class ProviderQueue {
+        private int running;
+        private long turns;
+        // The projects with waiting prompts, in the order they started waiting
+        private final LinkedHashMap<String, Deque<Job<?>>> waiting = new LinkedHashMap<>();
+        // The last turn of every project, the project which waited longest for its turn goes next
+        private final Map<String, Long> lastTurn = new HashMap<>();
+
+        void add(@NotNull Job<?> job) {
+            waiting.computeIfAbsent(job.projectKey, key -> new ArrayDeque<>()).add(job);
+        }
+
+        Job<?> poll() {
+            String next = null;
+            long nextTurn = Long.MAX_VALUE;
+            for (String project : waiting.keySet()) {
+                long turn = lastTurn.getOrDefault(project, 0L);
+                if (turn < nextTurn) {
+                    next = project;
+                    nextTurn = turn;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            Deque<Job<?>> jobs = waiting.get(next);
+            Job<?> job = jobs.poll();
+            if (jobs.isEmpty()) {
+                waiting.remove(next);
+            }
+            lastTurn.put(next, ++turns);
+            return job;
+        }
+
+        void remove(@NotNull Job<?> job) {
+            Deque<Job<?>> jobs = waiting.get(job.projectKey);
+            if (jobs != null && jobs.remove(job) && jobs.isEmpty()) {
+                waiting.remove(job.projectKey);
+            }
+        }
+    }
+
+    private final class Job<T> extends CompletableFuture<T> implements Runnable {
+        private final String provider;
+        private final String projectKey;
+        private final String conversationKey;
+        private final Duration timeout;
+        private final Callable<T> work;
+
+        // Guarded by lock
+        private boolean started;
+        private Thread runner;
+
+        Job(String provider, String projectKey, String conversationKey, Duration timeout, Callable<T> work) {
+            this.provider = provider;
+            this.projectKey = projectKey;
+            this.conversationKey = conversationKey;
+            this.timeout = timeout;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            synchronized (lock) {
+                if (isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            if (timeout != null) {
+                // Times out the running prompt, onDone interrupts it
+                orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+
+            T result = null;
+            Throwable error = null;
+            try {
+                result = work.call();
+            } catch (Throwable e) {
+                error = e;
+            }
+
+            synchronized (lock) {
+                runner = null;
+            }
+            // Clear a cancellation interrupt before the thread is reused
+            Thread.interrupted();
+
+            if (error == null) {
+                complete(result);
+            } else {
+                completeExceptionally(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.devoxx.genie.service.prompt.threading;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Fans out subtasks and waits for them, like a structured task scope.
+ * <p>
+ * A structured task scope is only a preview API in Java 21, this gives the fan-outs of the plugin a similar
+ * shape: when the call returns all subtask futures are done, the ones still running at the deadline or when
+ * the caller is interrupted are cancelled. Cancelling only interrupts a running subtask, one which ignores the
+ * interrupt, e.g. blocked on a socket read, keeps running after the call returned until it completes on its own.
+ */
+public final class StructuredTasks {
+
+    private StructuredTasks() {
+    }
+
+    /**
+     * Run the tasks concurrently and wait for all of them.
+     *
+     * @param executor the executor to run the tasks on
+     * @param tasks    the tasks
+     * @param timeout  the time to wait for all tasks
+     * @param unit     the unit of the timeout
+     * @return the futures of the tasks in the order of the tasks, all done; the tasks which didn't finish
+     * in time are cancelled, the failure of one task doesn't affect the others
+     * @throws InterruptedException if the caller was interrupted, all tasks are cancelled
+     */
+    public static <T> @NotNull List<Future<T>> invokeAll(@NotNull Executor executor,
+                                                         @NotNull List<? extends Callable<T>> tasks,
+                                                         long timeout,
+                                                         @NotNull TimeUnit unit) throws InterruptedException {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                FutureTask<T> future = new FutureTask<>(task);
+                futures.add(future);
+                try {
+                    executor.execute(future);
+                } catch (RejectedExecutionException e) {
+                    future.cancel(false);
+                }
+            }
+
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            for (Future<T> future : futures) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    future.get(remaining, TimeUnit.NANOSECONDS);
+                } catch (ExecutionException | CancellationException e) {
+                    // Reported through the future
+                } catch (TimeoutException e) {
+                    break;
+                }
+            }
+        } finally {
+            // Also cancels the tasks when the caller is interrupted
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return futures;
+    }
+}
@@ -1,5 +1,6 @@
 package com.devoxx.genie.service.prompt.threading;
 
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.intellij.openapi.application.ApplicationManager;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -11,12 +12,25 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * Centralized thread pool manager for the application.
  * Provides standardized thread pools for various types of tasks.
+ * <p>
+ * The I/O executor runs the work which blocks on the network or the file system: prompts, tool calls,
+ * web searches, model detail fetches and project scans. It starts a virtual thread per task when enabled
+ * in the settings and supported by the runtime, otherwise it is a cached pool of platform threads.
+ * <p>
+ * The platform pool is elastic on purpose: tasks wait on the subtasks they fan out to the same executor,
+ * a fixed pool could be filled with waiting tasks and never run their subtasks. The number of prompts is
+ * bounded by the {@link PromptScheduler}, idle threads are released after a minute.
  */
 @Slf4j
 @Getter
 public class ThreadPoolManager {
 
-    private final ExecutorService promptExecutionPool;
+    static final String VIRTUAL_MODE = "virtual";
+    static final String PLATFORM_MODE = "platform";
+
+    private static final long METRICS_LOG_INTERVAL_SECONDS = 60;
+
+    private final InstrumentedExecutorService ioExecutor;
 
     private final ScheduledExecutorService scheduledTaskPool;
     
@@ -25,15 +39,42 @@ public class ThreadPoolManager {
     }
     
     public ThreadPoolManager() {
-        int cores = Runtime.getRuntime().availableProcessors();
-        
-        // Create thread pools with custom thread factories for better naming
-        promptExecutionPool = Executors.newFixedThreadPool(cores, 
-            new NamedThreadFactory("prompt-exec"));
+        this(DevoxxGenieStateService.getInstance().getUseVirtualThreads());
+    }
+
+    ThreadPoolManager(boolean useVirtualThreads) {
+        ExecutorService virtualExecutor = useVirtualThreads ? VirtualThreads.newVirtualThreadPerTaskExecutor("devoxxgenie-io") : null;
+        if (virtualExecutor != null) {
+            ioExecutor = new InstrumentedExecutorService(virtualExecutor, VIRTUAL_MODE);
+            log.info("ThreadPoolManager initialized with virtual threads for I/O");
+        } else {
+            // Create thread pools with custom thread factories for better naming
+            ioExecutor = new InstrumentedExecutorService(
+                    Executors.newCachedThreadPool(new NamedThreadFactory("prompt-exec")), PLATFORM_MODE);
+            log.info("ThreadPoolManager initialized with a cached pool of platform threads for I/O");
+        }
         scheduledTaskPool = Executors.newScheduledThreadPool(2,
             new NamedThreadFactory("scheduled-task"));
-            
-        log.info("ThreadPoolManager initialized with " + cores + " threads for prompt execution");
+
+        scheduledTaskPool.scheduleWithFixedDelay(() -> {
+            if (log.isDebugEnabled()) {
+                log.debug("I/O executor load: {}", ioExecutor.getMetrics());
+            }
+        }, METRICS_LOG_INTERVAL_SECONDS, METRICS_LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The prompts run on the I/O executor.
+     */
+    public @NotNull ExecutorService getPromptExecutionPool() {
+        return ioExecutor;
+    }
+
+    /**
+     * @return the load of the I/O executor since the start of the IDE
+     */
+    public @NotNull ExecutorMetrics getIoMetrics() {
+        return ioExecutor.getMetrics();
     }
     
     /**
@@ -41,14 +82,14 @@ public class ThreadPoolManager {
      * Should be called during application shutdown.
      */
     public void shutdown() {
-        log.info("Shutting down thread pools");
-        promptExecutionPool.shutdown();
+        log.info("Shutting down thread pools, I/O executor load: {}", ioExecutor.getMetrics());
+        ioExecutor.shutdown();
         scheduledTaskPool.shutdown();
         
         try {
-            if (!promptExecutionPool.awaitTermination(5, TimeUnit.SECONDS)) {
-                log.warn("Prompt execution pool did not terminate in time, forcing shutdown");
-                promptExecutionPool.shutdownNow();
+            if (!ioExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("I/O executor did not terminate in time, forcing shutdown");
+                ioExecutor.shutdownNow();
             }
             if (!scheduledTaskPool.awaitTermination(5, TimeUnit.SECONDS)) {
                 log.warn("Scheduled task pool did not terminate in time, forcing shutdown");
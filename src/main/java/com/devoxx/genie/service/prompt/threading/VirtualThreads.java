@@ -0,0 +1,68 @@
+package com.devoxx.genie.service.prompt.threading;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual thread executors when the runtime supports them.
+ * <p>
+ * The plugin is compiled for Java 17, the Java 21 API is looked up reflectively so the plugin still runs
+ * on older runtimes, where the callers fall back to platform threads.
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the runtime can create virtual threads
+     */
+    public static boolean isSupported() {
+        return threadFactory("virtual-thread-probe") != null;
+    }
+
+    /**
+     * Create an executor which starts a new virtual thread for each task.
+     *
+     * @param namePrefix the prefix of the thread names, followed by a counter
+     * @return the executor, null if the runtime doesn't support virtual threads
+     */
+    public static @Nullable ExecutorService newVirtualThreadPerTaskExecutor(@NotNull String namePrefix) {
+        ThreadFactory factory = threadFactory(namePrefix);
+        if (factory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.info("Virtual thread executors are not available: {}", e.toString());
+            return null;
+        }
+    }
+
+    private static @Nullable ThreadFactory threadFactory(@NotNull String namePrefix) {
+        try {
+            // Thread.ofVirtual().name(namePrefix + "-", 1).factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (InvocationTargetException e) {
+            // Java 19 and 20 only support virtual threads as a preview feature
+            log.info("Virtual threads are not enabled: {}", e.getCause().toString());
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Virtual threads are not supported by this runtime: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.devoxx.genie.service.rag;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Batched, parallel ingestion of text segments into an embedding store.
+ * <p>
+ * Segments are grouped in batches of {@code batchSize}, every batch costs one
+ * {@link EmbeddingModel#embedAll(List)} and one {@link EmbeddingStore#addAll(List, List)} round-trip
+ * instead of one of each per segment. Batches are processed by a bounded pool of {@code concurrency}
+ * workers. The producer (the calling thread, which also reads and splits the sources) blocks as long as
+ * all workers are busy, so no more than {@code concurrency} batches are ever held in memory.
+ */
+@Slf4j
+public class EmbeddingIngestionEngine {
+
+    /**
+     * A segment to store, with the text its embedding is computed from.
+     *
+     * @param embeddingInput the segment to embed
+     * @param segment        the segment to store with the embedding
+     */
+    public record Item(@NotNull TextSegment embeddingInput, @NotNull TextSegment segment) {
+
+        public static @NotNull Item of(@NotNull TextSegment segment) {
+            return new Item(segment, segment);
+        }
+    }
+
+    /**
+     * Receives progress updates, called from the worker threads once a batch is stored.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onBatchCompleted(int sourcesRead, int totalSources, int segmentsStored);
+    }
+
+    /**
+     * Receives the outcome of every batch, called from the worker threads.
+     */
+    public interface BatchListener {
+
+        BatchListener NONE = new BatchListener() {
+            @Override
+            public void onBatchStored(@NotNull List<Item> batch, @NotNull List<String> ids) {
+            }
+
+            @Override
+            public void onBatchFailed(@NotNull List<Item> batch) {
+            }
+        };
+
+        /**
+         * @param batch the stored items
+         * @param ids   the ids assigned by the embedding store, in batch order
+         */
+        void onBatchStored(@NotNull List<Item> batch, @NotNull List<String> ids);
+
+        void onBatchFailed(@NotNull List<Item> batch);
+    }
+
+    /**
+     * Summary of an ingestion run.
+     */
+    public record Stats(int sources, int segments, int failedSegments, int batches, long elapsedMs) {
+
+        public double segmentsPerSecond() {
+            return elapsedMs == 0 ? segments : segments * 1000.0 / elapsedMs;
+        }
+    }
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final int batchSize;
+    private final int concurrency;
+
+    public EmbeddingIngestionEngine(@NotNull EmbeddingModel embeddingModel,
+                                    @NotNull EmbeddingStore<TextSegment> embeddingStore,
+                                    int batchSize,
+                                    int concurrency) {
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
+        this.batchSize = Math.max(1, batchSize);
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Ingest the segments of all sources.
+     *
+     * @param sources   the sources, e.g. files, read in order on the calling thread
+     * @param itemsOf   splits a source in the items to store
+     * @param cancelled checked before every source, stops reading new sources once true
+     * @param listener  progress listener
+     * @param <T>       the source type
+     * @return the ingestion statistics
+     */
+    public <T> @NotNull Stats ingest(@NotNull List<T> sources,
+                                     @NotNull Function<T, List<Item>> itemsOf,
+                                     @NotNull BooleanSupplier cancelled,
+                                     @NotNull ProgressListener listener) {
+        return ingest(sources, itemsOf, cancelled, listener, BatchListener.NONE);
+    }
+
+    /**
+     * Ingest the segments of all sources and report the store ids of every batch.
+     *
+     * @param sources       the sources, e.g. files, read in order on the calling thread
+     * @param itemsOf       splits a source in the items to store
+     * @param cancelled     checked before every source, stops reading new sources once true
+     * @param listener      progress listener
+     * @param batchListener receives the ids of the stored batches and the failed batches
+     * @param <T>           the source type
+     * @return the ingestion statistics
+     */
+    public <T> @NotNull Stats ingest(@NotNull List<T> sources,
+                                     @NotNull Function<T, List<Item>> itemsOf,
+                                     @NotNull BooleanSupplier cancelled,
+                                     @NotNull ProgressListener listener,
+                                     @NotNull BatchListener batchListener) {
+        long start = System.currentTimeMillis();
+        int totalSources = sources.size();
+        AtomicInteger sourcesRead = new AtomicInteger();
+        AtomicInteger segmentsStored = new AtomicInteger();
+        AtomicInteger failedSegments = new AtomicInteger();
+        int batches = 0;
+        int segments = 0;
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, new WorkerThreadFactory());
+        List<Future<?>> pending = new ArrayList<>();
+        try {
+            List<Item> batch = new ArrayList<>(batchSize);
+            for (T source : sources) {
+                if (cancelled.getAsBoolean()) {
+                    log.info("Ingestion cancelled after reading {} of {} sources", sourcesRead.get(), totalSources);
+                    break;
+                }
+                for (Item item : itemsOf.apply(source)) {
+                    batch.add(item);
+                    if (batch.size() == batchSize) {
+                        pending.add(submit(workers, inFlight, batch, sourcesRead, totalSources, segmentsStored, failedSegments, listener, batchListener));
+                        segments += batch.size();
+                        batches++;
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                sourcesRead.incrementAndGet();
+            }
+            if (!batch.isEmpty()) {
+                pending.add(submit(workers, inFlight, batch, sourcesRead, totalSources, segmentsStored, failedSegments, listener, batchListener));
+                segments += batch.size();
+                batches++;
+            }
+
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Ingestion interrupted");
+        } catch (ExecutionException e) {
+            log.warn("Ingestion batch failed: {}", e.getCause().getMessage());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        Stats stats = new Stats(sourcesRead.get(), segments, failedSegments.get(), batches, System.currentTimeMillis() - start);
+        log.info("Ingested {} segments of {} sources in {} batches ({} failed) in {} ms, {} segments/s",
+                stats.segments(), stats.sources(), stats.batches(), stats.failedSegments(), stats.elapsedMs(),
+                String.format("%.1f", stats.segmentsPerSecond()));
+        return stats;
+    }
+
+    private @NotNull Future<?> submit(@NotNull ExecutorService workers,
+                                      @NotNull Semaphore inFlight,
+                                      @NotNull List<Item> batch,
+                                      @NotNull AtomicInteger sourcesRead,
+                                      int totalSources,
+                                      @NotNull AtomicInteger segmentsStored,
+                                      @NotNull AtomicInteger failedSegments,
+                                      @NotNull ProgressListener listener,
+                                      @NotNull BatchListener batchListener) throws InterruptedException {
+        // Backpressure, wait for a free worker before reading any further
+        inFlight.acquire();
+        try {
+            return workers.submit(() -> {
+                try {
+                    List<String> ids = storeBatch(batch);
+                    batchListener.onBatchStored(batch, ids);
+                    listener.onBatchCompleted(sourcesRead.get(), totalSources, segmentsStored.addAndGet(batch.size()));
+                } catch (Exception e) {
+                    failedSegments.addAndGet(batch.size());
+                    log.warn("Error storing batch of {} segments: {}", batch.size(), e.getMessage());
+                    batchListener.onBatchFailed(batch);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private @NotNull List<String> storeBatch(@NotNull List<Item> batch) {
+        // Segments often share their embedding input (e.g. the file identifier), embed every input once
+        Map<String, Integer> inputIndex = new LinkedHashMap<>();
+        List<TextSegment> inputs = new ArrayList<>();
+        for (Item item : batch) {
+            inputIndex.computeIfAbsent(item.embeddingInput().text(), text -> {
+                inputs.add(item.embeddingInput());
+                return inputs.size() - 1;
+            });
+        }
+
+        List<Embedding> inputEmbeddings = embeddingModel.embedAll(inputs).content();
+
+        List<Embedding> embeddings = new ArrayList<>(batch.size());
+        List<TextSegment> segments = new ArrayList<>(batch.size());
+        for (Item item : batch) {
+            embeddings.add(inputEmbeddings.get(inputIndex.get(item.embeddingInput().text())));
+            segments.add(item.segment());
+        }
+        List<String> ids = embeddingStore.addAll(embeddings, segments);
+        return ids == null ? List.of() : ids;
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "DevoxxGenie-Embedding-Worker-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
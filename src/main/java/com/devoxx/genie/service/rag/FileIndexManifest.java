@@ -0,0 +1,347 @@
+package com.devoxx.genie.service.rag;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Local manifest of the files stored in the RAG collections.
+ * <p>
+ * For every indexed file the manifest records its last modified time, size, content hash and the ids
+ * of its segments in the embedding store, together with the embedding model used per collection.
+ * Checking whether a file is indexed is a key lookup instead of an embedding plus a vector search,
+ * and stale segments can be deleted from the store by id.
+ * <p>
+ * The manifest keeps one connection open, the entries of an indexing run are stored in one transaction.
+ * <p>
+ * The manifest is a SQLite database stored next to conversations.db, e.g. for mac in
+ * /Users/[username]/Library/Caches/JetBrains/IntelliJIdea2024.3/DevoxxGenie/file-index.db
+ */
+@Slf4j
+@Service
+public final class FileIndexManifest implements Disposable {
+
+    private static final String SEGMENT_ID_SEPARATOR = ",";
+
+    /**
+     * An indexed file.
+     *
+     * @param path         the file path, as stored in the segment metadata
+     * @param lastModified the last modified time of the file when it was indexed
+     * @param size         the size of the file when it was indexed
+     * @param contentHash  the hash of the indexed content
+     * @param segmentIds   the ids of the file segments in the embedding store
+     */
+    public record Entry(@NotNull String path,
+                        long lastModified,
+                        long size,
+                        @NotNull String contentHash,
+                        @NotNull List<String> segmentIds) {
+    }
+
+    /**
+     * The difference between the manifest and the files of a project.
+     *
+     * @param changed   the files which are new or modified since they were indexed
+     * @param removed   the manifest entries of files which no longer exist or are no longer included
+     * @param unchanged the number of files which are indexed and unchanged
+     */
+    public record Diff(@NotNull List<Path> changed, @NotNull List<Entry> removed, int unchanged) {
+
+        public boolean isEmpty() {
+            return changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    // Guarded by the connection, SQLite connections aren't safe for concurrent use
+    private final Connection connection;
+    private final PreparedStatement selectEmbeddingModel;
+    private final PreparedStatement upsertEmbeddingModel;
+    private final PreparedStatement selectEntries;
+    private final PreparedStatement upsertEntry;
+    private final PreparedStatement deleteEntry;
+    private final PreparedStatement deleteCollectionFiles;
+    private final PreparedStatement deleteCollection;
+
+    @NotNull
+    public static FileIndexManifest getInstance() {
+        return ApplicationManager.getApplication().getService(FileIndexManifest.class);
+    }
+
+    public FileIndexManifest() {
+        this(Path.of(PathManager.getSystemPath(), "DevoxxGenie", "file-index.db"));
+    }
+
+    FileIndexManifest(@NotNull Path dbFile) {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("SQLite JDBC driver not found", e);
+        }
+
+        try {
+            Files.createDirectories(dbFile.getParent());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create file index directory", e);
+        }
+
+        try {
+            connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                // Safe in WAL mode, only the last commits can be lost on a power failure
+                statement.execute("PRAGMA synchronous=NORMAL");
+            }
+            createTablesIfNotExists();
+
+            selectEmbeddingModel = connection.prepareStatement(
+                    "SELECT embeddingModel FROM indexed_collections WHERE collection = ?");
+            upsertEmbeddingModel = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO indexed_collections (collection, embeddingModel) VALUES (?, ?)");
+            selectEntries = connection.prepareStatement(
+                    "SELECT path, lastModified, size, contentHash, segmentIds FROM indexed_files WHERE collection = ?");
+            upsertEntry = connection.prepareStatement("""
+                    INSERT OR REPLACE INTO indexed_files
+                    (collection, path, lastModified, size, contentHash, segmentIds)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """);
+            deleteEntry = connection.prepareStatement("DELETE FROM indexed_files WHERE collection = ? AND path = ?");
+            deleteCollectionFiles = connection.prepareStatement("DELETE FROM indexed_files WHERE collection = ?");
+            deleteCollection = connection.prepareStatement("DELETE FROM indexed_collections WHERE collection = ?");
+        } catch (SQLException e) {
+            log.error("Error opening the file index", e);
+            throw new RuntimeException("Error opening the file index", e);
+        }
+    }
+
+    private void createTablesIfNotExists() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                        CREATE TABLE IF NOT EXISTS indexed_files (
+                            collection TEXT NOT NULL,
+                            path TEXT NOT NULL,
+                            lastModified INTEGER NOT NULL,
+                            size INTEGER NOT NULL,
+                            contentHash TEXT NOT NULL,
+                            segmentIds TEXT NOT NULL,
+                            PRIMARY KEY (collection, path)
+                        )
+                    """);
+
+            statement.execute("""
+                        CREATE TABLE IF NOT EXISTS indexed_collections (
+                            collection TEXT PRIMARY KEY,
+                            embeddingModel TEXT NOT NULL
+                        )
+                    """);
+        }
+    }
+
+    /**
+     * @param collection the collection name
+     * @return the embedding model the collection was indexed with, null when the collection is unknown
+     */
+    public @Nullable String getEmbeddingModel(@NotNull String collection) {
+        synchronized (connection) {
+            try {
+                selectEmbeddingModel.setString(1, collection);
+                try (ResultSet rs = selectEmbeddingModel.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            } catch (SQLException e) {
+                log.error("Error reading embedding model of collection {}", collection, e);
+                return null;
+            }
+        }
+    }
+
+    public void setEmbeddingModel(@NotNull String collection, @NotNull String embeddingModel) {
+        synchronized (connection) {
+            try {
+                upsertEmbeddingModel.setString(1, collection);
+                upsertEmbeddingModel.setString(2, embeddingModel);
+                upsertEmbeddingModel.executeUpdate();
+            } catch (SQLException e) {
+                log.error("Error storing embedding model of collection {}", collection, e);
+            }
+        }
+    }
+
+    /**
+     * @param collection the collection name
+     * @return the indexed files of the collection by path
+     */
+    public @NotNull Map<String, Entry> getEntries(@NotNull String collection) {
+        Map<String, Entry> entries = new HashMap<>();
+        synchronized (connection) {
+            try {
+                selectEntries.setString(1, collection);
+                try (ResultSet rs = selectEntries.executeQuery()) {
+                    while (rs.next()) {
+                        Entry entry = new Entry(
+                                rs.getString("path"),
+                                rs.getLong("lastModified"),
+                                rs.getLong("size"),
+                                rs.getString("contentHash"),
+                                splitSegmentIds(rs.getString("segmentIds")));
+                        entries.put(entry.path(), entry);
+                    }
+                }
+            } catch (SQLException e) {
+                log.error("Error reading file index of collection {}", collection, e);
+            }
+        }
+        return entries;
+    }
+
+    public void put(@NotNull String collection, @NotNull Entry entry) {
+        putAll(collection, List.of(entry));
+    }
+
+    /**
+     * Store the entries of an indexing run in one transaction.
+     *
+     * @param collection the collection name
+     * @param entries    the indexed files, replacing their previous entries
+     */
+    public void putAll(@NotNull String collection, @NotNull Collection<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        inTransaction("Error storing " + entries.size() + " file index entries of collection " + collection, () -> {
+            upsertEntry.clearBatch();
+            for (Entry entry : entries) {
+                upsertEntry.setString(1, collection);
+                upsertEntry.setString(2, entry.path());
+                upsertEntry.setLong(3, entry.lastModified());
+                upsertEntry.setLong(4, entry.size());
+                upsertEntry.setString(5, entry.contentHash());
+                upsertEntry.setString(6, String.join(SEGMENT_ID_SEPARATOR, entry.segmentIds()));
+                upsertEntry.addBatch();
+            }
+            upsertEntry.executeBatch();
+        });
+    }
+
+    public void remove(@NotNull String collection, @NotNull Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        inTransaction("Error removing file index entries of collection " + collection, () -> {
+            deleteEntry.clearBatch();
+            for (String path : paths) {
+                deleteEntry.setString(1, collection);
+                deleteEntry.setString(2, path);
+                deleteEntry.addBatch();
+            }
+            deleteEntry.executeBatch();
+        });
+    }
+
+    /**
+     * Forget a collection, e.g. when it is deleted from the embedding store.
+     *
+     * @param collection the collection name
+     */
+    public void removeCollection(@NotNull String collection) {
+        inTransaction("Error removing file index of collection " + collection, () -> {
+            deleteCollectionFiles.setString(1, collection);
+            deleteCollectionFiles.executeUpdate();
+            deleteCollection.setString(1, collection);
+            deleteCollection.executeUpdate();
+        });
+    }
+
+    private interface Work {
+        void run() throws SQLException;
+    }
+
+    private void inTransaction(@NotNull String errorMessage, @NotNull Work work) {
+        synchronized (connection) {
+            try {
+                connection.setAutoCommit(false);
+                try {
+                    work.run();
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                log.error(errorMessage, e);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (connection) {
+            try {
+                // Closes the prepared statements of the connection too
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Error closing the file index", e);
+            }
+        }
+    }
+
+    /**
+     * Compare the manifest entries with the files on disk, using the last modified time and size only.
+     * Files are not read, a changed file may still have the same content hash.
+     *
+     * @param entries the manifest entries by path
+     * @param files   the files which should be indexed
+     * @return the difference
+     */
+    public static @NotNull Diff diff(@NotNull Map<String, Entry> entries, @NotNull List<Path> files) {
+        List<Path> changed = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int unchanged = 0;
+        for (Path file : files) {
+            String path = file.toString();
+            seen.add(path);
+            Entry entry = entries.get(path);
+            if (entry != null && isUnchanged(entry, file)) {
+                unchanged++;
+            } else {
+                changed.add(file);
+            }
+        }
+
+        List<Entry> removed = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (!seen.contains(entry.path())) {
+                removed.add(entry);
+            }
+        }
+        return new Diff(changed, removed, unchanged);
+    }
+
+    private static boolean isUnchanged(@NotNull Entry entry, @NotNull Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis() == entry.lastModified()
+                    && Files.size(file) == entry.size();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static @NotNull List<String> splitSegmentIds(@Nullable String segmentIds) {
+        if (segmentIds == null || segmentIds.isEmpty()) {
+            return List.of();
+        }
+        return List.of(segmentIds.split(SEGMENT_ID_SEPARATOR));
+    }
+}
@@ -0,0 +1,265 @@
+package com.devoxx.genie.service.rag;
+
+import com.devoxx.genie.service.projectscanner.FileScanner;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Keeps the RAG index of a project up to date while files change.
+ * <p>
+ * VFS change events are collected and, once no new change arrived for the configured delay, only the
+ * changed files are chunked and embedded again. Segments of deleted, renamed and no longer included files
+ * are removed. The updates run on a dedicated low priority thread, and only for projects which have
+ * been indexed before from the RAG settings.
+ */
+@Slf4j
+public final class IncrementalIndexerService implements Disposable {
+
+    private static final String GITIGNORE = ".gitignore";
+
+    private final Project project;
+    private final Set<String> changedPaths = ConcurrentHashMap.newKeySet();
+    private final Set<String> removedFiles = ConcurrentHashMap.newKeySet();
+    private final Set<String> removedDirectories = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "DevoxxGenie-RAG-Indexer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private ScheduledFuture<?> scheduledUpdate;
+    // Only used on the indexer thread, created on first use and again when a .gitignore file changes
+    private FileScanner fileScanner;
+    private volatile boolean gitIgnoreChanged = false;
+
+    public IncrementalIndexerService(@NotNull Project project) {
+        this.project = project;
+
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                onFileEvents(events);
+            }
+        });
+    }
+
+    public static IncrementalIndexerService getInstance(@NotNull Project project) {
+        return project.getService(IncrementalIndexerService.class);
+    }
+
+    private void onFileEvents(@NotNull List<? extends VFileEvent> events) {
+        DevoxxGenieStateService stateService = DevoxxGenieStateService.getInstance();
+        String basePath = project.getBasePath();
+        if (basePath == null
+                || !Boolean.TRUE.equals(stateService.getRagEnabled())
+                || !Boolean.TRUE.equals(stateService.getIndexerIncrementalEnabled())) {
+            return;
+        }
+
+        boolean relevant = false;
+        for (VFileEvent event : events) {
+            if (!isInProject(event.getPath(), basePath)) {
+                continue;
+            }
+            relevant = true;
+            if (event.getPath().endsWith(GITIGNORE)) {
+                gitIgnoreChanged = true;
+            }
+
+            if (event instanceof VFileDeleteEvent) {
+                addRemovedPath(event.getPath(), event.getFile());
+            } else if (event instanceof VFileMoveEvent moveEvent) {
+                addRemovedPath(moveEvent.getOldPath(), moveEvent.getFile());
+                changedPaths.add(moveEvent.getPath());
+            } else if (event instanceof VFilePropertyChangeEvent propertyChangeEvent) {
+                if (propertyChangeEvent.isRename()) {
+                    addRemovedPath(propertyChangeEvent.getOldPath(), propertyChangeEvent.getFile());
+                    changedPaths.add(propertyChangeEvent.getPath());
+                }
+            } else {
+                // Created, copied or modified
+                changedPaths.add(event.getPath());
+            }
+        }
+
+        if (relevant) {
+            scheduleUpdate(stateService.getIndexerUpdateDelayMs());
+        }
+    }
+
+    private void addRemovedPath(@NotNull String path, @Nullable VirtualFile file) {
+        // When the file is unknown, it may have been a directory
+        if (file == null || file.isDirectory()) {
+            removedDirectories.add(path);
+        } else {
+            removedFiles.add(path);
+        }
+    }
+
+    private synchronized void scheduleUpdate(long delayMs) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        // Debounce, a burst of changes (save all, branch switch) results in a single update
+        if (scheduledUpdate != null) {
+            scheduledUpdate.cancel(false);
+        }
+        scheduledUpdate = executor.schedule(this::update, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void update() {
+        Set<String> changed = drain(changedPaths);
+        Set<String> removedFileSet = drain(removedFiles);
+        Set<String> removedDirectorySet = drain(removedDirectories);
+        String basePath = project.getBasePath();
+        if (project.isDisposed() || basePath == null
+                || (changed.isEmpty() && removedFileSet.isEmpty() && removedDirectorySet.isEmpty())) {
+            return;
+        }
+
+        try {
+            ProjectIndexerService indexerService = ProjectIndexerService.getInstance();
+            if (!indexerService.isProjectIndexed(project)) {
+                log.debug("Project {} is not indexed, ignoring {} changed files", project.getName(), changed.size());
+                return;
+            }
+
+            // A path which was removed and created again is a change
+            removedFileSet.removeAll(changed);
+            removedDirectorySet.removeAll(changed);
+
+            List<Path> filesToIndex = new ArrayList<>();
+            Set<String> filesToRemove = new HashSet<>();
+            Set<String> directoriesToRemove = new HashSet<>();
+            ReadAction.run(() -> {
+                FileScanner scanner = getFileScanner();
+                if (scanner == null) {
+                    return;
+                }
+                // Nothing below an excluded directory, e.g. build output, is indexed
+                removedFileSet.forEach(path -> {
+                    if (!scanner.isInExcludedDirectory(path, basePath, false)) {
+                        filesToRemove.add(Paths.get(path).toString());
+                    }
+                });
+                removedDirectorySet.forEach(path -> {
+                    if (!scanner.isInExcludedDirectory(path, basePath, true)) {
+                        directoriesToRemove.add(Paths.get(path).toString());
+                    }
+                });
+                collectFiles(scanner, basePath, changed, filesToIndex, filesToRemove, directoriesToRemove);
+            });
+
+            if (filesToIndex.isEmpty() && filesToRemove.isEmpty() && directoriesToRemove.isEmpty()) {
+                return;
+            }
+            log.debug("Updating RAG index of {}: {} changed files, {} removed files, {} removed directories",
+                    project.getName(), filesToIndex.size(), filesToRemove.size(), directoriesToRemove.size());
+            indexerService.updateFiles(project, filesToIndex, filesToRemove, directoriesToRemove);
+        } catch (Exception e) {
+            log.warn("Error updating the RAG index of {}: {}", project.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Split the changed paths in the files to index and the paths which are no longer included.
+     * Paths in excluded directories are skipped, they were never indexed.
+     */
+    private void collectFiles(@NotNull FileScanner scanner,
+                              @NotNull String basePath,
+                              @NotNull Set<String> changed,
+                              @NotNull List<Path> filesToIndex,
+                              @NotNull Set<String> filesToRemove,
+                              @NotNull Set<String> directoriesToRemove) {
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+
+        for (String path : changed) {
+            VirtualFile file = LocalFileSystem.getInstance().findFileByPath(path);
+            boolean exists = file != null && file.isValid();
+            if (scanner.isInExcludedDirectory(path, basePath, !exists || file.isDirectory())) {
+                continue;
+            }
+            if (!exists) {
+                // Gone again before the update, it may have been a directory
+                directoriesToRemove.add(Paths.get(path).toString());
+            } else if (file.isDirectory()) {
+                // A directory which was created, copied or moved, index the files below it
+                VfsUtilCore.iterateChildrenRecursively(file,
+                        child -> !child.isDirectory() || !scanner.shouldExcludeDirectory(child),
+                        child -> {
+                            if (!child.isDirectory()) {
+                                addFile(child, fileIndex, scanner, filesToIndex, filesToRemove);
+                            }
+                            return true;
+                        });
+            } else {
+                addFile(file, fileIndex, scanner, filesToIndex, filesToRemove);
+            }
+        }
+    }
+
+    private static void addFile(@NotNull VirtualFile file,
+                                @NotNull ProjectFileIndex fileIndex,
+                                @NotNull FileScanner scanner,
+                                @NotNull List<Path> filesToIndex,
+                                @NotNull Set<String> filesToRemove) {
+        Path path = Paths.get(file.getPath());
+        if (fileIndex.isInContent(file) && scanner.shouldIncludeFile(file)) {
+            filesToIndex.add(path);
+        } else {
+            // E.g. renamed to an excluded extension, the segments of the file are removed if it was indexed
+            filesToRemove.add(path.toString());
+        }
+    }
+
+    private @Nullable FileScanner getFileScanner() {
+        if (fileScanner == null || gitIgnoreChanged) {
+            String basePath = project.getBasePath();
+            VirtualFile baseDir = basePath == null ? null : LocalFileSystem.getInstance().findFileByPath(basePath);
+            if (baseDir == null) {
+                return null;
+            }
+            gitIgnoreChanged = false;
+            FileScanner scanner = new FileScanner();
+            scanner.initGitignoreParser(project, baseDir);
+            fileScanner = scanner;
+        }
+        return fileScanner;
+    }
+
+    private static boolean isInProject(@NotNull String path, @NotNull String basePath) {
+        return path.equals(basePath) || path.startsWith(basePath + "/");
+    }
+
+    private static @NotNull Set<String> drain(@NotNull Set<String> paths) {
+        Set<String> drained = new HashSet<>();
+        for (Iterator<String> iterator = paths.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdownNow();
+    }
+}
@@ -1,8 +1,9 @@
 package com.devoxx.genie.service.rag;
 
 import com.devoxx.genie.model.ScanContentResult;
-import com.devoxx.genie.service.chromadb.ChromaEmbeddingService;
 import com.devoxx.genie.service.projectscanner.ProjectScannerService;
+import com.devoxx.genie.service.rag.store.VectorStoreBackend;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.ui.util.NotificationUtil;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
@@ -13,30 +14,29 @@ import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.document.splitter.DocumentSplitters;
-import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
-import dev.langchain4j.store.embedding.EmbeddingMatch;
-import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
-import java.io.IOException;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.devoxx.genie.service.rag.IndexerConstants.*;
+import static com.devoxx.genie.service.rag.store.VectorStoreBackend.EMBEDDING_MODEL_NAME;
 
 @Slf4j
 @Service
 public final class ProjectIndexerService {
     
-    private final ChromaEmbeddingService chromaEmbeddingService;
     private final ProjectScannerService projectScannerService;
 
     private DocumentSplitter documentSplitter;
@@ -44,16 +44,22 @@ public final class ProjectIndexerService {
     // Flag to indicate if indexing should be cancelled
     private final AtomicBoolean cancelIndexing = new AtomicBoolean(false);
 
+    // Full and incremental indexing runs never overlap
+    private final Object indexLock = new Object();
+
     @NotNull
     public static ProjectIndexerService getInstance() {
         return ApplicationManager.getApplication().getService(ProjectIndexerService.class);
     }
 
     public ProjectIndexerService() {
-        this.chromaEmbeddingService = ChromaEmbeddingService.getInstance();
         this.projectScannerService = ProjectScannerService.getInstance();
     }
     
+    private static @NotNull VectorStoreBackend vectorStore() {
+        return VectorStoreBackend.getInstance();
+    }
+
     /**
      * Cancels the current indexing process if one is running.
      * The indexing process will stop at the next file boundary.
@@ -78,67 +84,6 @@ public final class ProjectIndexerService {
         cancelIndexing.set(false);
     }
 
-    /**
-     * Check if a project is already indexed by searching for a unique hash in metadata.
-     *
-     * @param projectPath Path to the project directory
-     * @return true if project is indexed, false otherwise
-     */
-    private boolean isProjectIndexed(String projectPath) {
-        try {
-            // Create a unique project identifier (hash) based on path and last modified time
-            String projectHash = createProjectHash(projectPath);
-
-            OllamaEmbeddingModel embeddingModel = chromaEmbeddingService.getEmbeddingModel();
-
-            if (embeddingModel == null) {
-                log.warn("Ollama embedding model is not available");
-                return false;
-            }
-
-            // Search for the project hash in metadata
-            Embedding hashEmbedding = embeddingModel.embed(projectHash).content();
-            var results = chromaEmbeddingService.getEmbeddingStore().search(EmbeddingSearchRequest.builder()
-                    .queryEmbedding(hashEmbedding)
-                    .maxResults(1)
-                    .minScore(0.99) // High threshold for exact match
-                    .build());
-
-            return !results.matches().isEmpty();
-        } catch (Exception e) {
-            log.warn("Error checking project index status: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * Check if a file is already indexed by comparing its embedding with stored embeddings.
-     *
-     * @param filePath Path to the file
-     * @return true if file is indexed, false otherwise
-     */
-    private boolean isFileIndexed(Path filePath) {
-        try {
-            String fileIdentifier = filePath.toAbsolutePath().toString();
-            Embedding fileEmbedding = chromaEmbeddingService.getEmbeddingModel().embed(fileIdentifier).content();
-            var results = chromaEmbeddingService.getEmbeddingStore().search(EmbeddingSearchRequest
-                    .builder()
-                    .queryEmbedding(fileEmbedding)
-                    .maxResults(1)
-                    .minScore(0.99)
-                    .build());
-            if (results.matches().isEmpty()) {
-                return false;
-            }
-            List<EmbeddingMatch<TextSegment>> matches = results.matches();
-            TextSegment storedSegment = matches.get(0).embedded();
-            return !hasFileChanged(filePath, storedSegment.metadata());
-        } catch (Exception e) {
-            log.warn("Error checking file index status: {}", e.getMessage());
-            return false;
-        }
-    }
-
     public void indexFiles(Project project,
                            boolean forceReindex,
                            JProgressBar progressBar,
@@ -163,106 +108,199 @@ public final class ProjectIndexerService {
             });
         }
         
-        chromaEmbeddingService.init(project);
-        documentSplitter = DocumentSplitters.recursive(500, 0);
+        synchronized (indexLock) {
+            // The store of the project's collection, whatever other projects index or search meanwhile
+            VectorStoreBackend backend = vectorStore();
+            EmbeddingStore<TextSegment> store = backend.getEmbeddingStore(project);
+            documentSplitter = DocumentSplitters.recursive(500, 0);
 
-        String basePath = project.getBasePath();
-        if (basePath == null) {
-            log.warn("Project base path is null");
-            return;
-        }
+            String basePath = project.getBasePath();
+            if (basePath == null) {
+                log.warn("Project base path is null");
+                return;
+            }
 
-        if (!forceReindex && isProjectIndexed(basePath)) {
-            log.warn("Project is already indexed, skipping indexing process");
-            return;
-        }
+            VirtualFile baseDir = LocalFileSystem.getInstance().findFileByPath(basePath);
+            if (baseDir == null) {
+                log.debug("Could not find base directory: {}", basePath);
+                return;
+            }
 
-        VirtualFile baseDir = LocalFileSystem.getInstance().findFileByPath(basePath);
-        if (baseDir == null) {
-            log.debug("Could not find base directory: {}", basePath);
-            return;
-        }
+            // Use synchronous project scanning
+            ScanContentResult scanResult = projectScannerService.scanProject(project, baseDir, Integer.MAX_VALUE, false);
+
+            IndexingRun run = new IndexingRun(backend.getCollectionName(project), store);
+            FileIndexManifest.Diff diff = FileIndexManifest.diff(run.entries, new ArrayList<>(scanResult.getFiles()));
+            run.removeStaleFiles(diff.removed());
+
+            if (!forceReindex && diff.isEmpty()) {
+                log.info("Project is already indexed, skipping indexing process");
+                return;
+            }
+
+            List<Path> filesToProcess = diff.changed();
+            int totalFiles = filesToProcess.size();
+            log.info("Indexing {} new or changed files, {} files unchanged, {} files removed",
+                    totalFiles, diff.unchanged(), diff.removed().size());
+
+            DevoxxGenieStateService stateService = DevoxxGenieStateService.getInstance();
+            EmbeddingIngestionEngine ingestionEngine = new EmbeddingIngestionEngine(
+                    backend.getEmbeddingModel(),
+                    run.store,
+                    stateService.getIndexerBatchSize(),
+                    stateService.getIndexerConcurrency());
+
+            // Files are read and split on this thread, embedded and stored in batches by the engine workers
+            EmbeddingIngestionEngine.Stats stats;
+            try {
+                stats = ingestionEngine.ingest(filesToProcess,
+                        path -> createIngestionItems(run, path),
+                        this::isIndexingCancelled,
+                        (filesRead, total, segmentsStored) -> {
+                            int progress = (int) (((double) filesRead / total) * 100);
+                            SwingUtilities.invokeLater(() -> {
+                                progressBar.setVisible(true);
+                                progressLabel.setVisible(true);
+                                progressBar.setValue(progress);
+                                progressLabel.setText(String.format("Processed %d of %d files (%d segments)", filesRead, total, segmentsStored));
+                            });
+                        },
+                        run);
+            } finally {
+                run.storeRecorded();
+            }
 
-        // Use synchronous project scanning
-        ScanContentResult scanResult = projectScannerService.scanProject(project, baseDir, Integer.MAX_VALUE, false);
-        List<Path> filesToProcess = new ArrayList<>(scanResult.getFiles());
-        int totalFiles = filesToProcess.size();
+            // Segments of files which were only partially stored are removed, the file is indexed again next time
+            run.removeSegments(run.takeFailedSegmentIds());
 
-        // Process each file sequentially
-        for (int fileIndex = 0; fileIndex < totalFiles; fileIndex++) {
-            // Check if indexing has been cancelled
             if (isIndexingCancelled()) {
-                log.info("Indexing cancelled after processing {} of {} files", fileIndex, totalFiles);
-                
+                log.info("Indexing cancelled after processing {} of {} files", stats.sources(), totalFiles);
+
                 // Update UI to show cancellation
-                final int processedFiles = fileIndex;
                 SwingUtilities.invokeLater(() -> {
                     progressBar.setValue(100); // Set to 100% to indicate completion
-                    progressLabel.setText(String.format("Indexing cancelled after processing %d of %d files", 
-                                                       processedFiles, totalFiles));
+                    progressLabel.setText(String.format("Indexing cancelled after processing %d of %d files",
+                                                       stats.sources(), totalFiles));
                 });
-                
                 return;
             }
-            
-            Path path = filesToProcess.get(fileIndex);
-            String fileName = path.getFileName().toString();
-            int progress = (int) (((double) (fileIndex + 1) / totalFiles) * 100);
-            final int currentFileIndex = fileIndex;
-            
-            // Update progress UI and ensure it's visible
-            SwingUtilities.invokeLater(() -> {
-                progressBar.setVisible(true);
-                progressLabel.setVisible(true);
-                progressBar.setValue(progress);
-                progressLabel.setText(String.format("Processing %d of %d: %s", currentFileIndex + 1, totalFiles, fileName));
-            });
-            
-            // Process the file without waiting for UI update to complete
-            indexSingleFile(path);
+
+            // Reset cancellation flag after successful completion
+            resetCancellationFlag();
         }
-        
-        // Reset cancellation flag after successful completion
-        resetCancellationFlag();
     }
 
     /**
-     * Index a single file by checking if it is already indexed and processing the content.
-     * @param filePath Path to the file to index
+     * Check if the project has been indexed, according to the file index manifest.
+     *
+     * @param project the project
+     * @return true if at least one file of the project is indexed
      */
-    private void indexSingleFile(Path filePath) {
-        log.debug("Indexing file: {}", filePath);
-        try {
-            if (isFileIndexed(filePath)) {
-                log.debug("File already indexed: {}", filePath);
+    public boolean isProjectIndexed(@NotNull Project project) {
+        return !FileIndexManifest.getInstance().getEntries(vectorStore().getCollectionName(project)).isEmpty();
+    }
+
+    /**
+     * Update the index for the given files only, without scanning the project.
+     *
+     * @param project            the project
+     * @param changedFiles       the new or modified files to index, unchanged content is skipped
+     * @param removedFiles       the deleted or no longer included files, their segments are removed
+     * @param removedDirectories the deleted directories, the segments of all files below them are removed
+     */
+    public void updateFiles(@NotNull Project project,
+                            @NotNull List<Path> changedFiles,
+                            @NotNull Collection<String> removedFiles,
+                            @NotNull Collection<String> removedDirectories) {
+        synchronized (indexLock) {
+            VectorStoreBackend backend = vectorStore();
+            documentSplitter = DocumentSplitters.recursive(500, 0);
+
+            IndexingRun run = new IndexingRun(backend.getCollectionName(project), backend.getEmbeddingStore(project));
+            run.removeStaleFiles(findEntries(run.entries, removedFiles, removedDirectories));
+
+            if (changedFiles.isEmpty()) {
                 return;
             }
 
-            processPath(filePath);
-            log.debug("File successfully indexed: {}", filePath);
-        } catch (Exception e) {
-            log.warn("Error indexing file: {} - {}",  filePath, e.getMessage());
+            DevoxxGenieStateService stateService = DevoxxGenieStateService.getInstance();
+            EmbeddingIngestionEngine.Stats stats;
+            try {
+                stats = new EmbeddingIngestionEngine(
+                        backend.getEmbeddingModel(),
+                        run.store,
+                        stateService.getIndexerBatchSize(),
+                        stateService.getIndexerConcurrency())
+                        .ingest(changedFiles,
+                                path -> createIngestionItems(run, path),
+                                project::isDisposed,
+                                (filesRead, total, segmentsStored) -> { },
+                                run);
+            } finally {
+                run.storeRecorded();
+            }
+            run.removeSegments(run.takeFailedSegmentIds());
+            log.debug("Updated index of {} changed files ({} segments), {} files and {} directories removed",
+                    stats.sources(), stats.segments(), removedFiles.size(), removedDirectories.size());
         }
     }
 
-    @NotNull
-    private String createProjectHash(String projectPath) throws IOException {
-        Path path = Paths.get(projectPath);
-        long lastModified = Files.getLastModifiedTime(path).toMillis();
-        return projectPath + "_" + lastModified;
+    private static @NotNull List<FileIndexManifest.Entry> findEntries(@NotNull Map<String, FileIndexManifest.Entry> entries,
+                                                                     @NotNull Collection<String> files,
+                                                                     @NotNull Collection<String> directories) {
+        Map<String, FileIndexManifest.Entry> found = new HashMap<>();
+        for (String file : files) {
+            FileIndexManifest.Entry entry = entries.get(file);
+            if (entry != null) {
+                found.put(file, entry);
+            }
+        }
+        if (!directories.isEmpty()) {
+            // A removed directory removes all files below it, only then all entries are scanned
+            List<String> prefixes = new ArrayList<>(directories.size());
+            for (String directory : directories) {
+                prefixes.add(directory + File.separator);
+            }
+            for (FileIndexManifest.Entry entry : entries.values()) {
+                for (String prefix : prefixes) {
+                    if (entry.path().startsWith(prefix)) {
+                        found.put(entry.path(), entry);
+                        break;
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(found.values());
     }
 
-    private boolean hasFileChanged(Path filePath, @NotNull Metadata storedMetadata) {
+    /**
+     * Split a file into the segments to index, unless its content didn't change since it was indexed.
+     * @param run the current indexing run
+     * @param filePath Path to the file to index
+     * @return the segments to embed and store, empty when the file is already indexed
+     */
+    private @NotNull List<EmbeddingIngestionEngine.Item> createIngestionItems(@NotNull IndexingRun run, Path filePath) {
+        log.debug("Indexing file: {}", filePath);
         try {
-            long currentLastModified = Files.getLastModifiedTime(filePath).toMillis();
-            if (!storedMetadata.containsKey("lastModified")) {
-                return true;
+            String content = Files.readString(filePath);
+            long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+            long size = Files.size(filePath);
+            String contentHash = hash(content);
+
+            FileIndexManifest.Entry previous = run.entries.get(filePath.toString());
+            if (previous != null && previous.contentHash().equals(contentHash)) {
+                // Only touched, keep the stored segments
+                log.debug("File already indexed: {}", filePath);
+                run.record(new FileIndexManifest.Entry(filePath.toString(), lastModified, size, contentHash, previous.segmentIds()));
+                return List.of();
             }
-            Long storedLastModified = storedMetadata.getLong("lastModified");
-            if (storedLastModified == null) return false;
-            return currentLastModified > storedLastModified;
-        } catch (IOException e) {
-            return true; // If we can't check, assume it changed
+
+            List<EmbeddingIngestionEngine.Item> items = processPath(filePath, content, lastModified);
+            run.expect(new FileIndexManifest.Entry(filePath.toString(), lastModified, size, contentHash, List.of()), items.size());
+            return items;
+        } catch (Exception e) {
+            log.warn("Error indexing file: {} - {}",  filePath, e.getMessage());
+            return List.of();
         }
     }
 
@@ -271,45 +309,208 @@ public final class ProjectIndexerService {
         return filePath.toAbsolutePath().toString();
     }
 
+    private static @NotNull String hash(@NotNull String content) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private @NotNull List<EmbeddingIngestionEngine.Item> processPath(Path path, @NotNull String content, long lastModified) {
+        log.debug("Processing file: {}", path);
+        if (content.isBlank()) {
+            return List.of();
+        }
+
+        Document document = Document.from(content);
+        List<TextSegment> segments = documentSplitter.split(document);
+
+        // Segments are stored with the embedding of the file identifier, as in the existing collections
+        TextSegment fileIdentifier = TextSegment.from(createFileIdentifier(path));
+
+        List<EmbeddingIngestionEngine.Item> items = new ArrayList<>(segments.size());
+        for (TextSegment segment : segments) {
+            Metadata metadata = new Metadata();
+            metadata.put(FILE_PATH, path.toString());
+            metadata.put(LAST_MODIFIED, lastModified);
+            metadata.put(INDEXED_AT, System.currentTimeMillis());
+            items.add(new EmbeddingIngestionEngine.Item(fileIdentifier, new TextSegment(segment.text(), metadata)));
+        }
+        return items;
+    }
+
     /**
-     * Mark a file as indexed by storing its metadata and embedding in the database.
-     *
-     * @param filePath Path to the file
-     * @param segment  Text segment containing metadata
+     * Collects the segment ids of the files of an indexing run. A file is recorded once all its segments
+     * are stored, its previous segments are removed from the embedding store at that point. The recorded
+     * files are stored in the manifest at once when the run ends.
+     * <p>
+     * The store is taken once when the run starts, the shared backend may select the collection of
+     * another project while the run is busy.
      */
-    private void markFileAsIndexed(Path filePath, TextSegment segment) {
-        try {
-            String fileIdentifier = createFileIdentifier(filePath);
-            Embedding embedding = chromaEmbeddingService.getEmbeddingModel().embed(fileIdentifier).content();
-            chromaEmbeddingService.getEmbeddingStore().add(embedding, segment);
-        } catch (Exception e) {
-            log.warn("Error marking file as indexed: {}", e.getMessage());
+    private final class IndexingRun implements EmbeddingIngestionEngine.BatchListener {
+
+        private final String collection;
+        private final EmbeddingStore<TextSegment> store;
+        private final Map<String, FileIndexManifest.Entry> entries;
+        private final Map<String, PendingFile> pending = new ConcurrentHashMap<>();
+        private final List<String> failedSegmentIds = Collections.synchronizedList(new ArrayList<>());
+        private final List<FileIndexManifest.Entry> recorded = Collections.synchronizedList(new ArrayList<>());
+
+        private IndexingRun(@NotNull String collection, @NotNull EmbeddingStore<TextSegment> store) {
+            this.collection = collection;
+            this.store = store;
+            this.entries = loadManifestEntries();
         }
-    }
 
-    private void processPath(Path path) {
-        try {
-            log.debug("Processing file: {}", path);
+        /**
+         * Load the manifest of the collection. When the collection was indexed with another embedding model,
+         * its segments can't be searched with the current one, so they are all removed. A collection without
+         * manifest, e.g. indexed before the manifest existed, is cleared, its segments can't be told apart.
+         */
+        private @NotNull Map<String, FileIndexManifest.Entry> loadManifestEntries() {
+            FileIndexManifest manifest = FileIndexManifest.getInstance();
+            String embeddingModel = manifest.getEmbeddingModel(collection);
+            Map<String, FileIndexManifest.Entry> entries = manifest.getEntries(collection);
+
+            if (embeddingModel == null) {
+                try {
+                    store.removeAll();
+                } catch (Exception e) {
+                    // Try again next time, the files indexed until then are indexed again
+                    log.warn("Error clearing collection {} without file index: {}", collection, e.getMessage());
+                    return new ConcurrentHashMap<>(entries);
+                }
+                manifest.removeCollection(collection);
+                entries = new HashMap<>();
+            } else if (!embeddingModel.equals(EMBEDDING_MODEL_NAME)) {
+                log.info("Collection {} was indexed with {}, reindexing with {}", collection, embeddingModel, EMBEDDING_MODEL_NAME);
+                removeStaleFiles(new ArrayList<>(entries.values()));
+                entries = new HashMap<>();
+            }
+            manifest.setEmbeddingModel(collection, EMBEDDING_MODEL_NAME);
+            return new ConcurrentHashMap<>(entries);
+        }
 
-            String content = Files.readString(path);
-            if (content.isBlank()) {
+        void removeStaleFiles(@NotNull List<FileIndexManifest.Entry> staleEntries) {
+            if (staleEntries.isEmpty()) {
                 return;
             }
+            List<String> segmentIds = new ArrayList<>();
+            List<String> paths = new ArrayList<>(staleEntries.size());
+            for (FileIndexManifest.Entry entry : staleEntries) {
+                segmentIds.addAll(entry.segmentIds());
+                paths.add(entry.path());
+            }
+            if (removeSegments(segmentIds)) {
+                FileIndexManifest.getInstance().remove(collection, paths);
+            }
+        }
 
-            Document document = Document.from(content);
-            List<TextSegment> segments = documentSplitter.split(document);
+        boolean removeSegments(@NotNull Collection<String> segmentIds) {
+            if (segmentIds.isEmpty()) {
+                return true;
+            }
+            try {
+                store.removeAll(segmentIds);
+                return true;
+            } catch (Exception e) {
+                log.warn("Error removing {} stale segments: {}", segmentIds.size(), e.getMessage());
+                return false;
+            }
+        }
 
-            for (TextSegment segment : segments) {
-                log.debug("Segment: {}", segment.text());
-                Metadata metadata = new Metadata();
-                metadata.put(FILE_PATH, path.toString());
-                metadata.put(LAST_MODIFIED, Files.getLastModifiedTime(path).toMillis());
-                metadata.put(INDEXED_AT, System.currentTimeMillis());
-                markFileAsIndexed(path, new TextSegment(segment.text(), metadata));
+        void expect(@NotNull FileIndexManifest.Entry entry, int segmentCount) {
+            if (segmentCount == 0) {
+                replace(entry);
+            } else {
+                pending.put(entry.path(), new PendingFile(entry, segmentCount));
             }
+        }
+
+        void record(@NotNull FileIndexManifest.Entry entry) {
+            entries.put(entry.path(), entry);
+            recorded.add(entry);
+        }
+
+        void storeRecorded() {
+            List<FileIndexManifest.Entry> batch;
+            synchronized (recorded) {
+                batch = new ArrayList<>(recorded);
+                recorded.clear();
+            }
+            FileIndexManifest.getInstance().putAll(collection, batch);
+        }
 
-        } catch (IOException e) {
-            log.warn("Error processing file: {}", path);
+        @Override
+        public void onBatchStored(@NotNull List<EmbeddingIngestionEngine.Item> batch, @NotNull List<String> ids) {
+            for (int i = 0; i < batch.size() && i < ids.size(); i++) {
+                PendingFile file = pending.get(batch.get(i).segment().metadata().getString(FILE_PATH));
+                if (file != null && file.add(ids.get(i))) {
+                    pending.remove(file.entry.path());
+                    if (file.failed) {
+                        failedSegmentIds.addAll(file.segmentIds);
+                    } else {
+                        replace(new FileIndexManifest.Entry(file.entry.path(), file.entry.lastModified(),
+                                file.entry.size(), file.entry.contentHash(), List.copyOf(file.segmentIds)));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onBatchFailed(@NotNull List<EmbeddingIngestionEngine.Item> batch) {
+            for (EmbeddingIngestionEngine.Item item : batch) {
+                PendingFile file = pending.get(item.segment().metadata().getString(FILE_PATH));
+                if (file != null) {
+                    file.failed = true;
+                    if (file.add(null)) {
+                        pending.remove(file.entry.path());
+                        failedSegmentIds.addAll(file.segmentIds);
+                    }
+                }
+            }
+        }
+
+        @NotNull List<String> takeFailedSegmentIds() {
+            // Files still pending were cut short by a cancellation
+            pending.values().forEach(file -> failedSegmentIds.addAll(file.segmentIds));
+            pending.clear();
+            synchronized (failedSegmentIds) {
+                List<String> ids = new ArrayList<>(failedSegmentIds);
+                failedSegmentIds.clear();
+                return ids;
+            }
+        }
+
+        private void replace(@NotNull FileIndexManifest.Entry entry) {
+            FileIndexManifest.Entry previous = entries.get(entry.path());
+            if (previous != null && !previous.segmentIds().isEmpty() && !removeSegments(previous.segmentIds())) {
+                // Keep the previous entry, so the file is indexed again and its old segments removed next time
+                return;
+            }
+            record(entry);
+        }
+    }
+
+    private static final class PendingFile {
+        private final FileIndexManifest.Entry entry;
+        private final int expectedSegments;
+        private final List<String> segmentIds = new ArrayList<>();
+        private int completedSegments;
+        private volatile boolean failed;
+
+        private PendingFile(@NotNull FileIndexManifest.Entry entry, int expectedSegments) {
+            this.entry = entry;
+            this.expectedSegments = expectedSegments;
+        }
+
+        /**
+         * @param segmentId the id of a stored segment, null for a segment which failed
+         * @return true when all segments of the file are done
+         */
+        synchronized boolean add(String segmentId) {
+            if (segmentId != null) {
+                segmentIds.add(segmentId);
+            }
+            return ++completedSegments == expectedSegments;
         }
     }
 }
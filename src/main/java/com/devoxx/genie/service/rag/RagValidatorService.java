@@ -1,6 +1,8 @@
 package com.devoxx.genie.service.rag;
 
+import com.devoxx.genie.service.rag.store.VectorStoreType;
 import com.devoxx.genie.service.rag.validator.*;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
 import org.jetbrains.annotations.NotNull;
@@ -35,6 +37,13 @@ public final class RagValidatorService {
     }
 
     private List<Validator> createValidators() {
+        if (VectorStoreType.fromName(DevoxxGenieStateService.getInstance().getIndexerVectorStore()) == VectorStoreType.EMBEDDED) {
+            // The embedded vector store runs in the IDE, only the embedding model is needed
+            return List.of(
+                    new OllamaValidator(),
+                    new NomicEmbedTextValidator()
+            );
+        }
         return List.of(
                 new DockerValidator(),
                 new ChromeDBValidator(),
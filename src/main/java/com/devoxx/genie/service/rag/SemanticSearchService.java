@@ -1,6 +1,6 @@
 package com.devoxx.genie.service.rag;
 
-import com.devoxx.genie.service.chromadb.ChromaEmbeddingService;
+import com.devoxx.genie.service.rag.store.VectorStoreBackend;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
@@ -17,7 +17,6 @@ import static com.devoxx.genie.service.rag.IndexerConstants.FILE_PATH;
 @Service
 public final class SemanticSearchService {
 
-    private final ChromaEmbeddingService embeddingService;
     private final DevoxxGenieStateService stateService;
 
     @NotNull
@@ -26,8 +25,6 @@ public final class SemanticSearchService {
     }
 
     public SemanticSearchService() {
-        this.embeddingService = ApplicationManager.getApplication()
-                .getService(ChromaEmbeddingService.class);
         this.stateService = ApplicationManager.getApplication()
                 .getService(DevoxxGenieStateService.class);
     }
@@ -38,7 +35,7 @@ public final class SemanticSearchService {
      * @return Map of search results with file paths as keys
      */
     public @NotNull Map<String, SearchResult> search(Project project, String query) {
-        embeddingService.init(project);
+        VectorStoreBackend embeddingService = VectorStoreBackend.getInstance();
 
         Embedding queryEmbedding = embeddingService.getEmbeddingModel().embed(query).content();
 
@@ -50,7 +47,7 @@ public final class SemanticSearchService {
                 .maxResults(stateService.getIndexerMaxResults())
                 .build();
 
-        embeddingService.getEmbeddingStore().search(request)
+        embeddingService.getEmbeddingStore(project).search(request)
                 .matches()
                 .forEach(match ->
                         results.put(match.embedded().metadata().getString(FILE_PATH),
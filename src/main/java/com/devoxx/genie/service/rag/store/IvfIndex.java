@@ -0,0 +1,290 @@
+package com.devoxx.genie.service.rag.store;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Inverted file (IVF-flat) index over unit-length vectors.
+ * <p>
+ * The vectors are partitioned in clusters by spherical k-means, every cluster keeps the slots of its
+ * vectors. A search only scans the clusters whose centroids are closest to the query, which trades a
+ * small loss of recall for scanning a fraction of the vectors. The vectors themselves are not copied,
+ * they are read from the store's buffer.
+ * <p>
+ * Not thread-safe, the owning store guards it with its lock.
+ */
+final class IvfIndex {
+
+    // k-means runs on a sample of the vectors, enough to place the centroids
+    private static final int SAMPLE_PER_CLUSTER = 32;
+    private static final int MAX_SAMPLE = 16_384;
+    private static final int[] EMPTY = new int[0];
+
+    private final int dimensions;
+    private final float[][] centroids;
+    private final int[][] members;
+    private final int[] memberCounts;
+    // Cluster of every slot, -1 for free slots
+    private int[] assignment;
+
+    private IvfIndex(int dimensions, float[][] centroids, int slotCapacity) {
+        this.dimensions = dimensions;
+        this.centroids = centroids;
+        this.members = new int[centroids.length][];
+        this.memberCounts = new int[centroids.length];
+        Arrays.fill(members, EMPTY);
+        this.assignment = new int[Math.max(16, slotCapacity)];
+        Arrays.fill(assignment, -1);
+    }
+
+    /**
+     * Train the centroids on a sample of the vectors and assign all vectors to a cluster.
+     *
+     * @param vectors    the vector buffer, slot {@code s} starts at {@code s * dimensions}
+     * @param dimensions the vector dimensions
+     * @param slots      the slots of the vectors to index
+     * @param clusters   the number of clusters
+     * @param iterations the number of k-means iterations
+     * @param random     source of the sample and the initial centroids
+     * @return the index
+     */
+    static @NotNull IvfIndex train(@NotNull FloatBuffer vectors,
+                                   int dimensions,
+                                   int @NotNull [] slots,
+                                   int clusters,
+                                   int iterations,
+                                   @NotNull Random random) {
+        clusters = Math.max(1, Math.min(clusters, slots.length));
+
+        int[] sample = slots.clone();
+        shuffle(sample, random);
+        sample = Arrays.copyOf(sample, Math.min(sample.length, Math.min(MAX_SAMPLE, clusters * SAMPLE_PER_CLUSTER)));
+
+        float[][] centroids = new float[clusters][];
+        for (int c = 0; c < clusters; c++) {
+            centroids[c] = read(vectors, sample[c], dimensions);
+        }
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            float[][] sums = new float[clusters][dimensions];
+            int[] counts = new int[clusters];
+            for (int i = 0; i < sample.length; i++) {
+                int cluster = nearest(centroids, vectors, sample[i] * dimensions, dimensions);
+                counts[cluster]++;
+                float[] sum = sums[cluster];
+                int offset = sample[i] * dimensions;
+                for (int d = 0; d < dimensions; d++) {
+                    sum[d] += vectors.get(offset + d);
+                }
+            }
+            for (int c = 0; c < clusters; c++) {
+                if (counts[c] == 0) {
+                    // Reseed an empty cluster with a random sample vector
+                    centroids[c] = read(vectors, sample[random.nextInt(sample.length)], dimensions);
+                } else {
+                    centroids[c] = normalize(sums[c]);
+                }
+            }
+        }
+
+        IvfIndex index = new IvfIndex(dimensions, centroids, slots.length == 0 ? 0 : Arrays.stream(slots).max().getAsInt() + 1);
+        for (int slot : slots) {
+            index.add(slot, index.nearest(vectors, slot * dimensions));
+        }
+        return index;
+    }
+
+    int clusterCount() {
+        return centroids.length;
+    }
+
+    int nearest(float @NotNull [] vector) {
+        int best = 0;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int c = 0; c < centroids.length; c++) {
+            float score = dot(centroids[c], vector);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    int nearest(@NotNull FloatBuffer vectors, int offset) {
+        return nearest(centroids, vectors, offset, dimensions);
+    }
+
+    void add(int slot, int cluster) {
+        if (slot >= assignment.length) {
+            int oldLength = assignment.length;
+            assignment = Arrays.copyOf(assignment, Math.max(slot + 1, oldLength * 2));
+            Arrays.fill(assignment, oldLength, assignment.length, -1);
+        }
+        if (assignment[slot] >= 0) {
+            remove(slot);
+        }
+        int[] list = members[cluster];
+        if (memberCounts[cluster] == list.length) {
+            list = members[cluster] = Arrays.copyOf(list, Math.max(8, list.length * 2));
+        }
+        list[memberCounts[cluster]++] = slot;
+        assignment[slot] = cluster;
+    }
+
+    void remove(int slot) {
+        if (slot >= assignment.length || assignment[slot] < 0) {
+            return;
+        }
+        int cluster = assignment[slot];
+        int[] list = members[cluster];
+        int count = memberCounts[cluster];
+        for (int i = 0; i < count; i++) {
+            if (list[i] == slot) {
+                list[i] = list[count - 1];
+                memberCounts[cluster]--;
+                break;
+            }
+        }
+        assignment[slot] = -1;
+    }
+
+    /**
+     * @param query  the unit-length query vector
+     * @param probes the number of clusters to return
+     * @return the clusters whose centroids are closest to the query, closest first
+     */
+    int @NotNull [] probe(float @NotNull [] query, int probes) {
+        probes = Math.min(probes, centroids.length);
+        int[] best = new int[probes];
+        float[] bestScores = new float[probes];
+        Arrays.fill(bestScores, Float.NEGATIVE_INFINITY);
+        for (int c = 0; c < centroids.length; c++) {
+            float score = dot(centroids[c], query);
+            if (score > bestScores[probes - 1]) {
+                // Insertion into the small sorted top list
+                int position = probes - 1;
+                while (position > 0 && bestScores[position - 1] < score) {
+                    bestScores[position] = bestScores[position - 1];
+                    best[position] = best[position - 1];
+                    position--;
+                }
+                bestScores[position] = score;
+                best[position] = c;
+            }
+        }
+        return best;
+    }
+
+    int @NotNull [] members(int cluster) {
+        return members[cluster];
+    }
+
+    int memberCount(int cluster) {
+        return memberCounts[cluster];
+    }
+
+    void write(@NotNull DataOutputStream out) throws IOException {
+        out.writeInt(dimensions);
+        out.writeInt(centroids.length);
+        for (float[] centroid : centroids) {
+            for (float value : centroid) {
+                out.writeFloat(value);
+            }
+        }
+        out.writeInt(assignment.length);
+        for (int cluster : assignment) {
+            out.writeInt(cluster);
+        }
+    }
+
+    /**
+     * @return the index, or null when it was written for vectors of other dimensions
+     */
+    static @Nullable IvfIndex read(@NotNull DataInputStream in, int dimensions) throws IOException {
+        if (in.readInt() != dimensions) {
+            return null;
+        }
+        float[][] centroids = new float[in.readInt()][dimensions];
+        for (float[] centroid : centroids) {
+            for (int d = 0; d < dimensions; d++) {
+                centroid[d] = in.readFloat();
+            }
+        }
+        int slots = in.readInt();
+        IvfIndex index = new IvfIndex(dimensions, centroids, slots);
+        for (int slot = 0; slot < slots; slot++) {
+            int cluster = in.readInt();
+            if (cluster >= 0) {
+                index.add(slot, cluster);
+            }
+        }
+        return index;
+    }
+
+    static float dot(float @NotNull [] a, float @NotNull [] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    static float dot(float @NotNull [] a, @NotNull FloatBuffer vectors, int offset) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * vectors.get(offset + i);
+        }
+        return sum;
+    }
+
+    static float @NotNull [] normalize(float @NotNull [] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return vector;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static int nearest(float @NotNull [][] centroids, @NotNull FloatBuffer vectors, int offset, int dimensions) {
+        int best = 0;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int c = 0; c < centroids.length; c++) {
+            float score = dot(centroids[c], vectors, offset);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static float @NotNull [] read(@NotNull FloatBuffer vectors, int slot, int dimensions) {
+        float[] vector = new float[dimensions];
+        vectors.get(slot * dimensions, vector);
+        return vector;
+    }
+
+    private static void shuffle(int @NotNull [] values, @NotNull Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
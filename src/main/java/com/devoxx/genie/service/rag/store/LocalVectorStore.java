@@ -0,0 +1,718 @@
+package com.devoxx.genie.service.rag.store;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedding store running inside the IDE process, an alternative to the ChromaDB container.
+ * <p>
+ * Vectors are normalized and stored as float32 in a memory-mapped file, one fixed size slot per segment,
+ * so they are never copied to the heap. Segment texts and metadata are kept in memory and persisted in an
+ * append-only log, replayed when the store is opened. Slots of removed segments are reused.
+ * <p>
+ * Small stores are searched exactly. Once a store holds {@code indexThreshold} vectors an {@link IvfIndex}
+ * is trained, and a search only scans the clusters closest to the query. The index is retrained when the
+ * store doubled in size since it was trained. Search filters, e.g. on the file path, are applied to the
+ * scanned candidates.
+ * <p>
+ * Searches run concurrently, updates are exclusive.
+ */
+@Slf4j
+public class LocalVectorStore implements EmbeddingStore<TextSegment>, Closeable {
+
+    static final int DEFAULT_INDEX_THRESHOLD = 20_000;
+
+    private static final int LOG_MAGIC = 0x44475653;
+    private static final int FORMAT_VERSION = 1;
+    private static final byte RECORD_ADD = 1;
+    private static final byte RECORD_REMOVE = 2;
+    private static final String VECTORS_FILE = "vectors.f32";
+    private static final String SEGMENTS_FILE = "segments.log";
+    private static final String INDEX_FILE = "ivf.bin";
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int KMEANS_ITERATIONS = 8;
+
+    private record StoredSegment(@NotNull String id, int slot, @NotNull TextSegment segment) {
+    }
+
+    private record Candidate(int slot, float similarity) {
+    }
+
+    private final Path directory;
+    private final int indexThreshold;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, StoredSegment> segmentsById = new HashMap<>();
+    private StoredSegment[] segmentsBySlot = new StoredSegment[0];
+    private final BitSet freeSlots = new BitSet();
+    private int slotCount;
+    private int dimensions;
+
+    private FileChannel vectorChannel;
+    private MappedByteBuffer mappedVectors;
+    private FloatBuffer vectors;
+    private int capacity;
+
+    private DataOutputStream segmentLog;
+    private int logRecords;
+
+    private IvfIndex index;
+    private int indexedSize;
+
+    /**
+     * Open the store in the given directory, creating it when it doesn't exist.
+     *
+     * @param directory the store directory
+     * @throws IOException when the store can't be read
+     */
+    public LocalVectorStore(@NotNull Path directory) throws IOException {
+        this(directory, DEFAULT_INDEX_THRESHOLD);
+    }
+
+    LocalVectorStore(@NotNull Path directory, int indexThreshold) throws IOException {
+        this.directory = directory;
+        this.indexThreshold = indexThreshold;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segmentsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return add(embedding, null);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(List.of(id), List.of(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        return addAll(List.of(embedding), textSegment == null ? null : List.of(textSegment)).get(0);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        return addAll(embeddings, null);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> textSegments) {
+        List<String> ids = new ArrayList<>(embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        addAll(ids, embeddings, textSegments);
+        return ids;
+    }
+
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> textSegments) {
+        if (ids.size() != embeddings.size() || (textSegments != null && textSegments.size() != embeddings.size())) {
+            throw new IllegalArgumentException("The number of ids, embeddings and segments must be equal");
+        }
+        lock.writeLock().lock();
+        try {
+            List<StoredSegment> added = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                TextSegment segment = textSegments == null ? TextSegment.from("") : textSegments.get(i);
+                added.add(store(ids.get(i), embeddings.get(i).vector(), segment));
+            }
+            // The log must never point to a slot whose vector didn't reach the file
+            forceVectors(added);
+            for (StoredSegment stored : added) {
+                segmentLog.writeByte(RECORD_ADD);
+                segmentLog.writeInt(stored.slot());
+                segmentLog.writeUTF(stored.id());
+                writeString(segmentLog, stored.segment().text());
+                writeMetadata(segmentLog, stored.segment().metadata());
+                logRecords++;
+            }
+            segmentLog.flush();
+            if (shouldTrainIndex()) {
+                trainIndex();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write to vector store " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                remove(id);
+            }
+            segmentLog.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write to vector store " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        List<String> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (StoredSegment stored : segmentsById.values()) {
+                if (filter.test(stored.segment().metadata())) {
+                    ids.add(stored.id());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        removeAll(ids);
+    }
+
+    @Override
+    public void removeAll() {
+        lock.writeLock().lock();
+        try {
+            closeFiles();
+            Files.deleteIfExists(directory.resolve(SEGMENTS_FILE));
+            Files.deleteIfExists(directory.resolve(INDEX_FILE));
+            truncateVectors();
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear vector store " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        if (index == null && shouldTrainIndex()) {
+            lock.writeLock().lock();
+            try {
+                if (shouldTrainIndex()) {
+                    trainIndex();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            if (segmentsById.isEmpty()) {
+                return new EmbeddingSearchResult<>(List.of());
+            }
+            float[] query = queryVector(request);
+            if (index == null) {
+                return toResult(scanAll(query, request.filter(), request.maxResults()), request.minScore());
+            }
+            int probes = Math.max(8, index.clusterCount() / 16);
+            return toResult(scanClusters(query, request.filter(), request.maxResults(), probes), request.minScore());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search all vectors, without the index.
+     */
+    @NotNull EmbeddingSearchResult<TextSegment> searchExact(@NotNull EmbeddingSearchRequest request) {
+        lock.readLock().lock();
+        try {
+            if (segmentsById.isEmpty()) {
+                return new EmbeddingSearchResult<>(List.of());
+            }
+            return toResult(scanAll(queryVector(request), request.filter(), request.maxResults()), request.minScore());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the index and compact the segment log, then release the files.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (logRecords > 2 * segmentsById.size() + 1024) {
+                rewriteLog();
+            }
+            saveIndex();
+            closeFiles();
+        } catch (IOException e) {
+            log.warn("Failed to close vector store {}", directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private float @NotNull [] queryVector(@NotNull EmbeddingSearchRequest request) {
+        float[] query = request.queryEmbedding().vector().clone();
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException("Query has " + query.length + " dimensions, the store " + dimensions);
+        }
+        return IvfIndex.normalize(query);
+    }
+
+    private @NotNull PriorityQueue<Candidate> scanAll(float @NotNull [] query, @Nullable Filter filter, int maxResults) {
+        PriorityQueue<Candidate> top = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity));
+        for (int slot = 0; slot < slotCount; slot++) {
+            consider(slot, query, filter, maxResults, top);
+        }
+        return top;
+    }
+
+    private @NotNull PriorityQueue<Candidate> scanClusters(float @NotNull [] query,
+                                                           @Nullable Filter filter,
+                                                           int maxResults,
+                                                           int probes) {
+        PriorityQueue<Candidate> top = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity));
+        for (int cluster : index.probe(query, probes)) {
+            int[] members = index.members(cluster);
+            int count = index.memberCount(cluster);
+            for (int i = 0; i < count; i++) {
+                consider(members[i], query, filter, maxResults, top);
+            }
+        }
+        return top;
+    }
+
+    private void consider(int slot,
+                          float @NotNull [] query,
+                          @Nullable Filter filter,
+                          int maxResults,
+                          @NotNull PriorityQueue<Candidate> top) {
+        StoredSegment stored = segmentsBySlot[slot];
+        if (stored == null || (filter != null && !filter.test(stored.segment().metadata()))) {
+            return;
+        }
+        float similarity = IvfIndex.dot(query, vectors, slot * dimensions);
+        if (top.size() < maxResults) {
+            top.add(new Candidate(slot, similarity));
+        } else if (top.peek().similarity() < similarity) {
+            top.poll();
+            top.add(new Candidate(slot, similarity));
+        }
+    }
+
+    private @NotNull EmbeddingSearchResult<TextSegment> toResult(@NotNull PriorityQueue<Candidate> top, double minScore) {
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Candidate candidate = top.poll();
+            double score = RelevanceScore.fromCosineSimilarity(candidate.similarity());
+            if (score >= minScore) {
+                StoredSegment stored = segmentsBySlot[candidate.slot()];
+                float[] vector = new float[dimensions];
+                vectors.get(candidate.slot() * dimensions, vector);
+                matches.add(new EmbeddingMatch<>(score, stored.id(), Embedding.from(vector), stored.segment()));
+            }
+        }
+        Collections.reverse(matches);
+        return new EmbeddingSearchResult<>(matches);
+    }
+
+    /**
+     * Write the vector of a segment, the caller appends the segment to the log once the vector is forced to disk.
+     */
+    private @NotNull StoredSegment store(@NotNull String id, float @NotNull [] vector, @NotNull TextSegment segment) throws IOException {
+        if (dimensions == 0) {
+            dimensions = vector.length;
+            openVectors();
+            writeLogHeader();
+        } else if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Embedding has " + vector.length + " dimensions, the store " + dimensions);
+        }
+        if (segmentsById.containsKey(id)) {
+            remove(id);
+        }
+
+        int slot = freeSlots.nextSetBit(0);
+        if (slot < 0) {
+            slot = slotCount;
+        }
+        StoredSegment stored = new StoredSegment(id, slot, segment);
+        put(stored);
+
+        float[] normalized = IvfIndex.normalize(vector.clone());
+        vectors.put(slot * dimensions, normalized);
+        if (index != null) {
+            index.add(slot, index.nearest(normalized));
+        }
+        return stored;
+    }
+
+    private void forceVectors(@NotNull List<StoredSegment> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        int first = Integer.MAX_VALUE;
+        int last = 0;
+        for (StoredSegment stored : written) {
+            first = Math.min(first, stored.slot());
+            last = Math.max(last, stored.slot());
+        }
+        int slotBytes = dimensions * Float.BYTES;
+        mappedVectors.force(first * slotBytes, (last - first + 1) * slotBytes);
+    }
+
+    private void remove(@NotNull String id) throws IOException {
+        StoredSegment stored = segmentsById.remove(id);
+        if (stored == null) {
+            return;
+        }
+        segmentsBySlot[stored.slot()] = null;
+        freeSlots.set(stored.slot());
+        if (index != null) {
+            index.remove(stored.slot());
+        }
+        segmentLog.writeByte(RECORD_REMOVE);
+        segmentLog.writeUTF(id);
+        logRecords++;
+    }
+
+    private void put(@NotNull StoredSegment stored) throws IOException {
+        int slot = stored.slot();
+        if (slot >= slotCount) {
+            slotCount = slot + 1;
+        }
+        if (slot >= segmentsBySlot.length) {
+            segmentsBySlot = Arrays.copyOf(segmentsBySlot, Math.max(slot + 1, segmentsBySlot.length * 2));
+        }
+        if (vectorChannel != null) {
+            ensureCapacity(slotCount);
+        }
+        segmentsBySlot[slot] = stored;
+        segmentsById.put(stored.id(), stored);
+        freeSlots.clear(slot);
+    }
+
+    private boolean shouldTrainIndex() {
+        int size = segmentsById.size();
+        return size >= indexThreshold && (index == null || size >= 2 * indexedSize);
+    }
+
+    private void trainIndex() {
+        long start = System.currentTimeMillis();
+        int[] slots = segmentsById.values().stream().mapToInt(StoredSegment::slot).toArray();
+        int clusters = (int) Math.max(16, Math.min(4096, Math.round(Math.sqrt(slots.length))));
+        index = IvfIndex.train(vectors, dimensions, slots, clusters, KMEANS_ITERATIONS, new Random(slots.length));
+        indexedSize = slots.length;
+        log.debug("Trained IVF index of {} vectors in {} clusters in {} ms",
+                slots.length, clusters, System.currentTimeMillis() - start);
+    }
+
+    private void load() throws IOException {
+        segmentsById.clear();
+        segmentsBySlot = new StoredSegment[0];
+        freeSlots.clear();
+        slotCount = 0;
+        dimensions = 0;
+        logRecords = 0;
+        index = null;
+        indexedSize = 0;
+
+        Path logFile = directory.resolve(SEGMENTS_FILE);
+        boolean complete = true;
+        if (Files.exists(logFile)) {
+            complete = replayLog(logFile);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (segmentsBySlot[slot] == null) {
+                freeSlots.set(slot);
+            }
+        }
+        if (dimensions > 0) {
+            openVectors();
+            loadIndex();
+        }
+
+        if (!complete) {
+            // The last record was cut short, e.g. by a crash, write a clean log before appending to it
+            rewriteLog();
+        }
+        segmentLog = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        if (dimensions > 0 && Files.size(logFile) == 0) {
+            writeLogHeader();
+        }
+        log.debug("Opened vector store {} with {} segments", directory, segmentsById.size());
+    }
+
+    /**
+     * @return false when the log ends with an incomplete record
+     */
+    private boolean replayLog(@NotNull Path logFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+            if (in.readInt() != LOG_MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported vector store format in " + logFile);
+            }
+            dimensions = in.readInt();
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    return true;
+                }
+                if (type == RECORD_ADD) {
+                    int slot = in.readInt();
+                    String id = in.readUTF();
+                    String text = readString(in);
+                    Metadata metadata = readMetadata(in);
+                    StoredSegment previous = segmentsById.get(id);
+                    if (previous != null) {
+                        segmentsBySlot[previous.slot()] = null;
+                    }
+                    put(new StoredSegment(id, slot, TextSegment.from(text, metadata)));
+                } else if (type == RECORD_REMOVE) {
+                    StoredSegment stored = segmentsById.remove(in.readUTF());
+                    if (stored != null) {
+                        segmentsBySlot[stored.slot()] = null;
+                    }
+                } else {
+                    throw new IOException("Invalid record type " + type + " in " + logFile);
+                }
+                logRecords++;
+            }
+        } catch (EOFException e) {
+            log.warn("Vector store log {} is truncated, dropping its last record", logFile);
+            return false;
+        }
+    }
+
+    private void rewriteLog() throws IOException {
+        if (segmentLog != null) {
+            segmentLog.close();
+        }
+        Path logFile = directory.resolve(SEGMENTS_FILE);
+        Path tempFile = directory.resolve(SEGMENTS_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            segmentLog = out;
+            writeLogHeader();
+            for (StoredSegment stored : segmentsById.values()) {
+                out.writeByte(RECORD_ADD);
+                out.writeInt(stored.slot());
+                out.writeUTF(stored.id());
+                writeString(out, stored.segment().text());
+                writeMetadata(out, stored.segment().metadata());
+            }
+        }
+        Files.move(tempFile, logFile, StandardCopyOption.REPLACE_EXISTING);
+        logRecords = segmentsById.size();
+        segmentLog = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    private void writeLogHeader() throws IOException {
+        segmentLog.writeInt(LOG_MAGIC);
+        segmentLog.writeInt(FORMAT_VERSION);
+        segmentLog.writeInt(dimensions);
+    }
+
+    private void openVectors() throws IOException {
+        vectorChannel = FileChannel.open(directory.resolve(VECTORS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long existingSlots = vectorChannel.size() / ((long) dimensions * Float.BYTES);
+        map((int) Math.max(INITIAL_CAPACITY, Math.max(existingSlots, slotCount)));
+    }
+
+    private void ensureCapacity(int slots) throws IOException {
+        if (slots > capacity) {
+            map(Math.max(slots, capacity * 2));
+        }
+    }
+
+    private void map(int slots) throws IOException {
+        long bytes = (long) slots * dimensions * Float.BYTES;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Vector store " + directory + " is full");
+        }
+        MappedByteBuffer previous = mappedVectors;
+        MappedByteBuffer buffer = vectorChannel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        mappedVectors = buffer;
+        vectors = buffer.asFloatBuffer();
+        capacity = slots;
+        if (previous != null) {
+            // The new mapping covers the old one, its changes are in the same file
+            unmap(previous);
+        }
+    }
+
+    /**
+     * Release a mapping right away instead of when the garbage collector finds the buffer, so growing the
+     * store doesn't keep every previous mapping alive. Only called under the write lock, when no search
+     * holds the buffer, a buffer must not be read once it is unmapped.
+     */
+    private static void unmap(@NotNull MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Unable to unmap the vectors, the garbage collector releases them: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Empty the vectors file instead of deleting it. Windows refuses to truncate or delete a file which is
+     * still mapped, the contents of a file which can't be truncated are ignored and overwritten.
+     */
+    private void truncateVectors() {
+        Path vectorsFile = directory.resolve(VECTORS_FILE);
+        if (!Files.exists(vectorsFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(vectorsFile, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+        } catch (IOException e) {
+            log.debug("Unable to truncate {}, its vectors are overwritten: {}", vectorsFile, e.getMessage());
+        }
+    }
+
+    private void loadIndex() {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            // The index is only valid for the log it was written with
+            if (in.readInt() != logRecords || in.readInt() != segmentsById.size()) {
+                return;
+            }
+            indexedSize = in.readInt();
+            index = IvfIndex.read(in, dimensions);
+        } catch (IOException e) {
+            log.warn("Failed to read vector index {}, it will be rebuilt", indexFile, e);
+            index = null;
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (index == null) {
+            Files.deleteIfExists(indexFile);
+            return;
+        }
+        Path tempFile = directory.resolve(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(logRecords);
+            out.writeInt(segmentsById.size());
+            out.writeInt(indexedSize);
+            index.write(out);
+        }
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void closeFiles() throws IOException {
+        if (segmentLog != null) {
+            segmentLog.close();
+            segmentLog = null;
+        }
+        if (vectorChannel != null) {
+            if (mappedVectors != null) {
+                mappedVectors.force();
+                unmap(mappedVectors);
+            }
+            vectorChannel.close();
+            vectorChannel = null;
+            mappedVectors = null;
+            vectors = null;
+            capacity = 0;
+        }
+    }
+
+    private static void writeString(@NotNull DataOutputStream out, @NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static @NotNull String readString(@NotNull DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeMetadata(@NotNull DataOutputStream out, @NotNull Metadata metadata) throws IOException {
+        Map<String, Object> values = metadata.toMap();
+        out.writeInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            out.writeUTF(entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof Integer intValue) {
+                out.writeByte('i');
+                out.writeInt(intValue);
+            } else if (value instanceof Long longValue) {
+                out.writeByte('l');
+                out.writeLong(longValue);
+            } else if (value instanceof Float floatValue) {
+                out.writeByte('f');
+                out.writeFloat(floatValue);
+            } else if (value instanceof Double doubleValue) {
+                out.writeByte('d');
+                out.writeDouble(doubleValue);
+            } else if (value instanceof UUID uuid) {
+                out.writeByte('u');
+                out.writeUTF(uuid.toString());
+            } else {
+                out.writeByte('s');
+                writeString(out, String.valueOf(value));
+            }
+        }
+    }
+
+    private static @NotNull Metadata readMetadata(@NotNull DataInputStream in) throws IOException {
+        Metadata metadata = new Metadata();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            int type = in.readByte();
+            switch (type) {
+                case 'i' -> metadata.put(key, in.readInt());
+                case 'l' -> metadata.put(key, in.readLong());
+                case 'f' -> metadata.put(key, in.readFloat());
+                case 'd' -> metadata.put(key, in.readDouble());
+                case 'u' -> metadata.put(key, UUID.fromString(in.readUTF()));
+                case 's' -> metadata.put(key, readString(in));
+                default -> throw new IOException("Invalid metadata type " + type);
+            }
+        }
+        return metadata;
+    }
+}
@@ -0,0 +1,100 @@
+package com.devoxx.genie.service.rag.store;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The embedded vector store backend, one {@link LocalVectorStore} per project collection.
+ * <p>
+ * The stores live in the IDE system directory, e.g. for mac in
+ * /Users/[username]/Library/Caches/JetBrains/IntelliJIdea2024.3/DevoxxGenie/vector-store/[collection]
+ * and are opened on first use and closed when the IDE shuts down.
+ */
+@Slf4j
+@Service
+public final class LocalVectorStoreService implements VectorStoreBackend, Disposable {
+
+    private static final String COLLECTION_PREFIX = "local-";
+
+    private final Path storeDirectory = Path.of(PathManager.getSystemPath(), "DevoxxGenie", "vector-store");
+    private final Map<String, LocalVectorStore> stores = new ConcurrentHashMap<>();
+
+    @NotNull
+    public static LocalVectorStoreService getInstance() {
+        return ApplicationManager.getApplication().getService(LocalVectorStoreService.class);
+    }
+
+    @Override
+    public @NotNull EmbeddingStore<TextSegment> getEmbeddingStore(@NotNull Project project) {
+        return getStore(getCollectionName(project));
+    }
+
+    /**
+     * The collection names differ from the ChromaDB ones, so the file index of both backends is kept apart.
+     */
+    @Override
+    public @NotNull String getCollectionName(@NotNull Project project) {
+        return COLLECTION_PREFIX + project.getName()
+                .toLowerCase()
+                .replaceAll("[^a-z0-9-]", "-");
+    }
+
+    @Override
+    public @NotNull Map<String, Integer> listCollections(@NotNull Project project) throws IOException {
+        Map<String, Integer> collections = new TreeMap<>();
+        if (!Files.isDirectory(storeDirectory)) {
+            return collections;
+        }
+        try (Stream<Path> directories = Files.list(storeDirectory)) {
+            for (Path directory : directories.filter(Files::isDirectory).toList()) {
+                String collection = directory.getFileName().toString();
+                collections.put(collection, getStore(collection).size());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return collections;
+    }
+
+    @Override
+    public void deleteCollection(@NotNull Project project, @NotNull String collection) throws IOException {
+        LocalVectorStore store = stores.remove(collection);
+        if (store != null) {
+            store.close();
+        }
+        FileUtil.delete(storeDirectory.resolve(collection));
+    }
+
+    private @NotNull LocalVectorStore getStore(@NotNull String collection) {
+        return stores.computeIfAbsent(collection, name -> {
+            try {
+                return new LocalVectorStore(storeDirectory.resolve(name));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open vector store " + name, e);
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        stores.values().forEach(LocalVectorStore::close);
+        stores.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.devoxx.genie.service.rag.store;
+
+import com.devoxx.genie.service.chromadb.ChromaEmbeddingService;
+import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
+import com.intellij.openapi.project.Project;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A vector store used by the RAG indexer and the semantic search, either the ChromaDB container
+ * or the embedded store, selected in the RAG settings.
+ */
+public interface VectorStoreBackend {
+
+    String EMBEDDING_MODEL_NAME = "nomic-embed-text";
+
+    /**
+     * @return the backend selected in the settings
+     */
+    static @NotNull VectorStoreBackend getInstance() {
+        VectorStoreType type = VectorStoreType.fromName(DevoxxGenieStateService.getInstance().getIndexerVectorStore());
+        return type == VectorStoreType.EMBEDDED ? LocalVectorStoreService.getInstance() : ChromaEmbeddingService.getInstance();
+    }
+
+    /**
+     * The backend is shared by all projects, every caller gets the store of its own project's collection.
+     *
+     * @param project the project
+     * @return the store of the project's collection, created when it doesn't exist
+     */
+    @NotNull EmbeddingStore<TextSegment> getEmbeddingStore(@NotNull Project project);
+
+    /**
+     * @param project the project
+     * @return the collection name of the project
+     */
+    @NotNull String getCollectionName(@NotNull Project project);
+
+    /**
+     * @param project the project
+     * @return the segment count of every collection by name
+     * @throws IOException when the collections can't be listed
+     */
+    @NotNull Map<String, Integer> listCollections(@NotNull Project project) throws IOException;
+
+    /**
+     * @param project    the project
+     * @param collection the collection name
+     * @throws IOException when the collection can't be deleted
+     */
+    void deleteCollection(@NotNull Project project, @NotNull String collection) throws IOException;
+
+    default @NotNull OllamaEmbeddingModel getEmbeddingModel() {
+        return OllamaEmbeddingModel.builder()
+                .baseUrl(DevoxxGenieStateService.getInstance().getOllamaModelUrl())
+                .modelName(EMBEDDING_MODEL_NAME)
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.devoxx.genie.service.rag.store;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+@Getter
+public enum VectorStoreType {
+    CHROMA_DB("ChromaDB (Docker)"),
+    EMBEDDED("Embedded (in-process)");
+
+    private final String displayName;
+
+    VectorStoreType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public static @NotNull VectorStoreType fromName(@Nullable String name) {
+        for (VectorStoreType type : values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return CHROMA_DB;
+    }
+}
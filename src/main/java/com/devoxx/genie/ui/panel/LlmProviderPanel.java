@@ -2,6 +2,7 @@ package com.devoxx.genie.ui.panel;
 
 import com.devoxx.genie.chatmodel.ChatModelFactory;
 import com.devoxx.genie.chatmodel.ChatModelFactoryProvider;
+import com.devoxx.genie.chatmodel.local.LocalModelDiscoveryService;
 import com.devoxx.genie.model.Constant;
 import com.devoxx.genie.model.LanguageModel;
 import com.devoxx.genie.model.enumarations.ModelProvider;
@@ -70,6 +71,7 @@ public class LlmProviderPanel extends JBPanel<LlmProviderPanel> implements LLMSe
         modelNameComboBox.setFont(DevoxxGenieFontsUtil.getDropdownFont());
 
         addModelProvidersToComboBox();
+        discoverLocalProviders();
 
         JPanel toolPanel = new JPanel();
         toolPanel.setLayout(new BoxLayout(toolPanel, BoxLayout.Y_AXIS));
@@ -143,6 +145,20 @@ public class LlmProviderPanel extends JBPanel<LlmProviderPanel> implements LLMSe
                 .forEach(modelProviderComboBox::addItem);
     }
 
+    /**
+     * Discover the models of the local providers in the combobox at once, so selecting one later doesn't wait.
+     */
+    private void discoverLocalProviders() {
+        List<ModelProvider> localProviders = new ArrayList<>();
+        for (int i = 0; i < modelProviderComboBox.getItemCount(); i++) {
+            ModelProvider provider = modelProviderComboBox.getItemAt(i);
+            if (provider.getType() == ModelProvider.Type.LOCAL) {
+                localProviders.add(provider);
+            }
+        }
+        LocalModelDiscoveryService.getInstance().discoverAll(localProviders);
+    }
+
     /**
      * Refresh the list of local models
      */
@@ -194,6 +210,10 @@ public class LlmProviderPanel extends JBPanel<LlmProviderPanel> implements LLMSe
                         .getFactoryByProvider(provider)
                         .ifPresentOrElse(
                                 factory -> {
+                                    if (!LocalModelDiscoveryService.getInstance().isDiscovered(ModelProvider.fromString(provider))) {
+                                        discoverModelNames(provider);
+                                        return;
+                                    }
                                     List<LanguageModel> models = factory.getModels();
                                     if (models.isEmpty()) {
                                         hideModelNameComboBox();
@@ -210,6 +230,39 @@ public class LlmProviderPanel extends JBPanel<LlmProviderPanel> implements LLMSe
         });
     }
 
+    /**
+     * Show the model names of a local provider once they are discovered, the UI doesn't wait for the provider.
+     *
+     * @param provider the name of the local provider
+     */
+    private void discoverModelNames(@NotNull String provider) {
+        hideModelNameComboBox();
+        LocalModelDiscoveryService.getInstance()
+                .discover(ModelProvider.fromString(provider))
+                .whenComplete((models, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+                    ModelProvider selectedProvider = (ModelProvider) modelProviderComboBox.getSelectedItem();
+                    if (selectedProvider == null || !selectedProvider.getName().equals(provider)) {
+                        return;
+                    }
+                    // Populating the combobox selects its first model, keep the model the user selected before
+                    String selectedModel = DevoxxGenieStateService.getInstance().getSelectedLanguageModel(project.getLocationHash());
+                    updateModelNamesComboBox(provider);
+                    selectModelName(selectedModel);
+                }));
+    }
+
+    private void selectModelName(String modelName) {
+        if (modelName == null) {
+            return;
+        }
+        for (int i = 0; i < modelNameComboBox.getItemCount(); i++) {
+            if (modelNameComboBox.getItemAt(i).getModelName().equals(modelName)) {
+                modelNameComboBox.setSelectedIndex(i);
+                return;
+            }
+        }
+    }
+
     /**
      * Populate the model names.
      *
@@ -255,15 +308,7 @@ public class LlmProviderPanel extends JBPanel<LlmProviderPanel> implements LLMSe
      * Restore the last selected language model from persistent storage
      */
     public void restoreLastSelectedLanguageModel() {
-        if (lastSelectedLanguageModel != null) {
-            for (int i = 0; i < modelNameComboBox.getItemCount(); i++) {
-                LanguageModel model = modelNameComboBox.getItemAt(i);
-                if (model.getModelName().equals(lastSelectedLanguageModel)) {
-                    modelNameComboBox.setSelectedIndex(i);
-                    break;
-                }
-            }
-        }
+        selectModelName(lastSelectedLanguageModel);
     }
 
     /**
@@ -48,7 +48,7 @@ public class ConversationPanel
     public ConversationPanel(Project project, ResourceBundle resourceBundle) {
         super(new BorderLayout());
 
-        webViewController = new ConversationWebViewController();
+        webViewController = new ConversationWebViewController(project);
         
         messageRenderer = new MessageRenderer(project, webViewController);
         
@@ -99,8 +99,8 @@ public class ConversationPanel
         setBackground(Color.BLACK);
         setVisible(true);
         
-        // Subscribe to the relevant topics
-        MessageBusConnection msgBusConnection = project.getMessageBus().connect();
+        // Subscribe to the relevant topics, until the web view is disposed
+        MessageBusConnection msgBusConnection = project.getMessageBus().connect(webViewController);
         msgBusConnection.subscribe(AppTopics.FILE_REFERENCES_TOPIC, this);
         msgBusConnection.subscribe(AppTopics.CONVERSATION_SELECTION_TOPIC, this);
         msgBusConnection.subscribe(AppTopics.MCP_LOGGING_MSG, webViewController);
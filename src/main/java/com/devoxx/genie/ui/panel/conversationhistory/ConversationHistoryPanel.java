@@ -1,6 +1,8 @@
 package com.devoxx.genie.ui.panel.conversationhistory;
 
+import com.devoxx.genie.model.conversation.ChatMessage;
 import com.devoxx.genie.model.conversation.Conversation;
+import com.devoxx.genie.model.conversation.ConversationSearchResult;
 import com.devoxx.genie.service.conversations.ConversationStorageService;
 import com.devoxx.genie.service.prompt.memory.ChatMemoryManager;
 import com.devoxx.genie.ui.listener.ConversationSelectionListener;
@@ -9,22 +11,24 @@ import com.devoxx.genie.ui.util.NotificationUtil;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.DocumentAdapter;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextField;
 import com.intellij.ui.table.JBTable;
 import com.intellij.util.ui.JBUI;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.ui.UIUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
@@ -32,8 +36,13 @@ import static com.devoxx.genie.ui.component.button.ButtonFactory.createActionBut
 import static com.devoxx.genie.ui.util.DevoxxGenieIconsUtil.TrashIcon;
 
 public class ConversationHistoryPanel extends JPanel implements ConversationSelectionListener {
+    private static final int SEARCH_DEBOUNCE_DELAY = 150;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final ConversationStorageService storageService;
     private final ConversationTableModel tableModel;
+    private final JBTextField searchField = new JBTextField();
+    private final Timer searchTimer = new Timer(SEARCH_DEBOUNCE_DELAY, e -> searchConversations());
     private final Project project;
 
     public ConversationHistoryPanel(Project project) {
@@ -43,8 +52,12 @@ public class ConversationHistoryPanel extends JPanel implements ConversationSele
 
         storageService = ConversationStorageService.getInstance();
 
-        // Create table model
-        tableModel = new ConversationTableModel();
+        // Create table model, the conversations are loaded a page at a time while scrolling
+        tableModel = new ConversationTableModel(
+                (offset, limit) -> storageService.getConversationHeaders(project, offset, limit),
+                () -> storageService.countConversations(project),
+                AppExecutorUtil.getAppExecutorService(),
+                SwingUtilities::invokeLater);
         JTable table = new JBTable(tableModel);
 
         // Configure table properties
@@ -72,12 +85,11 @@ public class ConversationHistoryPanel extends JPanel implements ConversationSele
                 int row = table.rowAtPoint(e.getPoint());
                 int column = table.columnAtPoint(e.getPoint());
                 if (row >= 0 && column != 0) {
-                    // Get the conversation from the model
+                    // Get the conversation from the model, null while its page is still loading
                     Conversation conversation = tableModel.getConversationAt(row);
-                    // Update chat memory
-                    updateChatMemory(conversation);
-                    // Notify listener
-                    onConversationSelected(conversation);
+                    if (conversation != null) {
+                        selectConversation(conversation);
+                    }
                 }
             }
         });
@@ -120,6 +132,17 @@ public class ConversationHistoryPanel extends JPanel implements ConversationSele
         timeColumn.setMaxWidth(100);
         timeColumn.setCellRenderer(new TimeRenderer());
 
+        // Search the titles and messages of the conversations while typing
+        searchField.getEmptyText().setText("Search conversations...");
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        add(searchField, BorderLayout.NORTH);
+
         // Add table to scroll pane
         JBScrollPane scrollPane = new JBScrollPane(table);
         scrollPane.setBorder(JBUI.Borders.empty());
@@ -132,10 +155,49 @@ public class ConversationHistoryPanel extends JPanel implements ConversationSele
     }
 
     public void loadConversations() {
-        List<Conversation> conversations = storageService.getConversations(project);
-        conversations.sort((c1, c2) -> c2.getTimestamp().compareTo(c1.getTimestamp()));
-        tableModel.setConversations(conversations);
-        tableModel.fireTableDataChanged();
+        tableModel.reload();
+        searchConversations();
+    }
+
+    private void searchConversations() {
+        String query = searchField.getText();
+        if (query.isBlank()) {
+            tableModel.showSearchResults(null);
+            return;
+        }
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            try {
+                List<ConversationSearchResult> results = storageService.searchConversations(project, query, MAX_SEARCH_RESULTS);
+                SwingUtilities.invokeLater(() -> {
+                    // Ignore the results of a query which was typed over in the meantime
+                    if (query.equals(searchField.getText())) {
+                        tableModel.showSearchResults(results);
+                    }
+                });
+            } catch (Exception e) {
+                NotificationUtil.sendNotification(project, "Failed to search conversations: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * The history only lists the conversations, the messages are loaded once a conversation is selected.
+     */
+    private void selectConversation(@NotNull Conversation conversation) {
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            try {
+                List<ChatMessage> messages = storageService.getMessages(conversation.getId());
+                SwingUtilities.invokeLater(() -> {
+                    conversation.setMessages(messages);
+                    // Update chat memory
+                    updateChatMemory(conversation);
+                    // Notify listener
+                    onConversationSelected(conversation);
+                });
+            } catch (Exception e) {
+                NotificationUtil.sendNotification(project, "Failed to load conversation: " + e.getMessage());
+            }
+        });
     }
 
     @Override
@@ -150,62 +212,6 @@ public class ConversationHistoryPanel extends JPanel implements ConversationSele
         }
     }
 
-    // Table model class
-    private static class ConversationTableModel extends AbstractTableModel {
-        private List<Conversation> conversations = new ArrayList<>();
-        private final String[] columnNames = {"Delete", "Title", "Time"};
-
-        public void setConversations(List<Conversation> conversations) {
-            // Create new list to ensure clean state
-            this.conversations = new ArrayList<>(conversations);
-            fireTableDataChanged();
-        }
-
-        public Conversation getConversationAt(int row) {
-            return conversations.get(row);
-        }
-
-        @Override
-        public int getRowCount() {
-            return conversations.size();
-        }
-
-        @Override
-        public int getColumnCount() {
-            return columnNames.length;
-        }
-
-        @Override
-        public String getColumnName(int column) {
-            return columnNames[column];
-        }
-
-        @Override
-        public Object getValueAt(int row, int column) {
-            Conversation conversation = conversations.get(row);
-
-            if (column == 0) {
-                // For button columns, create a defensive copy to ensure ID consistency
-                Conversation copy = new Conversation();
-                copy.setId(conversation.getId());
-                copy.setTitle(conversation.getTitle());
-                // Copy other necessary fields
-                return copy;
-            }
-
-            return switch (column) {
-                case 1 -> conversation.getTitle();
-                case 2 -> formatTimeSince(conversation.getTimestamp());
-                default -> null;
-            };
-        }
-
-        @Override
-        public boolean isCellEditable(int row, int column) {
-            return column == 0; // Only delete buttons are editable
-        }
-    }
-
     // Custom renderers
     private static class ButtonRenderer extends JButton implements TableCellRenderer {
         public ButtonRenderer(Icon icon) {
@@ -232,23 +238,38 @@ public class ConversationHistoryPanel extends JPanel implements ConversationSele
             super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
 
             setHorizontalAlignment(SwingConstants.LEADING);
-            
-            // Truncate long titles
-            String fullText = String.valueOf(value);
-            String displayText = fullText.length() > MAX_TITLE_LENGTH ? 
-                fullText.substring(0, MAX_TITLE_LENGTH) + "..." : 
-                fullText;
-            
-            setText(displayText);
             setMinimumSize(new Dimension(0, getHeight()));
             setBorder(JBUI.Borders.empty(0, 8));
-            
+
+            if (value instanceof ConversationSearchResult result) {
+                // The title with the best matching part of the conversation below it
+                String title = result.conversation().getTitle();
+                setText("<html>" + StringUtil.escapeXmlEntities(truncate(title)) +
+                        "<br><font color='gray'>" + highlight(result.snippet()) + "</font></html>");
+                setToolTipText(title);
+                return this;
+            }
+
+            // Truncate long titles
+            String fullText = String.valueOf(value);
+            setText(truncate(fullText));
+
             // Store the full text as tooltip
             setToolTipText(fullText);
 
             return this;
         }
 
+        private static @NotNull String truncate(@NotNull String text) {
+            return text.length() > MAX_TITLE_LENGTH ? text.substring(0, MAX_TITLE_LENGTH) + "..." : text;
+        }
+
+        private static @NotNull String highlight(@NotNull String snippet) {
+            return StringUtil.escapeXmlEntities(snippet.replace('\n', ' '))
+                    .replace(ConversationSearchResult.HIGHLIGHT_START, "<b>")
+                    .replace(ConversationSearchResult.HIGHLIGHT_END, "</b>");
+        }
+
         // Override these methods to ensure proper text display
         @Override
         public boolean isOpaque() {
@@ -312,31 +333,6 @@ public class ConversationHistoryPanel extends JPanel implements ConversationSele
         ChatMemoryManager.getInstance().restoreConversation(project, conversation);
     }
 
-    private static @NotNull String formatTimeSince(String timestamp) {
-        try {
-            LocalDateTime messageTime = LocalDateTime.parse(timestamp);
-            LocalDateTime now = LocalDateTime.now();
-            Duration duration = Duration.between(messageTime, now);
-
-            long minutes = duration.toMinutes();
-            if (minutes < 1) {
-                return "Just now";
-            } else if (minutes < 60) {
-                return minutes + " minute" + (minutes != 1 ? "s" : "") + " ago";
-            } else {
-                long hours = duration.toHours();
-                if (hours < 24) {
-                    return hours + " hour" + (hours != 1 ? "s" : "") + " ago";
-                } else {
-                    long days = duration.toDays();
-                    return days + " day" + (days != 1 ? "s" : "") + " ago";
-                }
-            }
-        } catch (Exception e) {
-            return "";
-        }
-    }
-
     private void showDeleteAllConfirmationDialog() {
         int result = Messages.showYesNoDialog(
                 (Project) null,
@@ -351,18 +347,24 @@ public class ConversationHistoryPanel extends JPanel implements ConversationSele
     }
 
     private void removeConversation(Conversation conversation) {
-        try {
-            storageService.removeConversation(project, conversation);
-            loadConversations();
-            NotificationUtil.sendNotification(project, "Conversation removed");
-        } catch (Exception e) {
-            NotificationUtil.sendNotification(project, "Failed to remove conversation: " + e.getMessage());
-        }
+        storageService.removeConversation(project, conversation)
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error == null) {
+                        loadConversations();
+                        NotificationUtil.sendNotification(project, "Conversation removed");
+                    } else {
+                        NotificationUtil.sendNotification(project, "Failed to remove conversation: " + error.getMessage());
+                    }
+                }));
     }
 
     private void removeAllConversations() {
-        storageService.clearAllConversations(project);
-        loadConversations();
-        NotificationUtil.sendNotification(project, "All conversations removed");
+        storageService.clearAllConversations(project)
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    loadConversations();
+                    if (error == null) {
+                        NotificationUtil.sendNotification(project, "All conversations removed");
+                    }
+                }));
     }
 }
@@ -0,0 +1,219 @@
+package com.devoxx.genie.ui.panel.conversationhistory;
+
+import com.devoxx.genie.model.conversation.Conversation;
+import com.devoxx.genie.model.conversation.ConversationSearchResult;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
+
+/**
+ * Table model over the paged conversation history.
+ * <p>
+ * Only the number of conversations is known upfront. The conversations are loaded a page at a time, in the
+ * background, when the table renders one of their rows, so scrolling loads the next pages. A bounded number
+ * of pages is kept, the least recently used pages are loaded again when needed.
+ * <p>
+ * While searching, the model shows the search results instead of the history.
+ * <p>
+ * The model is only accessed on the EDT, the loaded pages are handed back through the EDT executor.
+ */
+@Slf4j
+class ConversationTableModel extends AbstractTableModel {
+
+    static final int PAGE_SIZE = 50;
+    static final int MAX_CACHED_PAGES = 20;
+    static final String LOADING = "Loading...";
+
+    @FunctionalInterface
+    interface PageLoader {
+        @NotNull List<Conversation> load(int offset, int limit);
+    }
+
+    private final String[] columnNames = {"Delete", "Title", "Time"};
+
+    private final PageLoader pageLoader;
+    private final IntSupplier rowCounter;
+    private final Executor loadExecutor;
+    private final Executor edtExecutor;
+
+    private final Map<Integer, List<Conversation>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Conversation>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private int rowCount;
+    private @Nullable List<ConversationSearchResult> searchResults;
+    // Discards the pages loaded before the last reload
+    private int generation;
+
+    ConversationTableModel(@NotNull PageLoader pageLoader,
+                           @NotNull IntSupplier rowCounter,
+                           @NotNull Executor loadExecutor,
+                           @NotNull Executor edtExecutor) {
+        this.pageLoader = pageLoader;
+        this.rowCounter = rowCounter;
+        this.loadExecutor = loadExecutor;
+        this.edtExecutor = edtExecutor;
+    }
+
+    /**
+     * Count the conversations again and drop the loaded pages, e.g. after a conversation was added or removed.
+     */
+    public void reload() {
+        int reloadGeneration = ++generation;
+        pages.clear();
+        loadingPages.clear();
+        loadExecutor.execute(() -> {
+            int count;
+            try {
+                count = rowCounter.getAsInt();
+            } catch (RuntimeException e) {
+                log.warn("Failed to count the conversations", e);
+                return;
+            }
+            edtExecutor.execute(() -> {
+                if (reloadGeneration == generation) {
+                    rowCount = count;
+                    fireTableDataChanged();
+                }
+            });
+        });
+    }
+
+    /**
+     * @param results the search results to show, null to show the history again
+     */
+    public void showSearchResults(@Nullable List<ConversationSearchResult> results) {
+        if (results == null && searchResults == null) {
+            return;
+        }
+        searchResults = results;
+        fireTableDataChanged();
+    }
+
+    /**
+     * @param row the row
+     * @return the conversation, without its messages, or null while its page is loading
+     */
+    public @Nullable Conversation getConversationAt(int row) {
+        if (searchResults != null) {
+            return searchResults.get(row).conversation();
+        }
+        int page = row / PAGE_SIZE;
+        List<Conversation> conversations = pages.get(page);
+        if (conversations == null) {
+            requestPage(page);
+            return null;
+        }
+        int index = row % PAGE_SIZE;
+        return index < conversations.size() ? conversations.get(index) : null;
+    }
+
+    private void requestPage(int page) {
+        if (!loadingPages.add(page)) {
+            return;
+        }
+        int requestGeneration = generation;
+        loadExecutor.execute(() -> {
+            List<Conversation> conversations;
+            try {
+                conversations = pageLoader.load(page * PAGE_SIZE, PAGE_SIZE);
+            } catch (RuntimeException e) {
+                log.warn("Failed to load conversation history page {}", page, e);
+                conversations = null;
+            }
+            List<Conversation> loaded = conversations;
+            edtExecutor.execute(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loadingPages.remove(page);
+                if (loaded == null) {
+                    return;
+                }
+                pages.put(page, loaded);
+                int firstRow = page * PAGE_SIZE;
+                int lastRow = Math.min(firstRow + PAGE_SIZE, rowCount) - 1;
+                if (searchResults == null && lastRow >= firstRow) {
+                    fireTableRowsUpdated(firstRow, lastRow);
+                }
+            });
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return searchResults != null ? searchResults.size() : rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Conversation conversation = getConversationAt(row);
+        if (conversation == null) {
+            return column == 1 ? LOADING : null;
+        }
+
+        if (column == 0) {
+            // For button columns, create a defensive copy to ensure ID consistency
+            Conversation copy = new Conversation();
+            copy.setId(conversation.getId());
+            copy.setTitle(conversation.getTitle());
+            return copy;
+        }
+
+        return switch (column) {
+            case 1 -> searchResults != null ? searchResults.get(row) : conversation.getTitle();
+            case 2 -> formatTimeSince(conversation.getTimestamp());
+            default -> null;
+        };
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == 0; // Only delete buttons are editable
+    }
+
+    static @NotNull String formatTimeSince(String timestamp) {
+        try {
+            LocalDateTime messageTime = LocalDateTime.parse(timestamp);
+            LocalDateTime now = LocalDateTime.now();
+            Duration duration = Duration.between(messageTime, now);
+
+            long minutes = duration.toMinutes();
+            if (minutes < 1) {
+                return "Just now";
+            } else if (minutes < 60) {
+                return minutes + " minute" + (minutes != 1 ? "s" : "") + " ago";
+            } else {
+                long hours = duration.toHours();
+                if (hours < 24) {
+                    return hours + " hour" + (hours != 1 ? "s" : "") + " ago";
+                } else {
+                    long days = duration.toDays();
+                    return days + " day" + (days != 1 ? "s" : "") + " ago";
+                }
+            }
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.devoxx.genie.model.LanguageModel;
 import com.devoxx.genie.model.enumarations.ModelProvider;
 import com.devoxx.genie.model.mcp.MCPSettings;
 import com.devoxx.genie.service.DevoxxGenieSettingsService;
+import com.devoxx.genie.service.rag.store.VectorStoreType;
 import com.devoxx.genie.util.DefaultLLMSettingsUtil;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.PersistentStateComponent;
@@ -73,9 +74,14 @@ public final class DevoxxGenieStateService implements PersistentStateComponent<D
     private Boolean webSearchActivated = false;
 
     // Indexer
+    private String indexerVectorStore = VectorStoreType.CHROMA_DB.name();
     private Integer indexerPort = 8000;
     private Integer indexerMaxResults = 10;
     private Double indexerMinScore = 0.7;
+    private Integer indexerBatchSize = 64;
+    private Integer indexerConcurrency = 4;
+    private Boolean indexerIncrementalEnabled = true;
+    private Integer indexerUpdateDelayMs = 3000;
 
     // Git Diff features
     private Boolean useSimpleDiff = false;
@@ -149,6 +155,8 @@ public final class DevoxxGenieStateService implements PersistentStateComponent<D
 
     // Enable stream mode
     private Boolean streamMode = STREAM_MODE;
+    // Minimum time between two UI refreshes of a streamed response
+    private Integer streamingFlushIntervalMs = STREAMING_FLUSH_INTERVAL_MS;
 
     // LLM settings
     private Double temperature = TEMPERATURE;
@@ -156,8 +164,17 @@ public final class DevoxxGenieStateService implements PersistentStateComponent<D
 
     private Integer timeout = TIMEOUT;
     private Integer maxRetries = MAX_RETRIES;
+    // Prompts running at the same time against one provider, the others wait their turn
+    private Integer maxConcurrentPromptsPerProvider = MAX_CONCURRENT_PROMPTS_PER_PROVIDER;
+    // Run the blocking I/O on virtual threads when the runtime supports them, applied on restart
+    private Boolean useVirtualThreads = true;
     private Integer chatMemorySize = MAX_MEMORY;
+    // Bound the chat memory by tokens instead of messages, old exchanges are summarized
+    private Boolean useTokenBudgetMemory = false;
+    private Integer chatMemoryTokenBudget = CHAT_MEMORY_TOKEN_BUDGET;
     private Integer maxOutputTokens = MAX_OUTPUT_TOKENS;
+    // tiktoken vocabulary used to count the tokens of the local models, blank for the built-in approximation
+    private String localModelTokenizerPath = "";
 
     private String systemPrompt = SYSTEM_PROMPT;
     private String testPrompt = TEST_PROMPT;
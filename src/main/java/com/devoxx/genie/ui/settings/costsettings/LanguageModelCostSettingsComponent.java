@@ -1,5 +1,6 @@
 package com.devoxx.genie.ui.settings.costsettings;
 
+import com.devoxx.genie.model.enumarations.ModelProvider;
 import com.devoxx.genie.service.LLMModelRegistryService;
 import com.devoxx.genie.ui.settings.AbstractSettingsComponent;
 import com.intellij.ui.components.JBScrollPane;
@@ -97,6 +98,8 @@ public class LanguageModelCostSettingsComponent extends AbstractSettingsComponen
         tableModel.setRowCount(0);
         LLMModelRegistryService.getInstance()
             .getModels()
+            .stream()
+            .filter(model -> model.getProvider().getType() != ModelProvider.Type.LOCAL)
             .forEach(model -> tableModel.addRow(new Object[]{
                 model.getProvider().getName(),
                 model.getModelName(),
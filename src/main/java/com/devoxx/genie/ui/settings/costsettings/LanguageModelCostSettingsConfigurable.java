@@ -1,6 +1,7 @@
 package com.devoxx.genie.ui.settings.costsettings;
 
 import com.devoxx.genie.ui.topic.AppTopics;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.project.Project;
 import com.intellij.util.messages.MessageBus;
@@ -15,7 +16,8 @@ public class LanguageModelCostSettingsConfigurable implements Configurable {
     private final MessageBus messageBus;
 
     public LanguageModelCostSettingsConfigurable(@NotNull Project project) {
-        this.messageBus = project.getMessageBus();
+        // The LLM settings are application wide, notify all projects and the application services
+        this.messageBus = ApplicationManager.getApplication().getMessageBus();
     }
 
     @Nls(capitalization = Nls.Capitalization.Title)
@@ -2,6 +2,7 @@ package com.devoxx.genie.ui.settings.llm;
 
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.ui.topic.AppTopics;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.project.Project;
 import org.jetbrains.annotations.Nls;
@@ -172,6 +173,11 @@ public class LLMProvidersConfigurable implements Configurable {
 
         // Only notify the listener if an API key has changed, so we can refresh the LLM providers list in the UI
         if (isModified) {
+            // The cached chat model clients were built with the previous keys and endpoints
+            ApplicationManager.getApplication().getMessageBus()
+                    .syncPublisher(AppTopics.LLM_SETTINGS_CHANGED_TOPIC)
+                    .llmSettingsChanged();
+
             boolean hasKey = (!settings.getAnthropicKey().isBlank() && settings.isAnthropicEnabled()) ||
                     (!settings.getOpenAIKey().isBlank() && settings.isOpenAIEnabled()) ||
                     (!settings.getCustomOpenAIApiKey().isBlank() && settings.isCustomOpenAIApiKeyEnabled()) ||
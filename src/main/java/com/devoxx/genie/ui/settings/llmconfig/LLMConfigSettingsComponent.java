@@ -14,11 +14,17 @@ import java.awt.*;
 public class LLMConfigSettingsComponent extends AbstractSettingsComponent {
 
     private final JBIntSpinner chatMemorySizeField = new JBIntSpinner(new UINumericRange(stateService.getChatMemorySize(), 1, 500));
+    private final JCheckBox useTokenBudgetMemoryCheckBox = new JCheckBox("", stateService.getUseTokenBudgetMemory());
+    private final JBIntSpinner chatMemoryTokenBudgetField = new JBIntSpinner(new UINumericRange(stateService.getChatMemoryTokenBudget(), 1_000, 10_000_000));
     private final JSpinner temperatureField = new JSpinner(new SpinnerNumberModel(stateService.getTemperature().doubleValue(), 0.0d, 2.0d, 0.1d));
     private final JSpinner topPField = new JSpinner(new SpinnerNumberModel(stateService.getTopP().doubleValue(), 0.0d, 1.0d, 0.1d));
     private final JBIntSpinner maxOutputTokensField = new JBIntSpinner(new UINumericRange(stateService.getMaxOutputTokens(), 1, 1_000_000));
     private final JBIntSpinner timeoutField = new JBIntSpinner(new UINumericRange(stateService.getTimeout(), 1, Integer.MAX_VALUE));
     private final JBIntSpinner retryField = new JBIntSpinner(new UINumericRange(stateService.getMaxRetries(), 1, 5));
+    private final JBIntSpinner maxConcurrentPromptsField = new JBIntSpinner(new UINumericRange(stateService.getMaxConcurrentPromptsPerProvider(), 1, 32));
+    private final JCheckBox useVirtualThreadsCheckBox = new JCheckBox("", stateService.getUseVirtualThreads());
+    private final JTextField localModelTokenizerPathField = new JTextField(stateService.getLocalModelTokenizerPath());
+    private final JBIntSpinner streamingFlushIntervalField = new JBIntSpinner(new UINumericRange(stateService.getStreamingFlushIntervalMs(), 0, 500));
 
     private final JCheckBox showExecutionTimeCheckBox = new JCheckBox("", stateService.getShowExecutionTime());
 
@@ -44,6 +50,28 @@ public class LLMConfigSettingsComponent extends AbstractSettingsComponent {
         gbc.gridx = 1;
         panel.add(chatMemorySizeField, gbc);
 
+        gbc.gridy++;
+        gbc.gridx = 0;
+        var useTokenBudgetMemoryLabel = new JLabel("Limit Chat Memory by Tokens");
+        useTokenBudgetMemoryLabel.setToolTipText("""
+                <html>
+                <body>
+                Keep the chat memory within a token budget instead of a number of messages.<br>
+                Over budget, project context which was already answered is left out and the oldest<br>
+                exchanges are summarized by the selected model. Applies to new conversations.
+                </body>
+                </html>
+                """);
+        panel.add(useTokenBudgetMemoryLabel, gbc);
+        gbc.gridx = 1;
+        panel.add(useTokenBudgetMemoryCheckBox, gbc);
+
+        gbc.gridy++;
+        gbc.gridx = 0;
+        panel.add(new JLabel("Chat Memory Token Budget"), gbc);
+        gbc.gridx = 1;
+        panel.add(chatMemoryTokenBudgetField, gbc);
+
         gbc.gridy++;
         gbc.gridx = 0;
         var temperatureLabel = new JLabel("Temperature");
@@ -104,6 +132,53 @@ public class LLMConfigSettingsComponent extends AbstractSettingsComponent {
         gbc.gridx = 1;
         panel.add(retryField, gbc);
 
+        gbc.gridy++;
+        gbc.gridx = 0;
+        var maxConcurrentPromptsLabel = new JLabel("Concurrent Prompts per Provider");
+        maxConcurrentPromptsLabel.setToolTipText("Prompts of all open projects running at the same time against one provider, lower it when the provider rate limits you");
+        panel.add(maxConcurrentPromptsLabel, gbc);
+        gbc.gridx = 1;
+        panel.add(maxConcurrentPromptsField, gbc);
+
+        gbc.gridy++;
+        gbc.gridx = 0;
+        var useVirtualThreadsLabel = new JLabel("Use Virtual Threads (restart required)");
+        useVirtualThreadsLabel.setToolTipText("""
+                <html>
+                <body>
+                Run prompts, tool calls, web searches and other blocking I/O on virtual threads,<br>
+                so long running calls don't hold up the others. Requires a Java 21 runtime,<br>
+                older runtimes use a cached pool of platform threads.
+                </body>
+                </html>
+                """);
+        panel.add(useVirtualThreadsLabel, gbc);
+        gbc.gridx = 1;
+        panel.add(useVirtualThreadsCheckBox, gbc);
+
+        gbc.gridy++;
+        gbc.gridx = 0;
+        var localModelTokenizerPathLabel = new JLabel("Local Model Tokenizer File");
+        localModelTokenizerPathLabel.setToolTipText("""
+                <html>
+                <body>
+                Vocabulary in tiktoken format, like the tokenizer.model file of Llama 3 models,<br>
+                used to count the tokens of the local models. Leave empty to use the built-in approximation.
+                </body>
+                </html>
+                """);
+        panel.add(localModelTokenizerPathLabel, gbc);
+        gbc.gridx = 1;
+        panel.add(localModelTokenizerPathField, gbc);
+
+        gbc.gridy++;
+        gbc.gridx = 0;
+        var streamingFlushIntervalLabel = new JLabel("Streaming Refresh Interval (in ms)");
+        streamingFlushIntervalLabel.setToolTipText("Streamed tokens are grouped into at most one UI refresh per interval (16-50 ms recommended)");
+        panel.add(streamingFlushIntervalLabel, gbc);
+        gbc.gridx = 1;
+        panel.add(streamingFlushIntervalField, gbc);
+
         gbc.gridy++;
         gbc.gridx = 0;
         panel.add(new JLabel("Show details metrics (execution time, tokens, price)"), gbc);
@@ -1,7 +1,9 @@
 package com.devoxx.genie.ui.settings.llmconfig;
 
 import com.devoxx.genie.service.DevoxxGenieSettingsService;
+import com.devoxx.genie.service.TokenizerService;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.options.Configurable;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
@@ -53,8 +55,14 @@ public class LLMConfigSettingsConfigurable implements Configurable {
         isModified |= llmConfigSettingsComponent.getTopPField().getValue() != stateService.getTopP();
         isModified |= llmConfigSettingsComponent.getMaxOutputTokensField().getNumber() != stateService.getMaxOutputTokens();
         isModified |= llmConfigSettingsComponent.getChatMemorySizeField().getNumber() != stateService.getChatMemorySize();
+        isModified |= llmConfigSettingsComponent.getUseTokenBudgetMemoryCheckBox().isSelected() != stateService.getUseTokenBudgetMemory();
+        isModified |= llmConfigSettingsComponent.getChatMemoryTokenBudgetField().getNumber() != stateService.getChatMemoryTokenBudget();
         isModified |= llmConfigSettingsComponent.getTimeoutField().getNumber() != stateService.getTimeout();
         isModified |= llmConfigSettingsComponent.getRetryField().getNumber() != stateService.getMaxRetries();
+        isModified |= llmConfigSettingsComponent.getMaxConcurrentPromptsField().getNumber() != stateService.getMaxConcurrentPromptsPerProvider();
+        isModified |= llmConfigSettingsComponent.getUseVirtualThreadsCheckBox().isSelected() != stateService.getUseVirtualThreads();
+        isModified |= !llmConfigSettingsComponent.getLocalModelTokenizerPathField().getText().equals(stateService.getLocalModelTokenizerPath());
+        isModified |= llmConfigSettingsComponent.getStreamingFlushIntervalField().getNumber() != stateService.getStreamingFlushIntervalMs();
         isModified |= llmConfigSettingsComponent.getShowExecutionTimeCheckBox().isSelected() != stateService.getShowExecutionTime();
         return isModified;
     }
@@ -70,9 +78,21 @@ public class LLMConfigSettingsConfigurable implements Configurable {
         stateService.setTopP(((Double) llmConfigSettingsComponent.getTopPField().getValue()));
 
         stateService.setChatMemorySize(llmConfigSettingsComponent.getChatMemorySizeField().getNumber());
+        stateService.setUseTokenBudgetMemory(llmConfigSettingsComponent.getUseTokenBudgetMemoryCheckBox().isSelected());
+        stateService.setChatMemoryTokenBudget(llmConfigSettingsComponent.getChatMemoryTokenBudgetField().getNumber());
         stateService.setMaxOutputTokens(llmConfigSettingsComponent.getMaxOutputTokensField().getNumber());
         stateService.setTimeout(llmConfigSettingsComponent.getTimeoutField().getNumber());
         stateService.setMaxRetries(llmConfigSettingsComponent.getRetryField().getNumber());
+        stateService.setMaxConcurrentPromptsPerProvider(llmConfigSettingsComponent.getMaxConcurrentPromptsField().getNumber());
+        stateService.setUseVirtualThreads(llmConfigSettingsComponent.getUseVirtualThreadsCheckBox().isSelected());
+        stateService.setStreamingFlushIntervalMs(llmConfigSettingsComponent.getStreamingFlushIntervalField().getNumber());
+
+        String localModelTokenizerPath = llmConfigSettingsComponent.getLocalModelTokenizerPathField().getText().trim();
+        if (!localModelTokenizerPath.equals(stateService.getLocalModelTokenizerPath())) {
+            stateService.setLocalModelTokenizerPath(localModelTokenizerPath);
+            ApplicationManager.getApplication().executeOnPooledThread(() ->
+                    TokenizerService.getInstance().useLocalModelTokenizer(localModelTokenizerPath));
+        }
 
         stateService.setShowExecutionTime(llmConfigSettingsComponent.getShowExecutionTimeCheckBox().isSelected());
     }
@@ -89,8 +109,14 @@ public class LLMConfigSettingsConfigurable implements Configurable {
 
         llmConfigSettingsComponent.getMaxOutputTokensField().setNumber(stateService.getMaxOutputTokens());
         llmConfigSettingsComponent.getChatMemorySizeField().setNumber(stateService.getChatMemorySize());
+        llmConfigSettingsComponent.getUseTokenBudgetMemoryCheckBox().setSelected(stateService.getUseTokenBudgetMemory());
+        llmConfigSettingsComponent.getChatMemoryTokenBudgetField().setNumber(stateService.getChatMemoryTokenBudget());
         llmConfigSettingsComponent.getTimeoutField().setNumber(stateService.getTimeout());
         llmConfigSettingsComponent.getRetryField().setNumber(stateService.getMaxRetries());
+        llmConfigSettingsComponent.getMaxConcurrentPromptsField().setNumber(stateService.getMaxConcurrentPromptsPerProvider());
+        llmConfigSettingsComponent.getUseVirtualThreadsCheckBox().setSelected(stateService.getUseVirtualThreads());
+        llmConfigSettingsComponent.getLocalModelTokenizerPathField().setText(stateService.getLocalModelTokenizerPath());
+        llmConfigSettingsComponent.getStreamingFlushIntervalField().setNumber(stateService.getStreamingFlushIntervalMs());
 
         llmConfigSettingsComponent.getShowExecutionTimeCheckBox().setSelected(stateService.getShowExecutionTime());
     }
@@ -1,6 +1,7 @@
 package com.devoxx.genie.ui.settings.mcp;
 
 import com.devoxx.genie.model.mcp.MCPServer;
+import com.devoxx.genie.service.mcp.MCPServerSupervisor;
 import com.devoxx.genie.service.mcp.MCPService;
 import com.devoxx.genie.ui.settings.AbstractSettingsComponent;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
@@ -22,6 +23,7 @@ import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
+import java.awt.event.MouseEvent;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,7 +41,16 @@ public class MCPSettingsComponent extends AbstractSettingsComponent {
     public MCPSettingsComponent() {
 
         tableModel = new MCPServerTableModel();
-        mcpTable = new JBTable(tableModel);
+        mcpTable = new JBTable(tableModel) {
+            @Override
+            public String getToolTipText(@NotNull MouseEvent event) {
+                // Show the startup and tool call latency of the running servers
+                MCPServer server = tableModel.getMcpServerAt(rowAtPoint(event.getPoint()));
+                MCPServerSupervisor.ServerStatus status = server == null ? null :
+                        MCPServerSupervisor.getInstance().getStatus(server.getName());
+                return status == null ? super.getToolTipText(event) : status.describe();
+            }
+        };
         
         // Initialize checkboxes
         enableMcpCheckbox = new JCheckBox("Enable MCP Support");
@@ -1,6 +1,7 @@
 package com.devoxx.genie.ui.settings.mcp;
 
 import com.devoxx.genie.ui.topic.AppTopics;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.project.Project;
 import com.intellij.util.messages.MessageBus;
@@ -19,7 +20,8 @@ public class MCPSettingsConfigurable implements Configurable {
     private MCPSettingsComponent mcpSettingsComponent;
 
     public MCPSettingsConfigurable(@NotNull Project project) {
-        this.messageBus = project.getMessageBus();
+        // The application bus also reaches the project listeners and the MCP execution service
+        this.messageBus = ApplicationManager.getApplication().getMessageBus();
     }
 
     @Nls(capitalization = Nls.Capitalization.Title)
@@ -2,6 +2,7 @@ package com.devoxx.genie.ui.settings.rag;
 
 import com.devoxx.genie.service.rag.ProjectIndexerService;
 import com.devoxx.genie.service.rag.RagValidatorService;
+import com.devoxx.genie.service.rag.store.VectorStoreType;
 import com.devoxx.genie.service.rag.validator.ValidationActionType;
 import com.devoxx.genie.service.rag.validator.ValidationResult;
 import com.devoxx.genie.service.rag.validator.ValidatorStatus;
@@ -12,6 +13,7 @@ import com.devoxx.genie.ui.util.NotificationUtil;
 import com.intellij.ide.ui.UINumericRange;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.ui.JBIntSpinner;
 import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
@@ -41,12 +43,27 @@ public class RAGSettingsComponent extends AbstractSettingsComponent {
     @Getter
     private final JBCheckBox enableIndexerCheckBox = new JBCheckBox("Enable feature", stateService.getRagEnabled());
 
+    @Getter
+    private final ComboBox<VectorStoreType> vectorStoreComboBox = new ComboBox<>(VectorStoreType.values());
+
     @Getter
     private final JBIntSpinner portIndexer = new JBIntSpinner(new UINumericRange(stateService.getIndexerPort(), 8000, 9000));
 
     @Getter
     private final JBIntSpinner maxResultsSpinner = new JBIntSpinner(new UINumericRange(stateService.getIndexerMaxResults(), 1, 50));
 
+    @Getter
+    private final JBIntSpinner batchSizeSpinner = new JBIntSpinner(new UINumericRange(stateService.getIndexerBatchSize(), 1, 512));
+
+    @Getter
+    private final JBIntSpinner concurrencySpinner = new JBIntSpinner(new UINumericRange(stateService.getIndexerConcurrency(), 1, 16));
+
+    @Getter
+    private final JBCheckBox incrementalIndexingCheckBox = new JBCheckBox("Update the index when files change", stateService.getIndexerIncrementalEnabled());
+
+    @Getter
+    private final JBIntSpinner updateDelaySpinner = new JBIntSpinner(new UINumericRange(stateService.getIndexerUpdateDelayMs(), 500, 60000));
+
     @Getter
     private final JSpinner minScoreField = new JSpinner(new SpinnerNumberModel(stateService.getIndexerMinScore().doubleValue(), 0.0d, 1.0d, 0.01d));
 
@@ -72,6 +89,19 @@ public class RAGSettingsComponent extends AbstractSettingsComponent {
     }
 
     private void initializeComponents() {
+        vectorStoreComboBox.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value,
+                                                          int index, boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                if (value instanceof VectorStoreType vectorStoreType) {
+                    setText(vectorStoreType.getDisplayName());
+                }
+                return this;
+            }
+        });
+        vectorStoreComboBox.setSelectedItem(VectorStoreType.fromName(stateService.getIndexerVectorStore()));
+
         startIndexButton = new JButton("Start Indexing");
         startIndexButton.setVisible(false);
         String[] columnNames = {"Collection", "Indexed Segments", "Actions"};
@@ -173,11 +203,19 @@ public class RAGSettingsComponent extends AbstractSettingsComponent {
 
     private void addRAGSettingsSection(JPanel panel, GridBagConstraints gbc) {
         addSection(panel, gbc, RAG_SETTINGS_SECTION_TITLE);
+        addSettingRow(panel, gbc, "Vector store", vectorStoreComboBox);
+        addSettingRow(panel, gbc, "The embedded vector store runs inside the IDE and doesn't need Docker, apply the settings to update the required services.");
         addSettingRow(panel, gbc, "Chroma DB port", portIndexer);
         addSettingRow(panel, gbc, "Minimum score", minScoreField);
         addSettingRow(panel, gbc, "Set the minimum score threshold for semantic search results. A lower value will include more results.");
         addSettingRow(panel, gbc, "Maximum results", maxResultsSpinner);
         addSettingRow(panel, gbc, "How many results do you want to include in prompt window context?");
+        addSettingRow(panel, gbc, "Embedding batch size", batchSizeSpinner);
+        addSettingRow(panel, gbc, "Parallel embedding requests", concurrencySpinner);
+        addSettingRow(panel, gbc, "Segments are embedded and stored in batches, larger batches mean fewer round-trips to Ollama and ChromaDB.");
+        addSettingRow(panel, gbc, "Incremental indexing", incrementalIndexingCheckBox);
+        addSettingRow(panel, gbc, "Update delay (ms)", updateDelaySpinner);
+        addSettingRow(panel, gbc, "Changed files of an indexed project are indexed again in the background, once no file changed for the update delay.");
     }
 
     private void addIndexedProjectsSection(JPanel panel, GridBagConstraints gbc) {
@@ -1,5 +1,6 @@
 package com.devoxx.genie.ui.settings.rag;
 
+import com.devoxx.genie.service.rag.store.VectorStoreType;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.ui.topic.AppTopics;
 import com.intellij.openapi.options.Configurable;
@@ -51,9 +52,14 @@ public class RAGSettingsConfigurable implements Configurable {
         DevoxxGenieStateService stateService = DevoxxGenieStateService.getInstance();
         boolean isModified = false;
         isModified |= ragSettingsComponent.getEnableIndexerCheckBox().isSelected() != stateService.getRagEnabled();
+        isModified |= getSelectedVectorStore() != VectorStoreType.fromName(stateService.getIndexerVectorStore());
         isModified |= ragSettingsComponent.getPortIndexer().getNumber() != stateService.getIndexerPort();
         isModified |= ragSettingsComponent.getMaxResultsSpinner().getNumber() != stateService.getIndexerMaxResults();
         isModified |= ragSettingsComponent.getMinScoreField().getValue() != stateService.getIndexerMinScore();
+        isModified |= ragSettingsComponent.getBatchSizeSpinner().getNumber() != stateService.getIndexerBatchSize();
+        isModified |= ragSettingsComponent.getConcurrencySpinner().getNumber() != stateService.getIndexerConcurrency();
+        isModified |= ragSettingsComponent.getIncrementalIndexingCheckBox().isSelected() != stateService.getIndexerIncrementalEnabled();
+        isModified |= ragSettingsComponent.getUpdateDelaySpinner().getNumber() != stateService.getIndexerUpdateDelayMs();
 
         return isModified;
     }
@@ -69,15 +75,30 @@ public class RAGSettingsConfigurable implements Configurable {
         boolean newValue = ragSettingsComponent.getEnableIndexerCheckBox().isSelected();
 
         stateService.setRagEnabled(ragSettingsComponent.getEnableIndexerCheckBox().isSelected());
+        boolean vectorStoreChanged = getSelectedVectorStore() != VectorStoreType.fromName(stateService.getIndexerVectorStore());
+        stateService.setIndexerVectorStore(getSelectedVectorStore().name());
         stateService.setIndexerPort(ragSettingsComponent.getPortIndexer().getNumber());
         stateService.setIndexerMinScore((Double) ragSettingsComponent.getMinScoreField().getValue());
         stateService.setIndexerMaxResults(ragSettingsComponent.getMaxResultsSpinner().getNumber());
+        stateService.setIndexerBatchSize(ragSettingsComponent.getBatchSizeSpinner().getNumber());
+        stateService.setIndexerConcurrency(ragSettingsComponent.getConcurrencySpinner().getNumber());
+        stateService.setIndexerIncrementalEnabled(ragSettingsComponent.getIncrementalIndexingCheckBox().isSelected());
+        stateService.setIndexerUpdateDelayMs(ragSettingsComponent.getUpdateDelaySpinner().getNumber());
 
         if (oldValue != newValue) {
             project.getMessageBus()
                     .syncPublisher(AppTopics.RAG_STATE_TOPIC)
                     .onRAGStateChanged(newValue);
         }
+
+        if (vectorStoreChanged) {
+            // Other services are required and other collections are listed
+            ragSettingsComponent.updateValidationStatus();
+        }
+    }
+
+    private VectorStoreType getSelectedVectorStore() {
+        return (VectorStoreType) ragSettingsComponent.getVectorStoreComboBox().getSelectedItem();
     }
 
     /**
@@ -87,8 +108,13 @@ public class RAGSettingsConfigurable implements Configurable {
     public void reset() {
         DevoxxGenieStateService stateService = DevoxxGenieStateService.getInstance();
         ragSettingsComponent.getEnableIndexerCheckBox().setSelected(stateService.getRagEnabled());
+        ragSettingsComponent.getVectorStoreComboBox().setSelectedItem(VectorStoreType.fromName(stateService.getIndexerVectorStore()));
         ragSettingsComponent.getPortIndexer().setNumber(stateService.getIndexerPort());
         ragSettingsComponent.getMinScoreField().setValue(stateService.getIndexerMinScore());
         ragSettingsComponent.getMaxResultsSpinner().setNumber(stateService.getIndexerMaxResults());
+        ragSettingsComponent.getBatchSizeSpinner().setNumber(stateService.getIndexerBatchSize());
+        ragSettingsComponent.getConcurrencySpinner().setNumber(stateService.getIndexerConcurrency());
+        ragSettingsComponent.getIncrementalIndexingCheckBox().setSelected(stateService.getIndexerIncrementalEnabled());
+        ragSettingsComponent.getUpdateDelaySpinner().setNumber(stateService.getIndexerUpdateDelayMs());
     }
 }
@@ -1,8 +1,7 @@
 package com.devoxx.genie.ui.settings.rag.table;
 
-import com.devoxx.genie.service.chromadb.ChromaDBManager;
-import com.devoxx.genie.service.chromadb.ChromaDockerService;
-import com.devoxx.genie.service.chromadb.model.ChromaCollection;
+import com.devoxx.genie.service.rag.FileIndexManifest;
+import com.devoxx.genie.service.rag.store.VectorStoreBackend;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.ui.util.NotificationUtil;
 import com.intellij.openapi.application.ApplicationManager;
@@ -14,7 +13,7 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.IOException;
-import java.util.List;
+import java.util.Map;
 
 public class ButtonEditor extends DefaultCellEditor {
 
@@ -25,7 +24,6 @@ public class ButtonEditor extends DefaultCellEditor {
     private final JBTable collectionsTable;
     private final DefaultTableModel tableModel;
     private final transient Project project;
-    private final transient ChromaDockerService dockerService;
 
     public ButtonEditor(Project project,
                              JBTable collectionsTable,
@@ -36,8 +34,6 @@ public class ButtonEditor extends DefaultCellEditor {
         this.collectionsTable = collectionsTable;
         this.tableModel = tableModel;
 
-        this.dockerService = ApplicationManager.getApplication().getService(ChromaDockerService.class);
-
         button = new JButton();
         button.addActionListener(e -> {
             isPushed = true;
@@ -82,11 +78,11 @@ public class ButtonEditor extends DefaultCellEditor {
 
                 String collectionId = (String) tableModel.getValueAt(row, 0);
                 if (collectionId != null && confirmDeletion(collectionId)) {
-                    // Delete collection first
-                    ChromaDBManager.getInstance(project).deleteCollection(collectionId);
+                    // Delete the collection and its data from the vector store
+                    VectorStoreBackend.getInstance().deleteCollection(project, collectionId);
 
-                    // Delete the associated volume data
-                    dockerService.deleteCollectionData(project, collectionId);
+                    // Forget the indexed files of the collection
+                    FileIndexManifest.getInstance().removeCollection(collectionId);
 
                     // Then reload table data
                     safeLoadCollections();
@@ -119,26 +115,14 @@ public class ButtonEditor extends DefaultCellEditor {
                 }
 
                 // Load collections
-                List<ChromaCollection> collections = ChromaDBManager.getInstance(project).listCollections();
+                Map<String, Integer> collections = VectorStoreBackend.getInstance().listCollections(project);
 
                 // Add rows safely
-                for (ChromaCollection collection : collections) {
-                    try {
-                        int totalDocs = ChromaDBManager.getInstance(project).countDocuments(collection.id());
-                        tableModel.addRow(new Object[]{
-                                collection.name(),
-                                totalDocs,
-                                DELETE_LABEL
-                        });
-                    } catch (IOException e) {
-                        // If we can't count documents for a specific collection, still add it with 0 count
-                        tableModel.addRow(new Object[]{
-                                collection.name(),
-                                0,
-                                DELETE_LABEL
-                        });
-                    }
-                }
+                collections.forEach((name, totalDocs) -> tableModel.addRow(new Object[]{
+                        name,
+                        totalDocs,
+                        DELETE_LABEL
+                }));
 
                 // Notify table of data change
                 tableModel.fireTableDataChanged();
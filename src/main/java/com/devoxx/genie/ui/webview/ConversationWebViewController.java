@@ -6,9 +6,15 @@ import com.devoxx.genie.service.mcp.MCPLoggingMessage;
 import com.devoxx.genie.ui.util.ThemeChangeNotifier;
 import com.devoxx.genie.ui.webview.handler.*;
 import com.devoxx.genie.ui.webview.template.ConversationTemplate;
-import com.devoxx.genie.util.ThreadUtils;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.ui.jcef.JBCefBrowser;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +24,7 @@ import org.cef.handler.CefLoadHandlerAdapter;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
+import java.awt.datatransfer.StringSelection;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -28,8 +35,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * new content to the conversation without creating new WebView instances.
  */
 @Slf4j
-public class ConversationWebViewController implements ThemeChangeNotifier, MCPLoggingMessage {
+public class ConversationWebViewController implements ThemeChangeNotifier, MCPLoggingMessage, Disposable {
 
+    private static final String MCP_LOGS_TOOL_WINDOW_ID = "DevoxxGenieMCPLogs";
+
+    private final Project project;
     @Getter
     private final JBCefBrowser browser;
     private final AtomicBoolean initialized = new AtomicBoolean(false);
@@ -42,11 +52,15 @@ public class ConversationWebViewController implements ThemeChangeNotifier, MCPLo
     private final WebViewFileReferenceManager fileReferenceManager;
     private final WebViewMCPLogHandler mcpLogHandler;
     private final WebViewBrowserInitializer browserInitializer;
+    private final WebViewJavaBridge javaBridge;
 
     /**
      * Creates a new ConversationWebViewController with a fresh browser.
+     *
+     * @param project The project the conversation belongs to
      */
-    public ConversationWebViewController() {
+    public ConversationWebViewController(@NotNull Project project) {
+        this.project = project;
         WebServer webServer = WebServer.getInstance();
 
         // Ensure web server is running
@@ -79,17 +93,18 @@ public class ConversationWebViewController implements ThemeChangeNotifier, MCPLo
         mcpLogHandler = new WebViewMCPLogHandler(jsExecutor);
         browserInitializer = new WebViewBrowserInitializer(initialized, jsExecutor);
         themeManager = new WebViewThemeManager(browser, webServer, jsExecutor, this::showWelcomeContent);
+        themeManager.setPageResourceId(resourceId);
 
-        // Setup JavaScript bridge to handle file opening
+        // Setup JavaScript bridge to handle file opening, copy and MCP log actions
+        javaBridge = new WebViewJavaBridge(browser);
+        Disposer.register(this, javaBridge);
         setupJavaScriptBridge();
-        
-        // Setup file opening polling mechanism
-        setupFileOpeningPolling();
 
         // Add load handler to detect when page is fully loaded
         browser.getJBCefClient().addLoadHandler(new CefLoadHandlerAdapter() {
             @Override
             public void onLoadEnd(CefBrowser cefBrowser, CefFrame frame, int httpStatusCode) {
+                cefBrowser.executeJavaScript(javaBridge.createBridgeScript(), cefBrowser.getURL(), 0);
                 jsExecutor.setLoaded(true);
                 initialized.set(true);
                 log.info("ConversationWebView loaded with status: " + httpStatusCode);
@@ -98,85 +113,32 @@ public class ConversationWebViewController implements ThemeChangeNotifier, MCPLo
     }
 
     /**
-     * Setup JavaScript bridge to handle file opening.
+     * Register the actions the page can send through the JavaScript bridge.
      */
     private void setupJavaScriptBridge() {
-        // Use a custom handler in JS to communicate with Java
-        browser.getCefBrowser().executeJavaScript(
-                "window.openFileFromJava = function(path) {" +
-                        "  if (window.java_fileOpened) {" +
-                        "    window.java_fileOpened(path);" +
-                        "  }" +
-                        "}",
-                browser.getCefBrowser().getURL(), 0
-        );
-
-        // Set up a handler to open files when clicked and override the fileOpened function
-        jsExecutor.executeJavaScript(
-                "window.java_fileOpened = function(filePath) {" +
-                        "  window.fileToOpen = filePath;" +
-                        "  window.lastFoundPath = filePath;" +
-                        "};"
-        );
-
-        // Define the openFile function to handle file opening when a file is clicked
-        browser.getCefBrowser().executeJavaScript(
-                "window.openFile = function(elementId) { " +
-                        "  const element = document.getElementById(elementId); " +
-                        "  if (element && element.dataset.filePath) { " +
-                        "    openFileFromJava(element.dataset.filePath);" +
-                        "  }" +
-                        "};",
-                browser.getCefBrowser().getURL(), 0
-        );
-    }
-
-    /**
-     * Setup polling mechanism to check for file open requests.
-     */
-    private void setupFileOpeningPolling() {
-        ApplicationManager.getApplication().executeOnPooledThread(() -> {
-            while (true) {
-                try {
-                    ThreadUtils.sleep(50);
-
-                    // Create a mechanism to store the file path in a global variable
-                    // that we can poll for
-                    String checkJs =
-                            "var path = null;" +
-                                    "if (window.fileToOpen) {" +
-                                    "  path = window.fileToOpen;" +
-                                    "  window.fileToOpen = null;" +
-                                    "}" +
-                                    "if (path) { console.log('Found file to open: ' + path); }" +
-                                    "return path;";
-
-                    // Execute the JavaScript to check for a file to open and capture the result as a string
-                    browser.getCefBrowser().executeJavaScript(
-                            "(() => { " + checkJs + " })();",
-                            browser.getCefBrowser().getURL(),
-                            0
-                    );
-
-                    // After executing, check if there's a window.lastFoundPath that might have been set
-                    browser.getCefBrowser().executeJavaScript(
-                            "if (window.lastFoundPath) { " +
-                                    "  const path = window.lastFoundPath; " +
-                                    "  window.lastFoundPath = null; " +
-                                    "  window.java_fileOpened(path); " +
-                                    "}",
-                            browser.getCefBrowser().getURL(),
-                            0
-                    );
-                } catch (Exception e) {
-                    Thread.currentThread().interrupt();
-                    log.error("Interrupted while polling for file open requests", e);
-                    break;
-                }
+        javaBridge.addHandler(WebViewJavaBridge.OPEN_FILE, this::openFile);
+        javaBridge.addHandler(WebViewJavaBridge.COPY, text ->
+                CopyPasteManager.getInstance().setContents(new StringSelection(text)));
+        javaBridge.addHandler(WebViewJavaBridge.OPEN_MCP_LOGS, ignored -> {
+            ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(MCP_LOGS_TOOL_WINDOW_ID);
+            if (toolWindow != null) {
+                toolWindow.show();
             }
         });
     }
 
+    private void openFile(@NotNull String path) {
+        if (project.isDisposed()) {
+            return;
+        }
+        VirtualFile file = LocalFileSystem.getInstance().findFileByPath(path);
+        if (file != null) {
+            FileEditorManager.getInstance(project).openFile(file, true);
+        } else {
+            log.warn("Cannot open file {}, it no longer exists", path);
+        }
+    }
+
     /**
      * Check if the browser is fully initialized and ready for use
      */
@@ -226,6 +188,25 @@ public class ConversationWebViewController implements ThemeChangeNotifier, MCPLo
     public void updateAiMessageContent(ChatMessageContext chatMessageContext) {
         aiMessageUpdater.updateAiMessageContent(chatMessageContext);
     }
+
+    /**
+     * Appends a streamed token to the AI response, re-rendering only the trailing markdown block.
+     *
+     * @param chatMessageContext The chat message context
+     * @param delta The newly streamed text
+     */
+    public void appendAiMessageDelta(ChatMessageContext chatMessageContext, String delta) {
+        aiMessageUpdater.appendAiMessageDelta(chatMessageContext, delta);
+    }
+
+    /**
+     * Completes a streamed AI response, freezing the remaining content.
+     *
+     * @param chatMessageContext The chat message context
+     */
+    public void finishAiMessageStream(ChatMessageContext chatMessageContext) {
+        aiMessageUpdater.finishAiMessageStream(chatMessageContext);
+    }
     
     /**
      * Execute JavaScript in the browser.
@@ -293,4 +274,15 @@ public class ConversationWebViewController implements ThemeChangeNotifier, MCPLo
     public void addFileReferences(ChatMessageContext chatMessageContext, List<VirtualFile> files) {
         fileReferenceManager.addFileReferences(chatMessageContext, files);
     }
-}
\ No newline at end of file
+
+    /**
+     * Release the JavaScript bridge, the generated page and the browser.
+     */
+    @Override
+    public void dispose() {
+        initialized.set(false);
+        jsExecutor.setLoaded(false);
+        themeManager.dispose();
+        Disposer.dispose(browser);
+    }
+}
@@ -9,12 +9,22 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.*;
 import io.netty.util.CharsetUtil;
+import io.netty.util.IllegalReferenceCountException;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
 
 import static com.devoxx.genie.ui.webview.template.ResourceLoader.loadResource;
 
@@ -25,7 +35,10 @@ public class WebServer {
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
     private Channel serverChannel;
-    private final Map<String, String> resources = new ConcurrentHashMap<>();
+    // Static assets and scripts, kept for the lifetime of the server
+    private final Map<String, Resource> resources = new ConcurrentHashMap<>();
+    // Generated pages in access order, guarded by itself
+    private final LinkedHashMap<String, Resource> dynamicResources = new LinkedHashMap<>(16, 0.75f, true);
     private final Map<String, String> scripts = new ConcurrentHashMap<>();
     public static final String PRISM_CSS_RESOURCE = "/prism.css";
     public static final String PRISM_JS_RESOURCE = "/prism.js";
@@ -34,6 +47,12 @@ public class WebServer {
     public static final String MCP_LOG_HANDLER_JS_RESOURCE = "/mcpLogHandler.js";
     public static final String BASE_HTML_RESOURCE = "/base.html";
 
+    static final int MAX_DYNAMIC_RESOURCES = 16;
+    static final long DYNAMIC_RESOURCE_TTL_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int GZIP_MIN_SIZE = 1024;
+    private static final String STATIC_CACHE_CONTROL = "public, max-age=86400";
+    private static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+
     private WebServer() {
         initializeEmbeddedResources();
     }
@@ -102,13 +121,82 @@ public class WebServer {
         return "http://localhost:" + port;
     }
 
+    /**
+     * Register a generated page. Pages are only needed while a browser loads them, the most recent
+     * ones are kept for reloads and the others are evicted.
+     *
+     * @param content the page content
+     * @return the resource id, release it with {@link #removeDynamicResource(String)} when no longer used
+     */
     public String addDynamicResource(@NotNull String content) {
         String resourceId = "/dynamic/" + System.currentTimeMillis() + "-" + ThreadLocalRandom.current().nextInt(1000, 9999);
-        log.info("Adding dynamic resource: {} - content length: {}", resourceId, content.length());
-        resources.put(resourceId, content);
+        log.debug("Adding dynamic resource: {} - content length: {}", resourceId, content.length());
+        Resource resource = Resource.create(content, "text/html; charset=UTF-8", REVALIDATE_CACHE_CONTROL, false);
+        synchronized (dynamicResources) {
+            Resource previous = dynamicResources.put(resourceId, resource);
+            if (previous != null) {
+                previous.release();
+            }
+            evictDynamicResources(System.currentTimeMillis());
+        }
         return resourceId;
     }
 
+    /**
+     * Release a page registered with {@link #addDynamicResource(String)}.
+     *
+     * @param resourceId the resource id
+     */
+    public void removeDynamicResource(@Nullable String resourceId) {
+        if (resourceId == null) {
+            return;
+        }
+        Resource resource;
+        synchronized (dynamicResources) {
+            resource = dynamicResources.remove(resourceId);
+        }
+        if (resource != null) {
+            resource.release();
+        }
+    }
+
+    int getDynamicResourceCount() {
+        synchronized (dynamicResources) {
+            return dynamicResources.size();
+        }
+    }
+
+    // Called with the dynamicResources lock held
+    private void evictDynamicResources(long now) {
+        Iterator<Resource> iterator = dynamicResources.values().iterator();
+        int size = dynamicResources.size();
+        while (iterator.hasNext()) {
+            Resource resource = iterator.next();
+            // Least recently used first
+            if (size > MAX_DYNAMIC_RESOURCES || now - resource.lastAccess > DYNAMIC_RESOURCE_TTL_MS) {
+                iterator.remove();
+                resource.release();
+                size--;
+            }
+        }
+    }
+
+    private @Nullable Resource getResource(@NotNull String uri) {
+        Resource resource = resources.get(uri);
+        if (resource != null) {
+            return resource;
+        }
+        synchronized (dynamicResources) {
+            long now = System.currentTimeMillis();
+            evictDynamicResources(now);
+            resource = dynamicResources.get(uri);
+            if (resource != null) {
+                resource.lastAccess = now;
+            }
+            return resource;
+        }
+    }
+
     public String getResourceUrl(String resourcePath) {
         return getServerUrl() + resourcePath;
     }
@@ -121,8 +209,9 @@ public class WebServer {
      */
     public void addDynamicScript(@NotNull String scriptId, @NotNull String content) {
         String resourcePath = "/scripts/" + scriptId + ".js";
-        log.info("Adding dynamic script: {}, content length: {}", resourcePath, content.length());
-        resources.put(resourcePath, content);
+        log.debug("Adding dynamic script: {}, content length: {}", resourcePath, content.length());
+        // The script is replaced under the same URL, browsers must revalidate it
+        putResource(resourcePath, Resource.create(content, getContentType(resourcePath), REVALIDATE_CACHE_CONTROL, false));
         scripts.put(scriptId, resourcePath);
     }
     
@@ -155,7 +244,7 @@ public class WebServer {
                 .replace("${baseCssUrl}", getBaseCssUrl())
                 .replace("${prismJsUrl}", getPrismJsUrl())
                 .replace("${baseJsUrl}", getBaseJsUrl());
-        resources.put(BASE_HTML_RESOURCE, baseHTML);
+        putResource(BASE_HTML_RESOURCE, Resource.create(baseHTML, getContentType(BASE_HTML_RESOURCE), REVALIDATE_CACHE_CONTROL, true));
         
         // Add static icon resources
         addStaticResource("/icons/copy.svg", "icons/copy.svg");
@@ -164,45 +253,155 @@ public class WebServer {
     
     /**
      * Add a static resource from the resources directory to be served by the web server.
+     * The content is encoded and compressed once, and can be cached by the browser.
      *
      * @param uriPath the URI path to serve the resource at
      * @param resourcePath the path to the resource in the resources directory
      */
     public void addStaticResource(String uriPath, String resourcePath) {
+        Resource resource = loadStaticResource(uriPath, resourcePath);
+        if (resource != null) {
+            putResource(uriPath, resource);
+            log.debug("Added static resource: {} from {}", uriPath, resourcePath);
+        }
+    }
+
+    private @Nullable Resource loadStaticResource(@NotNull String uriPath, @NotNull String resourcePath) {
         try {
             String content = loadResource(resourcePath);
             if (!content.isEmpty()) {
-                resources.put(uriPath, content);
-                log.info("Added static resource: {} from {}", uriPath, resourcePath);
-            } else {
-                log.warn("Failed to load static resource: {}", resourcePath);
+                return Resource.create(content, getContentType(uriPath), STATIC_CACHE_CONTROL, true);
             }
+            log.warn("Failed to load static resource: {}", resourcePath);
         } catch (Exception e) {
             log.error("Error loading static resource: " + resourcePath, e);
         }
+        return null;
+    }
+
+    private void putResource(@NotNull String uriPath, @NotNull Resource resource) {
+        Resource previous = resources.put(uriPath, resource);
+        if (previous != null) {
+            previous.release();
+        }
+    }
+
+    private @NotNull String getStaticResourceUrl(@NotNull String uriPath, @NotNull String resourcePath) {
+        if (!resources.containsKey(uriPath)) {
+            addStaticResource(uriPath, resourcePath);
+        }
+        return getServerUrl() + uriPath;
     }
 
     public String getPrismCssUrl() {
-        resources.put(PRISM_CSS_RESOURCE, loadResource("webview/prism/prism.css"));
-        return getServerUrl() + PRISM_CSS_RESOURCE;
+        return getStaticResourceUrl(PRISM_CSS_RESOURCE, "webview/prism/prism.css");
     }
 
     public String getPrismJsUrl() {
-        resources.put(PRISM_JS_RESOURCE, loadResource("webview/prism/prism.js"));
-        return getServerUrl() + PRISM_JS_RESOURCE;
+        return getStaticResourceUrl(PRISM_JS_RESOURCE, "webview/prism/prism.js");
     }
     
     public String getBaseCssUrl() {
-        resources.put(BASE_CSS_RESOURCE, loadResource("webview/css/base.css"));
-        return getServerUrl() + BASE_CSS_RESOURCE;
+        return getStaticResourceUrl(BASE_CSS_RESOURCE, "webview/css/base.css");
     }
 
     public String getBaseJsUrl() {
-        resources.put(BASE_JS_RESOURCE, loadResource("webview/js/base.js"));
-        return getServerUrl() + BASE_JS_RESOURCE;
+        return getStaticResourceUrl(BASE_JS_RESOURCE, "webview/js/base.js");
+    }
+
+    private static @NotNull String getContentType(@NotNull String uri) {
+        if (uri.endsWith(".js")) {
+            return "application/javascript; charset=UTF-8";
+        } else if (uri.endsWith(".css")) {
+            return "text/css; charset=UTF-8";
+        } else if (uri.endsWith(".html")) {
+            return "text/html; charset=UTF-8";
+        } else if (uri.endsWith(".svg")) {
+            return "image/svg+xml";
+        } else {
+            return "text/plain; charset=UTF-8";
+        }
+    }
+
+    /**
+     * A resource encoded once in a direct buffer, optionally with a gzip compressed copy.
+     * Responses use retained duplicates of the buffers, so a resource can be released while it is served.
+     */
+    private static final class Resource {
+
+        private final ByteBuf content;
+        private final @Nullable ByteBuf gzipContent;
+        private final String contentType;
+        private final String etag;
+        private final String cacheControl;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Resource(@NotNull ByteBuf content,
+                         @Nullable ByteBuf gzipContent,
+                         @NotNull String contentType,
+                         @NotNull String etag,
+                         @NotNull String cacheControl) {
+            this.content = content;
+            this.gzipContent = gzipContent;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.cacheControl = cacheControl;
+        }
+
+        static @NotNull Resource create(@NotNull String content,
+                                        @NotNull String contentType,
+                                        @NotNull String cacheControl,
+                                        boolean compress) {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            String etag = Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(bytes.length);
+
+            ByteBuf gzipContent = null;
+            if (compress && bytes.length >= GZIP_MIN_SIZE) {
+                byte[] gzipBytes = gzip(bytes);
+                if (gzipBytes != null && gzipBytes.length < bytes.length) {
+                    gzipContent = toDirectBuffer(gzipBytes);
+                }
+            }
+            return new Resource(toDirectBuffer(bytes), gzipContent, contentType, etag, cacheControl);
+        }
+
+        boolean hasGzipContent() {
+            return gzipContent != null;
+        }
+
+        @NotNull String etag(boolean gzip) {
+            return "\"" + etag + (gzip ? "-gzip" : "") + "\"";
+        }
+
+        @NotNull ByteBuf retainedContent(boolean gzip) {
+            return (gzip && gzipContent != null ? gzipContent : content).retainedDuplicate();
+        }
+
+        void release() {
+            content.release();
+            if (gzipContent != null) {
+                gzipContent.release();
+            }
+        }
+
+        private static @NotNull ByteBuf toDirectBuffer(byte @NotNull [] bytes) {
+            return Unpooled.directBuffer(bytes.length).writeBytes(bytes);
+        }
+
+        private static byte @Nullable [] gzip(byte @NotNull [] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                return null;
+            }
+            return out.toByteArray();
+        }
     }
 
-    private class WebServerHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+    class WebServerHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
         @Override
         protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
             String uri = request.uri();
@@ -212,52 +411,68 @@ public class WebServer {
                 uri = uri.substring(0, uri.indexOf("?"));
             }
 
-            log.info("Handling request for: " + uri);
-            
-            if (resources.containsKey(uri)) {
-                String content = resources.get(uri);
-                ByteBuf buffer = Unpooled.copiedBuffer(content, CharsetUtil.UTF_8);
-                
-                FullHttpResponse response = new DefaultFullHttpResponse(
-                        HttpVersion.HTTP_1_1, HttpResponseStatus.OK, buffer);
-                
-                String contentType = getContentType(uri);
-                log.info("Serving content with type: {}", contentType);
-                
-                response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
-                response.headers().set(HttpHeaderNames.CONTENT_LENGTH, buffer.readableBytes());
-                
-                // Set CORS headers
-                response.headers().set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
-                response.headers().set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_METHODS, "GET, POST, OPTIONS");
-                response.headers().set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_HEADERS, "Content-Type");
-                
-                ctx.writeAndFlush(response);
+            log.debug("Handling request for: {}", uri);
+
+            Resource resource = getResource(uri);
+            if (resource == null) {
+                sendNotFound(ctx, uri);
+                return;
+            }
+
+            boolean gzip = resource.hasGzipContent() && acceptsGzip(request);
+            String etag = resource.etag(gzip);
+            String ifNoneMatch = request.headers().get(HttpHeaderNames.IF_NONE_MATCH);
+
+            FullHttpResponse response;
+            if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+                response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_MODIFIED);
+                response.headers().set(HttpHeaderNames.CONTENT_LENGTH, 0);
             } else {
-                log.warn("Resource not found: {}", uri);
-                ByteBuf buffer = Unpooled.copiedBuffer("Resource not found: " + uri, CharsetUtil.UTF_8);
-                FullHttpResponse response = new DefaultFullHttpResponse(
-                        HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND, buffer);
-                
-                response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain");
+                ByteBuf buffer;
+                try {
+                    buffer = resource.retainedContent(gzip);
+                } catch (IllegalReferenceCountException e) {
+                    // Released by a concurrent eviction
+                    sendNotFound(ctx, uri);
+                    return;
+                }
+                response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, buffer);
+                response.headers().set(HttpHeaderNames.CONTENT_TYPE, resource.contentType);
                 response.headers().set(HttpHeaderNames.CONTENT_LENGTH, buffer.readableBytes());
-                
-                ctx.writeAndFlush(response);
+                if (gzip) {
+                    response.headers().set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+                }
             }
-        }
 
-        private @NotNull String getContentType(@NotNull String uri) {
-            if (uri.endsWith(".js")) {
-                return "application/javascript";
-            } else if (uri.endsWith(".css")) {
-                return "text/css";
-            } else if (uri.endsWith(".html") || uri.startsWith("/dynamic/")) {
-                return "text/html";
-            } else if (uri.endsWith(".svg")) {
-                return "image/svg+xml";
-            } else {
-                return "text/plain";
+            response.headers().set(HttpHeaderNames.ETAG, etag);
+            response.headers().set(HttpHeaderNames.CACHE_CONTROL, resource.cacheControl);
+            if (resource.hasGzipContent()) {
+                response.headers().set(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
             }
+
+            // Set CORS headers
+            response.headers().set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+            response.headers().set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_METHODS, "GET, POST, OPTIONS");
+            response.headers().set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_HEADERS, "Content-Type");
+
+            ctx.writeAndFlush(response);
+        }
+
+        private void sendNotFound(@NotNull ChannelHandlerContext ctx, @NotNull String uri) {
+            log.warn("Resource not found: {}", uri);
+            ByteBuf buffer = Unpooled.copiedBuffer("Resource not found: " + uri, CharsetUtil.UTF_8);
+            FullHttpResponse response = new DefaultFullHttpResponse(
+                    HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND, buffer);
+
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain");
+            response.headers().set(HttpHeaderNames.CONTENT_LENGTH, buffer.readableBytes());
+
+            ctx.writeAndFlush(response);
+        }
+
+        private static boolean acceptsGzip(@NotNull FullHttpRequest request) {
+            String acceptEncoding = request.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
+            return acceptEncoding != null && acceptEncoding.contains(HttpHeaderValues.GZIP);
         }
 
         @Override
@@ -266,4 +481,4 @@ public class WebServer {
             ctx.close();
         }
     }
-}
\ No newline at end of file
+}
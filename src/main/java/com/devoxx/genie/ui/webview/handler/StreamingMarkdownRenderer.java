@@ -0,0 +1,269 @@
+package com.devoxx.genie.ui.webview.handler;
+
+import com.devoxx.genie.ui.util.CodeLanguageUtil;
+import org.commonmark.node.FencedCodeBlock;
+import org.commonmark.node.IndentedCodeBlock;
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Incremental markdown renderer for streamed AI responses.
+ * <p>
+ * Instead of re-parsing the whole response for every token, the streamed markdown is split
+ * at top-level block boundaries. Blocks that can no longer change are rendered exactly once
+ * and "frozen", only the trailing (still growing) block is rendered again on each update.
+ * <p>
+ * A boundary is only committed when it is safe to do so: a blank line followed by a
+ * non-indented line that does not continue a list, a closing code fence, or an ATX heading /
+ * opening code fence at column zero. A fence indented by up to three spaces may belong to a list
+ * item. No boundary is committed around such a fence. The lines inside it are never taken for
+ * boundaries either. Everything else stays in the tail until the stream ends.
+ * <p>
+ * Instances are not thread-safe; feed them from a single thread (the EDT in practice).
+ */
+public class StreamingMarkdownRenderer {
+
+    // Parser and HtmlRenderer are immutable and thread-safe, share them across all renders
+    private static final Parser MARKDOWN_PARSER = Parser.builder().build();
+    private static final HtmlRenderer HTML_RENDERER = HtmlRenderer.builder().escapeHtml(true).build();
+
+    /**
+     * The HTML produced by a single update.
+     *
+     * @param frozenHtml HTML for blocks completed by this update, to append after earlier frozen blocks
+     * @param tailHtml   HTML for the incomplete trailing block, replacing the previous tail
+     */
+    public record Update(@NotNull String frozenHtml, @NotNull String tailHtml) {
+        public boolean hasFrozenHtml() {
+            return !frozenHtml.isEmpty();
+        }
+    }
+
+    private final StringBuilder markdown = new StringBuilder();
+
+    // Offset up to which markdown has been rendered and frozen
+    private int frozenOffset = 0;
+    // Offset of the first line not yet inspected by the block scanner
+    private int scanOffset = 0;
+    // Offset right after a blank line, waiting for the next line to confirm the boundary
+    private int pendingBoundary = -1;
+
+    private boolean inFence = false;
+    private char fenceChar;
+    private int fenceLength;
+    // Indented fences may be part of a list item, they don't start or end a top-level block
+    private boolean fenceIndented;
+
+    /**
+     * Append a streamed token and return the resulting HTML delta.
+     *
+     * @param delta the newly received markdown text
+     * @return the frozen HTML to append and the new tail HTML
+     */
+    public @NotNull Update append(@NotNull String delta) {
+        markdown.append(delta);
+
+        StringBuilder frozenHtml = new StringBuilder();
+        scanCompleteLines(frozenHtml);
+
+        return new Update(frozenHtml.toString(), renderHtml(markdown.substring(frozenOffset)));
+    }
+
+    /**
+     * Freeze whatever remains in the tail. Called once the stream has completed.
+     *
+     * @return the remaining frozen HTML, with an empty tail
+     */
+    public @NotNull Update finish() {
+        StringBuilder frozenHtml = new StringBuilder();
+        commit(markdown.length(), frozenHtml);
+        return new Update(frozenHtml.toString(), "");
+    }
+
+    /**
+     * @return the markdown received so far
+     */
+    public @NotNull String getMarkdown() {
+        return markdown.toString();
+    }
+
+    /**
+     * @return the number of markdown characters already rendered and frozen
+     */
+    public int getFrozenOffset() {
+        return frozenOffset;
+    }
+
+    /**
+     * Render markdown to HTML the way the conversation view expects it: fenced and indented code
+     * blocks become Prism-compatible {@code <pre><code class="language-x">} elements, all other
+     * nodes go through the commonmark renderer.
+     *
+     * @param markdownText the markdown to render
+     * @return the rendered HTML
+     */
+    public static @NotNull String renderHtml(@NotNull String markdownText) {
+        if (markdownText.isEmpty()) {
+            return "";
+        }
+
+        Node document = MARKDOWN_PARSER.parse(markdownText);
+        StringBuilder html = new StringBuilder();
+
+        Node node = document.getFirstChild();
+        while (node != null) {
+            if (node instanceof FencedCodeBlock fencedCodeBlock) {
+                html.append("<pre><code class=\"language-")
+                        .append(CodeLanguageUtil.mapLanguageToPrism(fencedCodeBlock.getInfo()))
+                        .append("\">")
+                        .append(escapeHtml(fencedCodeBlock.getLiteral()))
+                        .append("</code></pre>\n");
+            } else if (node instanceof IndentedCodeBlock indentedCodeBlock) {
+                html.append("<pre><code class=\"language-plaintext\">")
+                        .append(escapeHtml(indentedCodeBlock.getLiteral()))
+                        .append("</code></pre>\n");
+            } else {
+                html.append(HTML_RENDERER.render(node));
+            }
+            node = node.getNext();
+        }
+        return html.toString();
+    }
+
+    /**
+     * Walk every newly completed line and commit block boundaries as they are detected.
+     */
+    private void scanCompleteLines(@NotNull StringBuilder frozenHtml) {
+        int lineEnd;
+        while ((lineEnd = markdown.indexOf("\n", scanOffset)) >= 0) {
+            int lineStart = scanOffset;
+            int nextLine = lineEnd + 1;
+            scanOffset = nextLine;
+
+            if (inFence) {
+                if (isClosingFence(lineStart, lineEnd)) {
+                    inFence = false;
+                    if (!fenceIndented) {
+                        commit(nextLine, frozenHtml);
+                    }
+                }
+                continue;
+            }
+
+            if (isBlank(lineStart, lineEnd)) {
+                pendingBoundary = nextLine;
+                continue;
+            }
+
+            boolean startsAtColumnZero = !Character.isWhitespace(markdown.charAt(lineStart));
+            if (pendingBoundary >= 0 && startsAtColumnZero && !isListItem(lineStart, lineEnd)) {
+                commit(pendingBoundary, frozenHtml);
+            }
+            pendingBoundary = -1;
+
+            int indent = countRun(lineStart, lineEnd, ' ');
+            if (indent <= 3 && openFence(lineStart + indent, lineEnd)) {
+                if (startsAtColumnZero) {
+                    // A fence at column zero always starts a new top-level block
+                    commit(lineStart, frozenHtml);
+                }
+                inFence = true;
+                fenceIndented = !startsAtColumnZero;
+            } else if (startsAtColumnZero && isAtxHeading(lineStart, lineEnd)) {
+                commit(lineStart, frozenHtml);
+                commit(nextLine, frozenHtml);
+            }
+        }
+
+        // A partial line starting with a letter can only be a new paragraph, no need to wait for its end
+        if (pendingBoundary >= 0 && scanOffset < markdown.length() && Character.isLetter(markdown.charAt(scanOffset))) {
+            commit(pendingBoundary, frozenHtml);
+            pendingBoundary = -1;
+        }
+    }
+
+    private void commit(int offset, @NotNull StringBuilder frozenHtml) {
+        if (offset > frozenOffset) {
+            frozenHtml.append(renderHtml(markdown.substring(frozenOffset, offset)));
+            frozenOffset = offset;
+        }
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(markdown.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean openFence(int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        char c = markdown.charAt(start);
+        if (c != '`' && c != '~') {
+            return false;
+        }
+        int length = countRun(start, end, c);
+        if (length < 3) {
+            return false;
+        }
+        // Backtick fences may not contain backticks in their info string
+        if (c == '`' && markdown.substring(start + length, end).indexOf('`') >= 0) {
+            return false;
+        }
+        fenceChar = c;
+        fenceLength = length;
+        return true;
+    }
+
+    private boolean isClosingFence(int start, int end) {
+        int i = start;
+        // Closing fences may be indented by up to three spaces
+        while (i < end && i - start < 3 && markdown.charAt(i) == ' ') {
+            i++;
+        }
+        int length = countRun(i, end, fenceChar);
+        return length >= fenceLength && isBlank(i + length, end);
+    }
+
+    private boolean isAtxHeading(int start, int end) {
+        int level = countRun(start, end, '#');
+        return level >= 1 && level <= 6
+                && (start + level == end || Character.isWhitespace(markdown.charAt(start + level)));
+    }
+
+    private boolean isListItem(int start, int end) {
+        char c = markdown.charAt(start);
+        if (c == '-' || c == '*' || c == '+') {
+            return start + 1 == end || Character.isWhitespace(markdown.charAt(start + 1));
+        }
+        int i = start;
+        while (i < end && i - start < 9 && Character.isDigit(markdown.charAt(i))) {
+            i++;
+        }
+        return i > start && i < end
+                && (markdown.charAt(i) == '.' || markdown.charAt(i) == ')')
+                && (i + 1 == end || Character.isWhitespace(markdown.charAt(i + 1)));
+    }
+
+    private int countRun(int start, int end, char c) {
+        int i = start;
+        while (i < end && markdown.charAt(i) == c) {
+            i++;
+        }
+        return i - start;
+    }
+
+    private static @NotNull String escapeHtml(@NotNull String text) {
+        return text.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+}
@@ -1,19 +1,15 @@
 package com.devoxx.genie.ui.webview.handler;
 
 import com.devoxx.genie.model.request.ChatMessageContext;
-import com.devoxx.genie.ui.util.CodeLanguageUtil;
 import com.devoxx.genie.util.ThreadUtils;
 import com.intellij.openapi.application.ApplicationManager;
 import lombok.extern.slf4j.Slf4j;
-import org.commonmark.node.FencedCodeBlock;
-import org.commonmark.node.IndentedCodeBlock;
-import org.commonmark.node.Node;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.html.HtmlRenderer;
 import org.jetbrains.annotations.NotNull;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -23,8 +19,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 @Slf4j
 public class WebViewAIMessageUpdater {
 
+    private static final DateTimeFormatter METADATA_TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("d MMMM ''yy HH:mm");
+
     private final WebViewJavaScriptExecutor jsExecutor;
     private final AtomicBoolean initialized;
+    private final Map<String, StreamState> streamStates = new ConcurrentHashMap<>();
     
     public WebViewAIMessageUpdater(WebViewJavaScriptExecutor jsExecutor, AtomicBoolean initialized) {
         this.jsExecutor = jsExecutor;
@@ -65,57 +64,9 @@ public class WebViewAIMessageUpdater {
     private void doUpdateAiMessageContent(@NotNull ChatMessageContext chatMessageContext) {
         String messageId = chatMessageContext.getId();
         
-        // Parse and render the markdown content
-        Parser markdownParser = Parser.builder().build();
-        HtmlRenderer htmlRenderer = HtmlRenderer.builder().escapeHtml(true).build();
-        
         String aiMessageText = chatMessageContext.getAiMessage() == null ? "" : chatMessageContext.getAiMessage().text();
-        Node document = markdownParser.parse(aiMessageText);
-        
-        StringBuilder contentHtml = new StringBuilder();
-        
-        // Format metadata information
-        LocalDateTime dateTime = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("d MMMM ''yy HH:mm");
-        String timestamp = dateTime.format(formatter);
-        
-        String modelName = "Unknown";
-        if (chatMessageContext.getLanguageModel() != null) {
-            modelName = chatMessageContext.getLanguageModel().getModelName();
-        }
-        
-        // Add metadata div
-        contentHtml.append("<div class=\"metadata-info\">")
-                .append(timestamp)
-                .append(" · ")
-                .append(modelName)
-                .append(String.format(" · ϟ %.2fs", chatMessageContext.getExecutionTimeMs() / 1000.0)
-                        // Add metadata div
-                )
-                .append("</div>")
-                .append("<button class=\"copy-response-button\" onclick=\"copyMessageResponse(this)\"><img src=\"/icons/copy.svg\" alt=\"Copy\" class=\"copy-icon\"></button>");
-        
-        // Add content
-        Node node = document.getFirstChild();
-        while (node != null) {
-            if (node instanceof FencedCodeBlock fencedCodeBlock) {
-                String code = fencedCodeBlock.getLiteral();
-                String language = fencedCodeBlock.getInfo();
-                contentHtml.append("<pre><code class=\"language-")
-                        .append(CodeLanguageUtil.mapLanguageToPrism(language))
-                        .append("\">")
-                        .append(jsExecutor.escapeHtml(code))
-                        .append("</code></pre>\n");
-            } else if (node instanceof IndentedCodeBlock indentedCodeBlock) {
-                String code = indentedCodeBlock.getLiteral();
-                contentHtml.append("<pre><code class=\"language-plaintext\">")
-                        .append(jsExecutor.escapeHtml(code))
-                        .append("</code></pre>\n");
-            } else {
-                contentHtml.append(htmlRenderer.render(node));
-            }
-            node = node.getNext();
-        }
+
+        String contentHtml = createMetadataHtml(chatMessageContext) + StreamingMarkdownRenderer.renderHtml(aiMessageText);
         
         // JavaScript to update just the assistant message content
         String js = "try {" +
@@ -127,7 +78,7 @@ public class WebViewAIMessageUpdater {
                    "    if (assistantMessage) {" +
                    "      const loadingIndicator = assistantMessage.querySelector('.loading-indicator');" +
                    "      const loadingIndicatorHtml = loadingIndicator ? loadingIndicator.outerHTML : '';" +
-                   "      assistantMessage.innerHTML = `" + jsExecutor.escapeJS(contentHtml.toString()) + "` + loadingIndicatorHtml;" +
+                   "      assistantMessage.innerHTML = `" + jsExecutor.escapeJS(contentHtml) + "` + loadingIndicatorHtml;" +
                    "      window.scrollTo(0, document.body.scrollHeight);" +
                    "      if (typeof highlightCodeBlocks === 'function') { highlightCodeBlocks(); }" +
                    "    } else {" +
@@ -140,10 +91,102 @@ public class WebViewAIMessageUpdater {
                    "  console.error('Error updating AI message:', error);" +
                    "}";
 
-        log.info("Executing JavaScript to update AI message");
+        log.debug("Executing JavaScript to update AI message");
         jsExecutor.executeJavaScript(js);
     }
 
+    /**
+     * Appends a streamed token to the AI response of an existing message.
+     * Only the trailing markdown block is re-rendered; completed blocks are rendered once,
+     * appended to the DOM and highlighted, after which they are never touched again.
+     * Must be called from a single thread (the EDT) for a given message.
+     *
+     * @param chatMessageContext The chat message context
+     * @param delta              The newly streamed text
+     */
+    public void appendAiMessageDelta(@NotNull ChatMessageContext chatMessageContext, @NotNull String delta) {
+        StreamState state = streamStates.computeIfAbsent(chatMessageContext.getId(), id -> new StreamState());
+        StreamingMarkdownRenderer.Update update = state.renderer.append(delta);
+        state.unsentFrozenHtml.append(update.frozenHtml());
+
+        if (!jsExecutor.isLoaded()) {
+            // Keep the frozen HTML, the next delta (or the final flush) will send it
+            return;
+        }
+
+        String messageId = chatMessageContext.getId();
+        String js = "if (typeof appendStreamingContent === 'function') {" +
+                "  appendStreamingContent('" + jsExecutor.escapeJS(messageId) + "', " +
+                "`" + jsExecutor.escapeJS(createMetadataHtml(chatMessageContext)) + "`, " +
+                "`" + jsExecutor.escapeJS(state.unsentFrozenHtml.toString()) + "`, " +
+                "`" + jsExecutor.escapeJS(update.tailHtml()) + "`);" +
+                "}";
+        state.unsentFrozenHtml.setLength(0);
+
+        jsExecutor.executeJavaScript(js);
+    }
+
+    /**
+     * Completes a streamed AI response: the remaining tail is frozen and highlighted, and the
+     * metadata (execution time) is refreshed. Falls back to a full render when no delta was streamed.
+     *
+     * @param chatMessageContext The chat message context
+     */
+    public void finishAiMessageStream(@NotNull ChatMessageContext chatMessageContext) {
+        StreamState state = streamStates.remove(chatMessageContext.getId());
+        if (state == null || !jsExecutor.isLoaded()) {
+            updateAiMessageContent(chatMessageContext);
+            return;
+        }
+
+        state.unsentFrozenHtml.append(state.renderer.finish().frozenHtml());
+
+        String messageId = chatMessageContext.getId();
+        String js = "if (typeof finishStreamingContent === 'function') {" +
+                "  finishStreamingContent('" + jsExecutor.escapeJS(messageId) + "', " +
+                "`" + jsExecutor.escapeJS(createMetadataHtml(chatMessageContext)) + "`, " +
+                "`" + jsExecutor.escapeJS(state.unsentFrozenHtml.toString()) + "`);" +
+                "}";
+
+        log.debug("Executing JavaScript to finish streamed AI message");
+        jsExecutor.executeJavaScript(js);
+
+        // Mark MCP logs as completed but keep them visible
+        WebViewUIHelper.markMCPLogsAsCompleted(jsExecutor, messageId);
+    }
+
+    /**
+     * Create the metadata header (timestamp, model, execution time) and copy button of an AI response.
+     *
+     * @param chatMessageContext The chat message context
+     * @return The metadata HTML
+     */
+    private @NotNull String createMetadataHtml(@NotNull ChatMessageContext chatMessageContext) {
+        String timestamp = LocalDateTime.now().format(METADATA_TIMESTAMP_FORMATTER);
+
+        String modelName = "Unknown";
+        if (chatMessageContext.getLanguageModel() != null) {
+            modelName = chatMessageContext.getLanguageModel().getModelName();
+        }
+
+        return "<div class=\"metadata-info\">" +
+                timestamp +
+                " · " +
+                modelName +
+                String.format(" · ϟ %.2fs", chatMessageContext.getExecutionTimeMs() / 1000.0) +
+                "</div>" +
+                "<button class=\"copy-response-button\" onclick=\"copyMessageResponse(this)\"><img src=\"/icons/copy.svg\" alt=\"Copy\" class=\"copy-icon\"></button>";
+    }
+
+    /**
+     * Incremental rendering state of a single streamed response.
+     */
+    private static class StreamState {
+        private final StreamingMarkdownRenderer renderer = new StreamingMarkdownRenderer();
+        // Frozen HTML rendered while the browser was not ready yet
+        private final StringBuilder unsentFrozenHtml = new StringBuilder();
+    }
+
     /**
      * Adds just the user message to the conversation view without waiting for the AI response.
      * This is used to show the user's message immediately when they submit a prompt.
@@ -0,0 +1,99 @@
+package com.devoxx.genie.ui.webview.handler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.jcef.JBCefBrowser;
+import com.intellij.ui.jcef.JBCefJSQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Push based bridge from the WebView JavaScript to Java.
+ * <p>
+ * The page calls {@code window.javaBridge(action, payload)}, the request is delivered through a
+ * {@link JBCefJSQuery} and the handler registered for the action runs on the EDT. Nothing is
+ * exchanged with the browser while the view is idle.
+ */
+@Slf4j
+public class WebViewJavaBridge implements Disposable {
+
+    public static final String OPEN_FILE = "openFile";
+    public static final String COPY = "copy";
+    public static final String OPEN_MCP_LOGS = "openMcpLogs";
+
+    private static final Gson GSON = new Gson();
+
+    private final JBCefJSQuery query;
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+    public WebViewJavaBridge(@NotNull JBCefBrowser browser) {
+        query = JBCefJSQuery.create(browser);
+        Disposer.register(this, query);
+
+        query.addHandler(request -> {
+            dispatch(request);
+            return null;
+        });
+    }
+
+    /**
+     * Register the handler of an action, the handler receives the payload sent by the page.
+     *
+     * @param action  the action name
+     * @param handler the handler, called on the EDT
+     */
+    public void addHandler(@NotNull String action, @NotNull Consumer<String> handler) {
+        handlers.put(action, handler);
+    }
+
+    /**
+     * The JavaScript defining {@code window.javaBridge}, to run once the page is loaded.
+     *
+     * @return the bridge script
+     */
+    public @NotNull String createBridgeScript() {
+        return "window.javaBridge = function(action, payload) {" +
+                "  const request = JSON.stringify({action: action, payload: payload == null ? '' : String(payload)});" +
+                "  " + query.inject("request") +
+                "};";
+    }
+
+    private void dispatch(@NotNull String request) {
+        String action;
+        String payload;
+        try {
+            JsonObject json = GSON.fromJson(request, JsonObject.class);
+            action = json.get("action").getAsString();
+            payload = json.has("payload") ? json.get("payload").getAsString() : "";
+        } catch (JsonSyntaxException | NullPointerException | IllegalStateException e) {
+            log.warn("Ignoring malformed WebView request");
+            return;
+        }
+
+        Consumer<String> handler = handlers.get(action);
+        if (handler == null) {
+            log.debug("No handler for WebView action {}", action);
+            return;
+        }
+        ApplicationManager.getApplication().invokeLater(() -> {
+            try {
+                handler.accept(payload);
+            } catch (Exception e) {
+                log.error("Error handling WebView action {}", action, e);
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        handlers.clear();
+    }
+}
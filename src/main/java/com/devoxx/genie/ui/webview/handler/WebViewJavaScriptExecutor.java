@@ -39,17 +39,24 @@ public class WebViewJavaScriptExecutor {
     
     /**
      * Execute JavaScript in the browser.
+     * Runs immediately when called from the EDT, otherwise the script is posted to the EDT.
      *
      * @param script The JavaScript to execute
      */
     public void executeJavaScript(String script) {
-        ApplicationManager.getApplication().invokeLater(() -> {
-            if (isLoaded) {
-                browser.getCefBrowser().executeJavaScript(script, browser.getCefBrowser().getURL(), 0);
-            } else {
-                log.warn("Browser not loaded, cannot execute JavaScript");
-            }
-        });
+        if (ApplicationManager.getApplication().isDispatchThread()) {
+            doExecuteJavaScript(script);
+        } else {
+            ApplicationManager.getApplication().invokeLater(() -> doExecuteJavaScript(script));
+        }
+    }
+
+    private void doExecuteJavaScript(String script) {
+        if (isLoaded) {
+            browser.getCefBrowser().executeJavaScript(script, browser.getCefBrowser().getURL(), 0);
+        } else {
+            log.warn("Browser not loaded, cannot execute JavaScript");
+        }
     }
     
     /**
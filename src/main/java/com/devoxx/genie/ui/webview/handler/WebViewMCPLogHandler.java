@@ -24,6 +24,10 @@ import java.util.List;
 @Slf4j
 public class WebViewMCPLogHandler implements MCPLoggingMessage {
 
+    // Clicking the header shows the MCP logs tool window
+    private static final String MCP_HEADER =
+            "<div class=\"mcp-header\" title=\"Show MCP logs\" onclick=\"openMcpLogs()\">MCP Activity</div>";
+
     private final WebViewJavaScriptExecutor jsExecutor;
     private String activeMessageId;
     private final List<String> mcpLogs = new ArrayList<>();
@@ -61,7 +65,7 @@ public class WebViewMCPLogHandler implements MCPLoggingMessage {
         
         // Create a container for all MCP logs
         formattedLogs.append("<div class=\"mcp-outer-container\">");
-        formattedLogs.append("<div class=\"mcp-header\">MCP Activity</div>");
+        formattedLogs.append(MCP_HEADER);
         
         // Process all logs
         boolean hasDisplayableLogs = false;
@@ -128,7 +132,7 @@ public class WebViewMCPLogHandler implements MCPLoggingMessage {
                 // Show the "in progress" message only if we have actual MCP activity
                 formattedLogs = new StringBuilder();
                 formattedLogs.append("<div class=\"mcp-outer-container\">");
-                formattedLogs.append("<div class=\"mcp-header\">MCP Activity</div>");
+                formattedLogs.append(MCP_HEADER);
                 formattedLogs.append("<div class=\"mcp-log-entry\">");
                 formattedLogs.append("<span class=\"mcp-counter\">MCP activity in progress (no action messages yet)</span>");
                 formattedLogs.append("</div>\n");
@@ -138,7 +142,7 @@ public class WebViewMCPLogHandler implements MCPLoggingMessage {
                 // for debugging purposes
                 formattedLogs = new StringBuilder();
                 formattedLogs.append("<div class=\"mcp-outer-container\">");
-                formattedLogs.append("<div class=\"mcp-header\">MCP Activity</div>");
+                formattedLogs.append(MCP_HEADER);
                 formattedLogs.append("<div class=\"mcp-log-entry\">");
                 formattedLogs.append("<span class=\"mcp-counter\">No MCP activity detected</span>");
                 formattedLogs.append("</div>\n");
@@ -197,6 +201,7 @@ public class WebViewMCPLogHandler implements MCPLoggingMessage {
                     "          font-weight: bold;\n" +
                     "          color: #FF5400;\n" +
                     "          margin-bottom: 10px;\n" +
+                    "          cursor: pointer;\n" +
                     "        }\n" +
                     "        .mcp-log-entry { \n" +
                     "          margin-bottom: 8px;\n" +
@@ -9,6 +9,7 @@ import com.devoxx.genie.ui.webview.template.ConversationTemplate;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.ui.jcef.JBCefBrowser;
 import com.intellij.util.messages.MessageBusConnection;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.cef.browser.CefBrowser;
 import org.cef.browser.CefFrame;
@@ -30,6 +31,10 @@ public class WebViewThemeManager implements ThemeChangeNotifier, AppearanceSetti
     private final WebServer webServer;
     private final WebViewJavaScriptExecutor jsExecutor;
     private final Consumer<ResourceBundle> welcomeContentLoader;
+    private final MessageBusConnection connection;
+    // The generated page currently loaded in the browser, released when replaced
+    @Setter
+    private String pageResourceId;
     
     public WebViewThemeManager(JBCefBrowser browser, WebServer webServer, 
                               WebViewJavaScriptExecutor jsExecutor,
@@ -43,7 +48,7 @@ public class WebViewThemeManager implements ThemeChangeNotifier, AppearanceSetti
         ThemeDetector.addThemeChangeListener(this::themeChanged);
         
         // Register for appearance settings changes
-        MessageBusConnection connection = ApplicationManager.getApplication().getMessageBus().connect();
+        connection = ApplicationManager.getApplication().getMessageBus().connect();
         connection.subscribe(APPEARANCE_SETTINGS_TOPIC, this);
         
         // Initialize the appearance refresh handler 
@@ -90,6 +95,8 @@ public class WebViewThemeManager implements ThemeChangeNotifier, AppearanceSetti
             // Create a new resource with the updated HTML content
             String resourceId = webServer.addDynamicResource(htmlContent);
             String resourceUrl = webServer.getResourceUrl(resourceId);
+            webServer.removeDynamicResource(pageResourceId);
+            pageResourceId = resourceId;
             
             // Set a flag to indicate that we should reload welcome content after the browser loads
             final boolean[] welcomeReloaded = {false};
@@ -118,4 +125,13 @@ public class WebViewThemeManager implements ThemeChangeNotifier, AppearanceSetti
     public void appearanceSettingsChanged() {
         applyAppearanceChanges();
     }
-}
\ No newline at end of file
+
+    /**
+     * Stop listening to appearance changes and release the generated page.
+     */
+    public void dispose() {
+        connection.disconnect();
+        webServer.removeDynamicResource(pageResourceId);
+        pageResourceId = null;
+    }
+}
@@ -121,6 +121,18 @@ public class ChatMessageTemplate extends HtmlTemplate {
                 metricInfo.append(String.format(" · $%.5f", chatMessageContext.getCost()));
             }
         }
+
+        // Prompt tokens served from the provider's prompt cache
+        if (chatMessageContext.getCachedInputTokens() > 0) {
+            metricInfo.append(String.format(" · Cache hit %s tokens",
+                    NumberFormat.getNumberInstance(Locale.getDefault()).format(chatMessageContext.getCachedInputTokens())));
+        }
+
+        // Prompt tokens the token budget memory no longer resends
+        if (chatMessageContext.getSavedPromptTokens() > 0) {
+            metricInfo.append(String.format(" · Memory saved %s tokens",
+                    NumberFormat.getNumberInstance(Locale.getDefault()).format(chatMessageContext.getSavedPromptTokens())));
+        }
         
         return "<div class=\"metadata-info\">" + timestamp + " · " + modelName + metricInfo.toString() + "</div>";
     }
@@ -14,6 +14,7 @@ import com.devoxx.genie.ui.panel.SubmitPanel;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.ui.topic.AppTopics;
 import com.devoxx.genie.util.MessageBusUtil;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileEditor.FileEditorManagerListener;
 import com.intellij.openapi.project.Project;
@@ -50,6 +51,7 @@ public class DevoxxGenieToolWindowContent implements SettingsChangeListener, Glo
     @Getter
     private final ConversationStorageService storageService = ConversationStorageService.getInstance();
     private final AnimatedGlowingBorder animatedBorder;
+    private final Disposable toolWindowDisposable;
     @Getter
     private LlmProviderPanel llmProviderPanel;
     @Getter
@@ -65,6 +67,7 @@ public class DevoxxGenieToolWindowContent implements SettingsChangeListener, Glo
      */
     public DevoxxGenieToolWindowContent(@NotNull ToolWindow toolWindow) {
         project = toolWindow.getProject();
+        toolWindowDisposable = toolWindow.getDisposable();
 
         DevoxxGenieStateService stateService = DevoxxGenieStateService.getInstance();
         stateService.addLoadListener(this::onStateLoaded);
@@ -95,6 +98,7 @@ public class DevoxxGenieToolWindowContent implements SettingsChangeListener, Glo
     private void initializeComponents() {
         llmProviderPanel = new LlmProviderPanel(project);
         promptOutputPanel = new PromptOutputPanel(project, resourceBundle);
+        Disposer.register(toolWindowDisposable, promptOutputPanel.getConversationPanel().webViewController);
         submitPanel = new SubmitPanel(this);
     }
 
@@ -9,6 +9,8 @@ import com.devoxx.genie.model.request.EditorInfo;
 import com.devoxx.genie.service.FileListManager;
 import com.devoxx.genie.service.MessageCreationService;
 import com.devoxx.genie.service.mcp.MCPService;
+import com.devoxx.genie.service.prompt.context.ProjectContextManager;
+import com.devoxx.genie.service.prompt.memory.ChatMemoryManager;
 import com.devoxx.genie.ui.component.button.EditorFileButtonManager;
 import com.devoxx.genie.ui.settings.DevoxxGenieStateService;
 import com.devoxx.genie.ui.util.EditorUtil;
@@ -77,7 +79,17 @@ public class ChatMessageContextUtil {
         // First handle any existing project context
         if (projectContext != null && isProjectContextAdded) {
             // If the full project is added as context, set it and ignore any attached files
-            chatMessageContext.setFilesContext(projectContext);
+            if (isOpenAIo1Model(chatMessageContext.getLanguageModel())) {
+                // No system message, the project context is sent with every prompt
+                chatMessageContext.setFilesContext(projectContext);
+            } else {
+                // The project context is shared in the system message, only send the files which changed since
+                chatMessageContext.setProjectContextShared(true);
+                boolean newConversation = ChatMemoryManager.getInstance().isNewConversation(chatMessageContext.getProject());
+                String changedFiles = ProjectContextManager.getInstance(chatMessageContext.getProject())
+                        .takeChangedFiles(newConversation);
+                chatMessageContext.setFilesContext(changedFiles.isEmpty() ? null : changedFiles);
+            }
         } else {
             // We don't include separate added files to the context if the full project is already included
             processAttachedFiles(chatMessageContext);
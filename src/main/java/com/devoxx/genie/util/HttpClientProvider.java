@@ -18,10 +18,31 @@ public class HttpClientProvider {
             .addInterceptor(new RetryInterceptor(3))
             .build();
 
+    private static final OkHttpClient discoveryClient = createDiscoveryClient();
+
     public static OkHttpClient getClient() {
         return sharedClient;
     }
 
+    /**
+     * Get the client to look up the models of local providers. A local provider which runs answers at once,
+     * a stopped one fails within a second instead of being retried with back-off.
+     *
+     * @return the client, sharing the connection pool of the shared client
+     */
+    public static OkHttpClient getDiscoveryClient() {
+        return discoveryClient;
+    }
+
+    private static @NotNull OkHttpClient createDiscoveryClient() {
+        OkHttpClient.Builder builder = sharedClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .readTimeout(Duration.ofSeconds(5))
+                .retryOnConnectionFailure(false);
+        builder.interceptors().clear();
+        return builder.build();
+    }
+
     public record RetryInterceptor(int maxRetries) implements Interceptor {
 
         @Override
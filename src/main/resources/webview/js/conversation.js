@@ -1,3 +1,12 @@
+// Write text to the clipboard, through the IDE when the Java bridge is available
+function writeClipboard(text) {
+    if (typeof window.javaBridge === 'function') {
+        window.javaBridge('copy', text);
+        return Promise.resolve();
+    }
+    return navigator.clipboard.writeText(text);
+}
+
 function copyToClipboard(contentToCopy, button, isHtml = false) {
     // Store the original content of the button
     const originalContent = button.innerHTML;
@@ -42,7 +51,7 @@ function copyToClipboard(contentToCopy, button, isHtml = false) {
         contentToCopy = turndownService.turndown(contentToCopy);
     }
     
-    navigator.clipboard.writeText(contentToCopy).then(function () {
+    writeClipboard(contentToCopy).then(function () {
         // Add animation class
         button.classList.add('copy-button-flash');
         button.innerHTML = 'Copied!';
@@ -123,61 +132,150 @@ function highlightCodeBlocks() {
     if (typeof Prism !== 'undefined') {
         Prism.highlightAll();
         // Add copy buttons to code blocks
-        document.querySelectorAll('pre:not(.processed)').forEach(function(block) {
-            // Mark the block as processed to avoid adding buttons multiple times
-            block.classList.add('processed');
-            var button = document.createElement('button');
-            button.className = 'copy-button';
-            const copyIcon = document.createElement('img');
-            copyIcon.src = '../icons/copy.svg';
-            copyIcon.alt = 'Copy';
-            copyIcon.className = 'copy-icon';
-            button.appendChild(copyIcon);
-            var container = document.createElement('div');
-            container.className = 'toolbar-container';
-            container.appendChild(button);
-            block.appendChild(container);
-            button.addEventListener('click', function() {
-                var code = block.querySelector('code');
-                var text = code.textContent;
-                
-                // Get language class if available
-                var language = '';
-                if (code.className) {
-                    var match = code.className.match(/language-(\w+)/);
-                    if (match) {
-                        language = match[1];
-                    }
-                }
-                
-                // Format as markdown code block
-                var markdownText = '```' + language + '\n' + text + '\n```';
-                
-                navigator.clipboard.writeText(markdownText).then(function() {
-                    // Store the original icon
-                    const originalIcon = button.innerHTML;
-                    button.innerHTML = 'Copied!';
-                    setTimeout(function() {
-                        // Restore the icon
-                        button.innerHTML = originalIcon;
-                    }, 2000);
-                }).catch(function(err) {
-                    console.error('Failed to copy: ', err);
-                    button.innerHTML = 'Error!';
-                    setTimeout(function() {
-                        // Restore the icon
-                        const copyIcon = document.createElement('img');
-                        copyIcon.src = '../icons/copy.svg';
-                        copyIcon.alt = 'Copy';
-                        copyIcon.className = 'copy-icon';
-                        button.innerHTML = '';
-                        button.appendChild(copyIcon);
-                    }, 2000);
-                });
-            });
+        document.querySelectorAll('pre:not(.processed)').forEach(addCodeBlockCopyButton);
+    }
+}
+
+// Highlight only the code blocks below the given element that were not processed yet
+function highlightCodeBlocksIn(root) {
+    if (typeof Prism !== 'undefined') {
+        root.querySelectorAll('pre:not(.processed)').forEach(function(block) {
+            const code = block.querySelector('code');
+            if (code) {
+                Prism.highlightElement(code);
+            }
+            addCodeBlockCopyButton(block);
+        });
+    }
+}
+
+function addCodeBlockCopyButton(block) {
+    // Mark the block as processed to avoid adding buttons multiple times
+    block.classList.add('processed');
+    var button = document.createElement('button');
+    button.className = 'copy-button';
+    const copyIcon = document.createElement('img');
+    copyIcon.src = '../icons/copy.svg';
+    copyIcon.alt = 'Copy';
+    copyIcon.className = 'copy-icon';
+    button.appendChild(copyIcon);
+    var container = document.createElement('div');
+    container.className = 'toolbar-container';
+    container.appendChild(button);
+    block.appendChild(container);
+    button.addEventListener('click', function() {
+        var code = block.querySelector('code');
+        var text = code.textContent;
+
+        // Get language class if available
+        var language = '';
+        if (code.className) {
+            var match = code.className.match(/language-(\w+)/);
+            if (match) {
+                language = match[1];
+            }
+        }
+
+        // Format as markdown code block
+        var markdownText = '```' + language + '\n' + text + '\n```';
+
+        writeClipboard(markdownText).then(function() {
+            // Store the original icon
+            const originalIcon = button.innerHTML;
+            button.innerHTML = 'Copied!';
+            setTimeout(function() {
+                // Restore the icon
+                button.innerHTML = originalIcon;
+            }, 2000);
+        }).catch(function(err) {
+            console.error('Failed to copy: ', err);
+            button.innerHTML = 'Error!';
+            setTimeout(function() {
+                // Restore the icon
+                const copyIcon = document.createElement('img');
+                copyIcon.src = '../icons/copy.svg';
+                copyIcon.alt = 'Copy';
+                copyIcon.className = 'copy-icon';
+                button.innerHTML = '';
+                button.appendChild(copyIcon);
+            }, 2000);
         });
+    });
+}
+
+// Find (or create on the first streamed token) the frozen and tail containers of a streamed response
+function getStreamingContainers(messageId, metadataHtml) {
+    const messagePair = document.getElementById(messageId);
+    if (!messagePair) {
+        console.error('Message pair not found: ' + messageId);
+        return null;
+    }
+    const assistantMessage = messagePair.querySelector('.assistant-message');
+    if (!assistantMessage) {
+        console.error('Assistant message element not found in message pair');
+        return null;
+    }
+
+    let frozen = assistantMessage.querySelector('.streaming-frozen');
+    if (!frozen) {
+        const thinkingText = document.getElementById('loading-' + messageId);
+        if (thinkingText) thinkingText.style.display = 'none';
+        const loadingIndicator = assistantMessage.querySelector('.loading-indicator');
+        const loadingIndicatorHtml = loadingIndicator ? loadingIndicator.outerHTML : '';
+        assistantMessage.innerHTML = metadataHtml +
+            '<div class="streaming-frozen"></div><div class="streaming-tail"></div>' +
+            loadingIndicatorHtml;
+        frozen = assistantMessage.querySelector('.streaming-frozen');
     }
+
+    return {
+        assistantMessage: assistantMessage,
+        frozen: frozen,
+        tail: assistantMessage.querySelector('.streaming-tail')
+    };
 }
+
+// Append completed blocks of a streamed response and replace its (still growing) tail block
+function appendStreamingContent(messageId, metadataHtml, frozenHtml, tailHtml) {
+    try {
+        const containers = getStreamingContainers(messageId, metadataHtml);
+        if (!containers) return;
+
+        if (frozenHtml) {
+            const newBlocks = document.createElement('div');
+            newBlocks.innerHTML = frozenHtml;
+            highlightCodeBlocksIn(newBlocks);
+            while (newBlocks.firstChild) {
+                containers.frozen.appendChild(newBlocks.firstChild);
+            }
+        }
+        containers.tail.innerHTML = tailHtml;
+        window.scrollTo(0, document.body.scrollHeight);
+    } catch (error) {
+        console.error('Error appending streamed AI message:', error);
+    }
+}
+
+// Freeze the remaining tail of a streamed response and refresh its metadata
+function finishStreamingContent(messageId, metadataHtml, frozenHtml) {
+    try {
+        const containers = getStreamingContainers(messageId, metadataHtml);
+        if (!containers) return;
+
+        appendStreamingContent(messageId, metadataHtml, frozenHtml, '');
+
+        // Replace the metadata header, the execution time is only known now
+        const assistantMessage = containers.assistantMessage;
+        const metadata = assistantMessage.querySelector('.metadata-info');
+        if (metadata) metadata.remove();
+        const copyButton = assistantMessage.querySelector('.copy-response-button');
+        if (copyButton) copyButton.remove();
+        assistantMessage.insertAdjacentHTML('afterbegin', metadataHtml);
+    } catch (error) {
+        console.error('Error finishing streamed AI message:', error);
+    }
+}
+
 // Add copy buttons to user messages that don't have them
 function addCopyButtonsToUserMessages() {
     document.querySelectorAll('.user-message:not(.processed-copy-button)').forEach(function(userMessage) {
@@ -6,7 +6,9 @@ function openFile(fileId) {
     const fileElement = document.getElementById(fileId);
     if (fileElement && fileElement.dataset.filePath) {
         console.log('Opening file: ' + fileElement.dataset.filePath);
-        openFileFromJava(fileElement.dataset.filePath);
+        if (typeof window.javaBridge === 'function') {
+            window.javaBridge('openFile', fileElement.dataset.filePath);
+        }
     }
 }
 
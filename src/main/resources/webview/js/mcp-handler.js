@@ -22,7 +22,7 @@ function copyToolOutput(button) {
     const textToCopy = toolContent.textContent;
     
     // Copy to clipboard
-    navigator.clipboard.writeText(textToCopy).then(
+    writeClipboard(textToCopy).then(
         function() {
             // Add flash animation class
             button.classList.add('copy-button-flash');
@@ -92,3 +92,10 @@ document.addEventListener('DOMContentLoaded', function() {
 function initNewMcpContent() {
     formatJsonOutput();
 }
+
+// Show the MCP logs tool window
+function openMcpLogs() {
+    if (typeof window.javaBridge === 'function') {
+        window.javaBridge('openMcpLogs');
+    }
+}
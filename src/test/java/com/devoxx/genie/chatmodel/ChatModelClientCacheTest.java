@@ -0,0 +1,93 @@
+package com.devoxx.genie.chatmodel;
+
+import com.devoxx.genie.model.ChatModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatModelClientCacheTest {
+
+    private ChatModelClientCache cache;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new ChatModelClientCache(false);
+    }
+
+    @Test
+    void getHttpClientBuilder_sharesTheHttpClientOfAnEndpoint() {
+        HttpClient first = cache.getHttpClientBuilder("http://localhost:1234", HttpClient.Version.HTTP_1_1)
+                .httpClientBuilder().build();
+        // Every chat model gets its own builder, the timeouts it sets don't create another client
+        HttpClient second = cache.getHttpClientBuilder("http://localhost:1234", HttpClient.Version.HTTP_1_1)
+                .httpClientBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpClient other = cache.getHttpClientBuilder("http://localhost:11434", HttpClient.Version.HTTP_1_1)
+                .httpClientBuilder().build();
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(first.version()).isEqualTo(HttpClient.Version.HTTP_1_1);
+    }
+
+    @Test
+    void getClient_reusesClientForSameKey() {
+        Object first = cache.getClient(key(ModelProvider.OpenAI, "gpt-4o", 0.7), this::newClient);
+        Object second = cache.getClient(key(ModelProvider.OpenAI, "gpt-4o", 0.7), this::newClient);
+
+        assertThat(second).isSameAs(first);
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void getClient_createsClientWhenParametersDiffer() {
+        Object client = cache.getClient(key(ModelProvider.OpenAI, "gpt-4o", 0.7), this::newClient);
+
+        assertThat(cache.getClient(key(ModelProvider.OpenAI, "gpt-4o", 0.2), this::newClient)).isNotSameAs(client);
+        assertThat(cache.getClient(key(ModelProvider.OpenAI, "gpt-4o-mini", 0.7), this::newClient)).isNotSameAs(client);
+        assertThat(cache.getClient(key(ModelProvider.Anthropic, "gpt-4o", 0.7), this::newClient)).isNotSameAs(client);
+        assertThat(created).hasValue(4);
+    }
+
+    @Test
+    void getClient_doesNotCacheMissingClient() {
+        assertThat(cache.<Object>getClient(key(ModelProvider.OpenAI, "gpt-4o", 0.7), () -> null)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void llmSettingsChanged_dropsClients() {
+        Object client = cache.getClient(key(ModelProvider.OpenAI, "gpt-4o", 0.7), this::newClient);
+
+        cache.llmSettingsChanged();
+
+        assertThat(cache.getClient(key(ModelProvider.OpenAI, "gpt-4o", 0.7), this::newClient)).isNotSameAs(client);
+    }
+
+    @Test
+    void getClient_dropsLeastRecentlyUsedClient() {
+        for (int i = 0; i <= ChatModelClientCache.MAX_CLIENTS; i++) {
+            cache.getClient(key(ModelProvider.Ollama, "model-" + i, 0.7), this::newClient);
+        }
+
+        assertThat(cache.size()).isEqualTo(ChatModelClientCache.MAX_CLIENTS);
+    }
+
+    private Object newClient() {
+        created.incrementAndGet();
+        return new Object();
+    }
+
+    private static ChatModelClientCache.ClientKey key(ModelProvider provider, String modelName, double temperature) {
+        ChatModel chatModel = new ChatModel();
+        chatModel.setModelName(modelName);
+        chatModel.setTemperature(temperature);
+        return ChatModelClientCache.ClientKey.of(provider, false, chatModel, false);
+    }
+}
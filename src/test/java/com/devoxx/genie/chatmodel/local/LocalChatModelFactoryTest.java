@@ -98,6 +98,26 @@ class LocalChatModelFactoryTest extends BasePlatformTestCase {
         }
     }
 
+    // Reports a digest for every model and counts how often the details of a model are built
+    private static class DigestLocalChatModelFactory extends TestLocalChatModelFactory {
+        private int builds;
+
+        DigestLocalChatModelFactory() {
+            super(false);
+        }
+
+        @Override
+        protected String getModelDigest(Object model) {
+            return "sha256:" + model;
+        }
+
+        @Override
+        protected LanguageModel buildLanguageModel(Object model) throws IOException {
+            builds++;
+            return super.buildLanguageModel(model);
+        }
+    }
+
     private TestLocalChatModelFactory factory;
     private TestLocalChatModelFactory factoryWithException;
 
@@ -262,4 +282,18 @@ class LocalChatModelFactoryTest extends BasePlatformTestCase {
         assertFalse(factory.providerChecked);
         assertFalse(factory.providerRunning);
     }
+
+    @Test
+    public void testResetModelsKeepsDetailsOfKnownDigests() {
+        DigestLocalChatModelFactory digestFactory = new DigestLocalChatModelFactory();
+
+        assertEquals(2, digestFactory.getModels().size());
+        assertEquals(3, digestFactory.builds);
+
+        digestFactory.resetModels();
+        assertEquals(2, digestFactory.getModels().size());
+
+        // Only model2, whose details failed before, is built again
+        assertEquals(4, digestFactory.builds);
+    }
 }
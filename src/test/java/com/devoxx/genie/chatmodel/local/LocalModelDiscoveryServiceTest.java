@@ -0,0 +1,100 @@
+package com.devoxx.genie.chatmodel.local;
+
+import com.devoxx.genie.chatmodel.ChatModelFactory;
+import com.devoxx.genie.model.ChatModel;
+import com.devoxx.genie.model.LanguageModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocalModelDiscoveryServiceTest {
+
+    private final List<ModelProvider> fetched = new ArrayList<>();
+    private final CompletableFuture<List<LanguageModel>> fetch = new CompletableFuture<>();
+    private final FakeLocalFactory ollama = new FakeLocalFactory();
+    private final ChatModelFactory llama = mock(ChatModelFactory.class);
+
+    private final LocalModelDiscoveryService service = new LocalModelDiscoveryService(provider ->
+            switch (provider) {
+                case Ollama -> Optional.of(ollama);
+                case LLaMA -> Optional.of(llama);
+                default -> Optional.empty();
+            },
+            provider -> {
+                fetched.add(provider);
+                return fetch;
+            });
+
+    @Test
+    void discover_fetchesLocalProvidersInTheBackground() {
+        CompletableFuture<List<LanguageModel>> discovery = service.discover(ModelProvider.Ollama);
+
+        assertThat(discovery).isSameAs(fetch).isNotDone();
+        assertThat(fetched).containsExactly(ModelProvider.Ollama);
+        assertThat(service.isDiscovered(ModelProvider.Ollama)).isFalse();
+
+        ollama.discoverModels();
+
+        assertThat(service.isDiscovered(ModelProvider.Ollama)).isTrue();
+    }
+
+    @Test
+    void discover_answersProvidersWithoutModelListRightAway() {
+        LanguageModel testModel = LanguageModel.builder().provider(ModelProvider.LLaMA).modelName("test-model").build();
+        when(llama.getModels()).thenReturn(List.of(testModel));
+
+        assertThat(service.isDiscovered(ModelProvider.LLaMA)).isTrue();
+        assertThat(service.discover(ModelProvider.LLaMA)).isCompletedWithValue(List.of(testModel));
+        assertThat(fetched).isEmpty();
+    }
+
+    private static class FakeLocalFactory extends LocalChatModelFactory {
+        FakeLocalFactory() {
+            super(ModelProvider.Ollama);
+        }
+
+        @Override
+        public synchronized boolean discoverModels() {
+            cachedModels = List.of(LanguageModel.builder().provider(modelProvider).modelName("llama3").build());
+            providerRunning = true;
+            providerChecked = true;
+            return true;
+        }
+
+        @Override
+        public ChatLanguageModel createChatModel(@NotNull ChatModel chatModel) {
+            return null;
+        }
+
+        @Override
+        public StreamingChatLanguageModel createStreamingChatModel(@NotNull ChatModel chatModel) {
+            return null;
+        }
+
+        @Override
+        protected String getModelUrl() {
+            return "http://localhost:11434";
+        }
+
+        @Override
+        protected Object[] fetchModels() {
+            return new Object[0];
+        }
+
+        @Override
+        protected LanguageModel buildLanguageModel(Object model) {
+            return null;
+        }
+    }
+}
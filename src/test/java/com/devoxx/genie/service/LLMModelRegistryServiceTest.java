@@ -0,0 +1,168 @@
+package com.devoxx.genie.service;
+
+import com.devoxx.genie.model.LanguageModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import com.devoxx.genie.service.models.ModelCatalogueStore;
+import com.devoxx.genie.service.models.RemoteModelSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LLMModelRegistryServiceTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicReference<List<LanguageModel>> remoteModels = new AtomicReference<>();
+    private ModelCatalogueStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ModelCatalogueStore(tempDir.resolve("model-catalogue.json"));
+        remoteModels.set(List.of(model("router/model-a")));
+    }
+
+    @Test
+    void getModels_fetchesRemoteModelsInTheBackground() {
+        LLMModelRegistryService registry = createRegistry();
+
+        registry.getModels();
+
+        // The provider is listed while its models are fetched
+        assertThat(registry.getEnabledRemoteProviders()).containsExactly(ModelProvider.OpenRouter);
+        assertThat(tasks).hasSize(1);
+        // A second call doesn't start a second fetch
+        registry.getModels();
+        assertThat(tasks).hasSize(1);
+
+        runTasks();
+        assertThat(registry.findModel(ModelProvider.OpenRouter, "router/model-a")).isPresent();
+        assertThat(registry.findModel(ModelProvider.OpenAI, "gpt-4o")).isPresent();
+    }
+
+    @Test
+    void getModels_refreshesAfterTheTimeToLive() {
+        LLMModelRegistryService registry = createRegistry();
+        registry.getModels();
+        runTasks();
+
+        now.addAndGet(TTL.toMillis() - 1);
+        registry.getModels();
+        assertThat(tasks).isEmpty();
+
+        remoteModels.set(List.of(model("router/model-b")));
+        now.addAndGet(1);
+        registry.getModels();
+        runTasks();
+
+        assertThat(fetches).hasValue(2);
+        assertThat(registry.getModels(ModelProvider.OpenRouter))
+                .extracting(LanguageModel::getModelName)
+                .containsExactly("router/model-b");
+    }
+
+    @Test
+    void getModels_keepsPreviousModelsWhenFetchFails() {
+        LLMModelRegistryService registry = createRegistry();
+        registry.getModels();
+        runTasks();
+
+        remoteModels.set(null);
+        now.addAndGet(TTL.toMillis());
+        registry.getModels();
+        runTasks();
+
+        assertThat(registry.findModel(ModelProvider.OpenRouter, "router/model-a")).isPresent();
+        // The failed fetch is retried after a short delay instead of the time-to-live
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+        registry.getModels();
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void getModelsOfProvider_fetchesOnceWhenNothingIsKnown() {
+        LLMModelRegistryService registry = createRegistry();
+
+        assertThat(registry.getModels(ModelProvider.OpenRouter))
+                .extracting(LanguageModel::getModelName)
+                .containsExactly("router/model-a");
+        assertThat(tasks).isEmpty();
+    }
+
+    @Test
+    void refreshModels_joinsTheRunningFetch() {
+        LLMModelRegistryService registry = createRegistry();
+        registry.getModels();
+
+        CompletableFuture<List<LanguageModel>> refresh = registry.refreshModels(ModelProvider.OpenRouter);
+        assertThat(tasks).hasSize(1);
+        assertThat(refresh).isNotDone();
+
+        runTasks();
+        assertThat(refresh).isCompletedWithValue(List.of(model("router/model-a")));
+        assertThat(fetches).hasValue(1);
+
+        // An explicit refresh doesn't wait for the time-to-live
+        registry.refreshModels(ModelProvider.OpenRouter);
+        runTasks();
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    void constructor_startsWithStoredModels() {
+        LLMModelRegistryService registry = createRegistry();
+        registry.getModels();
+        runTasks();
+
+        LLMModelRegistryService restarted = createRegistry();
+
+        assertThat(restarted.findModel(ModelProvider.OpenRouter, "router/model-a")).isPresent();
+        assertThat(tasks).isEmpty();
+        assertThat(fetches).hasValue(1);
+    }
+
+    private LLMModelRegistryService createRegistry() {
+        RemoteModelSource source = new RemoteModelSource(ModelProvider.OpenRouter, TTL, () -> true, () -> {
+            fetches.incrementAndGet();
+            List<LanguageModel> models = remoteModels.get();
+            if (models == null) {
+                throw new IOException("Unreachable");
+            }
+            return models;
+        });
+        return new LLMModelRegistryService(List.of(source), store, tasks::add, now::get);
+    }
+
+    private void runTasks() {
+        List<Runnable> pending = new ArrayList<>(tasks);
+        tasks.clear();
+        pending.forEach(Runnable::run);
+    }
+
+    private static LanguageModel model(String name) {
+        return LanguageModel.builder()
+                .provider(ModelProvider.OpenRouter)
+                .modelName(name)
+                .displayName(name)
+                .inputMaxTokens(128_000)
+                .apiKeyUsed(true)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.devoxx.genie.service;
+
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class TokenizerServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void getEncoding_returnsSharedInstance() {
+        TokenizerService tokenizerService = new TokenizerService();
+
+        Encoding first = tokenizerService.getEncoding(EncodingType.CL100K_BASE);
+        Encoding second = tokenizerService.getEncoding(EncodingType.CL100K_BASE);
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.countTokensOrdinary("Hello world")).isEqualTo(2);
+    }
+
+    @Test
+    void getEncodingForProvider_mapsProvidersToBuiltInEncodings() {
+        TokenizerService tokenizerService = new TokenizerService();
+
+        assertThat(tokenizerService.getEncodingForProvider(ModelProvider.OpenAI))
+                .isSameAs(tokenizerService.getEncoding(EncodingType.CL100K_BASE));
+        assertThat(tokenizerService.getEncodingForProvider(ModelProvider.Mistral))
+                .isSameAs(tokenizerService.getEncoding(EncodingType.R50K_BASE));
+    }
+
+    @Test
+    void registerProviderEncoding_overridesBuiltInEncoding() {
+        TokenizerService tokenizerService = new TokenizerService();
+        Encoding custom = mock(Encoding.class);
+
+        tokenizerService.registerProviderEncoding(ModelProvider.Mistral, custom);
+        assertThat(tokenizerService.getEncodingForProvider(ModelProvider.Mistral)).isSameAs(custom);
+
+        tokenizerService.unregisterProviderEncoding(ModelProvider.Mistral);
+        assertThat(tokenizerService.getEncodingForProvider(ModelProvider.Mistral))
+                .isSameAs(tokenizerService.getEncoding(EncodingType.R50K_BASE));
+    }
+
+    @Test
+    void loadTiktokenEncoding_readsRanksFile() throws IOException {
+        Path ranksFile = tempDir.resolve("tokenizer.model");
+        Files.write(ranksFile, List.of(
+                base64("a") + " 0",
+                base64("b") + " 1",
+                base64("ab") + " 2"));
+
+        Encoding encoding = new TokenizerService().loadTiktokenEncoding("test-vocabulary", ranksFile);
+
+        assertThat(encoding.getName()).isEqualTo("test-vocabulary");
+        assertThat(encoding.encodeOrdinary("abab").boxed()).containsExactly(2, 2);
+    }
+
+    @Test
+    void loadTiktokenEncoding_rejectsMalformedFile() throws IOException {
+        Path ranksFile = tempDir.resolve("broken.model");
+        Files.write(ranksFile, List.of("not-a-valid-line-without-rank"));
+
+        assertThatThrownBy(() -> new TokenizerService().loadTiktokenEncoding("broken", ranksFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("line 1");
+    }
+
+    @Test
+    void useLocalModelTokenizer_registersVocabularyForLocalProviders() throws IOException {
+        Path ranksFile = tempDir.resolve("tokenizer.model");
+        Files.write(ranksFile, List.of(base64("a") + " 0", base64("b") + " 1", base64("ab") + " 2"));
+        TokenizerService tokenizerService = new TokenizerService();
+
+        tokenizerService.useLocalModelTokenizer(ranksFile.toString());
+        Encoding ollama = tokenizerService.getEncodingForProvider(ModelProvider.Ollama);
+        assertThat(ollama.encodeOrdinary("abab").boxed()).containsExactly(2, 2);
+        assertThat(tokenizerService.getEncodingForProvider(ModelProvider.LMStudio)).isSameAs(ollama);
+        assertThat(tokenizerService.getEncodingForProvider(ModelProvider.OpenAI))
+                .isSameAs(tokenizerService.getEncoding(EncodingType.CL100K_BASE));
+
+        // Loaded once, applying the same settings again reuses the vocabulary
+        tokenizerService.useLocalModelTokenizer(ranksFile.toString());
+        assertThat(tokenizerService.getEncodingForProvider(ModelProvider.Ollama)).isSameAs(ollama);
+
+        tokenizerService.useLocalModelTokenizer("");
+        assertThat(tokenizerService.getEncodingForProvider(ModelProvider.Ollama))
+                .isSameAs(tokenizerService.getEncoding(EncodingType.CL100K_BASE));
+    }
+
+    private static String base64(String token) {
+        return Base64.getEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,109 @@
+package com.devoxx.genie.service.conversations;
+
+import com.devoxx.genie.model.conversation.ChatMessage;
+import com.devoxx.genie.model.conversation.Conversation;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the search latency over a history of 1,000 conversations of 20 messages, against the target of
+ * less than 50 ms per search.
+ *
+ * <p>The messages are drawn from a vocabulary of 5,000 words, the searches mix common and rare terms, with
+ * and without a prefix, like the incremental search of the history panel.</p>
+ *
+ * <p>Run with: {@code ./gradlew test --tests ConversationSearchBenchmark -Ddevoxxgenie.benchmark=true}</p>
+ */
+@EnabledIfSystemProperty(named = "devoxxgenie.benchmark", matches = "true")
+class ConversationSearchBenchmark {
+
+    private static final int CONVERSATIONS = 1_000;
+    private static final int MESSAGES_PER_CONVERSATION = 20;
+    private static final int WORDS_PER_MESSAGE = 150;
+    private static final int VOCABULARY = 5_000;
+    private static final int SEARCHES = 500;
+    private static final long TARGET_MILLIS = 50;
+
+    @Test
+    void searchHistory(@TempDir Path tempDir) throws Exception {
+        Project project = mock(Project.class);
+        when(project.getLocationHash()).thenReturn("project-hash");
+        Path dbPath = tempDir.resolve("conversations.db");
+        ConversationStorageService storage = new ConversationStorageService(dbPath, Executors.newSingleThreadExecutor());
+        try {
+            Random random = new Random(42);
+            for (int i = 0; i < CONVERSATIONS; i++) {
+                storage.addConversation(project, conversation(i, random)).join();
+            }
+
+            String[] queries = new String[SEARCHES];
+            for (int i = 0; i < SEARCHES; i++) {
+                String word = word(i % 2 == 0 ? random.nextInt(50) : random.nextInt(VOCABULARY));
+                queries[i] = switch (i % 3) {
+                    case 0 -> word;
+                    case 1 -> word.substring(0, word.length() - 1);
+                    default -> word + " " + word(random.nextInt(VOCABULARY));
+                };
+            }
+
+            // Warm up the statement and the page cache
+            for (int i = 0; i < 50; i++) {
+                storage.searchConversations(project, queries[i], 50);
+            }
+
+            long[] nanos = new long[SEARCHES];
+            int results = 0;
+            for (int i = 0; i < SEARCHES; i++) {
+                long start = System.nanoTime();
+                results += storage.searchConversations(project, queries[i], 50).size();
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+
+            System.out.printf("Conversations: %d, messages: %d, database: %d KB, results: %d%n",
+                    CONVERSATIONS, CONVERSATIONS * MESSAGES_PER_CONVERSATION, Files.size(dbPath) / 1024, results);
+            System.out.printf("Search p50: %.2f ms, p95: %.2f ms, max: %.2f ms (target < %d ms)%n",
+                    millis(nanos[SEARCHES / 2]), millis(nanos[SEARCHES * 95 / 100]), millis(nanos[SEARCHES - 1]), TARGET_MILLIS);
+        } finally {
+            storage.dispose();
+        }
+    }
+
+    private static @NotNull Conversation conversation(int index, @NotNull Random random) {
+        Conversation conversation = new Conversation();
+        conversation.setId(String.valueOf(index));
+        conversation.setTimestamp(String.format("2025-01-01T10:%02d:%02d", index / 60 % 60, index % 60));
+        conversation.setTitle(word(random.nextInt(VOCABULARY)) + " " + word(random.nextInt(VOCABULARY)));
+        for (int i = 0; i < MESSAGES_PER_CONVERSATION; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_MESSAGE; w++) {
+                // Skewed towards the first words of the vocabulary, like natural text
+                int rank = (int) Math.min(VOCABULARY - 1, Math.abs(random.nextGaussian()) * VOCABULARY / 4);
+                content.append(word(rank)).append(' ');
+            }
+            conversation.getMessages().add(new ChatMessage(i % 2 == 0, content.toString(), conversation.getTimestamp()));
+        }
+        return conversation;
+    }
+
+    private static @NotNull String word(int rank) {
+        // Three or four letters and digits, spread over the prefixes
+        return Integer.toString(1_296 + rank * 331 % 45_000, 36);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
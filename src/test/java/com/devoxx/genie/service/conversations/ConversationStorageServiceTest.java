@@ -0,0 +1,233 @@
+package com.devoxx.genie.service.conversations;
+
+import com.devoxx.genie.model.conversation.ChatMessage;
+import com.devoxx.genie.model.conversation.Conversation;
+import com.devoxx.genie.model.conversation.ConversationSearchResult;
+import com.intellij.openapi.project.Project;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static com.devoxx.genie.model.conversation.ConversationSearchResult.HIGHLIGHT_END;
+import static com.devoxx.genie.model.conversation.ConversationSearchResult.HIGHLIGHT_START;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConversationStorageServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Project project = mock(Project.class);
+    private Path dbPath;
+    private ConversationStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        when(project.getLocationHash()).thenReturn("project-hash");
+        dbPath = tempDir.resolve("conversations.db");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (storage != null) {
+            storage.dispose();
+        }
+    }
+
+    @Test
+    void addConversation_storesHeadersAndMessages() {
+        storage = open();
+
+        storage.addConversation(project, conversation("1", "2025-01-01T10:00", "first")).join();
+        storage.addConversation(project, conversation("2", "2025-01-02T10:00", "second")).join();
+        storage.addConversation(project, conversation("3", "2025-01-03T10:00", "third")).join();
+
+        assertThat(storage.countConversations(project)).isEqualTo(3);
+        assertThat(storage.getConversationHeaders(project, 0, 2))
+                .extracting(Conversation::getTitle)
+                .containsExactly("third", "second");
+        assertThat(storage.getConversationHeaders(project, 2, 2))
+                .extracting(Conversation::getTitle)
+                .containsExactly("first");
+        assertThat(storage.getConversationHeaders(project, 0, 10))
+                .allSatisfy(header -> assertThat(header.getMessages()).isEmpty());
+
+        List<ChatMessage> messages = storage.getMessages("2");
+        assertThat(messages).extracting(ChatMessage::getContent).containsExactly("second question", "second answer");
+        assertThat(messages).extracting(ChatMessage::isUser).containsExactly(true, false);
+    }
+
+    @Test
+    void removeConversation_deletesItsMessages() {
+        storage = open();
+        storage.addConversation(project, conversation("1", "2025-01-01T10:00", "first")).join();
+        storage.addConversation(project, conversation("2", "2025-01-02T10:00", "second")).join();
+
+        storage.removeConversation(project, conversation("1", "2025-01-01T10:00", "first")).join();
+
+        assertThat(storage.countConversations(project)).isEqualTo(1);
+        assertThat(storage.getMessages("1")).isEmpty();
+        assertThat(storage.getMessages("2")).hasSize(2);
+    }
+
+    @Test
+    void clearAllConversations_onlyClearsTheProject() {
+        Project otherProject = mock(Project.class);
+        when(otherProject.getLocationHash()).thenReturn("other-hash");
+        storage = open();
+        storage.addConversation(project, conversation("1", "2025-01-01T10:00", "first")).join();
+        storage.addConversation(otherProject, conversation("2", "2025-01-02T10:00", "other")).join();
+
+        storage.clearAllConversations(project).join();
+
+        assertThat(storage.countConversations(project)).isZero();
+        assertThat(storage.countConversations(otherProject)).isEqualTo(1);
+    }
+
+    @Test
+    void reopen_keepsConversationsAndSchemaVersion() throws Exception {
+        storage = open();
+        storage.addConversation(project, conversation("1", "2025-01-01T10:00", "first")).join();
+        storage.dispose();
+
+        storage = open();
+
+        assertThat(storage.countConversations(project)).isEqualTo(1);
+        assertThat(query("SELECT COUNT(*) FROM schema_version")).isEqualTo(4);
+    }
+
+    @Test
+    void migration_addsIsUserColumnToLegacyDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE conversations (id TEXT PRIMARY KEY, projectHash TEXT, timestamp TEXT, title TEXT, " +
+                    "llmProvider TEXT, modelName TEXT, apiKeyUsed INTEGER, inputCost INTEGER, outputCost INTEGER, " +
+                    "contextWindow INTEGER, executionTimeMs INTEGER)");
+            statement.execute("CREATE TABLE chat_messages (id INTEGER PRIMARY KEY AUTOINCREMENT, conversationId TEXT, content TEXT)");
+            statement.execute("INSERT INTO conversations (id, projectHash, timestamp, title) VALUES ('1', 'project-hash', '2025-01-01T10:00', 'legacy')");
+            statement.execute("INSERT INTO chat_messages (conversationId, content) VALUES ('1', 'question'), ('1', 'answer')");
+        }
+
+        storage = open();
+
+        assertThat(storage.getMessages("1")).extracting(ChatMessage::isUser).containsExactly(true, false);
+    }
+
+    @Test
+    void searchConversations_ranksTitleMatchesFirst() {
+        storage = open();
+        Conversation inMessage = conversation("1", "2025-01-01T10:00", "first");
+        inMessage.getMessages().add(new ChatMessage(false, "You can use a record for that", "2025-01-01T10:00"));
+        storage.addConversation(project, inMessage).join();
+        storage.addConversation(project, conversation("2", "2025-01-02T10:00", "Java records")).join();
+        storage.addConversation(project, conversation("3", "2025-01-03T10:00", "unrelated")).join();
+
+        List<ConversationSearchResult> results = storage.searchConversations(project, "record", 10);
+
+        assertThat(results).extracting(result -> result.conversation().getId()).containsExactly("2", "1");
+        assertThat(results.get(1).snippet()).contains(HIGHLIGHT_START + "record" + HIGHLIGHT_END);
+    }
+
+    @Test
+    void searchConversations_onlySearchesTheProject() {
+        Project otherProject = mock(Project.class);
+        when(otherProject.getLocationHash()).thenReturn("other-hash");
+        storage = open();
+        storage.addConversation(project, conversation("1", "2025-01-01T10:00", "gradle build")).join();
+        storage.addConversation(otherProject, conversation("2", "2025-01-02T10:00", "gradle build")).join();
+
+        assertThat(storage.searchConversations(project, "gradle", 10))
+                .extracting(result -> result.conversation().getId())
+                .containsExactly("1");
+    }
+
+    @Test
+    void searchConversations_treatsOperatorsAndQuotesAsText() {
+        storage = open();
+        storage.addConversation(project, conversation("1", "2025-01-01T10:00", "say \"hello\" OR NOT")).join();
+
+        assertThat(storage.searchConversations(project, "\"hello\" OR", 10)).hasSize(1);
+        assertThat(storage.searchConversations(project, "NOT (*", 10)).hasSize(1);
+        assertThat(storage.searchConversations(project, "\" * ()", 10)).isEmpty();
+    }
+
+    @Test
+    void searchConversations_dropsRemovedConversations() {
+        storage = open();
+        storage.addConversation(project, conversation("1", "2025-01-01T10:00", "kotlin coroutines")).join();
+
+        storage.removeConversation(project, conversation("1", "2025-01-01T10:00", "kotlin coroutines")).join();
+
+        assertThat(storage.searchConversations(project, "coroutines", 10)).isEmpty();
+    }
+
+    @Test
+    void searchIndex_readsMessageContentsFromTheMessagesTable() throws Exception {
+        storage = open();
+        storage.addConversation(project, conversation("1", "2025-01-01T10:00", "gradle build")).join();
+
+        // An external-content index has no copy of the contents
+        assertThat(query("SELECT COUNT(*) FROM sqlite_master WHERE name = 'conversation_search_content'")).isZero();
+        assertThat(storage.searchConversations(project, "answer", 10)).hasSize(1);
+    }
+
+    @Test
+    void migration_indexesExistingConversations() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE conversations (id TEXT PRIMARY KEY, projectHash TEXT, timestamp TEXT, title TEXT, " +
+                    "llmProvider TEXT, modelName TEXT, apiKeyUsed INTEGER, inputCost INTEGER, outputCost INTEGER, " +
+                    "contextWindow INTEGER, executionTimeMs INTEGER)");
+            statement.execute("CREATE TABLE chat_messages (id INTEGER PRIMARY KEY AUTOINCREMENT, conversationId TEXT, content TEXT)");
+            statement.execute("INSERT INTO conversations (id, projectHash, timestamp, title) VALUES ('1', 'project-hash', '2025-01-01T10:00', 'legacy')");
+            statement.execute("INSERT INTO chat_messages (conversationId, content) VALUES ('1', 'how do virtual threads work')");
+        }
+
+        storage = open();
+
+        assertThat(storage.searchConversations(project, "virtual thr", 10))
+                .extracting(result -> result.conversation().getId())
+                .containsExactly("1");
+    }
+
+    @Test
+    void toMatchQuery_quotesTermsAndPrefixesTheLastOne() {
+        assertThat(ConversationStorageService.toMatchQuery("  java   rec ")).isEqualTo("\"java\" \"rec\"*");
+        assertThat(ConversationStorageService.toMatchQuery("say \"hi\"")).isEqualTo("\"say\" \"\"\"hi\"\"\"*");
+        assertThat(ConversationStorageService.toMatchQuery("- * ()")).isNull();
+        assertThat(ConversationStorageService.toMatchQuery("")).isNull();
+    }
+
+    private ConversationStorageService open() {
+        return new ConversationStorageService(dbPath, Executors.newSingleThreadExecutor());
+    }
+
+    private int query(String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    private static Conversation conversation(String id, String timestamp, String title) {
+        Conversation conversation = new Conversation();
+        conversation.setId(id);
+        conversation.setTimestamp(timestamp);
+        conversation.setTitle(title);
+        conversation.getMessages().add(new ChatMessage(true, title + " question", timestamp));
+        conversation.getMessages().add(new ChatMessage(false, title + " answer", timestamp));
+        return conversation;
+    }
+}
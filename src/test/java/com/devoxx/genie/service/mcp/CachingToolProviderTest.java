@@ -0,0 +1,62 @@
+package com.devoxx.genie.service.mcp;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.service.tool.ToolExecutor;
+import dev.langchain4j.service.tool.ToolProvider;
+import dev.langchain4j.service.tool.ToolProviderRequest;
+import dev.langchain4j.service.tool.ToolProviderResult;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingToolProviderTest {
+
+    private final ToolProvider delegate = mock(ToolProvider.class);
+    private final CachingToolProvider provider = new CachingToolProvider(delegate);
+
+    @Test
+    void provideTools_listsToolsOnce() {
+        ToolProviderResult tools = tools("read_file");
+        when(delegate.provideTools(any())).thenReturn(tools);
+
+        assertThat(provider.provideTools(mock(ToolProviderRequest.class))).isSameAs(tools);
+        assertThat(provider.provideTools(mock(ToolProviderRequest.class))).isSameAs(tools);
+
+        verify(delegate, times(1)).provideTools(any());
+    }
+
+    @Test
+    void invalidate_listsToolsAgain() {
+        ToolProviderResult before = tools("read_file");
+        ToolProviderResult after = tools("read_file", "write_file");
+        when(delegate.provideTools(any())).thenReturn(before, after);
+
+        provider.provideTools(mock(ToolProviderRequest.class));
+        provider.invalidate();
+
+        assertThat(provider.provideTools(mock(ToolProviderRequest.class))).isSameAs(after);
+    }
+
+    @Test
+    void provideTools_doesNotCacheFailure() {
+        ToolProviderResult tools = tools("read_file");
+        when(delegate.provideTools(any()))
+                .thenThrow(new IllegalStateException("server not started"))
+                .thenReturn(tools);
+
+        assertThatThrownBy(() -> provider.provideTools(mock(ToolProviderRequest.class)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(provider.provideTools(mock(ToolProviderRequest.class))).isSameAs(tools);
+    }
+
+    private static ToolProviderResult tools(String... names) {
+        ToolProviderResult.Builder builder = ToolProviderResult.builder();
+        for (String name : names) {
+            builder.add(ToolSpecification.builder().name(name).build(), mock(ToolExecutor.class));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,219 @@
+package com.devoxx.genie.service.mcp;
+
+import com.devoxx.genie.model.mcp.MCPServer;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.mcp.client.McpClient;
+import dev.langchain4j.service.tool.ToolProviderResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MCPServerSupervisorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private MCPServerSupervisor supervisor;
+
+    @AfterEach
+    void tearDown() {
+        if (supervisor != null) {
+            supervisor.stopAll();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sync_startsServersConcurrently() {
+        // Every start waits for the other starts, which only succeeds when they run at the same time
+        CountDownLatch allStarting = new CountDownLatch(3);
+        supervisor = supervisor(server -> {
+            allStarting.countDown();
+            try {
+                return allStarting.await(5, TimeUnit.SECONDS) ? mock(McpClient.class) : null;
+            } catch (InterruptedException e) {
+                return null;
+            }
+        });
+
+        supervisor.sync(List.of(server("a"), server("b"), server("c")));
+        supervisor.awaitStarted(Duration.ofSeconds(10));
+
+        assertThat(List.of("a", "b", "c"))
+                .allSatisfy(name -> assertThat(supervisor.getStatus(name).state()).isEqualTo(MCPServerSupervisor.State.READY));
+    }
+
+    @Test
+    void awaitStarted_continuesWithTheReadyServers() {
+        CountDownLatch slowServer = new CountDownLatch(1);
+        supervisor = supervisor(server -> {
+            if (server.getName().equals("slow")) {
+                try {
+                    slowServer.await();
+                } catch (InterruptedException e) {
+                    return null;
+                }
+            }
+            return mock(McpClient.class);
+        });
+
+        supervisor.sync(List.of(server("fast"), server("slow")));
+        supervisor.awaitStarted(Duration.ofMillis(200));
+
+        assertThat(supervisor.hasReadyServers()).isTrue();
+        assertThat(supervisor.getStatus("fast").state()).isEqualTo(MCPServerSupervisor.State.READY);
+        assertThat(supervisor.getStatus("slow").state()).isEqualTo(MCPServerSupervisor.State.STARTING);
+        slowServer.countDown();
+    }
+
+    @Test
+    void failedStart_isRestartedWithBackoff() {
+        McpClient client = mock(McpClient.class);
+        Map<String, Integer> attempts = new ConcurrentHashMap<>();
+        supervisor = supervisor(server -> attempts.merge(server.getName(), 1, Integer::sum) == 1 ? null : client);
+
+        supervisor.sync(List.of(server("flaky")));
+        supervisor.awaitStarted(Duration.ofSeconds(5));
+        assertThat(supervisor.getStatus("flaky").state()).isEqualTo(MCPServerSupervisor.State.FAILED);
+
+        ArgumentCaptor<Runnable> restart = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(restart.capture(), eq(MCPServerSupervisor.INITIAL_BACKOFF_MS), eq(TimeUnit.MILLISECONDS));
+        restart.getValue().run();
+        supervisor.awaitStarted(Duration.ofSeconds(5));
+
+        MCPServerSupervisor.ServerStatus status = supervisor.getStatus("flaky");
+        assertThat(status.state()).isEqualTo(MCPServerSupervisor.State.READY);
+        assertThat(status.restarts()).isEqualTo(1);
+    }
+
+    @Test
+    void backoff_isCapped() {
+        assertThat(MCPServerSupervisor.backoffMillis(1)).isEqualTo(MCPServerSupervisor.INITIAL_BACKOFF_MS);
+        assertThat(MCPServerSupervisor.backoffMillis(2)).isEqualTo(2 * MCPServerSupervisor.INITIAL_BACKOFF_MS);
+        assertThat(MCPServerSupervisor.backoffMillis(100)).isEqualTo(MCPServerSupervisor.MAX_BACKOFF_MS);
+    }
+
+    @Test
+    void provideTools_timesToolCalls() {
+        McpClient client = mock(McpClient.class);
+        ToolSpecification tool = ToolSpecification.builder().name("read_file").build();
+        when(client.listTools()).thenReturn(List.of(tool));
+        when(client.executeTool(any())).thenReturn("content");
+        supervisor = supervisor(server -> client);
+        supervisor.sync(List.of(server("files")));
+        supervisor.awaitStarted(Duration.ofSeconds(5));
+
+        ToolProviderResult result = supervisor.provideTools();
+        String output = result.tools().get(tool)
+                .execute(ToolExecutionRequest.builder().name("read_file").arguments("{}").build(), null);
+
+        assertThat(output).isEqualTo("content");
+        assertThat(supervisor.getStatus("files").toolCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void failedToolCall_doesNotRestartServer() {
+        McpClient client = mock(McpClient.class);
+        ToolSpecification tool = ToolSpecification.builder().name("read_file").build();
+        when(client.listTools()).thenReturn(List.of(tool));
+        when(client.executeTool(any())).thenThrow(new IllegalArgumentException("No such file"));
+        supervisor = supervisor(server -> client);
+        supervisor.sync(List.of(server("files")));
+        supervisor.awaitStarted(Duration.ofSeconds(5));
+
+        ToolProviderResult result = supervisor.provideTools();
+        ToolExecutionRequest request = ToolExecutionRequest.builder().name("read_file").arguments("{}").build();
+        assertThatThrownBy(() -> result.tools().get(tool).execute(request, null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        MCPServerSupervisor.ServerStatus status = supervisor.getStatus("files");
+        assertThat(status.state()).isEqualTo(MCPServerSupervisor.State.READY);
+        assertThat(status.toolCalls()).isEqualTo(1);
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void isConnectionFailure_looksForAnIoErrorInTheCauses() {
+        assertThat(MCPServerSupervisor.isConnectionFailure(
+                new RuntimeException(new ExecutionException(new IOException("Broken pipe"))))).isTrue();
+        assertThat(MCPServerSupervisor.isConnectionFailure(new IllegalStateException("Tool failed"))).isFalse();
+    }
+
+    @Test
+    void lateFailureOfReplacedClient_doesNotRestartServer() {
+        McpClient first = mock(McpClient.class);
+        McpClient second = mock(McpClient.class);
+        ToolSpecification tool = ToolSpecification.builder().name("read_file").build();
+        when(first.listTools()).thenReturn(List.of(tool));
+        when(first.executeTool(any())).thenThrow(new UncheckedIOException(new IOException("Connection closed")));
+        Map<String, Integer> attempts = new ConcurrentHashMap<>();
+        supervisor = supervisor(server -> attempts.merge(server.getName(), 1, Integer::sum) == 1 ? first : second);
+        supervisor.sync(List.of(server("files")));
+        supervisor.awaitStarted(Duration.ofSeconds(5));
+
+        ToolProviderResult result = supervisor.provideTools();
+        ToolExecutionRequest request = ToolExecutionRequest.builder().name("read_file").arguments("{}").build();
+        try {
+            result.tools().get(tool).execute(request, null);
+        } catch (UncheckedIOException e) {
+            // The first client fails and is replaced
+        }
+        ArgumentCaptor<Runnable> restart = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(restart.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        restart.getValue().run();
+        supervisor.awaitStarted(Duration.ofSeconds(5));
+
+        try {
+            result.tools().get(tool).execute(request, null);
+        } catch (UncheckedIOException e) {
+            // A late call on the first client
+        }
+
+        assertThat(supervisor.getStatus("files").state()).isEqualTo(MCPServerSupervisor.State.READY);
+        verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void sync_restartsReconfiguredServer() throws Exception {
+        McpClient first = mock(McpClient.class);
+        McpClient second = mock(McpClient.class);
+        supervisor = supervisor(server -> server.getCommand().equals("v1") ? first : second);
+
+        supervisor.sync(List.of(server("files")));
+        supervisor.awaitStarted(Duration.ofSeconds(5));
+        long generation = supervisor.generation();
+
+        MCPServer reconfigured = server("files");
+        reconfigured.setCommand("v2");
+        supervisor.sync(List.of(reconfigured));
+        supervisor.awaitStarted(Duration.ofSeconds(5));
+
+        verify(first).close();
+        assertThat(supervisor.generation()).isGreaterThan(generation);
+        assertThat(supervisor.getStatus("files").state()).isEqualTo(MCPServerSupervisor.State.READY);
+    }
+
+    private MCPServerSupervisor supervisor(Function<MCPServer, McpClient> clientFactory) {
+        return new MCPServerSupervisor(clientFactory, executor, scheduler, 0);
+    }
+
+    private static MCPServer server(String name) {
+        return MCPServer.builder()
+                .name(name)
+                .command("v1")
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.devoxx.genie.service.models;
+
+import com.devoxx.genie.model.LanguageModel;
+import com.devoxx.genie.model.enumarations.ModelProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelCatalogueTest {
+
+    @Test
+    void of_indexesModelsByProviderAndName() {
+        ModelCatalogue catalogue = ModelCatalogue.of(List.of(
+                model(ModelProvider.OpenAI, "gpt-4o", 2.5),
+                model(ModelProvider.Anthropic, "claude", 3),
+                model(ModelProvider.OpenAI, "gpt-4o-mini", 0.15)));
+
+        assertThat(catalogue.getModels()).hasSize(3);
+        assertThat(catalogue.getModels(ModelProvider.OpenAI))
+                .extracting(LanguageModel::getModelName)
+                .containsExactly("gpt-4o", "gpt-4o-mini");
+        assertThat(catalogue.getModels(ModelProvider.Groq)).isEmpty();
+        assertThat(catalogue.findModel(ModelProvider.Anthropic, "claude")).get()
+                .extracting(LanguageModel::getInputCost).isEqualTo(3.0);
+        assertThat(catalogue.findModel(ModelProvider.OpenAI, "claude")).isEmpty();
+    }
+
+    @Test
+    void of_laterModelReplacesEarlierOneWithSameName() {
+        ModelCatalogue catalogue = ModelCatalogue.of(List.of(
+                model(ModelProvider.Bedrock, "mistral", 0),
+                model(ModelProvider.Bedrock, "mistral", 4)));
+
+        assertThat(catalogue.getModels(ModelProvider.Bedrock)).hasSize(1);
+        assertThat(catalogue.findModel(ModelProvider.Bedrock, "mistral")).get()
+                .extracting(LanguageModel::getInputCost).isEqualTo(4.0);
+    }
+
+    @Test
+    void withModels_replacesOnlyTheGivenProvider() {
+        ModelCatalogue catalogue = ModelCatalogue.of(List.of(
+                model(ModelProvider.OpenAI, "gpt-4o", 2.5),
+                model(ModelProvider.Ollama, "llama3", 0)));
+
+        ModelCatalogue updated = catalogue.withModels(ModelProvider.Ollama, List.of(
+                model(ModelProvider.Ollama, "qwen", 0),
+                model(ModelProvider.OpenAI, "ignored", 0)));
+
+        assertThat(updated.findModel(ModelProvider.Ollama, "qwen")).isPresent();
+        assertThat(updated.findModel(ModelProvider.Ollama, "llama3")).isEmpty();
+        assertThat(updated.findModel(ModelProvider.OpenAI, "ignored")).isEmpty();
+        assertThat(updated.findModel(ModelProvider.OpenAI, "gpt-4o")).isPresent();
+        // The original catalogue is unchanged
+        assertThat(catalogue.findModel(ModelProvider.Ollama, "llama3")).isPresent();
+
+        assertThat(updated.withModels(ModelProvider.Ollama, List.of()).hasModels(ModelProvider.Ollama)).isFalse();
+    }
+
+    private static LanguageModel model(ModelProvider provider, String name, double inputCost) {
+        return LanguageModel.builder()
+                .provider(provider)
+                .modelName(name)
+                .displayName(name)
+                .inputCost(inputCost)
+                .inputMaxTokens(8_000)
+                .build();
+    }
+}
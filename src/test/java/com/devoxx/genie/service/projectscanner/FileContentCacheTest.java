@@ -0,0 +1,119 @@
+package com.devoxx.genie.service.projectscanner;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileContentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void get_returnsEntryForUnchangedFile() {
+        FileContentCache cache = new FileContentCache();
+        VirtualFile file = mockFile("/project/src/Main.java", 100L, 42L);
+
+        cache.put(file, "content", 7);
+
+        FileContentCache.Entry entry = cache.get(file);
+        assertThat(entry).isNotNull();
+        assertThat(entry.content()).isEqualTo("content");
+        assertThat(entry.tokenCount()).isEqualTo(7);
+    }
+
+    @Test
+    void get_dropsEntryWhenTimeStampOrLengthChanged() {
+        FileContentCache cache = new FileContentCache();
+        VirtualFile file = mockFile("/project/src/Main.java", 100L, 42L);
+        cache.put(file, "content", 7);
+
+        when(file.getTimeStamp()).thenReturn(200L);
+
+        assertThat(cache.get(file)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidate_removesFileAndEverythingBelowDirectory() {
+        FileContentCache cache = new FileContentCache();
+        cache.put(mockFile("/project/src/Main.java", 1L, 1L), "a", 1);
+        cache.put(mockFile("/project/src/util/Util.java", 1L, 1L), "b", 1);
+        cache.put(mockFile("/project/srcgen/Gen.java", 1L, 1L), "c", 1);
+        cache.put(mockFile("/project/README.md", 1L, 1L), "d", 1);
+
+        cache.invalidate("/project/src", true);
+        cache.invalidate("/project/README.md", false);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(mockFile("/project/srcgen/Gen.java", 1L, 1L))).isNotNull();
+    }
+
+    @Test
+    void invalidate_fileKeepsEntriesWithSamePrefix() {
+        FileContentCache cache = new FileContentCache();
+        cache.put(mockFile("/project/src/Main.java", 1L, 1L), "a", 1);
+        cache.put(mockFile("/project/src/Main.java/Nested.java", 1L, 1L), "b", 1);
+
+        cache.invalidate("/project/src/Main.java", false);
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void ensureVariant_clearsCacheWhenSettingsChange() {
+        FileContentCache cache = new FileContentCache();
+        cache.ensureVariant("excludeJavaDoc=false");
+        cache.put(mockFile("/project/src/Main.java", 1L, 1L), "a", 1);
+
+        cache.ensureVariant("excludeJavaDoc=false");
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.ensureVariant("excludeJavaDoc=true");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void saveAndLoad_roundTripsEntries() {
+        Path cacheFile = tempDir.resolve("scan-cache").resolve("project.bin");
+        VirtualFile file = mockFile("/project/src/Main.java", 100L, 42L);
+
+        FileContentCache cache = new FileContentCache();
+        cache.ensureVariant("excludeJavaDoc=true");
+        cache.put(file, "\n--- /project/src/Main.java ---\nclass Main { String s = \"é\"; }\n", 12);
+        cache.save(cacheFile);
+
+        FileContentCache loaded = new FileContentCache();
+        loaded.load(cacheFile);
+
+        FileContentCache.Entry entry = loaded.get(file);
+        assertThat(entry).isNotNull();
+        assertThat(entry.content()).isEqualTo("\n--- /project/src/Main.java ---\nclass Main { String s = \"é\"; }\n");
+        assertThat(entry.tokenCount()).isEqualTo(12);
+
+        // The variant is persisted too, so an unchanged setting keeps the entries
+        loaded.ensureVariant("excludeJavaDoc=true");
+        assertThat(loaded.size()).isEqualTo(1);
+    }
+
+    @Test
+    void load_withMissingFile_leavesCacheEmpty() {
+        FileContentCache cache = new FileContentCache();
+        cache.load(tempDir.resolve("missing.bin"));
+        assertThat(cache.size()).isZero();
+    }
+
+    private static VirtualFile mockFile(String path, long timeStamp, long length) {
+        VirtualFile file = mock(VirtualFile.class);
+        when(file.getPath()).thenReturn(path);
+        when(file.getTimeStamp()).thenReturn(timeStamp);
+        when(file.getLength()).thenReturn(length);
+        return file;
+    }
+}
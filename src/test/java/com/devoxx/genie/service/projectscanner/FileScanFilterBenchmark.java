@@ -0,0 +1,211 @@
+package com.devoxx.genie.service.projectscanner;
+
+import com.devoxx.genie.service.DevoxxGenieSettingsService;
+import nl.basjes.gitignore.GitIgnoreFileSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Walks a synthetic tree of 100k paths with the compiled filter and with the previous per-file checks, which
+ * searched the settings lists, matched every file against the .gitignore rules twice and built log messages.
+ *
+ * <p>The tree has source, build output and dependency directories in 50 modules, like a typical multi-module
+ * project. Both walks skip the subtree of an excluded directory, as the scanner does.</p>
+ *
+ * <p>Run with: {@code ./gradlew test --tests FileScanFilterBenchmark -Ddevoxxgenie.benchmark=true}</p>
+ */
+@EnabledIfSystemProperty(named = "devoxxgenie.benchmark", matches = "true")
+class FileScanFilterBenchmark {
+
+    private static final int PATHS = 100_000;
+    private static final int MODULES = 50;
+    private static final int FILES_PER_DIRECTORY = 20;
+
+    private static final List<String> EXCLUDED_DIRECTORIES = List.of("build", ".git", ".gradle", ".idea", "node_modules", "out", "target");
+    private static final List<String> EXCLUDED_FILES = List.of("package-lock.json", "yarn.lock", ".env");
+    private static final List<String> INCLUDED_EXTENSIONS = List.of("java", "kt", "groovy", "xml", "md", "ts", "js", "py", "json", "yaml");
+
+    private static final String[] DIRECTORY_KINDS = {"src/main/java", "src/test/java", "src/main/resources", "build/classes",
+            "node_modules/lib", "generated/sources", "docs", "web/app"};
+    private static final String[] EXTENSIONS = {"java", "kt", "xml", "md", "ts", "log", "class", "json", null, "png"};
+
+    private record Directory(String name, String path, List<Directory> directories, List<SyntheticFile> files) {
+    }
+
+    private record SyntheticFile(String name, String path, @Nullable String extension) {
+    }
+
+    private interface Strategy {
+        boolean excludesDirectory(Directory directory);
+
+        boolean includesFile(SyntheticFile file);
+    }
+
+    // Keeps the log messages of the baseline from being optimized away
+    private long messageChars;
+
+    @Test
+    void walkSyntheticTree(@TempDir Path projectDir) throws IOException {
+        Files.writeString(projectDir.resolve(".gitignore"), "generated\n*.log\ntmp-*\n");
+        GitIgnoreFileSet gitIgnoreFileSet = new GitIgnoreFileSet(projectDir.toFile());
+        Directory root = createTree(projectDir.toString().replace('\\', '/'));
+
+        // Warm up both walks
+        for (int i = 0; i < 3; i++) {
+            walkCompiled(root, gitIgnoreFileSet);
+            walkBaseline(root, gitIgnoreFileSet);
+        }
+
+        long start = System.nanoTime();
+        int[] compiled = walkCompiled(root, gitIgnoreFileSet);
+        long compiledNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int[] baseline = walkBaseline(root, gitIgnoreFileSet);
+        long baselineNanos = System.nanoTime() - start;
+
+        assertEquals(baseline[0], compiled[0], "included files");
+        assertEquals(baseline[1], compiled[1], "visited files");
+
+        System.out.printf("Paths: %d, visited files: %d, included files: %d%n", PATHS, compiled[1], compiled[0]);
+        System.out.printf("Compiled filter: %8.3f µs/path (total %d ms)%n",
+                compiledNanos / 1_000.0 / PATHS, compiledNanos / 1_000_000);
+        System.out.printf("Per-file checks: %8.3f µs/path (total %d ms, %d log chars)%n",
+                baselineNanos / 1_000.0 / PATHS, baselineNanos / 1_000_000, messageChars);
+        System.out.printf("Speedup: %.1fx%n", (double) baselineNanos / compiledNanos);
+    }
+
+    private int[] walkCompiled(@NotNull Directory root, GitIgnoreFileSet gitIgnoreFileSet) {
+        // Compiled once per scan, as FileScanner does
+        FileScanFilter filter = FileScanFilter.compile(settings(), gitIgnoreFileSet);
+        return walk(root, new Strategy() {
+            @Override
+            public boolean excludesDirectory(Directory directory) {
+                return filter.excludesDirectory(directory.name(), directory.path());
+            }
+
+            @Override
+            public boolean includesFile(SyntheticFile file) {
+                return filter.includesFile(file.name(), file.path(), file.extension());
+            }
+        });
+    }
+
+    private int[] walkBaseline(@NotNull Directory root, GitIgnoreFileSet gitIgnoreFileSet) {
+        return walk(root, new Strategy() {
+            @Override
+            public boolean excludesDirectory(Directory directory) {
+                messageChars += ("Visiting directory: " + directory.path()).length();
+                return EXCLUDED_DIRECTORIES.contains(directory.name()) ||
+                        EXCLUDED_DIRECTORIES.contains(directory.path()) ||
+                        excludesFile(directory.name(), directory.path());
+            }
+
+            @Override
+            public boolean includesFile(SyntheticFile file) {
+                messageChars += ("Checking file: " + file.path()).length();
+                boolean shouldNotExclude = !excludesFile(file.name(), file.path());
+                // shouldIncludeFile checked the exclusion again
+                if (excludesFile(file.name(), file.path()) || file.extension() == null) {
+                    return false;
+                }
+                String extension = file.extension().toLowerCase(Locale.ROOT);
+                messageChars += ("File: " + file.path() + ", Extension: " + extension + ", Included extensions: " + INCLUDED_EXTENSIONS).length();
+                boolean shouldInclude = INCLUDED_EXTENSIONS.contains(extension);
+                messageChars += ("File checks: shouldNotExclude=" + shouldNotExclude + ", shouldInclude=" + shouldInclude).length();
+                return shouldNotExclude && shouldInclude;
+            }
+
+            private boolean excludesFile(String name, String path) {
+                if (EXCLUDED_FILES.contains(name)) {
+                    return true;
+                }
+                try {
+                    return gitIgnoreFileSet.ignoreFile(path);
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the included and the visited files
+     */
+    private static int[] walk(@NotNull Directory root, @NotNull Strategy strategy) {
+        int[] counts = new int[2];
+        walk(root, strategy, counts);
+        return counts;
+    }
+
+    private static void walk(@NotNull Directory directory, @NotNull Strategy strategy, int[] counts) {
+        for (SyntheticFile file : directory.files()) {
+            counts[1]++;
+            if (strategy.includesFile(file)) {
+                counts[0]++;
+            }
+        }
+        for (Directory child : directory.directories()) {
+            if (!strategy.excludesDirectory(child)) {
+                walk(child, strategy, counts);
+            }
+        }
+    }
+
+    private static @NotNull DevoxxGenieSettingsService settings() {
+        DevoxxGenieSettingsService settings = mock(DevoxxGenieSettingsService.class);
+        when(settings.getExcludedDirectories()).thenReturn(EXCLUDED_DIRECTORIES);
+        when(settings.getExcludedFiles()).thenReturn(EXCLUDED_FILES);
+        when(settings.getIncludedFileExtensions()).thenReturn(INCLUDED_EXTENSIONS);
+        when(settings.getUseGitIgnore()).thenReturn(true);
+        return settings;
+    }
+
+    private static @NotNull Directory createTree(@NotNull String rootPath) {
+        Directory root = directory(rootPath.substring(rootPath.lastIndexOf('/') + 1), rootPath);
+        int paths = 0;
+        for (int packageIndex = 0; paths < PATHS; packageIndex++) {
+            Directory parent = root;
+            String relative = "module" + (packageIndex % MODULES) + "/" + DIRECTORY_KINDS[packageIndex % DIRECTORY_KINDS.length] +
+                    "/package" + packageIndex;
+            for (String name : relative.split("/")) {
+                parent = child(parent, name);
+            }
+            for (int i = 0; i < FILES_PER_DIRECTORY && paths < PATHS; i++, paths++) {
+                String extension = EXTENSIONS[(packageIndex + i) % EXTENSIONS.length];
+                String name = (i % 17 == 0 ? "tmp-" : "File") + i + (extension == null ? "" : "." + extension);
+                parent.files().add(new SyntheticFile(name, parent.path() + "/" + name, extension));
+            }
+        }
+        return root;
+    }
+
+    private static @NotNull Directory child(@NotNull Directory parent, @NotNull String name) {
+        for (Directory directory : parent.directories()) {
+            if (directory.name().equals(name)) {
+                return directory;
+            }
+        }
+        Directory directory = directory(name, parent.path() + "/" + name);
+        parent.directories().add(directory);
+        return directory;
+    }
+
+    private static @NotNull Directory directory(@NotNull String name, @NotNull String path) {
+        return new Directory(name, path, new ArrayList<>(), new ArrayList<>());
+    }
+}
@@ -0,0 +1,96 @@
+package com.devoxx.genie.service.projectscanner;
+
+import com.devoxx.genie.service.DevoxxGenieSettingsService;
+import nl.basjes.gitignore.GitIgnoreFileSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileScanFilterTest {
+
+    private DevoxxGenieSettingsService settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = mock(DevoxxGenieSettingsService.class);
+        when(settings.getExcludedDirectories()).thenReturn(List.of("node_modules", "/project/generated"));
+        when(settings.getExcludedFiles()).thenReturn(List.of("secrets.properties"));
+        when(settings.getIncludedFileExtensions()).thenReturn(List.of("java", "md"));
+        when(settings.getUseGitIgnore()).thenReturn(false);
+    }
+
+    @Test
+    void excludesDirectoriesByNameAndPath() {
+        FileScanFilter filter = FileScanFilter.compile(settings, null);
+
+        assertThat(filter.excludesDirectory("node_modules", "/project/web/node_modules")).isTrue();
+        assertThat(filter.excludesDirectory("generated", "/project/generated")).isTrue();
+        assertThat(filter.excludesDirectory("generated", "/project/src/generated")).isFalse();
+        assertThat(filter.excludesDirectory("src", "/project/src")).isFalse();
+    }
+
+    @Test
+    void includesFilesWithIncludedExtension() {
+        FileScanFilter filter = FileScanFilter.compile(settings, null);
+
+        assertThat(filter.includesFile("Main.java", "/project/src/Main.java", "java")).isTrue();
+        assertThat(filter.includesFile("README.MD", "/project/README.MD", "MD")).isTrue();
+        assertThat(filter.includesFile("build.gradle", "/project/build.gradle", "gradle")).isFalse();
+        assertThat(filter.includesFile("Makefile", "/project/Makefile", null)).isFalse();
+    }
+
+    @Test
+    void excludedFileIsNotIncluded() {
+        FileScanFilter filter = FileScanFilter.compile(settings, null);
+
+        assertThat(filter.excludesFile("secrets.properties", "/project/secrets.properties")).isTrue();
+        assertThat(filter.includesFile("secrets.properties", "/project/secrets.properties", "properties")).isFalse();
+    }
+
+    @Test
+    void gitIgnoredDirectoryExcludesEverythingBelowIt(@TempDir Path projectDir) throws IOException {
+        // A pattern with a trailing slash only matches directories
+        Files.writeString(projectDir.resolve(".gitignore"), "target/\nbuild\n*.log\n");
+        GitIgnoreFileSet gitIgnoreFileSet = new GitIgnoreFileSet(projectDir.toFile());
+        when(settings.getUseGitIgnore()).thenReturn(true);
+        String root = projectDir.toString().replace('\\', '/');
+
+        FileScanFilter filter = FileScanFilter.compile(settings, gitIgnoreFileSet);
+
+        assertThat(filter.excludesDirectory("target", root + "/target")).isTrue();
+        assertThat(filter.includesFile("Gen.java", root + "/target/classes/Gen.java", "java")).isFalse();
+        assertThat(filter.excludesDirectory("build", root + "/build")).isTrue();
+        assertThat(filter.includesFile("Gen.java", root + "/build/classes/Gen.java", "java")).isFalse();
+        assertThat(filter.excludesFile("debug.log", root + "/src/debug.log")).isTrue();
+        assertThat(filter.includesFile("Main.java", root + "/src/Main.java", "java")).isTrue();
+    }
+
+    @Test
+    void gitIgnoreIsNotAppliedWhenDisabled(@TempDir Path projectDir) throws IOException {
+        Files.writeString(projectDir.resolve(".gitignore"), "target\n");
+        GitIgnoreFileSet gitIgnoreFileSet = new GitIgnoreFileSet(projectDir.toFile());
+        String root = projectDir.toString().replace('\\', '/');
+
+        FileScanFilter filter = FileScanFilter.compile(settings, gitIgnoreFileSet);
+
+        assertThat(filter.excludesDirectory("target", root + "/target")).isFalse();
+    }
+
+    @Test
+    void detectsChangedSettings() {
+        FileScanFilter filter = FileScanFilter.compile(settings, null);
+        assertThat(filter.isCompiledFrom(settings, null)).isTrue();
+
+        when(settings.getIncludedFileExtensions()).thenReturn(List.of("java", "md", "kt"));
+        assertThat(filter.isCompiledFrom(settings, null)).isFalse();
+    }
+}
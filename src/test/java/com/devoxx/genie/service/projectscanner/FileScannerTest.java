@@ -251,6 +251,23 @@ class FileScannerTest {
         }
     }
 
+    @Test
+    void testIsInExcludedDirectory() {
+        try (MockedStatic<DevoxxGenieStateService> mockedSettings = mockStatic(DevoxxGenieStateService.class)) {
+            mockedSettings.when(DevoxxGenieStateService::getInstance).thenReturn(mockStateService);
+
+            when(mockStateService.getExcludedDirectories()).thenReturn(List.of("node_modules", "build"));
+            when(mockStateService.getExcludedFiles()).thenReturn(List.of());
+            when(mockStateService.getUseGitIgnore()).thenReturn(false);
+
+            // Test & Verify
+            assertTrue(fileScanner.isInExcludedDirectory("/project/web/build/classes/Main.class", "/project", false));
+            assertTrue(fileScanner.isInExcludedDirectory("/project/node_modules", "/project", true));
+            assertFalse(fileScanner.isInExcludedDirectory("/project/src/build.gradle", "/project", false));
+            assertFalse(fileScanner.isInExcludedDirectory("/project/src/main", "/project", true));
+        }
+    }
+
     @Test
     void testShouldExcludeFile() {
         try (MockedStatic<DevoxxGenieStateService> mockedSettings = mockStatic(DevoxxGenieStateService.class)) {
@@ -0,0 +1,119 @@
+package com.devoxx.genie.service.projectscanner;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ProjectScanPipelineTest {
+
+    @Test
+    void run_keepsWalkerOrder() {
+        ContentExtractor extractor = mock(ContentExtractor.class);
+        when(extractor.extractFileContent(any())).thenAnswer(invocation -> {
+            VirtualFile file = invocation.getArgument(0);
+            // Random delays make readers finish out of order
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            return "[" + file.getPath() + "]";
+        });
+
+        List<VirtualFile> files = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            files.add(mockFile("/project/File" + i + ".java"));
+            expected.append("[/project/File").append(i).append(".java]");
+        }
+
+        String content = new ProjectScanPipeline(extractor, mock(TokenCalculator.class), null, 4)
+                .run(files::forEach, null).content();
+
+        assertThat(content).isEqualTo(expected.toString());
+        verify(extractor, times(500)).extractFileContent(any());
+    }
+
+    @Test
+    void run_withNoFiles_returnsEmptyContent() {
+        ContentExtractor extractor = mock(ContentExtractor.class);
+
+        String content = new ProjectScanPipeline(extractor, mock(TokenCalculator.class), null, 2)
+                .run(consumer -> { }, null).content();
+
+        assertThat(content).isEmpty();
+        verify(extractor, never()).extractFileContent(any());
+    }
+
+    @Test
+    void run_stopsWhenIndicatorIsCanceled() {
+        ContentExtractor extractor = mock(ContentExtractor.class);
+        when(extractor.extractFileContent(any())).thenReturn("content");
+
+        AtomicBoolean canceled = new AtomicBoolean(false);
+        ProgressIndicator indicator = mock(ProgressIndicator.class);
+        when(indicator.isCanceled()).thenAnswer(invocation -> canceled.get());
+        doAnswer(invocation -> {
+            if (canceled.get()) {
+                throw new ProcessCanceledException();
+            }
+            return null;
+        }).when(indicator).checkCanceled();
+
+        List<VirtualFile> emitted = new ArrayList<>();
+        ProjectScanPipeline pipeline = new ProjectScanPipeline(extractor, mock(TokenCalculator.class), null, 2);
+
+        assertThatThrownBy(() -> pipeline.run(consumer -> {
+            for (int i = 0; i < 10_000; i++) {
+                if (i == 100) {
+                    canceled.set(true);
+                }
+                VirtualFile file = mockFile("/project/File" + i + ".java");
+                emitted.add(file);
+                consumer.accept(file);
+            }
+        }, indicator)).isInstanceOf(ProcessCanceledException.class);
+
+        assertThat(emitted).hasSize(101);
+    }
+
+    @Test
+    void run_reusesCachedContentAndSumsTokenCounts() {
+        ContentExtractor extractor = mock(ContentExtractor.class);
+        when(extractor.extractFileContent(any())).thenAnswer(invocation ->
+                "[" + ((VirtualFile) invocation.getArgument(0)).getPath() + "]");
+        TokenCalculator tokenCalculator = mock(TokenCalculator.class);
+        when(tokenCalculator.calculateTokens(anyString())).thenReturn(10);
+
+        VirtualFile unchanged = mockFile("/project/Unchanged.java");
+        VirtualFile changed = mockFile("/project/Changed.java");
+        FileContentCache cache = new FileContentCache();
+        cache.put(unchanged, "[cached]", 3);
+
+        ProjectScanPipeline.Result result = new ProjectScanPipeline(extractor, tokenCalculator, cache, 2)
+                .run(consumer -> {
+                    consumer.accept(unchanged);
+                    consumer.accept(changed);
+                }, null);
+
+        assertThat(result.content()).isEqualTo("[cached][/project/Changed.java]");
+        assertThat(result.tokenCount()).isEqualTo(13);
+        assertThat(result.cacheHits()).isEqualTo(1);
+        verify(extractor, never()).extractFileContent(unchanged);
+        assertThat(cache.get(changed)).isNotNull();
+    }
+
+    private static VirtualFile mockFile(String path) {
+        VirtualFile file = mock(VirtualFile.class);
+        when(file.getPath()).thenReturn(path);
+        return file;
+    }
+}
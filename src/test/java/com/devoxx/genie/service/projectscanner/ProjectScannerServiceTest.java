@@ -14,6 +14,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -138,7 +139,11 @@ class ProjectScannerServiceTest  {
             // Setup
             List<VirtualFile> fileList = new ArrayList<>();
             fileList.add(mockFile);
-            when(mockFileScanner.scanDirectory(eq(mockProjectFileIndex), eq(mockRootDirectory), any(ScanContentResult.class))).thenReturn(fileList);
+            doAnswer(invocation -> {
+                Consumer<VirtualFile> fileConsumer = invocation.getArgument(3);
+                fileList.forEach(fileConsumer);
+                return null;
+            }).when(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockRootDirectory), any(ScanContentResult.class), any());
 
             // We need to directly test scanContent() method with the ScanContentResult and ProjectFileIndex
             ScanContentResult scanContentResult = new ScanContentResult();
@@ -148,10 +153,13 @@ class ProjectScannerServiceTest  {
             assertNotNull(content);
             verify(mockFileScanner).scanProjectModules(mockProject);
             verify(mockFileScanner).generateSourceTreeRecursive(mockRootDirectory, 0);
-            verify(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockRootDirectory), any(ScanContentResult.class));
+            verify(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockRootDirectory), any(ScanContentResult.class), any());
             verify(mockContentExtractor).extractFileContent(mockFile);
             verify(mockContentExtractor).combineContent(anyString(), anyString());
-            verify(mockTokenCalculator).truncateToTokens(anyString(), eq(100), eq(false));
+            // Budgeted from the per-file token counts (50 for the structure, 50 for the file), nothing to truncate
+            assertEquals(100, scanContentResult.getTokenization().tokenCount());
+            assertFalse(scanContentResult.getTokenization().isTruncated());
+            verify(mockTokenCalculator, never()).truncateToTokens(anyString(), anyInt(), anyBoolean());
         }
     }
 
@@ -165,7 +173,11 @@ class ProjectScannerServiceTest  {
             // Setup
             List<VirtualFile> fileList = new ArrayList<>();
             fileList.add(mockFile);
-            when(mockFileScanner.scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class))).thenReturn(fileList);
+            doAnswer(invocation -> {
+                Consumer<VirtualFile> fileConsumer = invocation.getArgument(3);
+                fileList.forEach(fileConsumer);
+                return null;
+            }).when(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
 
             // We need to directly test scanContent() method with the ScanContentResult and ProjectFileIndex
             ScanContentResult scanContentResult = new ScanContentResult();
@@ -175,10 +187,13 @@ class ProjectScannerServiceTest  {
             assertNotNull(content);
             verify(mockFileScanner, never()).scanProjectModules(mockProject); // Should not be called with directory
             verify(mockFileScanner).generateSourceTreeRecursive(mockDirectory, 0);
-            verify(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class));
+            verify(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
             verify(mockContentExtractor).extractFileContent(mockFile);
             verify(mockContentExtractor).combineContent(anyString(), anyString());
-            verify(mockTokenCalculator).truncateToTokens(anyString(), eq(100), eq(false));
+            // Budgeted from the per-file token counts (50 for the structure, 50 for the file), nothing to truncate
+            assertEquals(100, scanContentResult.getTokenization().tokenCount());
+            assertFalse(scanContentResult.getTokenization().isTruncated());
+            verify(mockTokenCalculator, never()).truncateToTokens(anyString(), anyInt(), anyBoolean());
         }
     }
 
@@ -200,7 +215,7 @@ class ProjectScannerServiceTest  {
             verify(mockFileScanner).shouldIncludeFile(mockFile);
             verify(mockContentExtractor).extractFileContent(mockFile);
             verify(mockFileScanner, never()).generateSourceTreeRecursive(any(), anyInt());
-            verify(mockFileScanner, never()).scanDirectory(any(), any(), any());
+            verify(mockFileScanner, never()).scanDirectory(any(), any(), any(), any());
             verify(mockContentExtractor, never()).combineContent(anyString(), anyString());
         }
     }
@@ -296,7 +311,11 @@ class ProjectScannerServiceTest  {
 
             // Configure mock behaviors
             when(mockFileScanner.generateSourceTreeRecursive(mockDirectory, 0)).thenReturn("testDir/\n");
-            when(mockFileScanner.scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class))).thenReturn(emptyFileList);
+            doAnswer(invocation -> {
+                Consumer<VirtualFile> fileConsumer = invocation.getArgument(3);
+                emptyFileList.forEach(fileConsumer);
+                return null;
+            }).when(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
             when(mockContentExtractor.combineContent(anyString(), eq(""))).thenReturn("Directory Structure:\ntestDir/\n\nFile Contents:\n");
 
             // We need to directly test scanContent() method with the ScanContentResult and ProjectFileIndex
@@ -306,7 +325,7 @@ class ProjectScannerServiceTest  {
             // Verify
             assertNotNull(content);
             assertFalse(content.isEmpty());
-            verify(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class));
+            verify(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
             verify(mockContentExtractor, never()).extractFileContent(any());
             verify(mockContentExtractor).combineContent("testDir/\n", "");
         }
@@ -326,7 +345,11 @@ class ProjectScannerServiceTest  {
             List<VirtualFile> fileList = new ArrayList<>();
             fileList.add(mockFile);
 
-            when(mockFileScanner.scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class))).thenReturn(fileList);
+            doAnswer(invocation -> {
+                Consumer<VirtualFile> fileConsumer = invocation.getArgument(3);
+                fileList.forEach(fileConsumer);
+                return null;
+            }).when(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
             when(mockFileScanner.getFileCount()).thenReturn(1);
             when(mockFileScanner.getSkippedFileCount()).thenReturn(0);
             when(mockFileScanner.getSkippedDirectoryCount()).thenReturn(0);
@@ -353,11 +376,14 @@ class ProjectScannerServiceTest  {
 
             // Verify correct methods were called
             verify(mockFileScanner).generateSourceTreeRecursive(mockDirectory, 0);
-            verify(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class));
+            verify(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
             verify(mockContentExtractor).extractFileContent(mockFile);
             verify(mockContentExtractor).combineContent(anyString(), anyString());
             verify(mockTokenCalculator, atLeastOnce()).calculateTokens(anyString());
-            verify(mockTokenCalculator).truncateToTokens(anyString(), eq(100), eq(false));
+            // Budgeted from the per-file token counts (50 for the structure, 50 for the file), nothing to truncate
+            assertEquals(100, scanContentResult.getTokenization().tokenCount());
+            assertFalse(scanContentResult.getTokenization().isTruncated());
+            verify(mockTokenCalculator, never()).truncateToTokens(anyString(), anyInt(), anyBoolean());
         }
     }
 
@@ -375,7 +401,11 @@ class ProjectScannerServiceTest  {
             List<VirtualFile> fileList = new ArrayList<>();
             fileList.add(mockFile);
 
-            when(mockFileScanner.scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class))).thenReturn(fileList);
+            doAnswer(invocation -> {
+                Consumer<VirtualFile> fileConsumer = invocation.getArgument(3);
+                fileList.forEach(fileConsumer);
+                return null;
+            }).when(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
             when(mockFileScanner.getFileCount()).thenReturn(1);
             when(mockFileScanner.getSkippedFileCount()).thenReturn(0);
             when(mockFileScanner.getSkippedDirectoryCount()).thenReturn(0);
@@ -417,8 +447,71 @@ class ProjectScannerServiceTest  {
             assertEquals(150, scanContentResult.getTokenCount());
             assertTrue(scanContentResult.getContent().contains("--- Project context truncated due to token limit ---"));
 
-            // Verify truncation was called
-            verify(testTokenCalculator).truncateToTokens(anyString(), eq(100), eq(false));
+            // Verify the content was cut at a file boundary, without encoding the full content
+            assertTrue(scanContentResult.getTokenization().isTruncated());
+            verify(testTokenCalculator, never()).truncateToTokens(anyString(), anyInt(), anyBoolean());
         }
     }
+
+    @Test
+    void testScanContent_TruncatesAtFileBoundary() {
+        VirtualFile first = mock(VirtualFile.class);
+        VirtualFile second = mock(VirtualFile.class);
+        VirtualFile third = mock(VirtualFile.class);
+        List<VirtualFile> fileList = List.of(first, second, third);
+        doAnswer(invocation -> {
+            Consumer<VirtualFile> fileConsumer = invocation.getArgument(3);
+            fileList.forEach(fileConsumer);
+            return null;
+        }).when(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
+
+        ContentExtractor extractor = mock(ContentExtractor.class);
+        when(extractor.extractFileContent(first)).thenReturn("[first]");
+        when(extractor.extractFileContent(second)).thenReturn("[second]");
+        when(extractor.extractFileContent(third)).thenReturn("[third]");
+        when(extractor.combineContent(anyString(), anyString())).thenCallRealMethod();
+
+        TokenCalculator tokenCalculator = mock(TokenCalculator.class);
+        when(tokenCalculator.calculateTokens(anyString())).thenAnswer(invocation -> {
+            String text = invocation.getArgument(0);
+            return switch (text) {
+                case "[first]" -> 40;
+                case "[second]" -> 30;
+                case "[third]" -> 50;
+                default -> text.contains("truncated") ? 5 : 10;
+            };
+        });
+
+        ProjectScannerService service = new ProjectScannerService();
+        service.setFileScanner(mockFileScanner);
+        service.setContentExtractor(extractor);
+        service.setTokenCalculator(tokenCalculator);
+
+        ScanContentResult scanContentResult = new ScanContentResult();
+        String content = service.scanContent(mockProject, mockDirectory, 100, false, scanContentResult, mockProjectFileIndex);
+
+        // 10 (structure) + 40 + 30 + 5 (marker) fits in 100 tokens, the third file doesn't
+        assertTrue(content.contains("[first][second]"));
+        assertFalse(content.contains("[third]"));
+        assertTrue(content.endsWith("--- Project context truncated due to token limit ---\n"));
+        assertTrue(scanContentResult.getTokenization().isTruncated());
+        assertEquals(85, scanContentResult.getTokenCount());
+        verify(tokenCalculator, never()).truncateToTokens(anyString(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void testScanContent_TokenCalculationIsNeverTruncated() {
+        ScanContentResult scanContentResult = new ScanContentResult();
+        doAnswer(invocation -> {
+            Consumer<VirtualFile> fileConsumer = invocation.getArgument(3);
+            fileConsumer.accept(mockFile);
+            return null;
+        }).when(mockFileScanner).scanDirectory(eq(mockProjectFileIndex), eq(mockDirectory), any(ScanContentResult.class), any());
+
+        String content = projectScannerService.scanContent(mockProject, mockDirectory, 10, true, scanContentResult, mockProjectFileIndex);
+
+        assertFalse(content.contains("truncated due to token limit"));
+        assertFalse(scanContentResult.getTokenization().isTruncated());
+        assertEquals(100, scanContentResult.getTokenCount());
+    }
 }
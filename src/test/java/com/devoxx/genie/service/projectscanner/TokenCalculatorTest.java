@@ -31,8 +31,9 @@ class TokenCalculatorTest {
         encodingsMock.when(Encodings::newDefaultEncodingRegistry).thenReturn(mockRegistry);
         when(mockRegistry.getEncoding(EncodingType.CL100K_BASE)).thenReturn(mockEncoding);
 
-        // Create a new instance with our mocked dependencies
-        return new TokenCalculator();
+        // Create a new instance with our mocked dependencies, the default constructor resolves
+        // the shared encoding from the application level TokenizerService
+        return new TokenCalculator(mockRegistry.getEncoding(EncodingType.CL100K_BASE));
     }
 
     @Test
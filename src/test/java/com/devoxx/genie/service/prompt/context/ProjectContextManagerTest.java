@@ -0,0 +1,88 @@
+package com.devoxx.genie.service.prompt.context;
+
+import com.devoxx.genie.service.projectscanner.ContentExtractor;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ProjectContextManagerTest {
+
+    private final ContentExtractor contentExtractor = mock(ContentExtractor.class);
+    private final ProjectContextManager manager = new ProjectContextManager(contentExtractor);
+
+    private VirtualFile main;
+    private VirtualFile util;
+
+    @BeforeEach
+    void setUp() {
+        main = file("/project/Main.java", 1);
+        util = file("/project/Util.java", 1);
+        when(contentExtractor.extractFileContent(any())).thenAnswer(invocation ->
+                "\n--- " + invocation.<VirtualFile>getArgument(0).getPath() + " ---\nchanged\n");
+        manager.setProjectContext("Project Context:\nall files", List.of(main, util));
+    }
+
+    @Test
+    void takeChangedFiles_unchangedProject_isEmpty() {
+        assertThat(manager.takeChangedFiles(true)).isEmpty();
+        assertThat(manager.takeChangedFiles(false)).isEmpty();
+        verifyNoInteractions(contentExtractor);
+    }
+
+    @Test
+    void takeChangedFiles_sendsOnlyChangedFilesOnce() {
+        when(util.getModificationStamp()).thenReturn(2L);
+
+        assertThat(manager.takeChangedFiles(false))
+                .startsWith(ProjectContextManager.CHANGED_FILES_HEADER)
+                .contains("/project/Util.java")
+                .doesNotContain("/project/Main.java");
+        assertThat(manager.takeChangedFiles(false)).isEmpty();
+    }
+
+    @Test
+    void takeChangedFiles_newConversation_sendsChangesSinceScanAgain() {
+        when(util.getModificationStamp()).thenReturn(2L);
+        manager.takeChangedFiles(false);
+
+        assertThat(manager.takeChangedFiles(true)).contains("/project/Util.java");
+    }
+
+    @Test
+    void takeChangedFiles_reportsDeletedFiles() {
+        when(main.isValid()).thenReturn(false);
+
+        assertThat(manager.takeChangedFiles(false)).contains("--- /project/Main.java (deleted) ---");
+    }
+
+    @Test
+    void clear_removesProjectContext() {
+        when(util.getModificationStamp()).thenReturn(2L);
+        manager.clear();
+
+        assertThat(manager.getProjectContext()).isNull();
+        assertThat(manager.takeChangedFiles(false)).isEmpty();
+    }
+
+    @Test
+    void getProjectContext_staysIdenticalWhenFilesChange() {
+        String projectContext = manager.getProjectContext();
+        when(main.getModificationStamp()).thenReturn(2L);
+        manager.takeChangedFiles(false);
+
+        assertThat(manager.getProjectContext()).isSameAs(projectContext);
+    }
+
+    private static VirtualFile file(String path, long stamp) {
+        VirtualFile file = mock(VirtualFile.class);
+        when(file.getPath()).thenReturn(path);
+        when(file.isValid()).thenReturn(true);
+        when(file.getModificationStamp()).thenReturn(stamp);
+        return file;
+    }
+}
@@ -0,0 +1,160 @@
+package com.devoxx.genie.service.prompt.memory;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class TokenBudgetChatMemoryTest {
+
+    // One token per word keeps the budgets in the tests readable
+    private static final ToIntFunction<String> WORDS = text -> text.isBlank() ? 0 : text.trim().split("\\s+").length;
+
+    @Test
+    void underBudget_keepsAllMessages() {
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 1_000, WORDS);
+
+        memory.add(SystemMessage.from("You are a helpful assistant"));
+        memory.add(UserMessage.from("first question"));
+        memory.add(AiMessage.from("first answer"));
+        memory.add(UserMessage.from("second question"));
+
+        assertThat(memory.messages()).hasSize(4);
+        assertThat(memory.getSavedTokens()).isZero();
+    }
+
+    @Test
+    void overBudget_omitsContextOfAnsweredMessages() {
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 100, WORDS);
+
+        memory.add(UserMessage.from("explain <Context>" + words(200) + "</Context>"));
+        memory.add(AiMessage.from("explanation"));
+        memory.add(UserMessage.from("and now?"));
+
+        List<ChatMessage> messages = memory.messages();
+        assertThat(messages).hasSize(3);
+        assertThat(TokenBudgetChatMemory.text(messages.get(0)))
+                .startsWith("explain <Context>[200 tokens of context omitted")
+                .doesNotContain("word");
+        assertThat(memory.totalTokens()).isLessThanOrEqualTo(100);
+        assertThat(memory.getSavedTokens()).isGreaterThan(180);
+    }
+
+    @Test
+    void overBudget_keepsContextOfCurrentMessage() {
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 100, WORDS);
+
+        memory.add(UserMessage.from("explain <Context>" + words(200) + "</Context>"));
+
+        assertThat(TokenBudgetChatMemory.text(memory.messages().get(0))).contains(words(200));
+    }
+
+    @Test
+    void overBudget_summarizesOldExchanges() {
+        ChatMemorySummarizer summarizer = mock(ChatMemorySummarizer.class);
+        when(summarizer.summarize(isNull(), any())).thenReturn("the user asked about " + words(3));
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 50, WORDS);
+        memory.configure(50, WORDS, summarizer);
+
+        memory.add(SystemMessage.from("system"));
+        memory.add(UserMessage.from("first " + words(20)));
+        memory.add(AiMessage.from("answer " + words(20)));
+        memory.add(UserMessage.from("second question"));
+
+        List<ChatMessage> messages = memory.messages();
+        assertThat(messages.get(0)).isInstanceOf(SystemMessage.class);
+        assertThat(TokenBudgetChatMemory.text(messages.get(1)))
+                .isEqualTo(TokenBudgetChatMemory.SUMMARY_PREFIX + "the user asked about " + words(3));
+        assertThat(TokenBudgetChatMemory.text(messages.get(2))).isEqualTo(TokenBudgetChatMemory.SUMMARY_ACKNOWLEDGEMENT);
+        assertThat(TokenBudgetChatMemory.text(messages.get(messages.size() - 1))).isEqualTo("second question");
+        assertThat(memory.totalTokens()).isLessThanOrEqualTo(50);
+        verify(summarizer).summarize(isNull(), argThat(old -> old.size() == 2));
+    }
+
+    @Test
+    void overBudget_passesPreviousSummaryToSummarizer() {
+        ChatMemorySummarizer summarizer = mock(ChatMemorySummarizer.class);
+        when(summarizer.summarize(any(), any())).thenReturn("first summary", "second summary");
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 40, WORDS);
+        memory.configure(40, WORDS, summarizer);
+
+        memory.add(UserMessage.from("first " + words(20)));
+        memory.add(AiMessage.from("answer"));
+        memory.add(UserMessage.from("second " + words(20)));
+        memory.add(AiMessage.from("answer"));
+        memory.add(UserMessage.from("third " + words(20)));
+
+        verify(summarizer).summarize(eq("first summary"), any());
+        assertThat(TokenBudgetChatMemory.text(memory.messages().get(0)))
+                .isEqualTo(TokenBudgetChatMemory.SUMMARY_PREFIX + "second summary");
+    }
+
+    @Test
+    void overBudget_withoutSummarizer_dropsOldExchanges() {
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 30, WORDS);
+
+        memory.add(SystemMessage.from("system"));
+        memory.add(UserMessage.from("first " + words(20)));
+        memory.add(AiMessage.from("answer"));
+        memory.add(UserMessage.from("second question"));
+
+        List<ChatMessage> messages = memory.messages();
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(0)).isInstanceOf(SystemMessage.class);
+        assertThat(TokenBudgetChatMemory.text(messages.get(1))).isEqualTo("second question");
+        assertThat(memory.getSavedTokens()).isGreaterThan(20);
+    }
+
+    @Test
+    void failingSummarizer_dropsOldExchanges() {
+        ChatMemorySummarizer summarizer = mock(ChatMemorySummarizer.class);
+        when(summarizer.summarize(any(), any())).thenThrow(new IllegalStateException("model unavailable"));
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 30, WORDS);
+        memory.configure(30, WORDS, summarizer);
+
+        memory.add(UserMessage.from("first " + words(20)));
+        memory.add(AiMessage.from("answer"));
+        memory.add(UserMessage.from("second question"));
+
+        assertThat(memory.messages()).hasSize(1);
+    }
+
+    @Test
+    void systemMessage_isNotCountedAgainstTheBudget() {
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 30, WORDS);
+
+        memory.add(SystemMessage.from("project " + words(100)));
+        memory.add(UserMessage.from("first question"));
+        memory.add(AiMessage.from("first answer"));
+        memory.add(UserMessage.from("second question"));
+
+        assertThat(memory.messages()).hasSize(4);
+        assertThat(memory.getSavedTokens()).isZero();
+    }
+
+    @Test
+    void systemMessage_isReplacedAndKeptFirst() {
+        TokenBudgetChatMemory memory = new TokenBudgetChatMemory("id", 1_000, WORDS);
+
+        memory.add(SystemMessage.from("first system"));
+        memory.add(UserMessage.from("question"));
+        memory.add(SystemMessage.from("second system"));
+
+        assertThat(memory.messages()).hasSize(2);
+        assertThat(memory.messages().get(0)).isEqualTo(SystemMessage.from("second system"));
+    }
+
+    private static String words(int count) {
+        return String.join(" ", Collections.nCopies(count, "word"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.devoxx.genie.service.prompt.response.streaming;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingTokenBatcherTest {
+
+    private ScheduledExecutorService scheduler;
+    private BlockingQueue<Runnable> uiQueue;
+    private List<String> flushes;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        uiQueue = new LinkedBlockingQueue<>();
+        flushes = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testTokensAreCoalescedWhileFlushIsPending() {
+        StreamingTokenBatcher batcher = createBatcher(0);
+
+        batcher.add("Hello");
+        batcher.add(", ");
+        batcher.add("world");
+
+        // Only one flush is posted for the three tokens
+        assertEquals(1, uiQueue.size());
+        runUiQueue();
+
+        assertEquals(List.of("Hello, world"), flushes);
+        assertEquals(3, batcher.getTokensReceived());
+        assertEquals(1, batcher.getFlushCount());
+        assertEquals(3.0, batcher.getCoalescingRatio());
+    }
+
+    @Test
+    void testFlushIsDelayedByInterval() throws InterruptedException {
+        StreamingTokenBatcher batcher = createBatcher(50);
+
+        batcher.add("first");
+        runUiQueue();
+        assertEquals(List.of("first"), flushes);
+
+        batcher.add("second");
+        batcher.add(" token");
+        assertTrue(uiQueue.isEmpty(), "Second flush must wait for the interval");
+
+        Runnable scheduledFlush = uiQueue.poll(1, TimeUnit.SECONDS);
+        assertNotNull(scheduledFlush);
+        scheduledFlush.run();
+
+        assertEquals(List.of("first", "second token"), flushes);
+    }
+
+    @Test
+    void testCloseFlushesRemainingTokensAndIgnoresLaterOnes() {
+        StreamingTokenBatcher batcher = createBatcher(1_000);
+
+        batcher.add("a");
+        runUiQueue();
+        batcher.add("b");
+        batcher.close();
+        batcher.add("c");
+        runUiQueue();
+
+        assertEquals(List.of("a", "b"), flushes);
+        assertEquals(2, batcher.getTokensReceived());
+        assertEquals(2, batcher.getFlushCount());
+    }
+
+    @Test
+    void testCoalescingRatioWithoutFlushes() {
+        assertEquals(0.0, createBatcher(0).getCoalescingRatio());
+    }
+
+    private StreamingTokenBatcher createBatcher(long intervalMs) {
+        return new StreamingTokenBatcher(intervalMs, flushes::add, scheduler, uiQueue::add);
+    }
+
+    private void runUiQueue() {
+        Runnable runnable;
+        while ((runnable = uiQueue.poll()) != null) {
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.devoxx.genie.service.prompt.threading;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PromptSchedulerTest {
+
+    private final List<Runnable> started = new ArrayList<>();
+    private final List<String> ran = new ArrayList<>();
+
+    // Started prompts run when the test runs them, two prompts per provider
+    private final PromptScheduler scheduler = new PromptScheduler(started::add, provider -> 2);
+
+    @Test
+    void submit_limitsRunningPromptsPerProvider() {
+        scheduler.submit("OpenAI", "project-a", "a1", () -> run("a1"));
+        scheduler.submit("OpenAI", "project-b", "b1", () -> run("b1"));
+        scheduler.submit("OpenAI", "project-c", "c1", () -> run("c1"));
+        scheduler.submit("Anthropic", "project-a", "a2", () -> run("a2"));
+
+        assertThat(started).hasSize(3);
+        assertThat(scheduler.getRunningCount("OpenAI")).isEqualTo(2);
+        assertThat(scheduler.getRunningCount("Anthropic")).isEqualTo(1);
+
+        // A finished prompt hands its slot to the waiting one
+        runNext();
+        assertThat(started).hasSize(3);
+        assertThat(scheduler.getRunningCount("OpenAI")).isEqualTo(2);
+    }
+
+    @Test
+    void submit_takesProjectsInTurn() {
+        PromptScheduler serial = new PromptScheduler(started::add, provider -> 1);
+        serial.submit("OpenAI", "project-a", "a1", () -> run("a1"));
+        serial.submit("OpenAI", "project-a", "a2", () -> run("a2"));
+        serial.submit("OpenAI", "project-a", "a3", () -> run("a3"));
+        serial.submit("OpenAI", "project-b", "b1", () -> run("b1"));
+        serial.submit("OpenAI", "project-b", "b2", () -> run("b2"));
+
+        while (!started.isEmpty()) {
+            runNext();
+        }
+
+        assertThat(ran).containsExactly("a1", "b1", "a2", "b2", "a3");
+    }
+
+    @Test
+    void submit_cancelsThePreviousPromptOfTheConversation() {
+        CompletableFuture<String> first = scheduler.submit("OpenAI", "project-a", "conversation", () -> run("first"));
+        CompletableFuture<String> other = scheduler.submit("OpenAI", "project-b", "other", () -> run("other"));
+        CompletableFuture<String> second = scheduler.submit("OpenAI", "project-a", "conversation", () -> run("second"));
+
+        assertThat(first).isCancelled();
+        assertThat(other).isNotDone();
+
+        while (!started.isEmpty()) {
+            runNext();
+        }
+
+        assertThat(ran).containsExactly("other", "second");
+        assertThat(second).isCompletedWithValue("second");
+        assertThat(scheduler.hasPrompt("conversation")).isFalse();
+    }
+
+    @Test
+    void cancel_removesAWaitingPrompt() {
+        scheduler.submit("OpenAI", "project-a", "a1", () -> run("a1"));
+        scheduler.submit("OpenAI", "project-b", "b1", () -> run("b1"));
+        CompletableFuture<String> waiting = scheduler.submit("OpenAI", "project-c", "c1", () -> run("c1"));
+
+        assertThat(scheduler.cancel("c1")).isTrue();
+        while (!started.isEmpty()) {
+            runNext();
+        }
+
+        assertThat(waiting).isCancelled();
+        assertThat(ran).containsExactly("a1", "b1");
+        assertThat(scheduler.getRunningCount("OpenAI")).isZero();
+    }
+
+    @Test
+    void failedPrompt_releasesItsSlot() {
+        CompletableFuture<String> failed = scheduler.submit("OpenAI", "project-a", "a1", () -> {
+            throw new IllegalStateException("rate limited");
+        });
+
+        runNext();
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(scheduler.getRunningCount("OpenAI")).isZero();
+    }
+
+    @Test
+    void timeout_startsWhenThePromptRuns() throws InterruptedException {
+        PromptScheduler serial = new PromptScheduler(started::add, provider -> 1);
+        serial.submit("OpenAI", "project-a", "a1", () -> run("a1"));
+        CompletableFuture<String> waiting = serial.submit("OpenAI", "project-b", "b1", Duration.ofMillis(50), () -> {
+            Thread.sleep(5_000);
+            return "b1";
+        });
+
+        Thread.sleep(200);
+        assertThat(waiting).isNotDone();
+
+        runNext();
+        runNext();
+
+        assertThatThrownBy(waiting::join).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(serial.getRunningCount("OpenAI")).isZero();
+    }
+
+    private String run(String name) {
+        ran.add(name);
+        return name;
+    }
+
+    private void runNext() {
+        started.remove(0).run();
+    }
+}
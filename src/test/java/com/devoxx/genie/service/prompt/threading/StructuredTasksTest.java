@@ -0,0 +1,59 @@
+package com.devoxx.genie.service.prompt.threading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StructuredTasksTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void invokeAll_returnsTheResultsInTaskOrder() throws Exception {
+        List<Future<String>> results = StructuredTasks.invokeAll(executor, List.of(
+                () -> {
+                    Thread.sleep(50);
+                    return "slow";
+                },
+                () -> "fast",
+                () -> {
+                    throw new IOException("unreachable");
+                }), 5, TimeUnit.SECONDS);
+
+        assertThat(results.get(0).get()).isEqualTo("slow");
+        assertThat(results.get(1).get()).isEqualTo("fast");
+        assertThatThrownBy(() -> results.get(2).get()).hasCauseInstanceOf(IOException.class);
+    }
+
+    @Test
+    void invokeAll_cancelsTheTasksRunningAtTheDeadline() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        List<Future<String>> results = StructuredTasks.invokeAll(executor, List.of(
+                () -> "fast",
+                () -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return "hanging";
+                }), 100, TimeUnit.MILLISECONDS);
+
+        assertThat(results.get(0).get()).isEqualTo("fast");
+        assertThat(results.get(1).isCancelled()).isTrue();
+        // The hanging task doesn't outlive the call
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
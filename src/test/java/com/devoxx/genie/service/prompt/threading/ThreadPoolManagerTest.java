@@ -0,0 +1,50 @@
+package com.devoxx.genie.service.prompt.threading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThreadPoolManagerTest {
+
+    private ThreadPoolManager threadPoolManager;
+
+    @AfterEach
+    void tearDown() {
+        threadPoolManager.shutdown();
+    }
+
+    @Test
+    void ioExecutor_usesPlatformThreadsWhenVirtualThreadsAreDisabled() {
+        threadPoolManager = new ThreadPoolManager(false);
+
+        assertThat(threadPoolManager.getIoMetrics().mode()).isEqualTo(ThreadPoolManager.PLATFORM_MODE);
+    }
+
+    @Test
+    void ioExecutor_fallsBackToPlatformThreadsWithoutRuntimeSupport() {
+        threadPoolManager = new ThreadPoolManager(true);
+
+        assertThat(threadPoolManager.getIoMetrics().mode()).isEqualTo(
+                VirtualThreads.isSupported() ? ThreadPoolManager.VIRTUAL_MODE : ThreadPoolManager.PLATFORM_MODE);
+    }
+
+    @Test
+    void ioMetrics_countTheTasks() throws Exception {
+        threadPoolManager = new ThreadPoolManager(true);
+        CountDownLatch done = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            threadPoolManager.getIoExecutor().execute(done::countDown);
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ExecutorMetrics metrics = threadPoolManager.getIoMetrics();
+        assertThat(metrics.submitted()).isEqualTo(10);
+        assertThat(metrics.peakActive()).isBetween(1, 10);
+        assertThat(metrics.queued()).isZero();
+    }
+}
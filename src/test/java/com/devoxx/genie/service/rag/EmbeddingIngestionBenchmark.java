@@ -0,0 +1,155 @@
+package com.devoxx.genie.service.rag;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures ingestion throughput against a local stub of the Ollama embedding endpoint.
+ *
+ * <p>The stub answers {@code /api/embed} with a fixed latency per request plus a small cost per input,
+ * which is the cost profile of a local embedding server. Batch size 1 with a single worker is the
+ * previous one request per segment behaviour.</p>
+ *
+ * <p>Run with: {@code ./gradlew test --tests EmbeddingIngestionBenchmark -Ddevoxxgenie.benchmark=true}</p>
+ */
+@EnabledIfSystemProperty(named = "devoxxgenie.benchmark", matches = "true")
+class EmbeddingIngestionBenchmark {
+
+    private static final int FILES = 200;
+    private static final int SEGMENTS_PER_FILE = 10;
+    private static final int DIMENSIONS = 768;
+    private static final long REQUEST_LATENCY_MS = 4;
+    private static final long INPUT_LATENCY_MICROS = 200;
+
+    private HttpServer server;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/embed", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            int inputs = countInputs(body);
+            sleepMicros(REQUEST_LATENCY_MS * 1_000 + inputs * INPUT_LATENCY_MICROS);
+
+            byte[] response = embedResponse(inputs).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.start();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void measureThroughput() {
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            files.add("File" + i + ".java");
+        }
+
+        int[] batchSizes = {1, 16, 64, 256};
+        int[] concurrencyLevels = {1, 2, 4, 8};
+
+        // Warm up the HTTP client and the stub
+        run(files.subList(0, 10), 16, 2);
+
+        System.out.printf("%-10s %-12s %-12s %s%n", "batch", "concurrency", "time (ms)", "segments/s");
+        for (int batchSize : batchSizes) {
+            for (int concurrency : concurrencyLevels) {
+                EmbeddingIngestionEngine.Stats stats = run(files, batchSize, concurrency);
+                assertEquals(FILES * SEGMENTS_PER_FILE, stats.segments());
+                assertEquals(0, stats.failedSegments());
+                System.out.printf("%-10d %-12d %-12d %.0f%n", batchSize, concurrency, stats.elapsedMs(), stats.segmentsPerSecond());
+            }
+        }
+    }
+
+    private EmbeddingIngestionEngine.Stats run(@NotNull List<String> files, int batchSize, int concurrency) {
+        OllamaEmbeddingModel embeddingModel = OllamaEmbeddingModel.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .modelName("nomic-embed-text")
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+
+        return new EmbeddingIngestionEngine(embeddingModel, store, batchSize, concurrency)
+                .ingest(files, EmbeddingIngestionBenchmark::split, () -> false, (read, total, stored) -> { });
+    }
+
+    private static @NotNull List<EmbeddingIngestionEngine.Item> split(@NotNull String file) {
+        List<EmbeddingIngestionEngine.Item> items = new ArrayList<>(SEGMENTS_PER_FILE);
+        for (int i = 0; i < SEGMENTS_PER_FILE; i++) {
+            items.add(EmbeddingIngestionEngine.Item.of(TextSegment.from("segment " + i + " of " + file)));
+        }
+        return items;
+    }
+
+    /**
+     * Count the strings of the "input" array, the benchmark inputs never contain quotes.
+     */
+    private static int countInputs(@NotNull String body) {
+        int start = body.indexOf("\"input\"");
+        if (start < 0) {
+            return 1;
+        }
+        int arrayStart = body.indexOf('[', start);
+        int arrayEnd = body.indexOf(']', arrayStart);
+        if (arrayStart < 0 || arrayEnd < 0) {
+            return 1;
+        }
+        int quotes = 0;
+        for (int i = arrayStart; i < arrayEnd; i++) {
+            if (body.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return Math.max(1, quotes / 2);
+    }
+
+    private static @NotNull String embedResponse(int inputs) {
+        StringBuilder vector = new StringBuilder("[");
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector.append(i == 0 ? "" : ",").append("0.01");
+        }
+        vector.append(']');
+
+        StringBuilder json = new StringBuilder("{\"model\":\"nomic-embed-text\",\"embeddings\":[");
+        for (int i = 0; i < inputs; i++) {
+            json.append(i == 0 ? "" : ",").append(vector);
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void sleepMicros(long micros) {
+        try {
+            Thread.sleep(micros / 1_000, (int) (micros % 1_000) * 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.devoxx.genie.service.rag;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class EmbeddingIngestionEngineTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_embedsAndStoresSegmentsInBatches() {
+        EmbeddingModel embeddingModel = countingEmbeddingModel(new ArrayList<>());
+        EmbeddingStore<TextSegment> store = mock(EmbeddingStore.class);
+        List<Integer> storedBatchSizes = Collections.synchronizedList(new ArrayList<>());
+        when(store.addAll(anyList(), anyList())).thenAnswer(invocation -> {
+            List<Embedding> embeddings = invocation.getArgument(0);
+            List<TextSegment> segments = invocation.getArgument(1);
+            assertThat(embeddings).hasSameSizeAs(segments);
+            storedBatchSizes.add(segments.size());
+            return List.of();
+        });
+
+        EmbeddingIngestionEngine engine = new EmbeddingIngestionEngine(embeddingModel, store, 4, 2);
+        // 3 files of 3 segments each
+        EmbeddingIngestionEngine.Stats stats = engine.ingest(List.of("a", "b", "c"),
+                source -> segments(source, 3),
+                () -> false,
+                (read, total, stored) -> { });
+
+        assertThat(stats.segments()).isEqualTo(9);
+        assertThat(stats.batches()).isEqualTo(3);
+        assertThat(stats.failedSegments()).isZero();
+        assertThat(storedBatchSizes).containsExactlyInAnyOrder(4, 4, 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_embedsSharedInputOncePerBatch() {
+        List<Integer> embedRequestSizes = Collections.synchronizedList(new ArrayList<>());
+        EmbeddingModel embeddingModel = countingEmbeddingModel(embedRequestSizes);
+        EmbeddingStore<TextSegment> store = mock(EmbeddingStore.class);
+
+        TextSegment fileIdentifier = TextSegment.from("/project/Main.java");
+        EmbeddingIngestionEngine engine = new EmbeddingIngestionEngine(embeddingModel, store, 10, 1);
+        engine.ingest(List.of("Main.java"),
+                source -> List.of(
+                        new EmbeddingIngestionEngine.Item(fileIdentifier, TextSegment.from("one")),
+                        new EmbeddingIngestionEngine.Item(fileIdentifier, TextSegment.from("two"))),
+                () -> false,
+                (read, total, stored) -> { });
+
+        assertThat(embedRequestSizes).containsExactly(1);
+        verify(store).addAll(argThat(embeddings -> embeddings.size() == 2), argThat(segments -> segments.size() == 2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_boundsBatchesInFlight() throws InterruptedException {
+        AtomicInteger concurrentCalls = new AtomicInteger();
+        AtomicInteger maxConcurrentCalls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(anyList())).thenAnswer(invocation -> {
+            int current = concurrentCalls.incrementAndGet();
+            maxConcurrentCalls.accumulateAndGet(current, Math::max);
+            started.countDown();
+            Thread.sleep(5);
+            concurrentCalls.decrementAndGet();
+            List<TextSegment> inputs = invocation.getArgument(0);
+            return Response.from(inputs.stream().map(segment -> Embedding.from(new float[]{1f})).toList());
+        });
+        EmbeddingStore<TextSegment> store = mock(EmbeddingStore.class);
+
+        EmbeddingIngestionEngine engine = new EmbeddingIngestionEngine(embeddingModel, store, 2, 3);
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sources.add("file" + i);
+        }
+        EmbeddingIngestionEngine.Stats stats = engine.ingest(sources, source -> segments(source, 2), () -> false, (read, total, stored) -> { });
+
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(stats.segments()).isEqualTo(100);
+        assertThat(maxConcurrentCalls.get()).isBetween(1, 3);
+        verify(store, times(50)).addAll(anyList(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_stopsReadingSourcesWhenCancelled() {
+        EmbeddingModel embeddingModel = countingEmbeddingModel(new ArrayList<>());
+        EmbeddingStore<TextSegment> store = mock(EmbeddingStore.class);
+        AtomicInteger read = new AtomicInteger();
+
+        EmbeddingIngestionEngine engine = new EmbeddingIngestionEngine(embeddingModel, store, 1, 1);
+        EmbeddingIngestionEngine.Stats stats = engine.ingest(List.of("a", "b", "c", "d"),
+                source -> {
+                    read.incrementAndGet();
+                    return segments(source, 1);
+                },
+                () -> read.get() >= 2,
+                (sourcesRead, total, stored) -> { });
+
+        assertThat(read.get()).isEqualTo(2);
+        assertThat(stats.sources()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_countsFailedBatchesAndContinues() {
+        EmbeddingModel embeddingModel = countingEmbeddingModel(new ArrayList<>());
+        EmbeddingStore<TextSegment> store = mock(EmbeddingStore.class);
+        when(store.addAll(anyList(), anyList()))
+                .thenThrow(new RuntimeException("Chroma is down"))
+                .thenReturn(List.of());
+
+        EmbeddingIngestionEngine engine = new EmbeddingIngestionEngine(embeddingModel, store, 2, 1);
+        EmbeddingIngestionEngine.Stats stats = engine.ingest(List.of("a", "b"), source -> segments(source, 2),
+                () -> false, (read, total, stored) -> { });
+
+        assertThat(stats.segments()).isEqualTo(4);
+        assertThat(stats.failedSegments()).isEqualTo(2);
+    }
+
+    private static List<EmbeddingIngestionEngine.Item> segments(String source, int count) {
+        List<EmbeddingIngestionEngine.Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(EmbeddingIngestionEngine.Item.of(TextSegment.from(source + "-" + i)));
+        }
+        return items;
+    }
+
+    private static EmbeddingModel countingEmbeddingModel(List<Integer> requestSizes) {
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(anyList())).thenAnswer(invocation -> {
+            List<TextSegment> inputs = invocation.getArgument(0);
+            requestSizes.add(inputs.size());
+            return Response.from(inputs.stream().map(segment -> Embedding.from(new float[]{1f, 2f})).toList());
+        });
+        return embeddingModel;
+    }
+}
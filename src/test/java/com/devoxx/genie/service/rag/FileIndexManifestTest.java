@@ -0,0 +1,132 @@
+package com.devoxx.genie.service.rag;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileIndexManifestTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileIndexManifest manifest;
+
+    @BeforeEach
+    void setUp() {
+        manifest = new FileIndexManifest(tempDir.resolve("index").resolve("file-index.db"));
+    }
+
+    @Test
+    void put_storesEntriesPerCollection() {
+        manifest.put("project-a", new FileIndexManifest.Entry("/a/Main.java", 10, 100, "hash", List.of("id-1", "id-2")));
+        manifest.put("project-b", new FileIndexManifest.Entry("/b/Main.java", 20, 200, "other", List.of()));
+
+        Map<String, FileIndexManifest.Entry> entries = manifest.getEntries("project-a");
+
+        assertThat(entries).containsOnlyKeys("/a/Main.java");
+        FileIndexManifest.Entry entry = entries.get("/a/Main.java");
+        assertThat(entry.lastModified()).isEqualTo(10);
+        assertThat(entry.size()).isEqualTo(100);
+        assertThat(entry.contentHash()).isEqualTo("hash");
+        assertThat(entry.segmentIds()).containsExactly("id-1", "id-2");
+        assertThat(manifest.getEntries("project-b").get("/b/Main.java").segmentIds()).isEmpty();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manifest.dispose();
+    }
+
+    @Test
+    void putAll_storesEntriesInOneTransaction() {
+        manifest.put("project", new FileIndexManifest.Entry("/Main.java", 10, 100, "old", List.of("id-1")));
+
+        manifest.putAll("project", List.of(
+                new FileIndexManifest.Entry("/Main.java", 11, 101, "new", List.of("id-2")),
+                new FileIndexManifest.Entry("/Other.java", 12, 102, "other", List.of("id-3", "id-4"))));
+
+        Map<String, FileIndexManifest.Entry> entries = manifest.getEntries("project");
+        assertThat(entries).containsOnlyKeys("/Main.java", "/Other.java");
+        assertThat(entries.get("/Main.java").segmentIds()).containsExactly("id-2");
+        assertThat(entries.get("/Other.java").segmentIds()).containsExactly("id-3", "id-4");
+    }
+
+    @Test
+    void put_replacesExistingEntry() {
+        manifest.put("project", new FileIndexManifest.Entry("/Main.java", 10, 100, "old", List.of("id-1")));
+        manifest.put("project", new FileIndexManifest.Entry("/Main.java", 11, 101, "new", List.of("id-2")));
+
+        FileIndexManifest.Entry entry = manifest.getEntries("project").get("/Main.java");
+
+        assertThat(entry.contentHash()).isEqualTo("new");
+        assertThat(entry.segmentIds()).containsExactly("id-2");
+    }
+
+    @Test
+    void removeCollection_removesEntriesAndEmbeddingModel() {
+        manifest.setEmbeddingModel("project", "nomic-embed-text");
+        manifest.put("project", new FileIndexManifest.Entry("/Main.java", 10, 100, "hash", List.of("id-1")));
+        manifest.put("project", new FileIndexManifest.Entry("/Other.java", 10, 100, "hash", List.of("id-2")));
+
+        manifest.remove("project", List.of("/Other.java"));
+        assertThat(manifest.getEntries("project")).containsOnlyKeys("/Main.java");
+        assertThat(manifest.getEmbeddingModel("project")).isEqualTo("nomic-embed-text");
+
+        manifest.removeCollection("project");
+        assertThat(manifest.getEntries("project")).isEmpty();
+        assertThat(manifest.getEmbeddingModel("project")).isNull();
+    }
+
+    @Test
+    void diff_detectsChangedNewAndRemovedFiles() throws IOException {
+        Path unchanged = write("Unchanged.java", "class Unchanged {}");
+        Path modified = write("Modified.java", "class Modified {}");
+        Path added = write("Added.java", "class Added {}");
+
+        Map<String, FileIndexManifest.Entry> entries = Map.of(
+                unchanged.toString(), entryFor(unchanged),
+                modified.toString(), new FileIndexManifest.Entry(modified.toString(), 1, 1, "hash", List.of("id-1")),
+                "/deleted/Deleted.java", new FileIndexManifest.Entry("/deleted/Deleted.java", 1, 1, "hash", List.of("id-2")));
+
+        FileIndexManifest.Diff diff = FileIndexManifest.diff(entries, List.of(unchanged, modified, added));
+
+        assertThat(diff.changed()).containsExactly(modified, added);
+        assertThat(diff.removed()).extracting(FileIndexManifest.Entry::path).containsExactly("/deleted/Deleted.java");
+        assertThat(diff.unchanged()).isEqualTo(1);
+        assertThat(diff.isEmpty()).isFalse();
+    }
+
+    @Test
+    void diff_isEmptyWhenNothingChanged() throws IOException {
+        Path file = write("Main.java", "class Main {}");
+
+        FileIndexManifest.Diff diff = FileIndexManifest.diff(Map.of(file.toString(), entryFor(file)), List.of(file));
+
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.unchanged()).isEqualTo(1);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = Files.writeString(tempDir.resolve(name), content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_700_000_000_000L));
+        return file;
+    }
+
+    private static FileIndexManifest.Entry entryFor(Path file) throws IOException {
+        return new FileIndexManifest.Entry(file.toString(),
+                Files.getLastModifiedTime(file).toMillis(),
+                Files.size(file),
+                "hash",
+                List.of("id"));
+    }
+}
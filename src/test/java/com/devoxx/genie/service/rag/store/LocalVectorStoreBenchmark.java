@@ -0,0 +1,115 @@
+package com.devoxx.genie.service.rag.store;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall and latency of the IVF index of the embedded vector store, compared to an exact scan.
+ *
+ * <p>The vectors are drawn around random topic centers, like embeddings of source code, which are far
+ * from uniformly distributed.</p>
+ *
+ * <p>Run with: {@code ./gradlew test --tests LocalVectorStoreBenchmark -Ddevoxxgenie.benchmark=true}</p>
+ */
+@EnabledIfSystemProperty(named = "devoxxgenie.benchmark", matches = "true")
+class LocalVectorStoreBenchmark {
+
+    private static final int VECTORS = 100_000;
+    private static final int DIMENSIONS = 768;
+    private static final int TOPICS = 500;
+    private static final int QUERIES = 200;
+    private static final int TOP_K = 10;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void measureRecallAndLatency() throws IOException {
+        Random random = new Random(42);
+        float[][] topics = new float[TOPICS][];
+        for (int i = 0; i < TOPICS; i++) {
+            topics[i] = gaussian(random, 1.0f);
+        }
+
+        try (LocalVectorStore store = new LocalVectorStore(tempDir)) {
+            long start = System.currentTimeMillis();
+            for (int batch = 0; batch < VECTORS / 1_000; batch++) {
+                List<Embedding> embeddings = new ArrayList<>(1_000);
+                List<TextSegment> segments = new ArrayList<>(1_000);
+                for (int i = 0; i < 1_000; i++) {
+                    embeddings.add(Embedding.from(around(random, topics[random.nextInt(TOPICS)])));
+                    segments.add(TextSegment.from("segment " + (batch * 1_000 + i)));
+                }
+                store.addAll(embeddings, segments);
+            }
+            System.out.printf("Stored %d vectors of %d dimensions in %d ms%n", VECTORS, DIMENSIONS, System.currentTimeMillis() - start);
+
+            List<EmbeddingSearchRequest> requests = new ArrayList<>();
+            for (int i = 0; i < QUERIES; i++) {
+                requests.add(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(around(random, topics[random.nextInt(TOPICS)])))
+                        .maxResults(TOP_K)
+                        .minScore(0.0)
+                        .build());
+            }
+
+            // Warm up, this also trains the index
+            store.search(requests.get(0));
+            store.searchExact(requests.get(0));
+
+            long exactNanos = 0;
+            long indexNanos = 0;
+            double recall = 0;
+            for (EmbeddingSearchRequest request : requests) {
+                long t0 = System.nanoTime();
+                List<EmbeddingMatch<TextSegment>> exact = store.searchExact(request).matches();
+                long t1 = System.nanoTime();
+                List<EmbeddingMatch<TextSegment>> approximate = store.search(request).matches();
+                long t2 = System.nanoTime();
+                exactNanos += t1 - t0;
+                indexNanos += t2 - t1;
+
+                Set<String> expected = new HashSet<>();
+                exact.forEach(match -> expected.add(match.embeddingId()));
+                long found = approximate.stream().filter(match -> expected.contains(match.embeddingId())).count();
+                recall += (double) found / expected.size();
+            }
+            recall /= QUERIES;
+
+            System.out.printf("Exact scan: %.2f ms/query%n", exactNanos / 1e6 / QUERIES);
+            System.out.printf("IVF index:  %.2f ms/query, recall@%d %.3f%n", indexNanos / 1e6 / QUERIES, TOP_K, recall);
+            assertThat(recall).isGreaterThan(0.8);
+        }
+    }
+
+    private static float[] gaussian(Random random, float scale) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian() * scale;
+        }
+        return vector;
+    }
+
+    private static float[] around(Random random, float[] center) {
+        float[] vector = gaussian(random, 0.6f);
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] += center[i];
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,190 @@
+package com.devoxx.genie.service.rag.store;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.devoxx.genie.service.rag.IndexerConstants.FILE_PATH;
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalVectorStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void search_returnsNearestSegmentsFirst() throws IOException {
+        try (LocalVectorStore store = new LocalVectorStore(tempDir)) {
+            store.addAll(
+                    List.of(embedding(1, 0, 0), embedding(0, 1, 0), embedding(1, 1, 0)),
+                    List.of(segment("x", "/X.java"), segment("y", "/Y.java"), segment("xy", "/XY.java")));
+
+            List<EmbeddingMatch<TextSegment>> matches = store.search(request(embedding(1, 0.1f, 0), 2, 0)).matches();
+
+            assertThat(matches).extracting(match -> match.embedded().text()).containsExactly("x", "xy");
+            assertThat(matches.get(0).score()).isGreaterThan(matches.get(1).score());
+        }
+    }
+
+    @Test
+    void search_appliesMinScoreAndFilePathFilter() throws IOException {
+        try (LocalVectorStore store = new LocalVectorStore(tempDir)) {
+            store.addAll(
+                    List.of(embedding(1, 0, 0), embedding(0.9f, 0.1f, 0), embedding(-1, 0, 0)),
+                    List.of(segment("a", "/A.java"), segment("b", "/B.java"), segment("opposite", "/A.java")));
+
+            List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                    .queryEmbedding(embedding(1, 0, 0))
+                    .maxResults(10)
+                    .minScore(0.5)
+                    .filter(metadataKey(FILE_PATH).isEqualTo("/A.java"))
+                    .build()).matches();
+
+            assertThat(matches).extracting(match -> match.embedded().text()).containsExactly("a");
+        }
+    }
+
+    @Test
+    void removeAll_removesSegmentsAndReusesTheirSlots() throws IOException {
+        try (LocalVectorStore store = new LocalVectorStore(tempDir)) {
+            List<String> ids = store.addAll(
+                    List.of(embedding(1, 0, 0), embedding(0, 1, 0)),
+                    List.of(segment("x", "/X.java"), segment("y", "/Y.java")));
+
+            store.removeAll(List.of(ids.get(0)));
+            store.add(embedding(0, 0, 1), segment("z", "/Z.java"));
+
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.search(request(embedding(1, 0, 0), 10, 0)).matches())
+                    .extracting(match -> match.embedded().text())
+                    .containsExactlyInAnyOrder("y", "z");
+        }
+    }
+
+    @Test
+    void removeAll_clearsTheStoreAfterItGrew() throws IOException {
+        try (LocalVectorStore store = new LocalVectorStore(tempDir)) {
+            // More vectors than the initial mapping holds, the vectors file is mapped again
+            List<Embedding> embeddings = new ArrayList<>();
+            List<TextSegment> segments = new ArrayList<>();
+            for (int i = 0; i < 1500; i++) {
+                embeddings.add(embedding(1, i, 0));
+                segments.add(segment("segment " + i, "/File" + i + ".java"));
+            }
+            store.addAll(embeddings, segments);
+            assertThat(store.size()).isEqualTo(1500);
+
+            store.removeAll();
+            assertThat(store.size()).isZero();
+
+            // A cleared store accepts embeddings of another model
+            store.add(embedding(0, 1), segment("other model", "/Other.java"));
+        }
+
+        try (LocalVectorStore reopened = new LocalVectorStore(tempDir)) {
+            assertThat(reopened.search(request(embedding(0, 1), 10, 0)).matches())
+                    .extracting(match -> match.embedded().text())
+                    .containsExactly("other model");
+        }
+    }
+
+    @Test
+    void open_restoresSegmentsAndMetadata() throws IOException {
+        String removedId;
+        try (LocalVectorStore store = new LocalVectorStore(tempDir)) {
+            List<String> ids = store.addAll(
+                    List.of(embedding(1, 0, 0), embedding(0, 1, 0)),
+                    List.of(segment("x", "/X.java"), segment("y", "/Y.java")));
+            removedId = ids.get(1);
+            store.removeAll(List.of(removedId));
+        }
+
+        try (LocalVectorStore store = new LocalVectorStore(tempDir)) {
+            List<EmbeddingMatch<TextSegment>> matches = store.search(request(embedding(1, 0, 0), 10, 0)).matches();
+
+            assertThat(matches).hasSize(1);
+            assertThat(matches.get(0).embedded().text()).isEqualTo("x");
+            assertThat(matches.get(0).embedded().metadata().getString(FILE_PATH)).isEqualTo("/X.java");
+            assertThat(matches.get(0).embedded().metadata().getLong("lastModified")).isEqualTo(42L);
+            assertThat(matches.get(0).embeddingId()).isNotEqualTo(removedId);
+        }
+    }
+
+    @Test
+    void add_rejectsEmbeddingsOfOtherDimensions() throws IOException {
+        try (LocalVectorStore store = new LocalVectorStore(tempDir)) {
+            store.add(embedding(1, 0, 0), segment("x", "/X.java"));
+
+            assertThatThrownBy(() -> store.add(Embedding.from(new float[]{1, 0}), segment("y", "/Y.java")))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void search_withIndex_findsTheSameNearestNeighbourAsExactSearch() throws IOException {
+        Random random = new Random(7);
+        int dimensions = 16;
+        List<Embedding> embeddings = new ArrayList<>();
+        List<TextSegment> segments = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            embeddings.add(Embedding.from(randomVector(random, dimensions)));
+            segments.add(segment("segment " + i, "/File" + (i % 50) + ".java"));
+        }
+
+        // A low threshold, so the IVF index is used
+        try (LocalVectorStore store = new LocalVectorStore(tempDir, 500)) {
+            store.addAll(embeddings, segments);
+
+            int hits = 0;
+            for (int i = 0; i < 50; i++) {
+                // Queries close to stored vectors, their nearest neighbour is known
+                Embedding query = embeddings.get(random.nextInt(embeddings.size()));
+                EmbeddingSearchRequest request = request(query, 1, 0);
+                String expected = store.searchExact(request).matches().get(0).embeddingId();
+                if (expected.equals(store.search(request).matches().get(0).embeddingId())) {
+                    hits++;
+                }
+            }
+            assertThat(hits).isGreaterThanOrEqualTo(45);
+        }
+    }
+
+    private static Embedding embedding(float... vector) {
+        return Embedding.from(vector);
+    }
+
+    private static TextSegment segment(String text, String filePath) {
+        Metadata metadata = new Metadata();
+        metadata.put(FILE_PATH, filePath);
+        metadata.put("lastModified", 42L);
+        return TextSegment.from(text, metadata);
+    }
+
+    private static EmbeddingSearchRequest request(Embedding query, int maxResults, double minScore) {
+        return EmbeddingSearchRequest.builder()
+                .queryEmbedding(query)
+                .maxResults(maxResults)
+                .minScore(minScore)
+                .build();
+    }
+
+    private static float[] randomVector(Random random, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
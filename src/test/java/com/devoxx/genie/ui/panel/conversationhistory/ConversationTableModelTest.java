@@ -0,0 +1,95 @@
+package com.devoxx.genie.ui.panel.conversationhistory;
+
+import com.devoxx.genie.model.conversation.Conversation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationTableModelTest {
+
+    private static final int CONVERSATIONS = 1_000;
+
+    private final List<Integer> loadedOffsets = new ArrayList<>();
+    private final List<Runnable> pendingLoads = new ArrayList<>();
+
+    // Loads run when the test completes them, the EDT hand-over runs immediately
+    private final ConversationTableModel model = new ConversationTableModel(
+            this::loadPage, () -> CONVERSATIONS, pendingLoads::add, Runnable::run);
+
+    @Test
+    void reload_countsRowsWithoutLoadingConversations() {
+        model.reload();
+        completeLoads();
+
+        assertThat(model.getRowCount()).isEqualTo(CONVERSATIONS);
+        assertThat(loadedOffsets).isEmpty();
+    }
+
+    @Test
+    void getValueAt_loadsOnlyTheRequestedPage() {
+        model.reload();
+        completeLoads();
+
+        int row = 3 * ConversationTableModel.PAGE_SIZE + 7;
+        assertThat(model.getValueAt(row, 1)).isEqualTo(ConversationTableModel.LOADING);
+        // Rendering the other rows of the page doesn't load it twice
+        model.getValueAt(row + 1, 1);
+        completeLoads();
+
+        assertThat(loadedOffsets).containsExactly(3 * ConversationTableModel.PAGE_SIZE);
+        assertThat(model.getValueAt(row, 1)).isEqualTo("Conversation " + row);
+    }
+
+    @Test
+    void pages_areBounded() {
+        model.reload();
+        completeLoads();
+
+        for (int page = 0; page <= ConversationTableModel.MAX_CACHED_PAGES; page++) {
+            model.getConversationAt(page * ConversationTableModel.PAGE_SIZE);
+            completeLoads();
+        }
+        loadedOffsets.clear();
+
+        // The first page was evicted, the last one is still loaded
+        assertThat(model.getConversationAt(ConversationTableModel.MAX_CACHED_PAGES * ConversationTableModel.PAGE_SIZE)).isNotNull();
+        assertThat(model.getConversationAt(0)).isNull();
+        completeLoads();
+        assertThat(loadedOffsets).containsExactly(0);
+    }
+
+    @Test
+    void reload_discardsPagesLoadedBefore() {
+        model.reload();
+        completeLoads();
+        model.getConversationAt(0);
+
+        model.reload();
+        completeLoads();
+
+        // The page requested before the reload was dropped and is requested again
+        assertThat(model.getConversationAt(0)).isNull();
+    }
+
+    private List<Conversation> loadPage(int offset, int limit) {
+        loadedOffsets.add(offset);
+        return IntStream.range(offset, Math.min(offset + limit, CONVERSATIONS))
+                .mapToObj(index -> {
+                    Conversation conversation = new Conversation();
+                    conversation.setId(String.valueOf(index));
+                    conversation.setTitle("Conversation " + index);
+                    return conversation;
+                })
+                .toList();
+    }
+
+    private void completeLoads() {
+        while (!pendingLoads.isEmpty()) {
+            pendingLoads.remove(0).run();
+        }
+    }
+}
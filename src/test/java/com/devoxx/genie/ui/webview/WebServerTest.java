@@ -0,0 +1,115 @@
+package com.devoxx.genie.ui.webview;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebServerTest {
+
+    private WebServer webServer;
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        webServer = WebServer.getInstance();
+        channel = new EmbeddedChannel(webServer.new WebServerHandler());
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void staticResource_isRevalidatedWithETag() {
+        webServer.getPrismCssUrl();
+
+        FullHttpResponse response = get(WebServer.PRISM_CSS_RESOURCE, null, null);
+        String etag = response.headers().get(HttpHeaderNames.ETAG);
+
+        assertThat(response.status()).isEqualTo(HttpResponseStatus.OK);
+        assertThat(etag).isNotBlank();
+        assertThat(response.headers().get(HttpHeaderNames.CACHE_CONTROL)).contains("max-age");
+        response.release();
+
+        FullHttpResponse notModified = get(WebServer.PRISM_CSS_RESOURCE, etag, null);
+        assertThat(notModified.status()).isEqualTo(HttpResponseStatus.NOT_MODIFIED);
+        assertThat(notModified.content().readableBytes()).isZero();
+        notModified.release();
+    }
+
+    @Test
+    void staticResource_isServedCompressedWhenAccepted() throws IOException {
+        webServer.getPrismJsUrl();
+
+        FullHttpResponse plain = get(WebServer.PRISM_JS_RESOURCE, null, null);
+        String plainContent = plain.content().toString(StandardCharsets.UTF_8);
+        plain.release();
+
+        FullHttpResponse compressed = get(WebServer.PRISM_JS_RESOURCE, null, "gzip, deflate");
+        assertThat(compressed.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.content().readableBytes()).isLessThan(plainContent.length());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteBufInputStream(compressed.content(), true))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plainContent);
+        }
+    }
+
+    @Test
+    void dynamicResource_isReleasedWhenRemoved() {
+        String resourceId = webServer.addDynamicResource("<html>conversation</html>");
+
+        FullHttpResponse response = get(resourceId, null, null);
+        assertThat(response.status()).isEqualTo(HttpResponseStatus.OK);
+        assertThat(response.content().toString(StandardCharsets.UTF_8)).isEqualTo("<html>conversation</html>");
+
+        webServer.removeDynamicResource(resourceId);
+
+        // The response still owns its duplicate of the released buffer
+        assertThat(response.content().toString(StandardCharsets.UTF_8)).isEqualTo("<html>conversation</html>");
+        response.release();
+        FullHttpResponse notFound = get(resourceId, null, null);
+        assertThat(notFound.status()).isEqualTo(HttpResponseStatus.NOT_FOUND);
+        notFound.release();
+    }
+
+    @Test
+    void dynamicResources_areBounded() {
+        List<String> resourceIds = new ArrayList<>();
+        for (int i = 0; i < WebServer.MAX_DYNAMIC_RESOURCES * 2; i++) {
+            resourceIds.add(webServer.addDynamicResource("<html>" + i + "</html>"));
+        }
+
+        assertThat(webServer.getDynamicResourceCount()).isLessThanOrEqualTo(WebServer.MAX_DYNAMIC_RESOURCES);
+        FullHttpResponse evicted = get(resourceIds.get(0), null, null);
+        assertThat(evicted.status()).isEqualTo(HttpResponseStatus.NOT_FOUND);
+        evicted.release();
+        FullHttpResponse latest = get(resourceIds.get(resourceIds.size() - 1), null, null);
+        assertThat(latest.status()).isEqualTo(HttpResponseStatus.OK);
+        latest.release();
+
+        resourceIds.forEach(webServer::removeDynamicResource);
+    }
+
+    private FullHttpResponse get(String uri, String ifNoneMatch, String acceptEncoding) {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+        if (ifNoneMatch != null) {
+            request.headers().set(HttpHeaderNames.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding);
+        }
+        channel.writeInbound(request);
+        return channel.readOutbound();
+    }
+}
@@ -0,0 +1,115 @@
+package com.devoxx.genie.ui.webview.handler;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.knuddels.jtokkit.api.IntArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Replays a 20k token stream through the incremental renderer and through the previous
+ * "re-render everything on each token" approach and reports the EDT time spent per token.
+ *
+ * <p>The stream is a CL100K tokenization of a typical coding answer (paragraphs, lists and
+ * code blocks), so token boundaries match what an OpenAI-style model would send.</p>
+ *
+ * <p>Run with: {@code ./gradlew test --tests StreamingMarkdownRendererBenchmark -Ddevoxxgenie.benchmark=true}</p>
+ */
+@EnabledIfSystemProperty(named = "devoxxgenie.benchmark", matches = "true")
+class StreamingMarkdownRendererBenchmark {
+
+    private static final int STREAM_TOKENS = 20_000;
+    // Re-rendering everything is quadratic, replay only a prefix for the baseline
+    private static final int FULL_RENDER_TOKENS = 5_000;
+
+    @Test
+    void replayRecordedStream() {
+        List<String> tokens = recordStream();
+
+        // Warm up both paths
+        replayIncremental(tokens.subList(0, 1_000));
+        replayFullRender(tokens.subList(0, 1_000));
+
+        long incrementalNanos = replayIncremental(tokens);
+        long fullRenderNanos = replayFullRender(tokens.subList(0, FULL_RENDER_TOKENS));
+
+        System.out.printf("Incremental renderer: %d tokens, %.1f µs/token on the EDT%n",
+                tokens.size(), incrementalNanos / 1_000.0 / tokens.size());
+        System.out.printf("Full re-render:       %d tokens, %.1f µs/token on the EDT%n",
+                FULL_RENDER_TOKENS, fullRenderNanos / 1_000.0 / FULL_RENDER_TOKENS);
+    }
+
+    private static long replayIncremental(@NotNull List<String> tokens) {
+        StreamingMarkdownRenderer renderer = new StreamingMarkdownRenderer();
+        long start = System.nanoTime();
+        for (String token : tokens) {
+            StreamingMarkdownRenderer.Update update = renderer.append(token);
+            consume(update.frozenHtml().length() + update.tailHtml().length());
+        }
+        consume(renderer.finish().frozenHtml().length());
+        return System.nanoTime() - start;
+    }
+
+    private static long replayFullRender(@NotNull List<String> tokens) {
+        StringBuilder accumulated = new StringBuilder();
+        long start = System.nanoTime();
+        for (String token : tokens) {
+            accumulated.append(token);
+            consume(StreamingMarkdownRenderer.renderHtml(accumulated.toString()).length());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static @NotNull List<String> recordStream() {
+        Encoding encoding = Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
+        List<String> tokens = new ArrayList<>();
+        for (int section = 0; tokens.size() < STREAM_TOKENS; section++) {
+            IntArrayList encoded = encoding.encodeOrdinary(section(section));
+            for (int i = 0; i < encoded.size() && tokens.size() < STREAM_TOKENS; i++) {
+                IntArrayList single = new IntArrayList(1);
+                single.add(encoded.get(i));
+                tokens.add(encoding.decode(single));
+            }
+        }
+        assertEquals(STREAM_TOKENS, tokens.size());
+        return tokens;
+    }
+
+    private static @NotNull String section(int index) {
+        return "## Step " + index + "\n\n" +
+                "To implement this step we update the `OrderService` so that it validates the request " +
+                "before persisting it. The repository call stays transactional and **exceptions** are " +
+                "translated into domain errors.\n\n" +
+                "- Validate the incoming payload\n" +
+                "- Load the customer and check its credit limit\n" +
+                "- Persist the order and publish an event\n\n" +
+                "```java\n" +
+                "public Order placeOrder(OrderRequest request) {\n" +
+                "    validator.validate(request);\n" +
+                "    Customer customer = customers.findById(request.customerId())\n" +
+                "            .orElseThrow(() -> new CustomerNotFoundException(request.customerId()));\n" +
+                "    if (customer.creditLimit() < request.total()) {\n" +
+                "        throw new CreditLimitExceededException(customer.id(), " + index + ");\n" +
+                "    }\n" +
+                "    Order order = orders.save(Order.from(request));\n" +
+                "    events.publish(new OrderPlaced(order.id()));\n" +
+                "    return order;\n" +
+                "}\n" +
+                "```\n\n" +
+                "> Note: the event is published after the transaction commits.\n\n";
+    }
+
+    private static int sink;
+
+    private static void consume(int value) {
+        sink += value;
+    }
+}
@@ -0,0 +1,112 @@
+package com.devoxx.genie.ui.webview.handler;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingMarkdownRendererTest {
+
+    private static final String MARKDOWN = """
+            # Title
+
+            Some *intro* text
+            spanning two lines.
+
+            ```java
+            public class Foo {
+
+                int x = 1;
+            }
+            ```
+
+            - first item
+
+            - second item
+              with continuation
+
+            1. one
+            2. two
+
+            ## Conclusion
+            Final paragraph.
+            """;
+
+    @Test
+    void testStreamedHtmlMatchesFullRender_CharacterByCharacter() {
+        assertEquals(StreamingMarkdownRenderer.renderHtml(MARKDOWN), stream(MARKDOWN, 1));
+    }
+
+    @Test
+    void testStreamedHtmlMatchesFullRender_MultiCharacterChunks() {
+        assertEquals(StreamingMarkdownRenderer.renderHtml(MARKDOWN), stream(MARKDOWN, 7));
+    }
+
+    @Test
+    void testCompletedBlocksAreFrozen() {
+        StreamingMarkdownRenderer renderer = new StreamingMarkdownRenderer();
+
+        StreamingMarkdownRenderer.Update update = renderer.append("First paragraph.\n\n");
+        assertFalse(update.hasFrozenHtml());
+        assertEquals("<p>First paragraph.</p>\n", update.tailHtml());
+
+        update = renderer.append("Second");
+        assertEquals("<p>First paragraph.</p>\n", update.frozenHtml());
+        assertEquals("<p>Second</p>\n", update.tailHtml());
+        assertEquals("First paragraph.\n\n".length(), renderer.getFrozenOffset());
+    }
+
+    @Test
+    void testOpenCodeFenceStaysInTail() {
+        StreamingMarkdownRenderer renderer = new StreamingMarkdownRenderer();
+
+        StreamingMarkdownRenderer.Update update = renderer.append("```python\nprint('a')\n\nprint('b')\n");
+        assertFalse(update.hasFrozenHtml());
+        assertTrue(update.tailHtml().startsWith("<pre><code class=\"language-python\">"));
+
+        update = renderer.append("```\n");
+        assertTrue(update.frozenHtml().contains("print(&#39;b&#39;)"));
+        assertEquals("", update.tailHtml());
+    }
+
+    @Test
+    void testIndentedCodeFenceIsNotSplit() {
+        String markdown = "Intro\n\n  ```java\nint a = 1;\n\nint b = 2;\n  ```\n\nAfter\n";
+        StreamingMarkdownRenderer renderer = new StreamingMarkdownRenderer();
+
+        renderer.append("Intro\n\n  ```java\nint a = 1;\n\nint b = 2;\n");
+        // The blank line inside the code block is not a boundary
+        assertEquals(0, renderer.getFrozenOffset());
+
+        assertEquals(StreamingMarkdownRenderer.renderHtml(markdown), stream(markdown, 1));
+    }
+
+    @Test
+    void testIndentedContinuationIsNotSplit() {
+        StreamingMarkdownRenderer renderer = new StreamingMarkdownRenderer();
+
+        renderer.append("- item\n\n    indented continuation\n\n");
+        assertEquals(0, renderer.getFrozenOffset());
+    }
+
+    @Test
+    void testFinishFreezesTail() {
+        StreamingMarkdownRenderer renderer = new StreamingMarkdownRenderer();
+        renderer.append("Unterminated **bold");
+
+        StreamingMarkdownRenderer.Update update = renderer.finish();
+        assertEquals("<p>Unterminated **bold</p>\n", update.frozenHtml());
+        assertEquals("", update.tailHtml());
+        assertEquals("Unterminated **bold", renderer.getMarkdown());
+    }
+
+    private static @NotNull String stream(@NotNull String markdown, int chunkSize) {
+        StreamingMarkdownRenderer renderer = new StreamingMarkdownRenderer();
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < markdown.length(); i += chunkSize) {
+            html.append(renderer.append(markdown.substring(i, Math.min(markdown.length(), i + chunkSize))).frozenHtml());
+        }
+        html.append(renderer.finish().frozenHtml());
+        return html.toString();
+    }
+}
@@ -73,6 +73,18 @@ class HttpClientProviderTest {
         assertTrue(hasRetryInterceptor, "Client should have a RetryInterceptor");
     }
 
+    @Test
+    void testGetDiscoveryClient_FailsFastWithoutRetries() {
+        OkHttpClient client = HttpClientProvider.getDiscoveryClient();
+
+        assertEquals(1, client.connectTimeoutMillis() / 1000,
+                "Connect timeout should be 1 second");
+        assertTrue(client.interceptors().isEmpty(), "Discovery client should not retry");
+        assertFalse(client.retryOnConnectionFailure(), "Discovery client should not retry failed connections");
+        assertSame(HttpClientProvider.getClient().connectionPool(), client.connectionPool(),
+                "Discovery client should share the connection pool");
+    }
+
     @Test
     void testRetryInterceptor_SuccessfulFirstAttempt() throws IOException {
         // Create test instance of RetryInterceptor